@@ -20,6 +20,7 @@ typedef struct shadow_Class_t
 	struct shadow_Array_t* interfaceClasses;
 	struct shadow_String_t* name;
 	struct shadow_Class_t* parent;
+	struct shadow_Array_t* superclasses;
 	shadow_int_t flags;
 	shadow_int_t size;	
 }
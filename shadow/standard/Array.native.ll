@@ -17,9 +17,9 @@
 %shadow.standard..Object_methods = type opaque
 %shadow.standard..Object = type { %ulong, %shadow.standard..Class*, %shadow.standard..Object_methods*  }
 %shadow.standard..Class_methods = type opaque
-%shadow.standard..Class = type { %ulong, %shadow.standard..Class*, %shadow.standard..Class_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %int, %int }
+%shadow.standard..Class = type { %ulong, %shadow.standard..Class*, %shadow.standard..Class_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %shadow.standard..Array*, %int, %int }
 %shadow.standard..GenericClass_methods = type opaque
-%shadow.standard..GenericClass = type { %ulong, %shadow.standard..Class*, %shadow.standard..GenericClass_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %int, %int, %shadow.standard..Array*, %shadow.standard..Array* }
+%shadow.standard..GenericClass = type { %ulong, %shadow.standard..Class*, %shadow.standard..GenericClass_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %shadow.standard..Array*, %int, %int, %shadow.standard..Array*, %shadow.standard..Array* }
 %shadow.standard..Iterator_methods = type opaque
 %shadow.standard..String = type opaque
 %shadow.standard..AddressMap_methods = type opaque
@@ -100,7 +100,7 @@ define void @shadow.standard..Array_Mdestroy(%shadow.standard..Array* %array) {
 	
 	%baseClass =  call %shadow.standard..Class* @getBaseClass(%shadow.standard..Class* %class) nounwind
 
-	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 7	
+	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 8	
 	%flag = load i32, i32* %flagRef
 	%primitiveFlag = and i32 %flag, 2	
 	%notPrimitive = icmp eq i32 %primitiveFlag, 0
@@ -147,11 +147,11 @@ _exit:
 	ret void
 }
 
-; %shadow.standard..GenericClass = type { %ulong, %shadow.standard..Class*, %shadow.standard..GenericClass_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %int, %int, %shadow.standard..Array*, %shadow.standard..Array* }
+; %shadow.standard..GenericClass = type { %ulong, %shadow.standard..Class*, %shadow.standard..GenericClass_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %shadow.standard..Array*, %int, %int, %shadow.standard..Array*, %shadow.standard..Array* }
 
 define %shadow.standard..Class* @getBaseClass(%shadow.standard..Class* %class) nounwind alwaysinline {
 	%genericClass = bitcast %shadow.standard..Class* %class to %shadow.standard..GenericClass*
-	%classArrayRef = getelementptr %shadow.standard..GenericClass, %shadow.standard..GenericClass* %genericClass, i32 0, i32 9
+	%classArrayRef = getelementptr %shadow.standard..GenericClass, %shadow.standard..GenericClass* %genericClass, i32 0, i32 10
 	%classArray = load %shadow.standard..Array*, %shadow.standard..Array** %classArrayRef
 	%dataRef = getelementptr %shadow.standard..Array, %shadow.standard..Array* %classArray, i32 1
 	%baseClassRef = bitcast %shadow.standard..Array* %dataRef to %shadow.standard..Class**
@@ -176,7 +176,7 @@ _inRange:
 	%arrayData = getelementptr inbounds %shadow.standard..Array, %shadow.standard..Array* %array, i32 1
 
 	; get base class flag
-	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 7
+	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 8
 	%flag = load i32, i32* %flagRef
 	%primitiveFlag = and i32 %flag, 2
 	%notPrimitive = icmp eq i32 %primitiveFlag, 0
@@ -218,7 +218,7 @@ _returnObject:
 	; get method table from generic parameters
 _foundPrimitive:
 	%genericClass = bitcast %shadow.standard..Class* %class to %shadow.standard..GenericClass*
-	%tableArrayRef = getelementptr %shadow.standard..GenericClass, %shadow.standard..GenericClass* %genericClass, i32 0, i32 10
+	%tableArrayRef = getelementptr %shadow.standard..GenericClass, %shadow.standard..GenericClass* %genericClass, i32 0, i32 11
 	%tableArray = load %shadow.standard..Array*, %shadow.standard..Array** %tableArrayRef
 	%dataRef = getelementptr %shadow.standard..Array, %shadow.standard..Array* %tableArray, i32 1
 	%methodTableRef = bitcast %shadow.standard..Array* %dataRef to %shadow.standard..Object_methods**
@@ -266,7 +266,7 @@ _inRange:
 	%arrayData = getelementptr inbounds %shadow.standard..Array, %shadow.standard..Array* %array, i32 1
 	
 	; get class flag
-	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 7
+	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 8
 	%flag = load i32, i32* %flagRef
 	%primitiveFlag = and i32 %flag, 2
 	%notPrimitive = icmp eq i32 %primitiveFlag, 0
@@ -372,7 +372,7 @@ _firstLessThanSecond:
 	call void @llvm.memcpy.p0i8.p0i8.i64(i8* %newArrayAsChar, i8* %arrayDataAtOffset, %ulong %total, i32 1, i1 0)
 
 	; get base class flag
-	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 7
+	%flagRef = getelementptr inbounds %shadow.standard..Class, %shadow.standard..Class* %baseClass, i32 0, i32 8
 	%flag = load i32, i32* %flagRef
 	%primitiveFlag = and i32 %flag, 2	
 	
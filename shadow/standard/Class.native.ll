@@ -21,9 +21,9 @@ declare i32 @llvm.eh.typeid.for(i8*) nounwind readnone
 %shadow.standard..Object_methods = type { %shadow.standard..Object* (%shadow.standard..Object*, %shadow.standard..AddressMap*)*, void (%shadow.standard..Object*)*, %shadow.standard..Class* (%shadow.standard..Object*)*, %shadow.standard..String* (%shadow.standard..Object*)* }
 %shadow.standard..Object = type { %ulong, %shadow.standard..Class*, %shadow.standard..Object_methods*  }
 %shadow.standard..Class_methods = type opaque
-%shadow.standard..Class = type { %ulong, %shadow.standard..Class*, %shadow.standard..Class_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %int, %int }
+%shadow.standard..Class = type { %ulong, %shadow.standard..Class*, %shadow.standard..Class_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %shadow.standard..Array*, %int, %int }
 %shadow.standard..GenericClass_methods = type opaque
-%shadow.standard..GenericClass = type { %ulong, %shadow.standard..Class*, %shadow.standard..GenericClass_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %int, %int, %shadow.standard..Array*, %shadow.standard..Array* }
+%shadow.standard..GenericClass = type { %ulong, %shadow.standard..Class*, %shadow.standard..GenericClass_methods* , %shadow.standard..Array*, %shadow.standard..Array*, %shadow.standard..String*, %shadow.standard..Class*, %shadow.standard..Array*, %int, %int, %shadow.standard..Array*, %shadow.standard..Array* }
 %shadow.standard..Iterator_methods = type opaque
 %shadow.standard..String_methods = type opaque
 %shadow.standard..String = type { %ulong, %shadow.standard..Class*, %shadow.standard..String_methods* , %shadow.standard..Array*, %boolean }
@@ -52,6 +52,11 @@ declare i32 @llvm.eh.typeid.for(i8*) nounwind readnone
 @shadow.standard..OutOfMemoryException_methods = external constant %shadow.standard..OutOfMemoryException_methods
 @shadow.standard..MethodTable_class = external constant %shadow.standard..Class
 
+; Set by __ShadowThread_Spawn() before a second thread starts and never cleared.
+; Until then, only one thread can see any object, so reference counts are changed
+; with plain loads and stores instead of atomic operations.
+@__shadowMultithreaded = global %int 0
+
 declare void @free(i8*) nounwind
 declare %shadow.standard..OutOfMemoryException* @shadow.standard..OutOfMemoryException_Mcreate(%shadow.standard..Object*)
 declare %int @shadow.standard..Class_Mwidth(%shadow.standard..Class*)
@@ -84,8 +89,21 @@ _check:
 	%isGC = icmp ne %ulong %count, -1
 	br i1 %isGC, label %_checkPassed, label %_exit
 _checkPassed:
+	; the flag is only set while a single thread is running
+	%multithreaded = load %int, %int* @__shadowMultithreaded
+	%isShared = icmp ne %int %multithreaded, 0
+	br i1 %isShared, label %_atomic, label %_single
+_single:
+	; decrease reference count by one without synchronizing
+	%newCount = sub %ulong %count, 1
+	store %ulong %newCount, %ulong* %countRef
+	br label %_decremented
+_atomic:
 	; atomically decrease reference count by one and get old value
-	%oldCount = atomicrmw sub %ulong* %countRef, %ulong 1 acquire
+	%atomicCount = atomicrmw sub %ulong* %countRef, %ulong 1 acquire
+	br label %_decremented
+_decremented:
+	%oldCount = phi %ulong [ %count, %_single ], [ %atomicCount, %_atomic ]
 	; if old count was 1, call destroy and deallocate (prevents double free in multithreaded situations)
 	%free = icmp eq %ulong %oldCount, 1
 	br i1 %free, label %_freeLabel, label %_exit
@@ -118,6 +136,15 @@ _check:
 	%isGC = icmp ne %ulong %count, -1
 	br i1 %isGC, label %_checkPassed, label %_exit
 _checkPassed:
+	%multithreaded = load %int, %int* @__shadowMultithreaded
+	%isShared = icmp ne %int %multithreaded, 0
+	br i1 %isShared, label %_atomic, label %_single
+_single:
+	; increase reference count by one without synchronizing
+	%newCount = add %ulong %count, 1
+	store %ulong %newCount, %ulong* %countRef
+	ret void
+_atomic:
 	; atomically increase reference count by one
 	atomicrmw add %ulong* %countRef, %ulong 1 acquire
 	ret void
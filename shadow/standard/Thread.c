@@ -22,7 +22,13 @@ void* _shadowThread_ThreadStart(shadow_Thread_t*);
 shadow_Pointer_t* __ShadowThread_Spawn(shadow_Thread_t*);
 // METHOD SIGNATURES //
 
+/// Defined in Class.native.ll: nonzero once reference counts must be changed atomically
+extern shadow_int_t __shadowMultithreaded;
+
 shadow_Pointer_t* __ShadowThread_Spawn(shadow_Thread_t* _this)
 {
+	// Objects might be shared from now on, which has to be known before the
+	// new thread starts and can change any reference counts
+	__shadowMultithreaded = 1;
 	return shadowPointer_Create(malloc(1), SHADOW_CAN_FREE);
 }
\ No newline at end of file
@@ -28,6 +28,11 @@ public class Arguments {
 	public static final String INFORMATION		= "i";
 	public static final String WARNING			= "w";
 	public static final String READABLE			= "r";
+	public static final String JOBS				= "j";
+	public static final String SERVER			= "s";
+	public static final String PROFILE			= "p";
+	public static final String INLINE_BUDGET	= "b";
+	public static final String BITCODE			= "e";
 
 	// Recognized long arguments
 	private static final String CONFIG_LONG 	= "config";
@@ -40,6 +45,11 @@ public class Arguments {
 	private static final String INFORMATION_LONG	= "information";
 	private static final String WARNING_LONG	= "warning";
 	public static final String READABLE_LONG	= "human-readable";
+	private static final String JOBS_LONG		= "jobs";
+	private static final String SERVER_LONG		= "server";
+	private static final String PROFILE_LONG	= "profile";
+	private static final String INLINE_BUDGET_LONG	= "inline-budget";
+	private static final String BITCODE_LONG	= "emit-bitcode";
 
 	private CommandLine commandLine;
 
@@ -55,8 +65,8 @@ public class Arguments {
 		if( hasOption(VERBOSE) )
 			Loggers.setAllToLevel(Level.INFO);
 
-		// Don't throw argument exceptions if help or information was requested
-		if (commandLine.hasOption(HELP) || commandLine.hasOption(INFORMATION))
+		// Don't throw argument exceptions if help, information, or server mode was requested
+		if (commandLine.hasOption(HELP) || commandLine.hasOption(INFORMATION) || commandLine.hasOption(SERVER))
 			return;		
 
 		// Ensure exactly one source file is specified (and that it ends in .shadow)
@@ -66,6 +76,28 @@ public class Arguments {
 			throw new ConfigurationException("No source file specified to compile");
 		else if( !commandLine.getArgs()[0].endsWith(".shadow") )
 			throw new ConfigurationException("Source files must end in \".shadow\"");
+
+		// Ensure that the number of parallel jobs is a positive integer
+		if( hasOption(JOBS) ) {
+			try {
+				if( Integer.parseInt(getJobsArg()) < 1 )
+					throw new ConfigurationException("Number of jobs must be at least 1");
+			}
+			catch(NumberFormatException e) {
+				throw new ConfigurationException("Number of jobs must be an integer: " + getJobsArg());
+			}
+		}
+
+		// Ensure that the inlining budget is a non-negative integer
+		if( hasOption(INLINE_BUDGET) ) {
+			try {
+				if( Integer.parseInt(getInlineBudgetArg()) < 0 )
+					throw new ConfigurationException("Inlining budget cannot be negative");
+			}
+			catch(NumberFormatException e) {
+				throw new ConfigurationException("Inlining budget must be an integer: " + getInlineBudgetArg());
+			}
+		}
 	}
 
 
@@ -92,6 +124,18 @@ public class Arguments {
 		return commandLine.getOptionValue(WARNING);
 	}
 
+	public String getJobsArg() {
+		return commandLine.getOptionValue(JOBS);
+	}
+
+	public String getProfileFileArg() {
+		return commandLine.getOptionValue(PROFILE);
+	}
+
+	public String getInlineBudgetArg() {
+		return commandLine.getOptionValue(INLINE_BUDGET);
+	}
+
 	public static Options getOptions() {		
 		return compilerOptions;
 	}
@@ -123,9 +167,33 @@ public class Arguments {
 				.desc("Specify warning flags")										    
 				.build	();
 
+		Option jobsOption = Option.builder(JOBS)
+				.longOpt(JOBS_LONG)
+				.hasArg()
+				.argName("count")
+				.desc("Parse and check files and run LLVM optimizer processes using up to <count> jobs in parallel")
+				.build();
+
 		options.addOption(configOption);
 		options.addOption(outputOption);
 		options.addOption(warningOption);
+		Option profileOption = Option.builder(PROFILE)
+				.longOpt(PROFILE_LONG)
+				.hasArg()
+				.argName("file")
+				.desc("Write the time and memory used by each phase for each file to <file> as a Chrome trace")
+				.build();
+
+		Option inlineBudgetOption = Option.builder(INLINE_BUDGET)
+				.longOpt(INLINE_BUDGET_LONG)
+				.hasArg()
+				.argName("size")
+				.desc("Inline methods from the same file with at most <size> instructions (0 disables inlining)")
+				.build();
+
+		options.addOption(jobsOption);
+		options.addOption(profileOption);
+		options.addOption(inlineBudgetOption);
 
 		// Build/add simple options
 		options.addOption(new Option(TYPECHECK, TYPECHECK_LONG, false, "Parse and type-check the Shadow files"));
@@ -135,6 +203,8 @@ public class Arguments {
 		options.addOption(new Option(HELP, HELP_LONG, false, "Display command line options and exit"));
 		options.addOption(new Option(INFORMATION, INFORMATION_LONG, false, "Display information about the compiler and exit"));
 		options.addOption(new Option(READABLE, READABLE_LONG, false, "Generate human-readable IR code"));
+		options.addOption(new Option(BITCODE, BITCODE_LONG, false, "Pass LLVM bitcode to the optimizer instead of IR code, unless human-readable IR code is requested"));
+		options.addOption(new Option(SERVER, SERVER_LONG, false, "Read command lines from standard input and compile each one, until end of input"));
 
 		return options;
 	}
@@ -0,0 +1,429 @@
+package shadow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.Logger;
+
+import shadow.typecheck.BaseChecker;
+
+/**
+ * Content-addressed cache for the artifacts produced while compiling a file
+ * (<tt>.meta</tt>, <tt>.bc</tt>, and <tt>.s</tt> files). Artifacts are stored
+ * under a key computed from the compiler version, the target, the optimization
+ * level, the path and contents of the source file, and the contents of every
+ * file it depends on. An artifact is reused whenever the key still matches,
+ * regardless of file timestamps, so a fresh checkout or a restored CI cache
+ * does not force a full rebuild.
+ * <p>
+ * Each source file has a directory in the cache named after the hash of its
+ * own contents. Inside it, each build of that file against a particular set
+ * of dependencies gets its own entry, which holds a list of those
+ * dependencies (with their hashes) and the artifacts themselves. C files
+ * depend on the whole tree of runtime headers, since their includes are not
+ * tracked individually.
+ * <p>
+ * The cache only keeps entries built from the latest contents of each source
+ * file. Storing an artifact removes the entries for older contents of the same
+ * file and any entries whose dependencies have since changed.
+ */
+public class BuildCache {
+
+	public static final String DEFAULT_DIRECTORY = ".shadow-cache";
+
+	// Changes whenever the layout or meaning of cache entries changes
+	private static final int FORMAT = 2;
+
+	private static final String DEPENDENCIES = "dependencies";
+	private static final String ARTIFACT = "artifact";
+	private static final String ABSENT = "absent";
+	private static final String SOURCES = "sources";
+	private static final Logger logger = Loggers.SHADOW;
+
+	private final Path directory;
+	private final String settings;
+
+	// Dependencies of each file (canonical path without extension), as found by the TypeCollector
+	private final Map<String, Set<String>> dependencies = new ConcurrentHashMap<>();
+	// Hashes of file contents, computed at most once per build
+	private final Map<Path, String> hashes = new ConcurrentHashMap<>();
+	// Directory of headers that every C file depends on
+	private volatile Path includes;
+
+	public BuildCache(Path directory, Configuration config, Job job) {
+		this.directory = directory;
+		settings = Main.VERSION + "\n" + FORMAT + "\n" + config.getTarget() + "\n" + config.getLLVMOptimizationLevel() + "\n" +
+				job.getInlineBudget() + "\n";
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Records the files that a source file depends on. Cached artifacts for
+	 * the source file are only valid while these files are unchanged.
+	 * @param file			source file path without extension
+	 * @param dependencies	paths of its dependencies without extensions
+	 */
+	public void setDependencies(String file, Set<String> dependencies) {
+		this.dependencies.put(file, new TreeSet<>(dependencies));
+	}
+
+	/**
+	 * Records the directory of headers used when compiling C files. Cached
+	 * assembly for a C file is only valid while every file in the directory
+	 * is unchanged.
+	 * @param includes		include directory
+	 */
+	public void setIncludeDirectory(Path includes) {
+		this.includes = includes.toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Copies cached artifacts for a source file next to it, if an entry exists
+	 * that was built from the current contents of the file and its
+	 * dependencies.
+	 * @param source		source file
+	 * @param extensions	extensions of all the artifacts needed, e.g. <tt>.meta</tt>
+	 * @return				<code>true</code> if every artifact was restored
+	 */
+	public boolean restore(Path source, String... extensions) {
+		try {
+			Path entries = directory.resolve(getHash(source));
+			if( !Files.isDirectory(entries) )
+				return false;
+
+			try( DirectoryStream<Path> stream = Files.newDirectoryStream(entries) ) {
+				for( Path entry : stream ) {
+					if( isValid(entry, extensions) ) {
+						for( String extension : extensions ) {
+							Path cached = entry.resolve(ARTIFACT + extension);
+							if( Files.exists(cached) )
+								copy(cached, getArtifact(source, extension));
+						}
+						return true;
+					}
+				}
+			}
+		}
+		catch( IOException e ) {
+			logger.warn("Failed to read build cache for " + source + ": " + e.getMessage());
+		}
+
+		return false;
+	}
+
+	/**
+	 * Adds a freshly built artifact for a source file to the cache. If the
+	 * artifact does not exist, the cache records that the source file does
+	 * not produce one (as with attributes, which have no bitcode).
+	 * @param source		source file
+	 * @param extension		extension of the artifact, which must be next to the source file
+	 */
+	public void store(Path source, String extension) {
+		try {
+			Path artifact = getArtifact(source, extension);
+			String manifest = getManifest(source);
+			Path entries = directory.resolve(getHash(source));
+			Path entry = entries.resolve(hash(manifest.getBytes(StandardCharsets.UTF_8)));
+			Files.createDirectories(entry);
+			prune(source, entries, entry);
+
+			Path manifestFile = entry.resolve(DEPENDENCIES);
+			if( !Files.exists(manifestFile) )
+				write(manifestFile, manifest.getBytes(StandardCharsets.UTF_8));
+
+			if( Files.exists(artifact) )
+				write(entry.resolve(ARTIFACT + extension), Files.readAllBytes(artifact));
+			else
+				write(entry.resolve(ABSENT + extension), new byte[0]);
+		}
+		catch( IOException e ) {
+			logger.warn("Failed to update build cache for " + source + ": " + e.getMessage());
+		}
+	}
+
+	/*
+	 * Removes the entries for previous contents of the source file, as well as
+	 * the entries for its current contents whose dependencies have changed.
+	 * An index under the sources directory records which contents were last
+	 * stored for each source path.
+	 */
+	private void prune(Path source, Path entries, Path current) throws IOException {
+		Path path = source.toAbsolutePath().normalize();
+		Path index = directory.resolve(SOURCES).resolve(hash((settings + path + "\n").getBytes(StandardCharsets.UTF_8)));
+		String hash = entries.getFileName().toString();
+		if( Files.exists(index) ) {
+			String previous = new String(Files.readAllBytes(index), StandardCharsets.UTF_8).trim();
+			if( !previous.equals(hash) && !previous.isEmpty() )
+				delete(directory.resolve(previous));
+		}
+		else
+			Files.createDirectories(index.getParent());
+
+		write(index, hash.getBytes(StandardCharsets.UTF_8));
+
+		try( DirectoryStream<Path> stream = Files.newDirectoryStream(entries) ) {
+			for( Path entry : stream )
+				if( !entry.equals(current) && Files.isDirectory(entry) && !isValid(entry) )
+					delete(entry);
+		}
+	}
+
+	/*
+	 * An entry is valid if it contains all the needed artifacts and each of
+	 * the dependencies it was built against still has the same contents.
+	 */
+	private boolean isValid(Path entry, String... extensions) throws IOException {
+		for( String extension : extensions )
+			if( !Files.exists(entry.resolve(ARTIFACT + extension)) && !Files.exists(entry.resolve(ABSENT + extension)) )
+				return false;
+
+		Path manifestFile = entry.resolve(DEPENDENCIES);
+		if( !Files.exists(manifestFile) )
+			return false;
+
+		List<String> lines = Files.readAllLines(manifestFile, StandardCharsets.UTF_8);
+		for( String line : lines ) {
+			int space = line.indexOf(' ');
+			if( space < 0 )
+				return false;
+
+			String hash = line.substring(0, space);
+			String dependency = line.substring(space + 1);
+			if( !hash.equals(getDependencyHash(dependency)) )
+				return false;
+		}
+
+		return true;
+	}
+
+	/*
+	 * Lists the hashes of everything the source file depends on, directly or
+	 * indirectly, since a change to the parent of an imported class can
+	 * still change the code generated for the source file.
+	 */
+	private String getManifest(Path source) throws IOException {
+		String file = BaseChecker.stripExtension(Main.canonicalize(source));
+		Set<String> allDependencies = new TreeSet<>();
+		Deque<String> unvisited = new ArrayDeque<>();
+		unvisited.add(file);
+		while( !unvisited.isEmpty() ) {
+			Set<String> fileDependencies = dependencies.getOrDefault(unvisited.remove(), Collections.emptySet());
+			for( String dependency : fileDependencies )
+				if( allDependencies.add(dependency) )
+					unvisited.add(dependency);
+		}
+
+		StringBuilder manifest = new StringBuilder();
+		for( String dependency : allDependencies )
+			if( !dependency.equals(file) )
+				manifest.append(getDependencyHash(dependency)).append(' ').append(dependency).append('\n');
+
+		Path includes = this.includes;
+		if( includes != null && source.toString().endsWith(".c") )
+			manifest.append(getDependencyHash(includes.toString())).append(' ').append(includes).append('\n');
+
+		return manifest.toString();
+	}
+
+	/*
+	 * Hashes the source version of a dependency if it exists, falling back on
+	 * its .meta file for libraries distributed without source. A directory,
+	 * such as the C include directory, is hashed along with everything in it.
+	 */
+	private String getDependencyHash(String dependency) throws IOException {
+		Path source = Paths.get(dependency + ".shadow");
+		if( Files.exists(source) )
+			return getHash(source);
+
+		Path meta = Paths.get(dependency + ".meta");
+		if( Files.exists(meta) )
+			return getHash(meta);
+
+		Path tree = Paths.get(dependency);
+		if( Files.isDirectory(tree) )
+			return getTreeHash(tree);
+
+		return "missing";
+	}
+
+	/*
+	 * Hash of the relative paths and contents of every file in a directory,
+	 * so that adding, removing, or editing any of them changes the hash.
+	 */
+	private String getTreeHash(Path tree) throws IOException {
+		Path path = tree.toAbsolutePath().normalize();
+		String hash = hashes.get(path);
+		if( hash == null ) {
+			List<Path> files;
+			try( Stream<Path> stream = Files.walk(path) ) {
+				files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+			}
+
+			StringBuilder contents = new StringBuilder();
+			for( Path file : files )
+				contents.append(path.relativize(file).toString().replace('\\', '/')).append(' ')
+					.append(hash(Files.readAllBytes(file))).append('\n');
+			hash = hash(contents.toString().getBytes(StandardCharsets.UTF_8));
+			hashes.put(path, hash);
+		}
+
+		return hash;
+	}
+
+	/*
+	 * Hash of the file's path and contents, plus the settings that affect the
+	 * artifacts made from it.
+	 */
+	private String getHash(Path file) throws IOException {
+		Path path = file.toAbsolutePath().normalize();
+		String hash = hashes.get(path);
+		if( hash == null ) {
+			byte[] header = (settings + path + "\n").getBytes(StandardCharsets.UTF_8);
+			byte[] contents = Files.readAllBytes(path);
+			byte[] data = new byte[header.length + contents.length];
+			System.arraycopy(header, 0, data, 0, header.length);
+			System.arraycopy(contents, 0, data, header.length, contents.length);
+			hash = hash(data);
+			hashes.put(path, hash);
+		}
+
+		return hash;
+	}
+
+	private static Path getArtifact(Path source, String extension) {
+		return Paths.get(BaseChecker.stripExtension(Main.canonicalize(source)) + extension);
+	}
+
+	/*
+	 * Copies a cached artifact into place, unless an identical file is
+	 * already there.
+	 */
+	private static void copy(Path cached, Path artifact) throws IOException {
+		if( Files.exists(artifact) && Files.size(artifact) == Files.size(cached) && sameContents(cached, artifact) )
+			return;
+
+		Path temporary = getTemporary(artifact);
+		try {
+			Files.copy(cached, temporary, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(temporary, artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/*
+	 * Deletes a cache entry and everything in it. A concurrent build may be
+	 * deleting the same entry, so files that are already gone are ignored.
+	 */
+	private static void delete(Path entry) throws IOException {
+		if( !Files.exists(entry) )
+			return;
+
+		Files.walkFileTree(entry, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+				Files.deleteIfExists(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+				if( e instanceof NoSuchFileException )
+					return FileVisitResult.CONTINUE;
+				throw e;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path folder, IOException e) throws IOException {
+				Files.deleteIfExists(folder);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/*
+	 * Writes a file atomically, so that concurrent builds never see a partial entry.
+	 */
+	private static void write(Path file, byte[] data) throws IOException {
+		Path temporary = getTemporary(file);
+		try {
+			Files.write(temporary, data);
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/*
+	 * Unlike Files.createTempFile(), keeps the default permissions, since
+	 * artifacts may be shared by several users of a compiler installation.
+	 */
+	private static Path getTemporary(Path file) {
+		return file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+	}
+
+	private static boolean sameContents(Path first, Path second) throws IOException {
+		try( InputStream in1 = Files.newInputStream(first); InputStream in2 = Files.newInputStream(second) ) {
+			byte[] buffer1 = new byte[8192];
+			byte[] buffer2 = new byte[8192];
+			int read;
+			while( (read = in1.read(buffer1)) > 0 ) {
+				int total = 0;
+				while( total < read ) {
+					int amount = in2.read(buffer2, total, read - total);
+					if( amount < 0 )
+						return false;
+					total += amount;
+				}
+
+				for( int i = 0; i < read; ++i )
+					if( buffer1[i] != buffer2[i] )
+						return false;
+			}
+
+			return in2.read() < 0;
+		}
+	}
+
+	private static String hash(byte[] data) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			StringBuilder builder = new StringBuilder();
+			for( byte b : digest.digest(data) )
+				builder.append(String.format("%02x", b));
+			return builder.toString();
+		}
+		catch( NoSuchAlgorithmException e ) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package shadow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+
+/**
+ * Runs the compiler as a long-lived process, so that repeated compilations
+ * avoid the fixed cost of starting and warming up a new JVM.
+ * <p>
+ * Each line of input is a command line, with arguments separated by spaces
+ * (double quotes may be used around arguments that contain spaces). After
+ * each compilation finishes, the server prints a line containing
+ * <tt>DONE</tt> followed by the result code that the compiler would have
+ * exited with. The server stops at the end of its input or when it reads a
+ * line containing <tt>exit</tt>.
+ * <p>
+ * The output stream carries nothing but these replies. When run from the
+ * command line, the compiler's own messages and those of the tools it
+ * starts go to standard error, so a client can read standard output
+ * without having to tell replies apart from diagnostics.
+ * <p>
+ * Artifacts for unchanged files are reused through the {@link BuildCache},
+ * so only files whose contents (or dependencies) changed are recompiled.
+ * Each compilation runs in a fresh {@link Session}, but configurations are
+ * built once per config file and shared by all compilations. The type
+ * graph is rebuilt for every compilation: it is not kept between requests.
+ */
+public class CompilerServer {
+
+	public static final String DONE = "DONE";
+	public static final String EXIT = "exit";
+
+	private final BufferedReader input;
+	private final PrintStream output;
+
+	public CompilerServer(InputStream input, PrintStream output) {
+		this.input = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		this.output = output;
+	}
+
+	public void serve() throws IOException {
+		Level level = LogManager.getRootLogger().getLevel();
+		String line = input.readLine();
+		while( line != null && !line.trim().equals(EXIT) ) {
+			if( !line.trim().isEmpty() ) {
+				int result;
+				try {
+					result = Main.compile(split(line));
+				}
+				catch( RuntimeException e ) {
+					// A crash in one compilation should not take down the server
+					e.printStackTrace();
+					result = Main.COMPILE_ERROR;
+				}
+				finally {
+					// Undo the effect of a -v flag
+					Loggers.setAllToLevel(level);
+				}
+
+				output.println(DONE + " " + result);
+				output.flush();
+			}
+
+			line = input.readLine();
+		}
+	}
+
+	/*
+	 * Splits a command line into arguments, respecting double quotes.
+	 */
+	static String[] split(String line) {
+		List<String> arguments = new ArrayList<>();
+		StringBuilder argument = new StringBuilder();
+		boolean quoted = false;
+		boolean empty = true;
+
+		for( char c : line.toCharArray() ) {
+			if( c == '"' ) {
+				quoted = !quoted;
+				empty = false;
+			}
+			else if( Character.isWhitespace(c) && !quoted ) {
+				if( !empty ) {
+					arguments.add(argument.toString());
+					argument.setLength(0);
+					empty = true;
+				}
+			}
+			else {
+				argument.append(c);
+				empty = false;
+			}
+		}
+
+		if( !empty )
+			arguments.add(argument.toString());
+
+		return arguments.toArray(new String[arguments.size()]);
+	}
+}
@@ -14,6 +14,8 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,14 +27,17 @@ import org.apache.logging.log4j.Logger;
 import shadow.jaxb.Shadow;
 
 /** 
- * Represents the current compiler settings/configuration. This is a globally
- * accessible singleton.
+ * Represents compiler settings/configuration. The configuration for the
+ * current compilation is held by its {@link Session}. A configuration never
+ * changes once built, so compilations that find the same config file share
+ * one instance.
  */
 public class Configuration {
 
 	public static final String DEFAULT_CONFIG_NAME = "shadow.xml";
 
-	private static Configuration globalConfig;
+	// Configurations already built, keyed by the config file they came from
+	private static final Map<String, Configuration> configurations = new ConcurrentHashMap<>();
 
 	private static final Logger logger = Loggers.SHADOW;
 
@@ -51,32 +56,35 @@ public class Configuration {
 	private List<String> linkCommand;
 
 	/** 
-	 * Builds the Configuration if necessary. Must be run at least once before
+	 * Builds the Configuration if necessary and makes it the configuration
+	 * of the current session. Must be run at least once before
 	 * getConfiguration() is called.
 	 */
 	public static Configuration buildConfiguration(String mainFilePath, String configFilePath, boolean forceRebuild) throws ConfigurationException, IOException {
 
-		if( globalConfig == null || forceRebuild )
-			globalConfig = new Configuration(mainFilePath, configFilePath);
+		// Attempt to locate hierarchy of config files
+		Path configFile = locateConfig(mainFilePath, configFilePath);
+		String key = configFile == null ? "" : configFile.toAbsolutePath().normalize().toString();
+
+		Configuration config = configurations.get(key);
+		if( config == null || forceRebuild ) {
+			config = new Configuration(configFile);
+			configurations.put(key, config);
+		}
 
-		return globalConfig;
+		Session.current().setConfiguration(config);
+		return config;
 	}
 
-	/** Retrieves the global compiler Configuration */
+	/** Retrieves the compiler Configuration of the current session */
 	public static Configuration getConfiguration() throws ConfigurationException {
-
-		if( globalConfig == null )
-			throw new ConfigurationException("Configuration data must be built before being accessed.");
-
-		return globalConfig;
+		return Session.current().getConfiguration();
 	}
 
 	/** Hidden constructor for instantiating the Configuration */
-	private Configuration(String mainFilePath, String configFilePath) throws ConfigurationException, IOException {
-
-		// Attempt to locate hierarchy of config files
-		configFile = locateConfig(mainFilePath, configFilePath);
+	private Configuration(Path configFile) throws ConfigurationException, IOException {
 
+		this.configFile = configFile;
 
 		// If a config file was located, parse it
 		if( configFile != null ) 
@@ -99,7 +107,7 @@ public class Configuration {
 	 * 3. A file in the running directory with the default name
 	 * 4. A file in the working directory with the default name
 	 */
-	private Path locateConfig(String mainFilePath, String configFilePath) throws FileNotFoundException, ConfigurationException {
+	private static Path locateConfig(String mainFilePath, String configFilePath) throws FileNotFoundException, ConfigurationException {
 
 		// Get the various search directories
 		Path sourceDir = mainFilePath == null ? null : Paths.get(mainFilePath).toAbsolutePath().getParent().toAbsolutePath();
@@ -356,8 +364,10 @@ public class Configuration {
 
 	public List<String> getLinkCommand(Job currentJob) {		
 		// Merge the output commands with the linker commands
-		linkCommand.addAll(currentJob.getOutputCommand());
-		return linkCommand;
+		// (without changing the stored command, which may be used for several jobs)
+		List<String> command = new ArrayList<>(linkCommand);
+		command.addAll(currentJob.getOutputCommand());
+		return command;
 	}
 
 	public void setTarget(String target) {		
@@ -28,7 +28,14 @@ public class Job {
 	private boolean forceRecompile = false; // Recompile all source files, even if unneeded
 	private boolean warningsAsErrors = false; //Treat warnings as errors
 	private boolean humanReadable = false;
+	private boolean emitBitcode = false; // Encode LLVM as bitcode before passing it to opt
+	private int jobs = 1; // Maximum number of concurrent parsing, checking, and back-end jobs
+	private int inlineBudget = DEFAULT_INLINE_BUDGET; // Largest method, in TAC instructions, that gets inlined
 	private Path outputFile;
+	private Path profileFile; // Where to write phase timings, if anywhere
+	
+	/** Default size of the largest method that gets inlined */
+	public static final int DEFAULT_INLINE_BUDGET = 8;
 	
 	public Job(Arguments compilerArgs) throws FileNotFoundException {
 		
@@ -38,9 +45,17 @@ public class Job {
 		verbose = compilerArgs.hasOption(Arguments.VERBOSE);
 		forceRecompile = compilerArgs.hasOption(Arguments.RECOMPILE);
 		humanReadable = compilerArgs.hasOption(Arguments.READABLE);
+		emitBitcode = compilerArgs.hasOption(Arguments.BITCODE);
+		if( compilerArgs.hasOption(Arguments.JOBS) )
+			jobs = Integer.parseInt(compilerArgs.getJobsArg());
+		if( compilerArgs.hasOption(Arguments.PROFILE) )
+			profileFile = Paths.get(compilerArgs.getProfileFileArg()).toAbsolutePath();
+		if( compilerArgs.hasOption(Arguments.INLINE_BUDGET) )
+			inlineBudget = Integer.parseInt(compilerArgs.getInlineBudgetArg());
 		
 		// Locate main source file if not help or information only
-		if( !compilerArgs.hasOption(Arguments.INFORMATION) && !compilerArgs.hasOption(Arguments.HELP)) {
+		if( !compilerArgs.hasOption(Arguments.INFORMATION) && !compilerArgs.hasOption(Arguments.HELP) &&
+				!compilerArgs.hasOption(Arguments.SERVER)) {
 			if( compilerArgs.getMainFileArg() != null )
 				mainFile = Paths.get(compilerArgs.getMainFileArg()).toAbsolutePath();
 			
@@ -104,6 +119,22 @@ public class Job {
 		return humanReadable;
 	}
 	
+	public boolean isEmitBitcode() {
+		return emitBitcode;
+	}
+	
+	public int getJobs() {
+		return jobs;
+	}
+	
+	public Path getProfileFile() {
+		return profileFile;
+	}
+	
+	public int getInlineBudget() {
+		return inlineBudget;
+	}
+	
 	public Path getMainFile() {
 		
 		return mainFile;
@@ -1,10 +1,12 @@
 package shadow;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PrintStream;
 import java.lang.ProcessBuilder.Redirect;
 import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
@@ -18,12 +20,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.logging.log4j.Logger;
 
 import shadow.doctool.tag.TagManager.BlockTagType;
 import shadow.interpreter.ASTInterpreter;
 import shadow.interpreter.ConstantFieldInterpreter;
+import shadow.output.OutputException;
+import shadow.output.bitcode.BitcodeWriter;
 import shadow.output.llvm.LLVMOutput;
 import shadow.parse.Context;
 import shadow.parse.ParseException;
@@ -62,13 +71,6 @@ public class Main {
 	public static final int CONFIGURATION_ERROR = -6;
 
 	private static final Logger logger = Loggers.SHADOW;
-	private static Configuration config;
-	private static Job currentJob;
-
-	// Metadata related to a Shadow program's main class
-	private static String mainClass;
-	private static boolean mainArguments;
-
 	private static final Charset UTF8 = Charset.forName("UTF-8");
 
 	/**
@@ -78,32 +80,47 @@ public class Main {
 	 *            Command line arguments to control the compiler
 	 */
 	public static void main(String[] args) {
+		int result = compile(args);
+		if (result != NO_ERROR)
+			System.exit(result);
+	}
+
+	/**
+	 * Runs the compiler, reporting any errors.
+	 *
+	 * @param args
+	 *            Command line arguments to control the compiler
+	 * @return one of the error codes defined above
+	 */
+	public static int compile(String[] args) {
 		try {
 			run(args);
 		} catch (FileNotFoundException e) {
 			System.err.println("FILE NOT FOUND: " + e.getLocalizedMessage());
-			System.exit(FILE_NOT_FOUND_ERROR);
+			return FILE_NOT_FOUND_ERROR;
 		} catch (ParseException e) {
-			System.exit(PARSE_ERROR);
+			return PARSE_ERROR;
 		} catch (IOException e) {
 			System.err.println("FILE DEPENDENCY ERROR: " + e.getLocalizedMessage());
-			System.exit(TYPE_CHECK_ERROR);
+			return TYPE_CHECK_ERROR;
 		} catch (org.apache.commons.cli.ParseException e) {
 			System.err.println("COMMAND LINE ERROR: " + e.getLocalizedMessage());
 			Arguments.printHelp();
-			System.exit(COMMAND_LINE_ERROR);
+			return COMMAND_LINE_ERROR;
 		} catch (ConfigurationException e) {
 			System.err.println("CONFIGURATION ERROR: " + e.getLocalizedMessage());
 			Arguments.printHelp();
-			System.exit(CONFIGURATION_ERROR);
+			return CONFIGURATION_ERROR;
 		} catch (TypeCheckException e) {
-			System.exit(TYPE_CHECK_ERROR);
+			return TYPE_CHECK_ERROR;
 		} catch (CompileException e) {
-			System.exit(COMPILE_ERROR);
+			return COMPILE_ERROR;
 		} catch (ShadowException e) {
 			System.err.println("ERROR IN FILE: " + e.getLocalizedMessage());
-			System.exit(TYPE_CHECK_ERROR);
+			return TYPE_CHECK_ERROR;
 		}
+
+		return NO_ERROR;
 	}
 
 	// Check LLVM version using lexical comparison
@@ -167,13 +184,18 @@ public class Main {
 	public static void run(String[] args) throws FileNotFoundException, ParseException, ShadowException, IOException,
 	org.apache.commons.cli.ParseException, ConfigurationException, TypeCheckException, CompileException {
 
+		// Each compilation gets its own session, so no state is left over from earlier ones
+		Session session = Session.start();
+
 		// Detect and establish the current settings and arguments
 		Arguments compilerArgs = new Arguments(args);
 
 		// Detect and establish the current settings based on the arguments
-		config = Configuration.buildConfiguration(compilerArgs.getMainFileArg(), compilerArgs.getConfigFileArg(),
-				false);
-		currentJob = new Job(compilerArgs);
+		Configuration config = Configuration.buildConfiguration(compilerArgs.getMainFileArg(),
+				compilerArgs.getConfigFileArg(), false);
+		Job currentJob = new Job(compilerArgs);
+		session.setJob(currentJob);
+		session.setBuildCache(new BuildCache(config.getSystemImport().resolve(BuildCache.DEFAULT_DIRECTORY), config, currentJob));
 
 		// Print help and exit
 		if (compilerArgs.hasOption(Arguments.HELP)) {
@@ -189,6 +211,48 @@ public class Main {
 			return;
 		}
 
+		// Compile command lines from standard input until it ends
+		// Must come after building configuration, which is shared by all compilations
+		if (compilerArgs.hasOption(Arguments.SERVER)) {
+			// Standard output carries only the server's replies, so everything
+			// else the compiler prints goes to standard error while serving
+			PrintStream replies = System.out;
+			System.setOut(System.err);
+			try {
+				new CompilerServer(System.in, replies).serve();
+			}
+			finally {
+				System.setOut(replies);
+			}
+			return;
+		}
+
+		// Record phase timings if requested, even if the compilation fails
+		if (currentJob.getProfileFile() != null)
+			session.setProfiler(new Profiler());
+
+		try {
+			build(session, config, currentJob);
+		}
+		finally {
+			if (session.getProfiler() != null) {
+				try {
+					session.getProfiler().write(currentJob.getProfileFile());
+				}
+				catch (IOException e) {
+					logger.error("Failed to write profile to " + currentJob.getProfileFile() + ": " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	/*
+	 * Checks and compiles the main file and everything it depends on,
+	 * linking the result unless only checking or compiling was requested.
+	 */
+	private static void build(Session session, Configuration config, Job currentJob) throws ParseException,
+	ShadowException, IOException, ConfigurationException, TypeCheckException, CompileException {
+
 		// Important settings
 		Path system = config.getSystemImport();
 		boolean isCompile = !currentJob.isCheckOnly() && !currentJob.isNoLink();
@@ -205,7 +269,7 @@ public class Main {
 		linkCommand.add("-");
 		List<Path> cFiles = new ArrayList<>();
 
-		generateLLVM(cFiles, linkCommand);
+		generateLLVM(session, cFiles, linkCommand);
 
 		if (isCompile) {
 			List<String> assembleCommand = new ArrayList<String>(config.getLinkCommand(currentJob));
@@ -221,13 +285,13 @@ public class Main {
 			Path mainLL;
 
 			if(config.getOs().equals("Windows")) {
-				if (mainArguments)
+				if (session.hasMainArguments())
 					mainLL = Paths.get("shadow", "MainWindows.ll");
 				else
 					mainLL = Paths.get("shadow", "NoArgumentsWindows.ll");
 			}
 			else {
-				if (mainArguments)
+				if (session.hasMainArguments())
 					mainLL = Paths.get("shadow", "Main.ll");
 				else
 					mainLL = Paths.get("shadow", "NoArguments.ll");
@@ -241,19 +305,20 @@ public class Main {
 			Process compile = new ProcessBuilder(config.getLlc(), "-mtriple", config.getTarget(),
 					/*"--filetype=obj",*/ config.getOptimizationLevel())
 					/* .redirectOutput(new File("a.s")) */.redirectError(Redirect.INHERIT).start();
-			Process assemble = new ProcessBuilder(assembleCommand).redirectOutput(Redirect.INHERIT)
-					.redirectError(Redirect.INHERIT).start();
+			// The assembler's output goes through System.out, which is redirected in server mode
+			Process assemble = new ProcessBuilder(assembleCommand).redirectError(Redirect.INHERIT).start();
 			//Process assemble = new ProcessBuilder(assembleCommand).redirectOutput(currentJob.getOutputFile().toFile())
 					//.redirectError(Redirect.INHERIT).start();
 
 			try {
 				new Pipe(link.getInputStream(), compile.getOutputStream()).start();
 				new Pipe(compile.getInputStream(), assemble.getOutputStream()).start();
+				new Pipe(assemble.getInputStream(), System.out, false).start();
 				String line = main.readLine();
 				final OutputStream out = link.getOutputStream();
 
 				while (line != null) {
-					line = line.replace("shadow.test..Test", mainClass) + System.lineSeparator();
+					line = line.replace("shadow.test..Test", session.getMainClass()) + System.lineSeparator();
 					out.write(line.getBytes());
 					line = main.readLine();
 				}
@@ -266,18 +331,24 @@ public class Main {
 				}
 
 				long sectionStart = System.currentTimeMillis();
-				if (link.waitFor() != 0)
-					throw new CompileException("FAILED TO LINK");
+				try (Profiler.Section section = Profiler.start(Profiler.LINK, null)) {
+					if (link.waitFor() != 0)
+						throw new CompileException("FAILED TO LINK");
+				}
 				logger.info("LLVM link finished in " + (System.currentTimeMillis() - sectionStart) + "ms");
 
 				sectionStart = System.currentTimeMillis();
-				if (compile.waitFor() != 0)
-					throw new CompileException("FAILED TO COMPILE");
+				try (Profiler.Section section = Profiler.start(Profiler.LLC, null)) {
+					if (compile.waitFor() != 0)
+						throw new CompileException("FAILED TO COMPILE");
+				}
 				logger.info("LLVM compilation finished in " + (System.currentTimeMillis() - sectionStart) + "ms");
 
 				sectionStart = System.currentTimeMillis();
-				if (assemble.waitFor() != 0)
-					throw new CompileException("FAILED TO ASSEMBLE");
+				try (Profiler.Section section = Profiler.start(Profiler.ASSEMBLE, null)) {
+					if (assemble.waitFor() != 0)
+						throw new CompileException("FAILED TO ASSEMBLE");
+				}
 				logger.info("Assembly finished in " + (System.currentTimeMillis() - sectionStart) + "ms");
 
 			} catch (InterruptedException ex) {
@@ -301,9 +372,10 @@ public class Main {
 		}
 
 		// compile the files to assembly, to be ready for linkage
+		Configuration config = Configuration.getConfiguration();
 		List<String> compileCommand = new ArrayList<String>();
 
-		if (Configuration.getConfiguration().getOs().equals("Mac")) {
+		if (config.getOs().equals("Mac")) {
 			compileCommand.add("clang");
 			String[] version = System.getProperty("os.version").split("\\.");
 			compileCommand.add("-mmacosx-version-min=" + version[0] + "." + version[1]);
@@ -312,13 +384,16 @@ public class Main {
 		else
 			compileCommand.add("clang");
 		
-		compileCommand.add("-m" + Configuration.getConfiguration().getArch());
+		compileCommand.add("-m" + config.getArch());
 
 		compileCommand.add("-O3");
 
 
 		compileCommand.add("-S");
 
+		// Cached assembly must be rebuilt whenever any runtime header changes
+		getBuildCache().setIncludeDirectory(cSourcePath.resolve("include"));
+
 		// include directories to be in the search path of gcc
 		compileCommand.add("-I" + cSourcePath.resolve(Paths.get("include")).toFile().getCanonicalPath());
 		compileCommand.add("-I"
@@ -354,9 +429,15 @@ public class Main {
 		// if any files were to be compiled, we run the compiler, otherwise, we
 		// skip.
 		if (coreCompileCommand.size() > compileCommand.size()) {
-			if (!runCCompiler(coreCompileCommand, cSourcePath)) {
-				return false;
+			// Core C files are compiled together, so they are profiled as their directory
+			try (Profiler.Section section = Profiler.start(Profiler.C_COMPILE, cSourcePath)) {
+				if (!runCCompiler(coreCompileCommand, cSourcePath)) {
+					return false;
+				}
 			}
+
+			for (String cFile : coreCompileCommand.subList(compileCommand.size(), coreCompileCommand.size()))
+				getBuildCache().store(Paths.get(cFile), ".s");
 		}
 
 		compileCommand.add(null);
@@ -367,9 +448,13 @@ public class Main {
 			// list whether or not the file needs to be compiled.
 			if (shouldCompileCFile(cFile, assembleCommand)) {
 				compileCommand.set(compileCommand.size() - 1, canonicalize(cFile));
-				if (!runCCompiler(compileCommand, cFile.getParent())) {
-					return false;
+				try (Profiler.Section section = Profiler.start(Profiler.C_COMPILE, cFile)) {
+					if (!runCCompiler(compileCommand, cFile.getParent())) {
+						return false;
+					}
 				}
+
+				getBuildCache().store(cFile, ".s");
 			}
 		}
 
@@ -390,8 +475,7 @@ public class Main {
 		Path assemblyPath = Paths.get(BaseChecker.stripExtension(currentFile.toString()) + ".s").normalize();
 		assembleCommand.add(assemblyPath.toAbsolutePath().toString());
 
-		if (currentJob.isForceRecompile() || !Files.exists(assemblyPath) || Files.getLastModifiedTime(assemblyPath)
-				.compareTo(Files.getLastModifiedTime(currentFile)) < 0) {
+		if (getJob().isForceRecompile() || !getBuildCache().restore(currentFile, ".s")) {
 			logger.info("Generating Assembly code for " + currentFile.getFileName());
 			return true;
 		}
@@ -404,24 +488,60 @@ public class Main {
 	 * Ensures that LLVM code exists for all dependencies of a main-method-
 	 * containing class/file. This involves either finding an existing .ll file
 	 * (which has been updated more recently than the corresponding source file)
-	 * or building a new one
+	 * or building a new one.
+	 * 
+	 * When more than one job is requested, each file's TAC is built, its
+	 * LLVM is generated, and opt is run on it as a single task on the
+	 * optimizer pool, while the methods of each class are optimized on the
+	 * separate TAC optimizer pool. Bitcode files are added to the link
+	 * command in the order the files were checked, regardless of the order
+	 * in which their tasks finish.
 	 */
-	private static void generateLLVM(List<Path> cFiles, List<String> linkCommand) throws IOException, ShadowException,
+	private static void generateLLVM(Session session, List<Path> cFiles, List<String> linkCommand) throws IOException, ShadowException,
+	ParseException, ConfigurationException, TypeCheckException, CompileException {
+
+		if( session.getJob().getJobs() > 1 ) {
+			session.setOptimizer(Executors.newFixedThreadPool(session.getJob().getJobs()));
+			session.setTACOptimizer(Executors.newFixedThreadPool(session.getJob().getJobs()));
+		}
+
+		try {
+			List<Future<String>> bitcodeFiles = new ArrayList<>();
+			generateBitcode(session, cFiles, bitcodeFiles);
+
+			for (Future<String> bitcodeFile : bitcodeFiles)
+				linkCommand.add(getBitcodeFile(bitcodeFile));
+		}
+		finally {
+			if( session.getOptimizer() != null ) {
+				session.getOptimizer().shutdownNow();
+				session.setOptimizer(null);
+			}
+			if( session.getTACOptimizer() != null ) {
+				session.getTACOptimizer().shutdownNow();
+				session.setTACOptimizer(null);
+			}
+		}
+	}
+
+	private static void generateBitcode(Session session, List<Path> cFiles, List<Future<String>> linkCommand) throws IOException, ShadowException,
 	ParseException, ConfigurationException, TypeCheckException, CompileException {
 
+		Configuration config = session.getConfiguration();
+		Job currentJob = session.getJob();
 		Path shadow = config.getSystemImport().resolve("shadow");
 
 		// Add architecture-dependent exception handling code
-		if (Configuration.getConfiguration().getOs().equals("Windows"))
-			linkCommand.add(optimizeLLVMFile(shadow.resolve("UnwindWindows" + config.getArch() + ".ll")));
+		if (config.getOs().equals("Windows"))
+			linkCommand.add(optimizeLLVMFileLater(session, shadow.resolve("UnwindWindows" + config.getArch() + ".ll")));
 		else
-			linkCommand.add(optimizeLLVMFile(shadow.resolve("Unwind" + config.getArch() + ".ll")));
+			linkCommand.add(optimizeLLVMFileLater(session, shadow.resolve("Unwind" + config.getArch() + ".ll")));
 
 		// Add platform-specific system code
-		linkCommand.add(optimizeLLVMFile(shadow.resolve(config.getOs() + ".ll")));
+		linkCommand.add(optimizeLLVMFileLater(session, shadow.resolve(config.getOs() + ".ll")));
 
 		// Add shared code
-		linkCommand.add(optimizeLLVMFile(shadow.resolve("Shared.ll")));
+		linkCommand.add(optimizeLLVMFileLater(session, shadow.resolve("Shared.ll")));
 
 		Path mainFile = currentJob.getMainFile();
 		String mainFileName = BaseChecker.stripExtension(canonicalize(mainFile));
@@ -431,16 +551,23 @@ public class Main {
 		// TypeChecker generates a list of AST nodes corresponding to
 		// classes needing compilation
 		TypeChecker.TypeCheckerOutput typecheckerOutput =
-				TypeChecker.typeCheck(mainFile, currentJob.isForceRecompile(), reporter, currentJob.isCheckOnly());
+				TypeChecker.typeCheck(session, mainFile, currentJob.isForceRecompile(), reporter, currentJob.isCheckOnly());
 
-		ConstantFieldInterpreter.evaluateConstants(
-				typecheckerOutput.packageTree, typecheckerOutput.nodes);
+		try (Profiler.Section section = Profiler.start(Profiler.CONSTANT_EVALUATION, null)) {
+			ConstantFieldInterpreter.evaluateConstants(session,
+					typecheckerOutput.packageTree, typecheckerOutput.nodes);
+		}
 
 		// As an optimization, print .meta files for the .shadow files being checked
 		typecheckerOutput.nodes.stream()
 				.filter((node) -> !node.isFromMetaFile())
 				.forEach(TypeChecker::printMetaFile);
 
+		// Each file gets its own reporter, so errors can be reported in
+		// file order no matter which thread generated the file
+		List<ErrorReporter> fileReporters = new ArrayList<>();
+		List<Future<String>> generatedFiles = new ArrayList<>();
+
 		try {
 			for (Context node : typecheckerOutput.nodes) {
 				Path file = node.getPath();
@@ -450,8 +577,14 @@ public class Main {
 					// no dead code, etc.
 					// no need to check interfaces, attributes, or .meta files (no code in
 					// those cases)
-					if (!node.isFromMetaFile() && !(node.getType() instanceof AttributeType))
-						optimizeTAC(new TACBuilder().build(node), reporter, true);
+					if (!node.isFromMetaFile() && !(node.getType() instanceof AttributeType)) {
+						ErrorReporter fileReporter = new ErrorReporter(Loggers.TYPE_CHECKER);
+						fileReporters.add(fileReporter);
+						generatedFiles.add(optimizeLater(session, () -> {
+							buildTAC(session, node, fileReporter, true);
+							return null;
+						}));
+					}
 				} else {
 					String name = BaseChecker.stripExtension(file.getFileName().toString());
 					String path = BaseChecker.stripExtension(canonicalize(file));
@@ -460,12 +593,12 @@ public class Main {
 
 					// set data for main class
 					if (path.equals(mainFileName)) {
-						mainClass = type.toString(Type.MANGLE);
-						SequenceType arguments = new SequenceType(new ArrayType(Type.STRING));
+						String mainClass = type.toString(Type.MANGLE);
+						SequenceType arguments = new SequenceType(new ArrayType(session.getStandardTypes().STRING));
 						if (type.getMatchingMethod("main", arguments) != null)
-							mainArguments = true;
+							session.setMainClass(mainClass, true);
 						else if (type.getMatchingMethod("main", new SequenceType()) != null)
-							mainArguments = false;
+							session.setMainClass(mainClass, false);
 						else
 							throw new CompileException(
 									"File " + file + " does not contain an appropriate main() method");
@@ -474,6 +607,9 @@ public class Main {
 					// For now, we don't generate modules for attributes - they exist only during typechecking.
 					// This will change at some point to allow inspecting attributes at runtime.
 					if (type instanceof AttributeType) {
+						// Lets the build cache know that no bitcode is coming
+						if (!node.isFromMetaFile())
+							getBuildCache().store(file, ".bc");
 						continue;
 					}
 
@@ -493,26 +629,34 @@ public class Main {
 					if(node.isFromMetaFile()) {
 						logger.info("Using pre-existing LLVM code for " + name);
 						if (Files.exists(bitcodeFile))
-							linkCommand.add(canonicalize(bitcodeFile));
+							linkCommand.add(CompletableFuture.completedFuture(canonicalize(bitcodeFile)));
 						else if( Files.exists(llvmFile) )
-							linkCommand.add(optimizeLLVMFile(llvmFile));
+							linkCommand.add(optimizeLLVMFileLater(session, llvmFile));
 						else
 							throw new CompileException("File not found: " + bitcodeFile);
 					}
 					else {
 						logger.info("Generating LLVM code for " + name);
-						// gets top level class						
-						TACModule module = optimizeTAC(new TACBuilder().build(node), reporter, false);
-						linkCommand.add(optimizeShadowFile(file, module));						
+						ErrorReporter fileReporter = new ErrorReporter(Loggers.TYPE_CHECKER);
+						fileReporters.add(fileReporter);
+						Future<String> bitcode = optimizeLater(session, () -> generateShadowFile(session, node, fileReporter));
+						generatedFiles.add(bitcode);
+						linkCommand.add(bitcode);
 					}
 
-					if( Files.exists(nativeBitcodeFile))
-						linkCommand.add(canonicalize(nativeBitcodeFile));
-					else if( Files.exists(nativeFile) )
-						linkCommand.add(optimizeLLVMFile(nativeFile));					
+					// The build cache decides whether existing native bitcode is still current
+					if( Files.exists(nativeFile) )
+						linkCommand.add(optimizeLLVMFileLater(session, nativeFile));
+					else if( Files.exists(nativeBitcodeFile) )
+						linkCommand.add(CompletableFuture.completedFuture(canonicalize(nativeBitcodeFile)));
 				}
 			}
 
+			for (int i = 0; i < generatedFiles.size(); ++i) {
+				getBitcodeFile(generatedFiles.get(i));
+				reporter.addAll(fileReporters.get(i));
+			}
+
 			reporter.printAndReportErrors();			
 
 		} catch (TypeCheckException e) {
@@ -521,6 +665,81 @@ public class Main {
 		}
 	}
 
+	/*
+	 * Builds and optimizes the TAC for a top-level class.
+	 */
+	private static TACModule buildTAC(Session session, Context node, ErrorReporter reporter, boolean checkOnly) {
+		TACModule module;
+		try (Profiler.Section section = Profiler.start(Profiler.TAC_BUILD, node.getPath())) {
+			module = new TACBuilder(session).build(node);
+		}
+
+		try (Profiler.Section section = Profiler.start(Profiler.CFG_OPTIMIZATION, node.getPath())) {
+			return optimizeTAC(session, module, reporter, checkOnly);
+		}
+	}
+
+	/*
+	 * Builds, optimizes, and generates LLVM for a top-level class, then runs
+	 * opt on it, returning the name of the bitcode file. The whole pipeline
+	 * for one file runs on a single thread.
+	 */
+	private static String generateShadowFile(Session session, Context node, ErrorReporter reporter) throws CompileException {
+		TACModule module = buildTAC(session, node, reporter, false);
+		return optimizeShadowFile(session, node.getPath(), module);
+	}
+
+	/*
+	 * Schedules an optimization task on the optimizer pool if there is one.
+	 * Otherwise, the task is run immediately.
+	 */
+	private static Future<String> optimizeLater(Session session, OptimizeTask task) throws CompileException {
+		ExecutorService optimizer = session.getOptimizer();
+		if( optimizer == null )
+			return CompletableFuture.completedFuture(task.optimize());
+		else
+			return optimizer.submit(session.bind(task::optimize));
+	}
+
+	/*
+	 * Optimizes an existing LLVM file, unless the build cache already has
+	 * bitcode for its current contents.
+	 */
+	private static Future<String> optimizeLLVMFileLater(Session session, Path LLVMPath) throws CompileException {
+		if (!getJob().isForceRecompile() && getBuildCache().restore(LLVMPath, ".bc"))
+			return CompletableFuture.completedFuture(
+					canonicalize(Paths.get(BaseChecker.stripExtension(canonicalize(LLVMPath)) + ".bc")));
+
+		return optimizeLater(session, () -> {
+			String bitcodeFile = optimizeLLVMFile(LLVMPath);
+			getBuildCache().store(LLVMPath, ".bc");
+			return bitcodeFile;
+		});
+	}
+
+	/*
+	 * Waits for a scheduled optimization task to finish, returning the name of the
+	 * bitcode file it produced.
+	 */
+	private static String getBitcodeFile(Future<String> bitcodeFile) throws CompileException {
+		try {
+			return bitcodeFile.get();
+		}
+		catch (ExecutionException e) {
+			if( e.getCause() instanceof CompileException )
+				throw (CompileException) e.getCause();
+			if( e.getCause() instanceof RuntimeException )
+				throw (RuntimeException) e.getCause();
+			if( e.getCause() instanceof java.lang.Error )
+				throw (java.lang.Error) e.getCause();
+
+			throw new CompileException("FAILED TO OPTIMIZE: " + e.getCause());
+		}
+		catch (InterruptedException e) {
+			throw new CompileException("FAILED TO OPTIMIZE: interrupted");
+		}
+	}
+
 	private static String optimizeLLVMFile(Path LLVMPath) throws CompileException {
 		String LLVMFile = canonicalize(LLVMPath);
 		String path = BaseChecker.stripExtension(LLVMFile);
@@ -530,7 +749,8 @@ public class Main {
 		boolean success = false;
 		Process optimize = null;
 
-		try {
+		try (Profiler.Section section = Profiler.start(Profiler.OPT, LLVMPath)) {
+			Configuration config = Configuration.getConfiguration();
 			optimize = new ProcessBuilder(config.getOpt(), "-mtriple", config.getTarget(),
 					config.getLLVMOptimizationLevel(), config.getDataLayout(), LLVMFile, "-o", bitcodeFile)
 					.redirectError(Redirect.INHERIT).start();
@@ -539,7 +759,7 @@ public class Main {
 
 			success = true;			
 		} 
-		catch (IOException | InterruptedException e) {
+		catch (IOException | InterruptedException | ConfigurationException e) {
 			throw new CompileException("FAILED TO OPTIMIZE " + LLVMFile);
 		}
 		finally {
@@ -556,51 +776,58 @@ public class Main {
 		return bitcodeFile;
 	}
 
-	private static String optimizeShadowFile(Path shadowPath, TACModule module) throws CompileException {
+	private static String optimizeShadowFile(Session session, Path shadowPath, TACModule module) throws CompileException {
 		String shadowFile = canonicalize(shadowPath);
 		String path = BaseChecker.stripExtension(shadowFile);
+
+		if( getJob().isHumanReadable() ) {
+			Path llvmPath = Paths.get(path + ".ll");
+			try {
+				writeLLVM(session, shadowFile, module, Files.newOutputStream(llvmPath));
+			}
+			catch (IOException e) {
+				throw new CompileException("FAILED TO OPTIMIZE " + shadowFile);
+			}
+
+			String bitcodeFile = optimizeLLVMFile(llvmPath);
+			getBuildCache().store(shadowPath, ".bc");
+			return bitcodeFile;
+		}
+		else if( getJob().isEmitBitcode() ) {
+			// Give opt bitcode, which it loads without parsing
+			return optimizeShadowFile(shadowFile, out -> writeBitcode(session, shadowFile, module, out));
+		}
+		else {
+			// Stream the LLVM directly into opt
+			return optimizeShadowFile(shadowFile, out -> writeLLVM(session, shadowFile, module, out));
+		}
+	}
+
+	private static String optimizeShadowFile(String shadowFile, LLVMSource source) throws CompileException {
+		String path = BaseChecker.stripExtension(shadowFile);
 		Path bitcodePath = Paths.get(path + ".bc");
 		String bitcodeFile = canonicalize(bitcodePath); 
 		boolean success = false;
 		Process optimize = null;
 
-		try {			
-			LLVMOutput output = null;
-			OutputStream out = null;
+		// When the LLVM is streamed into opt, its emission is nested inside this section
+		try (Profiler.Section section = Profiler.start(Profiler.OPT, shadowFile)) {
+			Configuration config = Configuration.getConfiguration();
+			optimize = new ProcessBuilder(config.getOpt(), "-mtriple", config.getTarget(),
+					config.getLLVMOptimizationLevel(), config.getDataLayout(), "-o", bitcodeFile)
+					.redirectError(Redirect.INHERIT).start();
 
-			if( currentJob.isHumanReadable() )
-				out = Files.newOutputStream(Paths.get(path + ".ll"));
-			else {
-				optimize = new ProcessBuilder(config.getOpt(), "-mtriple", config.getTarget(),
-						config.getLLVMOptimizationLevel(), config.getDataLayout(), "-o", bitcodeFile)
-						.redirectError(Redirect.INHERIT).start();
-				out = optimize.getOutputStream();
+			try (OutputStream out = optimize.getOutputStream()) {
+				source.write(out);
 			}
 
-			try {
-				// Generate LLVM
-				output = new LLVMOutput(out);
-				output.build(module);
-			} catch (ShadowException e) {
-				logger.error("FAILED TO COMPILE " + shadowFile);				
-				throw new CompileException(e.getMessage());
-			}
-			finally {
-				if( output != null )
-					output.close();
-			}
-
-			if( currentJob.isHumanReadable() ) {
-				success = true;
-				return optimizeLLVMFile(Paths.get(path + ".ll"));
-			}
-			else if (optimize.waitFor() != 0)
+			if (optimize.waitFor() != 0)
 				throw new CompileException("FAILED TO OPTIMIZE " + shadowFile);
 
 			success = true;
-
+			getBuildCache().store(Paths.get(shadowFile), ".bc");
 		} 
-		catch (IOException | InterruptedException e) {
+		catch (IOException | InterruptedException | ConfigurationException e) {
 			throw new CompileException("FAILED TO OPTIMIZE " + shadowFile);
 		}
 		finally {
@@ -618,11 +845,63 @@ public class Main {
 		return bitcodeFile;
 	}
 
+	/*
+	 * Generates LLVM for the given module, closing the stream when done.
+	 */
+	private static void writeLLVM(Session session, String shadowFile, TACModule module, OutputStream out) throws CompileException {
+		LLVMOutput output = null;
+		try (Profiler.Section section = Profiler.start(Profiler.LLVM_EMISSION, shadowFile)) {
+			output = new LLVMOutput(session, out);
+			output.build(module);
+		} catch (ShadowException e) {
+			logger.error("FAILED TO COMPILE " + shadowFile);				
+			throw new CompileException(e.getMessage());
+		}
+		finally {
+			try {
+				if( output != null )
+					output.close();
+				else
+					out.close();
+			} catch (IOException e) {}
+		}
+	}
+
+	/*
+	 * Generates LLVM for the given module and writes it to the stream as
+	 * bitcode. The LLVM is kept in memory, since the bitcode cannot be
+	 * written until the whole module is known.
+	 */
+	private static void writeBitcode(Session session, String shadowFile, TACModule module, OutputStream out) throws IOException, CompileException {
+		ByteArrayOutputStream llvm = new ByteArrayOutputStream();
+		writeLLVM(session, shadowFile, module, llvm);
+		try (Profiler.Section section = Profiler.start(Profiler.BITCODE_EMISSION, shadowFile)) {
+			new BitcodeWriter(out).write(llvm.toByteArray());
+		} catch (OutputException e) {
+			logger.error("FAILED TO COMPILE " + shadowFile);
+			throw new CompileException(e.getMessage());
+		}
+	}
+
+	/*
+	 * A step producing a bitcode file, possibly run on another thread.
+	 */
+	private interface OptimizeTask {
+		String optimize() throws CompileException;
+	}
+
+	/*
+	 * Writes LLVM code to the input of an opt process.
+	 */
+	private interface LLVMSource {
+		void write(OutputStream out) throws IOException, CompileException;
+	}
+
 	/*
 	 * This method contains all the Shadow-specific TAC optimization, including
 	 * constant propagation, control flow analysis, and data flow analysis.
 	 */
-	public static TACModule optimizeTAC(TACModule module, ErrorReporter reporter, boolean checkOnly) {
+	public static TACModule optimizeTAC(Session session, TACModule module, ErrorReporter reporter, boolean checkOnly) {
 
 		if (!(module.getType() instanceof InterfaceType)) {
 			List<TACModule> innerClasses = module.getAllInnerClasses();
@@ -630,7 +909,7 @@ public class Main {
 			modules.add(module);
 			modules.addAll(innerClasses);
 
-			List<ControlFlowGraph> graphs = module.optimizeTAC(reporter, checkOnly);
+			List<ControlFlowGraph> graphs = module.optimizeTAC(session, reporter, checkOnly);
 
 			// get all used fields and all used private methods
 			Map<Type, Set<String>> allUsedFields = new HashMap<Type, Set<String>>();
@@ -705,10 +984,16 @@ public class Main {
 	private static class Pipe extends Thread {
 		private InputStream input;
 		private OutputStream output;
+		private boolean closeOutput;
 
 		public Pipe(InputStream inputStream, OutputStream outputStream) {
+			this(inputStream, outputStream, true);
+		}
+
+		public Pipe(InputStream inputStream, OutputStream outputStream, boolean closeOutput) {
 			input = inputStream;
 			output = outputStream;
+			this.closeOutput = closeOutput;
 		}
 
 		@Override
@@ -731,7 +1016,8 @@ public class Main {
 					} catch (IOException ex) {
 					}
 					try {
-						output.close();
+						if (closeOutput)
+							output.close();
 					} catch (IOException ex) {
 					}
 				}
@@ -757,7 +1043,11 @@ public class Main {
 	}
 
 	public static Job getJob() {
-		return currentJob;
+		return Session.current().getJob();
+	}
+
+	public static BuildCache getBuildCache() {
+		return Session.current().getBuildCache();
 	}
 
 
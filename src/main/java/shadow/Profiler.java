@@ -0,0 +1,218 @@
+package shadow;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the time and memory used by each phase of a compilation for each
+ * file, as requested by the <tt>--profile</tt> option.
+ * <p>
+ * Each phase is timed by a {@link Section}, which measures wall time and,
+ * where the JVM supports it, the CPU time and bytes allocated by the thread
+ * that ran it. For phases that run external tools (such as <tt>opt</tt> or
+ * <tt>llc</tt>), the CPU time and allocation are only those of the compiler
+ * thread waiting on the tool.
+ * <p>
+ * The results are written in the Chrome trace event format, which is plain
+ * JSON that can also be opened in <tt>chrome://tracing</tt> or Perfetto.
+ */
+public class Profiler {
+
+	// Phases of the compilation
+	public static final String PARSE = "parse";
+	public static final String COLLECT = "collect";
+	public static final String UPDATE = "update";
+	public static final String STATEMENT_CHECK = "statement check";
+	public static final String CONSTANT_EVALUATION = "constant evaluation";
+	public static final String TAC_BUILD = "TAC build";
+	public static final String CFG_OPTIMIZATION = "CFG optimization";
+	public static final String LLVM_EMISSION = "LLVM emission";
+	public static final String BITCODE_EMISSION = "bitcode emission";
+	public static final String OPT = "opt";
+	public static final String C_COMPILE = "C compile";
+	public static final String LINK = "link";
+	public static final String LLC = "llc";
+	public static final String ASSEMBLE = "assemble";
+
+	private static final Section NONE = new Section(null, null, null);
+
+	private final long startTime = System.nanoTime();
+	private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private final boolean measureCPU;
+	private final boolean measureAllocation;
+
+	public Profiler() {
+		measureCPU = threads.isCurrentThreadCpuTimeSupported();
+		if( measureCPU && !threads.isThreadCpuTimeEnabled() )
+			threads.setThreadCpuTimeEnabled(true);
+
+		if( threads instanceof com.sun.management.ThreadMXBean ) {
+			com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+			measureAllocation = allocations.isThreadAllocatedMemorySupported();
+			if( measureAllocation && !allocations.isThreadAllocatedMemoryEnabled() )
+				allocations.setThreadAllocatedMemoryEnabled(true);
+		}
+		else
+			measureAllocation = false;
+	}
+
+	/**
+	 * Starts timing a phase in the current session. Sections should be
+	 * closed on the same thread that started them, ideally with
+	 * try-with-resources.
+	 * @param phase		name of the phase, such as {@link #PARSE}
+	 * @param file		file being processed, or <code>null</code> if the phase
+	 * covers the whole compilation
+	 * @return			section to close when the phase ends, which does nothing
+	 * if the session is not being profiled
+	 */
+	public static Section start(String phase, Object file) {
+		Profiler profiler = Session.current().getProfiler();
+		if( profiler == null )
+			return NONE;
+
+		return new Section(profiler, phase, file == null ? null : file.toString());
+	}
+
+	/**
+	 * Writes all the recorded sections as a Chrome trace.
+	 * @param file				file to write
+	 * @throws IOException		if the file cannot be written
+	 */
+	public void write(Path file) throws IOException {
+		List<Event> sorted = new ArrayList<>(events);
+		sorted.sort((first, second) -> Long.compare(first.start, second.start));
+
+		try( Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8) ) {
+			out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+			boolean first = true;
+			for( Event event : sorted ) {
+				if( !first )
+					out.write(",");
+				first = false;
+
+				out.write("\n{\"name\":" + quote(event.phase));
+				out.write(",\"cat\":\"shadow\",\"ph\":\"X\",\"pid\":1");
+				out.write(",\"tid\":" + event.thread);
+				out.write(",\"ts\":" + micros(event.start - startTime));
+				out.write(",\"dur\":" + micros(event.wall));
+				out.write(",\"args\":{");
+				if( event.file != null )
+					out.write("\"file\":" + quote(event.file) + ",");
+				out.write("\"threadName\":" + quote(event.threadName));
+				if( event.cpu >= 0 )
+					out.write(",\"cpuMicroseconds\":" + micros(event.cpu));
+				if( event.allocated >= 0 )
+					out.write(",\"allocatedBytes\":" + event.allocated);
+				out.write("}}");
+			}
+			out.write("\n]}\n");
+		}
+	}
+
+	private long getCPUTime() {
+		return measureCPU ? threads.getCurrentThreadCpuTime() : -1;
+	}
+
+	private long getAllocatedBytes() {
+		if( !measureAllocation )
+			return -1;
+
+		return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static String micros(long nanoseconds) {
+		return String.format(Locale.ROOT, "%.3f", nanoseconds / 1000.0);
+	}
+
+	private static String quote(String value) {
+		StringBuilder builder = new StringBuilder("\"");
+		for( char c : value.toCharArray() ) {
+			switch( c ) {
+			case '"':  builder.append("\\\""); break;
+			case '\\': builder.append("\\\\"); break;
+			case '\n': builder.append("\\n"); break;
+			case '\r': builder.append("\\r"); break;
+			case '\t': builder.append("\\t"); break;
+			default:
+				if( c < ' ' )
+					builder.append(String.format("\\u%04x", (int) c));
+				else
+					builder.append(c);
+			}
+		}
+		return builder.append('"').toString();
+	}
+
+	/**
+	 * Times a single phase, recording it when closed.
+	 */
+	public static class Section implements AutoCloseable {
+		private final Profiler profiler;
+		private final String phase;
+		private final String file;
+		private final long start;
+		private final long cpu;
+		private final long allocated;
+
+		private Section(Profiler profiler, String phase, String file) {
+			this.profiler = profiler;
+			this.phase = phase;
+			this.file = file;
+			if( profiler != null ) {
+				cpu = profiler.getCPUTime();
+				allocated = profiler.getAllocatedBytes();
+				start = System.nanoTime();
+			}
+			else {
+				cpu = allocated = start = 0;
+			}
+		}
+
+		@Override
+		public void close() {
+			if( profiler == null )
+				return;
+
+			long end = System.nanoTime();
+			long cpuUsed = cpu < 0 ? -1 : profiler.getCPUTime() - cpu;
+			long allocatedUsed = allocated < 0 ? -1 : profiler.getAllocatedBytes() - allocated;
+			Thread thread = Thread.currentThread();
+			profiler.events.add(new Event(phase, file, thread.getId(), thread.getName(),
+					start, end - start, cpuUsed, allocatedUsed));
+		}
+	}
+
+	private static class Event {
+		private final String phase;
+		private final String file;
+		private final long thread;
+		private final String threadName;
+		private final long start;
+		private final long wall;
+		private final long cpu;
+		private final long allocated;
+
+		public Event(String phase, String file, long thread, String threadName, long start, long wall, long cpu, long allocated) {
+			this.phase = phase;
+			this.file = file;
+			this.thread = thread;
+			this.threadName = threadName;
+			this.start = start;
+			this.wall = wall;
+			this.cpu = cpu;
+			this.allocated = allocated;
+		}
+	}
+}
@@ -0,0 +1,181 @@
+package shadow;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import shadow.typecheck.type.StandardTypes;
+
+/**
+ * Holds the state of a single compilation: its configuration, job, build
+ * cache, and the well-known types (such as <code>Object</code> and
+ * <code>String</code>) found while type-checking it. Nothing about a
+ * compilation is stored in static fields, so several compilations can run in
+ * the same JVM, one after another or on different threads.
+ * <p>
+ * The session is passed explicitly to the phases of a compilation, such as
+ * the type checkers, the TAC builder, and the LLVM output. Types still look
+ * up the well-known types through the session that is current on their
+ * thread, since they are needed deep inside methods like
+ * {@link shadow.typecheck.type.Type#isSubtype} where no session is at hand.
+ * The session is never inherited by new threads, so every task handed to a
+ * thread pool must be wrapped with {@link #bind(Callable)}.
+ */
+public class Session {
+
+	private static final ThreadLocal<Session> current = new ThreadLocal<>();
+
+	private StandardTypes standardTypes = new StandardTypes();
+	private Configuration config;
+	private Job job;
+	private BuildCache buildCache;
+
+	// Set when generating code for the class containing main()
+	private String mainClass;
+	private boolean mainArguments;
+
+	// Runs LLVM optimizer processes in parallel when more than one job is requested
+	private ExecutorService optimizer;
+	// Optimizes the TAC for methods in parallel when more than one job is requested
+	private ExecutorService tacOptimizer;
+
+	// Records phase timings when profiling was requested
+	private Profiler profiler;
+
+	/**
+	 * Starts a new session on the current thread, replacing the old one.
+	 * The new session stays current after the compilation finishes, so that
+	 * its results can still be inspected.
+	 * @return the new session
+	 */
+	public static Session start() {
+		Session session = new Session();
+		current.set(session);
+		return session;
+	}
+
+	/**
+	 * Retrieves the session for the current thread, starting one if
+	 * necessary.
+	 * @return the current session
+	 */
+	public static Session current() {
+		Session session = current.get();
+		if( session == null )
+			session = start();
+		return session;
+	}
+
+	/**
+	 * Wraps a task so that this session is current on whichever thread runs
+	 * it. The thread's previous session is restored when the task finishes,
+	 * so pool threads never keep a session from an earlier compilation.
+	 * @param task		task to run in this session
+	 * @return			wrapped task
+	 */
+	public <T> Callable<T> bind(Callable<T> task) {
+		return () -> {
+			Session previous = current.get();
+			current.set(this);
+			try {
+				return task.call();
+			}
+			finally {
+				if( previous == null )
+					current.remove();
+				else
+					current.set(previous);
+			}
+		};
+	}
+
+	public StandardTypes getStandardTypes() {
+		return standardTypes;
+	}
+
+	/**
+	 * Forgets the well-known types, so that a new type-checking pass in
+	 * this session does not mix its types with those of an earlier one.
+	 */
+	public void clearStandardTypes() {
+		standardTypes = new StandardTypes();
+	}
+
+	/**
+	 * Retrieves the configuration for this session.
+	 * @return the configuration
+	 * @throws ConfigurationException if no configuration has been built yet
+	 */
+	public Configuration getConfiguration() throws ConfigurationException {
+		if( config == null )
+			throw new ConfigurationException("Configuration data must be built before being accessed.");
+
+		return config;
+	}
+
+	void setConfiguration(Configuration config) {
+		this.config = config;
+	}
+
+	public Job getJob() {
+		return job;
+	}
+
+	void setJob(Job job) {
+		this.job = job;
+	}
+
+	public BuildCache getBuildCache() {
+		return buildCache;
+	}
+
+	void setBuildCache(BuildCache buildCache) {
+		this.buildCache = buildCache;
+	}
+
+	String getMainClass() {
+		return mainClass;
+	}
+
+	boolean hasMainArguments() {
+		return mainArguments;
+	}
+
+	void setMainClass(String mainClass, boolean mainArguments) {
+		this.mainClass = mainClass;
+		this.mainArguments = mainArguments;
+	}
+
+	ExecutorService getOptimizer() {
+		return optimizer;
+	}
+
+	void setOptimizer(ExecutorService optimizer) {
+		this.optimizer = optimizer;
+	}
+
+	/**
+	 * Retrieves the pool used to optimize the TAC for several methods at
+	 * once.
+	 * @return the pool, or <code>null</code> if methods should be optimized
+	 * on the calling thread
+	 */
+	public ExecutorService getTACOptimizer() {
+		return tacOptimizer;
+	}
+
+	void setTACOptimizer(ExecutorService tacOptimizer) {
+		this.tacOptimizer = tacOptimizer;
+	}
+
+	/**
+	 * Retrieves the profiler for this session.
+	 * @return the profiler, or <code>null</code> if profiling was not requested
+	 */
+	public Profiler getProfiler() {
+		return profiler;
+	}
+
+	void setProfiler(Profiler profiler) {
+		this.profiler = profiler;
+	}
+}
@@ -71,6 +71,16 @@ public class Documentation
 		summaryTags = new ArrayList<InlineTag>();
 	}
 	
+	/**
+	 * Creates documentation without any text or tags, the same as what a
+	 * declaration without a documentation comment gets.
+	 * @return empty Documentation object
+	 */
+	public static Documentation empty()
+	{
+		return new Documentation();
+	}
+	
 	
 	/** 
 	 * Parses the inline tags and plain text content of a documentation
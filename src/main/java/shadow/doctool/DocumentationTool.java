@@ -24,6 +24,7 @@ import shadow.Configuration;
 import shadow.ConfigurationException;
 import shadow.Loggers;
 import shadow.Main;
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.doctool.output.DocumentationTemplate;
 import shadow.doctool.output.StandardTemplate;
@@ -90,6 +91,8 @@ public class DocumentationTool {
 		if (arguments.hasOption(Arguments.HELP))
 			return;
 		
+		// Type-check in a fresh session, so no types are left over from earlier runs
+		Session session = Session.start();
 		Configuration.buildConfiguration(arguments.getMainArguments()[0],
 				arguments.getConfigFileArg(), false);
 		
@@ -105,7 +108,7 @@ public class DocumentationTool {
 				= getRequestedFiles(arguments.getMainArguments(), pkgDocs);
 		
 		// Perform basic type-checking on each source file
-		Set<Type> typesToDocument = DocumentationTypeChecker.typeCheck(sourceFiles);
+		Set<Type> typesToDocument = DocumentationTypeChecker.typeCheck(session, sourceFiles);
 		Set<Package> packagesToDocument = new HashSet<Package>();
 		
 		logger.info("Successfully type-checked all files in "
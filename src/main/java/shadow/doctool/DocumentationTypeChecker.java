@@ -28,6 +28,7 @@ import java.util.TreeSet;
 import shadow.ConfigurationException;
 import shadow.Loggers;
 import shadow.Main;
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.parse.Context;
 import shadow.parse.ParseException;
@@ -47,6 +48,7 @@ public class DocumentationTypeChecker {
 	/**
 	 * Checks the types in the given files and returns a set containing those types,
 	 * ready to be documented.
+	 * @param session			session doing the checking
 	 * @param files				list of files
 	 * @return					set of types in those files
 	 * @throws ShadowException
@@ -55,14 +57,14 @@ public class DocumentationTypeChecker {
 	 * @throws IOException
 	 * @throws ConfigurationException
 	 */
-	public static Set<Type> typeCheck( List<Path> files )
+	public static Set<Type> typeCheck( Session session, List<Path> files )
 			throws ShadowException, IOException, ConfigurationException {			
 		Package packageTree = new Package();		
 		
 		ErrorReporter reporter = new ErrorReporter(Loggers.DOC_TOOL);
 		
 		/* Collector looks over all files and creates types for everything needed. */
-		TypeCollector collector = new TypeCollector( packageTree, reporter, true, false);
+		TypeCollector collector = new TypeCollector( session, packageTree, reporter, true, false);
 		/* Its return value maps all the types to their AST nodes. */		
 		Map<Type, Context> typeTable = collector.collectTypes( files );
 
@@ -76,7 +78,7 @@ public class DocumentationTypeChecker {
 		 *  All types with type parameters (except for declarations) are UninitializedTypes
 		 *  Extends and implements lists
 		 */	
-		TypeUpdater updater = new TypeUpdater( packageTree, reporter, fileTable );
+		TypeUpdater updater = new TypeUpdater( session, packageTree, reporter, fileTable );
 		typeTable = updater.update( typeTable );
 		
 		/* Filter out only those types associated with the files being documented. */		
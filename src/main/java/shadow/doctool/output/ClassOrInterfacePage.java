@@ -231,7 +231,7 @@ public class ClassOrInterfacePage extends Page
 				ArrayList<Type> bounds = new ArrayList<Type>();
 				//only put in class bound if not Object 
 				ClassType classType = param.getClassBound();
-				if( !classType.equals(Type.OBJECT))
+				if( !classType.equals(Type.standard().OBJECT))
 					bounds.add(classType);				
 				for( Type bound : param.getBounds() )
 					if( bound instanceof InterfaceType )
@@ -8,6 +8,7 @@ import java.util.List;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.Token;
 
+import shadow.Session;
 import shadow.interpreter.InterpreterException.Error;
 import shadow.parse.Context;
 import shadow.parse.ShadowParser;
@@ -40,8 +41,8 @@ public class ASTInterpreter extends BaseChecker {
 	/* Stack for current prefix (needed for arbitrarily long chains of expressions). */
 	private LinkedList<Context> curPrefix = new LinkedList<>();
 
-	public ASTInterpreter(Package packageTree, ErrorReporter reporter) {
-		super(packageTree, reporter);
+	public ASTInterpreter(Session session, Package packageTree, ErrorReporter reporter) {
+		super(session, packageTree, reporter);
 	}
 
 	// Converts a Context object to a single "token" containing the same text.
@@ -313,7 +314,7 @@ public class ASTInterpreter extends BaseChecker {
 		ShadowValue value = ShadowValue.INVALID;
 		Context parent = (Context) ctx.getParent();
 
-		if(prefixType.equals(Type.STRING)){
+		if(prefixType.equals(Type.standard().STRING)){
 			if(ctx.conditionalExpression().size() == 0)
 				value = new ShadowString("");
 			else if(ctx.conditionalExpression().size() == 1 && ctx.conditionalExpression(0).getInterpretedValue() instanceof ShadowString)
@@ -744,7 +745,7 @@ public class ASTInterpreter extends BaseChecker {
 
 			try {
 				ShadowArray array = (ShadowArray) prefixValue;
-				int index = ((ShadowInteger)prefixValue.cast(Type.INT)).getValue().intValue();
+				int index = ((ShadowInteger)prefixValue.cast(Type.standard().INT)).getValue().intValue();
 				if(index < 0 || index >= array.getLength())
 					addError(child, Error.INVALID_SUBSCRIPT, "Subscript value " + index + " is out of bounds");
 				else
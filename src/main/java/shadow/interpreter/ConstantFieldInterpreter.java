@@ -11,6 +11,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import shadow.Loggers;
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.interpreter.InterpreterException.Error;
 import shadow.parse.Context;
@@ -40,9 +41,9 @@ public class ConstantFieldInterpreter extends ASTInterpreter {
 	// The "root" of the current dependency graph being evaluated
 	private VariableDeclaratorContext rootFieldCtx = null;
 
-	private ConstantFieldInterpreter(
+	private ConstantFieldInterpreter(Session session,
 			Package packageTree, ErrorReporter reporter, Map<FieldKey, VariableDeclaratorContext> allFields) {
-		super(packageTree, reporter);
+		super(session, packageTree, reporter);
 		this.allFields = allFields;
 	}
 
@@ -77,10 +78,11 @@ public class ConstantFieldInterpreter extends ASTInterpreter {
 	 * Assumes that type-checking has already happened, meaning that all statements
 	 * are valid and all references to fields are legitimate.
 	 *
+	 * @param session session doing the compilation
 	 * @param nodes List of AST nodes for classes under compilation. Generally comes from
-	 *  {@link TypeChecker#typeCheck(Path, boolean, ErrorReporter)}.
+	 *  {@link TypeChecker#typeCheck(Session, Path, boolean, ErrorReporter, boolean)}.
 	 */
-	public static void evaluateConstants(Package packageTree, List<Context> nodes) throws ShadowException {
+	public static void evaluateConstants(Session session, Package packageTree, List<Context> nodes) throws ShadowException {
 		// We also want to process fields from inner types. Order doesn't really matter.
 		List<Type> typesIncludingInner = nodes.stream().map(Context::getType).collect(Collectors.toList());
 		nodes.stream()
@@ -99,7 +101,7 @@ public class ConstantFieldInterpreter extends ASTInterpreter {
 
 		ErrorReporter errorReporter = new ErrorReporter(Loggers.AST_INTERPRETER);
 		ConstantFieldInterpreter visitor =
-				new ConstantFieldInterpreter(packageTree, errorReporter, constantFields);
+				new ConstantFieldInterpreter(session, packageTree, errorReporter, constantFields);
 		for (FieldKey fieldKey : constantFields.keySet()) {
 			VariableDeclaratorContext fieldCtx = constantFields.get(fieldKey);
 
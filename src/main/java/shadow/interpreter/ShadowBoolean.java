@@ -14,7 +14,7 @@ public class ShadowBoolean extends ShadowValue
 	@Override
 	public Type getType()
 	{
-		return Type.BOOLEAN;
+		return Type.standard().BOOLEAN;
 	}
 	public boolean getValue()
 	{
@@ -29,7 +29,7 @@ public class ShadowBoolean extends ShadowValue
 	@Override
 	public ShadowValue cast(Type type) throws InterpreterException
 	{
-		if (type.equals(Type.BOOLEAN))
+		if (type.equals(Type.standard().BOOLEAN))
 			return this;
 		throw new UnsupportedOperationException("Cannot cast " + getType() + " to " + type);
 	}
@@ -12,7 +12,7 @@ public class ShadowClass extends ShadowObject {
 	private final Type representedType;
 
 	public ShadowClass(Type representedType) throws InterpreterException {
-		super(representedType.isParameterized() ? Type.GENERIC_CLASS : Type.CLASS);
+		super(representedType.isParameterized() ? Type.standard().GENERIC_CLASS : Type.standard().CLASS);
 		this.representedType = representedType;
 	}
 
@@ -42,12 +42,12 @@ public class ShadowClass extends ShadowObject {
 		if(representedType instanceof ClassType) {
 			ClassType classType = (ClassType) representedType;
 			if(classType.getExtendType() == null)
-				return new ShadowNull(Type.CLASS);
+				return new ShadowNull(Type.standard().CLASS);
 			else
 				return new ShadowClass(classType.getExtendType());
 		}
 		
-		return new ShadowNull(Type.CLASS);
+		return new ShadowNull(Type.standard().CLASS);
 	}
 	
 
@@ -17,7 +17,7 @@ public class ShadowCode extends ShadowNumber
 	@Override
 	public Type getType()
 	{
-		return Type.CODE;
+		return Type.standard().CODE;
 	}
 
 	public int getValue()
@@ -28,27 +28,27 @@ public class ShadowCode extends ShadowNumber
 	@Override
 	public ShadowValue cast(Type type) throws InterpreterException
 	{
-		if(type.equals(Type.CODE))
+		if(type.equals(Type.standard().CODE))
 			return this;
-		if (type.equals(Type.BYTE))
+		if (type.equals(Type.standard().BYTE))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 1, true);
-		if (type.equals(Type.SHORT))
+		if (type.equals(Type.standard().SHORT))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 2, true);
-		if (type.equals(Type.INT))
+		if (type.equals(Type.standard().INT))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 4, true);
-		if (type.equals(Type.LONG))
+		if (type.equals(Type.standard().LONG))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 8, true);
-		if (type.equals(Type.UBYTE))
+		if (type.equals(Type.standard().UBYTE))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 1, false);
-		if (type.equals(Type.USHORT))
+		if (type.equals(Type.standard().USHORT))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 2, false);
-		if (type.equals(Type.UINT))
+		if (type.equals(Type.standard().UINT))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 4, false);
-		if (type.equals(Type.ULONG))
+		if (type.equals(Type.standard().ULONG))
 			return new ShadowInteger(BigInteger.valueOf(getValue()), 8, false);
-		if (type.equals(Type.FLOAT))
+		if (type.equals(Type.standard().FLOAT))
 			return new ShadowFloat(getValue());
-		if (type.equals(Type.DOUBLE))
+		if (type.equals(Type.standard().DOUBLE))
 			return new ShadowDouble(getValue());
 		throw new UnsupportedOperationException("Cannot cast " + getType() + " to " + type);
 	}
@@ -17,7 +17,7 @@ public class ShadowDouble extends ShadowNumeric
 	@Override
 	public Type getType()
 	{
-		return Type.DOUBLE;
+		return Type.standard().DOUBLE;
 	}
 	public double getValue()
 	{
@@ -46,27 +46,27 @@ public class ShadowDouble extends ShadowNumeric
 	@Override
 	public ShadowValue cast(Type type) throws InterpreterException {
 		BigInteger integer = BigInteger.valueOf(Math.round(value));
-		if (type.equals(Type.BYTE))
+		if (type.equals(Type.standard().BYTE))
 			return new ShadowInteger(integer, 1, true);
-		if (type.equals(Type.SHORT))
+		if (type.equals(Type.standard().SHORT))
 			return new ShadowInteger(integer, 2, true);
-		if (type.equals(Type.INT))
+		if (type.equals(Type.standard().INT))
 			return new ShadowInteger(integer, 4, true);
-		if (type.equals(Type.LONG))
+		if (type.equals(Type.standard().LONG))
 			return new ShadowInteger(integer, 8, true);
-		if (type.equals(Type.UBYTE))
+		if (type.equals(Type.standard().UBYTE))
 			return new ShadowInteger(integer, 1, false);
-		if (type.equals(Type.USHORT))
+		if (type.equals(Type.standard().USHORT))
 			return new ShadowInteger(integer, 2, false);
-		if (type.equals(Type.UINT))
+		if (type.equals(Type.standard().UINT))
 			return new ShadowInteger(integer, 4, false);
-		if (type.equals(Type.ULONG))
+		if (type.equals(Type.standard().ULONG))
 			return new ShadowInteger(integer, 8, false);
-		if (type.equals(Type.FLOAT))
+		if (type.equals(Type.standard().FLOAT))
 			return new ShadowFloat((float)getValue());
-		if (type.equals(Type.DOUBLE))
+		if (type.equals(Type.standard().DOUBLE))
 			return this;
-		if( type.equals(Type.CODE) )
+		if( type.equals(Type.standard().CODE) )
 			return new ShadowCode( integer.intValue() );
 		return this;
 	}
@@ -241,7 +241,7 @@ public class ShadowDouble extends ShadowNumeric
 	}
 	@Override
 	public ShadowDouble power(ShadowNumber number) throws InterpreterException {
-		double exponent = ((ShadowDouble)number.cast(Type.DOUBLE)).getValue();
+		double exponent = ((ShadowDouble)number.cast(Type.standard().DOUBLE)).getValue();
 		return new ShadowDouble(Math.pow(value, exponent));
 	}
 	@Override
@@ -262,12 +262,12 @@ public class ShadowDouble extends ShadowNumeric
 	}
 	@Override
 	public ShadowDouble max(ShadowNumber number) throws InterpreterException {
-		double other = ((ShadowDouble)number.cast(Type.DOUBLE)).getValue();
+		double other = ((ShadowDouble)number.cast(Type.standard().DOUBLE)).getValue();
 		return new ShadowDouble(Math.max(value, other));
 	}
 	@Override
 	public ShadowDouble min(ShadowNumber number) throws InterpreterException {
-		double other = ((ShadowDouble)number.cast(Type.DOUBLE)).getValue();
+		double other = ((ShadowDouble)number.cast(Type.standard().DOUBLE)).getValue();
 		return new ShadowDouble(Math.min(value, other));
 	}
 
@@ -17,7 +17,7 @@ public class ShadowFloat extends ShadowNumeric
 	@Override
 	public Type getType()
 	{
-		return Type.FLOAT;
+		return Type.standard().FLOAT;
 	}
 	public float getValue()
 	{
@@ -48,27 +48,27 @@ public class ShadowFloat extends ShadowNumeric
 	{
 		BigInteger integer = BigInteger.valueOf(Math.round((double)value));
 
-		if (type.equals(Type.BYTE))
+		if (type.equals(Type.standard().BYTE))
 			return new ShadowInteger(integer, 1, true);
-		if (type.equals(Type.SHORT))
+		if (type.equals(Type.standard().SHORT))
 			return new ShadowInteger(integer, 2, true);
-		if (type.equals(Type.INT))
+		if (type.equals(Type.standard().INT))
 			return new ShadowInteger(integer, 4, true);
-		if (type.equals(Type.LONG))
+		if (type.equals(Type.standard().LONG))
 			return new ShadowInteger(integer, 8, true);
-		if (type.equals(Type.UBYTE))
+		if (type.equals(Type.standard().UBYTE))
 			return new ShadowInteger(integer, 1, false);
-		if (type.equals(Type.USHORT))
+		if (type.equals(Type.standard().USHORT))
 			return new ShadowInteger(integer, 2, false);
-		if (type.equals(Type.UINT))
+		if (type.equals(Type.standard().UINT))
 			return new ShadowInteger(integer, 4, false);
-		if (type.equals(Type.ULONG))
+		if (type.equals(Type.standard().ULONG))
 			return new ShadowInteger(integer, 8, false);
-		if (type.equals(Type.FLOAT))
+		if (type.equals(Type.standard().FLOAT))
 			return this;
-		if (type.equals(Type.DOUBLE))
+		if (type.equals(Type.standard().DOUBLE))
 			return new ShadowDouble(getValue());
-		if( type.equals(Type.CODE) )
+		if( type.equals(Type.standard().CODE) )
 			return new ShadowCode( integer.intValue() );
 
 		throw new UnsupportedOperationException("Cannot cast " + getType() + " to " + type);
@@ -247,7 +247,7 @@ public class ShadowFloat extends ShadowNumeric
 	}
 	@Override
 	public ShadowFloat power(ShadowNumber number) throws InterpreterException {
-		double exponent = ((ShadowDouble)number.cast(Type.DOUBLE)).getValue();
+		double exponent = ((ShadowDouble)number.cast(Type.standard().DOUBLE)).getValue();
 		return new ShadowFloat((float)Math.pow(value, exponent));
 	}
 	@Override
@@ -268,12 +268,12 @@ public class ShadowFloat extends ShadowNumeric
 	}
 	@Override
 	public ShadowFloat max(ShadowNumber number) throws InterpreterException {
-		float other = ((ShadowFloat)number.cast(Type.FLOAT)).getValue();
+		float other = ((ShadowFloat)number.cast(Type.standard().FLOAT)).getValue();
 		return new ShadowFloat(Math.max(value, other));
 	}
 	@Override
 	public ShadowFloat min(ShadowNumber number) throws InterpreterException {
-		float other = ((ShadowFloat)number.cast(Type.FLOAT)).getValue();
+		float other = ((ShadowFloat)number.cast(Type.standard().FLOAT)).getValue();
 		return new ShadowFloat(Math.min(value, other));
 	}
 
@@ -148,18 +148,18 @@ public class ShadowInteger extends ShadowNumeric {
 	public Type getType() {
 		if( signed ) {
 			switch( size ) {
-			case 1: return Type.BYTE;
-			case 2: return Type.SHORT;
-			case 4: return Type.INT;
-			case 8: return Type.LONG;
+			case 1: return Type.standard().BYTE;
+			case 2: return Type.standard().SHORT;
+			case 4: return Type.standard().INT;
+			case 8: return Type.standard().LONG;
 			}
 		}
 		else {
 			switch( size ) {
-			case 1: return Type.UBYTE;
-			case 2: return Type.USHORT;
-			case 4: return Type.UINT;
-			case 8: return Type.ULONG;
+			case 1: return Type.standard().UBYTE;
+			case 2: return Type.standard().USHORT;
+			case 4: return Type.standard().UINT;
+			case 8: return Type.standard().ULONG;
 			}
 		}
 
@@ -205,27 +205,27 @@ public class ShadowInteger extends ShadowNumeric {
 	{
 		if(type.equals(getType()))
 			return this;		
-		if (type.equals(Type.BYTE))
+		if (type.equals(Type.standard().BYTE))
 			return new ShadowInteger(value, 1, true);
-		if (type.equals(Type.SHORT))
+		if (type.equals(Type.standard().SHORT))
 			return new ShadowInteger(value, 2, true);
-		if (type.equals(Type.INT))
+		if (type.equals(Type.standard().INT))
 			return new ShadowInteger(value, 4, true);
-		if (type.equals(Type.LONG))
+		if (type.equals(Type.standard().LONG))
 			return new ShadowInteger(value, 8, true);
-		if (type.equals(Type.UBYTE))
+		if (type.equals(Type.standard().UBYTE))
 			return new ShadowInteger(value, 1, false);
-		if (type.equals(Type.USHORT))
+		if (type.equals(Type.standard().USHORT))
 			return new ShadowInteger(value, 2, false);
-		if (type.equals(Type.UINT))
+		if (type.equals(Type.standard().UINT))
 			return new ShadowInteger(value, 4, false);
-		if (type.equals(Type.ULONG))
+		if (type.equals(Type.standard().ULONG))
 			return new ShadowInteger(value, 8, false);
-		if (type.equals(Type.DOUBLE))
+		if (type.equals(Type.standard().DOUBLE))
 			return new ShadowDouble( value.doubleValue() );
-		if (type.equals(Type.FLOAT ))
+		if (type.equals(Type.standard().FLOAT ))
 			return new ShadowFloat( value.floatValue() );
-		if( type.equals(Type.CODE) )
+		if( type.equals(Type.standard().CODE) )
 			return new ShadowCode( value.intValue() );
 		throw new InterpreterException(Error.MISMATCHED_TYPE, "Cannot cast " + getType() + " to " + type);
 	}
@@ -274,7 +274,8 @@ public class ShadowInteger extends ShadowNumeric {
     public ShadowInteger modulus(ShadowValue other) throws InterpreterException {
 		if( getType().equals(other.getType()) ) {
 			ShadowInteger input = (ShadowInteger)other;
-			return new ShadowInteger( value.mod(input.value), size, signed);
+			// Like the generated code, the remainder has the sign of the dividend
+			return new ShadowInteger( value.remainder(input.value), size, signed);
 		}
 
 		throw new InterpreterException(Error.MISMATCHED_TYPE, "Type " + getType() + " does not match " + other.getType());
@@ -425,10 +426,10 @@ public class ShadowInteger extends ShadowNumeric {
 	@Override
     public ShadowInteger hash() throws InterpreterException {
 		if( size < 8 )
-			return (ShadowInteger)cast(Type.UINT);
+			return (ShadowInteger)cast(Type.standard().UINT);
 
-		ShadowInteger first = (ShadowInteger)cast(Type.UINT);
-		ShadowInteger second = (ShadowInteger)bitShiftRight(new ShadowInteger(BigInteger.valueOf(32), 4, false)).cast(Type.UINT);
+		ShadowInteger first = (ShadowInteger)cast(Type.standard().UINT);
+		ShadowInteger second = (ShadowInteger)bitShiftRight(new ShadowInteger(BigInteger.valueOf(32), 4, false)).cast(Type.standard().UINT);
 
 		return first.bitwiseXor(second);
 	}
@@ -493,7 +494,7 @@ public class ShadowInteger extends ShadowNumeric {
 	}
 	@Override
 	public ShadowDouble power(ShadowNumber number) throws InterpreterException {
-		double exponent = ((ShadowDouble)number.cast(Type.DOUBLE)).getValue();
+		double exponent = ((ShadowDouble)number.cast(Type.standard().DOUBLE)).getValue();
 		return new ShadowDouble(Math.pow(value.doubleValue(), exponent));
 	}
 	@Override
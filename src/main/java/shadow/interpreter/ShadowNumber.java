@@ -41,47 +41,47 @@ public abstract class ShadowNumber extends ShadowValue {
 	
 
 	public ShadowNumber toByte() throws InterpreterException {
-		return (ShadowNumber) cast(Type.BYTE);
+		return (ShadowNumber) cast(Type.standard().BYTE);
 	}
 
 	public ShadowNumber toUByte() throws InterpreterException {
-		return (ShadowNumber) cast(Type.UBYTE);
+		return (ShadowNumber) cast(Type.standard().UBYTE);
 	}
 
 	public ShadowNumber toShort() throws InterpreterException {
-		return (ShadowNumber) cast(Type.SHORT);
+		return (ShadowNumber) cast(Type.standard().SHORT);
 	}
 
 	public ShadowNumber toUShort() throws InterpreterException {
-		return (ShadowNumber) cast(Type.USHORT);
+		return (ShadowNumber) cast(Type.standard().USHORT);
 	}
 
 	public ShadowNumber toInt() throws InterpreterException {
-		return (ShadowNumber) cast(Type.INT);
+		return (ShadowNumber) cast(Type.standard().INT);
 	}
 	
 	public ShadowNumber toUInt() throws InterpreterException {
-		return (ShadowNumber) cast(Type.UINT);
+		return (ShadowNumber) cast(Type.standard().UINT);
 	}
 
 	public ShadowNumber toLong() throws InterpreterException {
-		return (ShadowNumber) cast(Type.LONG);
+		return (ShadowNumber) cast(Type.standard().LONG);
 	}
 
 	public ShadowNumber toULong() throws InterpreterException {
-		return (ShadowNumber) cast(Type.ULONG);
+		return (ShadowNumber) cast(Type.standard().ULONG);
 	}
 
 	public ShadowNumber toCode() throws InterpreterException {
-		return (ShadowNumber) cast(Type.CODE);
+		return (ShadowNumber) cast(Type.standard().CODE);
 	}
 
 	public ShadowNumber toFloat() throws InterpreterException {
-		return (ShadowNumber) cast(Type.FLOAT);
+		return (ShadowNumber) cast(Type.standard().FLOAT);
 	}
 
 	public ShadowNumber toDouble() throws InterpreterException {
-		return (ShadowNumber) cast(Type.DOUBLE);
+		return (ShadowNumber) cast(Type.standard().DOUBLE);
 	}
 	
 	
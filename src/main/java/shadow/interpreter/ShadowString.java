@@ -24,7 +24,7 @@ public class ShadowString extends ShadowValue {
 	}
 	@Override
 	public Type getType() {
-		return Type.STRING;
+		return Type.standard().STRING;
 	}
 	public String getValue() {
 		return value;
@@ -32,38 +32,38 @@ public class ShadowString extends ShadowValue {
 	
 	@Override
 	public ShadowValue cast(Type type) throws InterpreterException {
-		if( !type.equals(Type.STRING) )
-			throw new InterpreterException(Error.MISMATCHED_TYPE, "Cannot convert type " + Type.STRING + " to " + type);
+		if( !type.equals(Type.standard().STRING) )
+			throw new InterpreterException(Error.MISMATCHED_TYPE, "Cannot convert type " + Type.standard().STRING + " to " + type);
 		
 		return this;
 	}
 	
 	public ShadowValue convert(Type type) throws InterpreterException {
-		if( type.equals(Type.STRING))
+		if( type.equals(Type.standard().STRING))
 			return this;
 		
-		if( type.equals(Type.BYTE) )
+		if( type.equals(Type.standard().BYTE) )
 			return new ShadowInteger(new BigInteger(value), 1, true);
-		else if( type.equals(Type.SHORT) )
+		else if( type.equals(Type.standard().SHORT) )
 			return new ShadowInteger(new BigInteger(value), 2, true);
-		else if( type.equals(Type.INT) )
+		else if( type.equals(Type.standard().INT) )
 			return new ShadowInteger(new BigInteger(value), 4, true);
-		else if( type.equals(Type.LONG) )
+		else if( type.equals(Type.standard().LONG) )
 			return new ShadowInteger(new BigInteger(value), 8, true);		
-		else if( type.equals(Type.UBYTE) )
+		else if( type.equals(Type.standard().UBYTE) )
 			return new ShadowInteger(new BigInteger(value), 1, false);
-		else if( type.equals(Type.USHORT) )
+		else if( type.equals(Type.standard().USHORT) )
 			return new ShadowInteger(new BigInteger(value), 2, false);
-		else if( type.equals(Type.UINT) )
+		else if( type.equals(Type.standard().UINT) )
 			return new ShadowInteger(new BigInteger(value), 4, false);
-		else if( type.equals(Type.ULONG) )
+		else if( type.equals(Type.standard().ULONG) )
 			return new ShadowInteger(new BigInteger(value), 8, false);
-		else if( type.equals(Type.DOUBLE) )
+		else if( type.equals(Type.standard().DOUBLE) )
 			return new ShadowDouble( Double.parseDouble(value));
-		else if( type.equals(Type.FLOAT) )
+		else if( type.equals(Type.standard().FLOAT) )
 			return new ShadowFloat( Float.parseFloat(value));
 		
-		throw new InterpreterException(Error.MISMATCHED_TYPE, "Cannot convert type " + Type.STRING + " to " + type);		
+		throw new InterpreterException(Error.MISMATCHED_TYPE, "Cannot convert type " + Type.standard().STRING + " to " + type);		
 	}
 	
 	
@@ -154,7 +154,7 @@ public class ShadowString extends ShadowValue {
 	}
 	
 	public static boolean isSupportedMethod(MethodSignature signature) {
-		if( signature.getOuter().equals(Type.STRING) ) {
+		if( signature.getOuter().equals(Type.standard().STRING) ) {
 			switch( signature.getSymbol() ) {
 			case "index":
 			case "size":
@@ -179,7 +179,7 @@ public class ShadowString extends ShadowValue {
 				return true;
 			
 			case "concatenate":
-				return signature.getParameterTypes().get(0).getType().equals(Type.STRING);
+				return signature.getParameterTypes().get(0).getType().equals(Type.standard().STRING);
 			}
 		}
 		
@@ -195,16 +195,16 @@ public class ShadowString extends ShadowValue {
 			case "toLowerCase":	return new ShadowString(value.toLowerCase());
 			case "toUpperCase": return new ShadowString(value.toUpperCase());
 			case "toString":  return this;
-			case "toByte": return convert(Type.BYTE);
-			case "toUByte": return convert(Type.UBYTE);
-			case "toShort": return convert(Type.SHORT);
-			case "toUShort": return convert(Type.USHORT);
-			case "toInt": return convert(Type.INT);
-			case "toUInt": return convert(Type.UINT);
-			case "toLong": return convert(Type.LONG);
-			case "toULong": return convert(Type.ULONG);
-			case "toFloat": return convert(Type.FLOAT);
-			case "toDouble": return convert(Type.DOUBLE);
+			case "toByte": return convert(Type.standard().BYTE);
+			case "toUByte": return convert(Type.standard().UBYTE);
+			case "toShort": return convert(Type.standard().SHORT);
+			case "toUShort": return convert(Type.standard().USHORT);
+			case "toInt": return convert(Type.standard().INT);
+			case "toUInt": return convert(Type.standard().UINT);
+			case "toLong": return convert(Type.standard().LONG);
+			case "toULong": return convert(Type.standard().ULONG);
+			case "toFloat": return convert(Type.standard().FLOAT);
+			case "toDouble": return convert(Type.standard().DOUBLE);
 			}
 		}
 		else if(arguments.length == 1) {
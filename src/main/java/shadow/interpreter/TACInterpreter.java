@@ -52,10 +52,20 @@ public class TACInterpreter extends TACAbstractVisitor {
 	}
 
 	public static ShadowValue evaluate(TACUnary node) throws ShadowException {
+		return evaluate(node.getOperation(), value(TACOperand.value(node.getOperand())));
+	}
+
+	/**
+	 * Applies a unary operator to a value.
+	 * @param operation		operator, such as <code>-</code> or <code>!</code>
+	 * @param op			operand
+	 * @return				result, or <code>null</code> for unknown operators
+	 * @throws ShadowException if the operator cannot be applied
+	 */
+	public static ShadowValue evaluate(String operation, ShadowValue op) throws ShadowException {
 		ShadowValue data = null;
-		ShadowValue op = value(TACOperand.value(node.getOperand()));
 
-		switch(node.getOperation()) {
+		switch(operation) {
 		case "-": data = op.negate(); break;
 		case "#": data = new ShadowString(op.toString()); break;
 		case "~": data = op.bitwiseComplement(); break;
@@ -71,11 +81,22 @@ public class TACInterpreter extends TACAbstractVisitor {
 	}
 
 	public static ShadowValue evaluate(TACBinary node) throws ShadowException {
+		return evaluate(node.getOperation(), value(TACOperand.value(node.getFirst())),
+				value(TACOperand.value(node.getSecond())));
+	}
+
+	/**
+	 * Applies a binary operator to two values.
+	 * @param operation		operator, such as <code>+</code> or <code>&lt;</code>
+	 * @param left			first operand
+	 * @param right			second operand
+	 * @return				result, or <code>null</code> for unknown operators
+	 * @throws ShadowException if the operator cannot be applied
+	 */
+	public static ShadowValue evaluate(String operation, ShadowValue left, ShadowValue right) throws ShadowException {
 		ShadowValue data = null;
-		ShadowValue left = value(TACOperand.value(node.getFirst())),
-				right = value(TACOperand.value(node.getSecond()));
 
-		switch( node.getOperation() ) {
+		switch( operation ) {
 		case "+":
 		case "-":
 		case "*":
@@ -97,7 +118,7 @@ public class TACInterpreter extends TACAbstractVisitor {
 				right = right.cast(left.getType());
 
 			//sure, a bit ugly
-			switch( node.getOperation() ) {
+			switch( operation ) {
 			case "+":
 				data = left.add(right); break;
 			case "-":
@@ -228,7 +249,7 @@ public class TACInterpreter extends TACAbstractVisitor {
 			if( signature.isCreate() ) {
 
 				//must be String
-				if( !signature.getOuter().equals(Type.STRING) )
+				if( !signature.getOuter().equals(Type.standard().STRING) )
 					throw new InterpreterException(Error.UNSUPPORTED_OPERATION, "Cannot call method " + signature);
 				else {
 					if( parameters.size() == 1 )
@@ -268,17 +289,17 @@ public class TACInterpreter extends TACAbstractVisitor {
 				case "hash": data = prefix.hash(); break;
 
 				//conversion
-				case "toByte": type = Type.BYTE;
-				case "toCode": type = Type.CODE;
-				case "toDouble": type = Type.DOUBLE;
-				case "toFloat": type = Type.FLOAT;
-				case "toInt": type = Type.INT;
-				case "toLong": type = Type.LONG;
-				case "toShort": type = Type.SHORT;
-				case "toUByte": type = Type.UBYTE;
-				case "toUInt": type = Type.UINT;
-				case "toULong": type = Type.ULONG;
-				case "toUShort": type = Type.USHORT;
+				case "toByte": type = Type.standard().BYTE;
+				case "toCode": type = Type.standard().CODE;
+				case "toDouble": type = Type.standard().DOUBLE;
+				case "toFloat": type = Type.standard().FLOAT;
+				case "toInt": type = Type.standard().INT;
+				case "toLong": type = Type.standard().LONG;
+				case "toShort": type = Type.standard().SHORT;
+				case "toUByte": type = Type.standard().UBYTE;
+				case "toUInt": type = Type.standard().UINT;
+				case "toULong": type = Type.standard().ULONG;
+				case "toUShort": type = Type.standard().USHORT;
 
 				if( prefix instanceof ShadowString )
 					data = ((ShadowString)prefix).convert(type);
@@ -430,7 +451,7 @@ public class TACInterpreter extends TACAbstractVisitor {
 
 	@Override
 	public void visit(TACNewObject node) throws ShadowException { 
-		if( !node.getClassType().equals(Type.STRING)  )
+		if( !node.getClassType().equals(Type.standard().STRING)  )
 			throw new InterpreterException(Error.INVALID_CREATE, "Cannot create non-String type " + node.getClassType());
 	}
 
@@ -7,15 +7,29 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.file.Path;
+import java.util.Arrays;
 
 import shadow.ShadowException;
 
+/**
+ * Writes indented lines of text. Writers given to this class are flushed
+ * after every line, since their callers may read what was written before
+ * closing them. Streams and files are only written in large blocks (and
+ * when closed), since flushing each line of LLVM code on its way to
+ * <code>opt</code> costs a system call per line. Lines built in a
+ * <code>StringBuilder</code> can be written without first converting them
+ * to strings.
+ */
 public class TabbedLineWriter
 {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
 	private boolean lineNumbers;
 	private int indent, line;
 	private Writer out;
 	private boolean atLineStart = true;
+	private boolean flushLines = true;
+	private char[] chars = new char[256];
 	public TabbedLineWriter(BufferedWriter writer) throws ShadowException
 	{
 		out = writer;
@@ -26,13 +40,15 @@ public class TabbedLineWriter
 	}
 	public TabbedLineWriter(OutputStream output) throws ShadowException
 	{
-		out = new OutputStreamWriter(output);
+		out = new BufferedWriter(new OutputStreamWriter(output), BUFFER_SIZE);
+		flushLines = false;
 	}
 	public TabbedLineWriter(String file) throws ShadowException
 	{
 		try
 		{
-			out = new FileWriter(file);
+			out = new BufferedWriter(new FileWriter(file), BUFFER_SIZE);
+			flushLines = false;
 		}
 		catch (IOException ex)
 		{
@@ -43,7 +59,8 @@ public class TabbedLineWriter
 	{
 		try
 		{
-			out = new FileWriter(file.toFile());
+			out = new BufferedWriter(new FileWriter(file.toFile()), BUFFER_SIZE);
+			flushLines = false;
 		}
 		catch (IOException ex)
 		{
@@ -75,22 +92,17 @@ public class TabbedLineWriter
 			indent = 0;
 	}
 	private static final int TAB_SIZE = 4, INDENT_BUFFER_SIZE = 8 * TAB_SIZE;
-	private static char[] indentBuffer;
+	private static final char[] indentBuffer = new char[INDENT_BUFFER_SIZE];
+	static
+	{
+		Arrays.fill(indentBuffer, ' ');
+	}
 	private void writeIndent(int amount) throws IOException
 	{
-		if (amount < 0)
-			return;
-		char[] b = indentBuffer;
-		if (b == null)
-		{
-			indentBuffer = b = new char[INDENT_BUFFER_SIZE];
-			for (int i = 0; i < b.length; i++)
-				b[i] = ' ';
-		}
 		while (amount > 0)
 		{
 			int current = Math.min(amount, INDENT_BUFFER_SIZE);
-			out.write(b, 0, amount);
+			out.write(indentBuffer, 0, current);
 			amount -= current;
 		}
 	}
@@ -108,14 +120,12 @@ public class TabbedLineWriter
 			out.write(": ");
 		}
 	}
-	private static String newline;
+	private static final String newline = System.getProperty("line.separator");
 	private void writeNewline() throws IOException
 	{
-		String nl = newline;
-		if (nl == null)
-			newline = nl = System.getProperty("line.separator");
-		out.write(nl);
-		out.flush();
+		out.write(newline);
+		if (flushLines)
+			out.flush();
 		
 		atLineStart = true;
 	}
@@ -145,6 +155,41 @@ public class TabbedLineWriter
 			throw new OutputException(ex.getLocalizedMessage());
 		}
 	}
+	public void write(StringBuilder builder) throws ShadowException
+	{
+		try
+		{
+			writeLine();
+			writeIndent();
+			writeChars(builder);
+			writeNewline();
+		}
+		catch (IOException ex)
+		{
+			throw new OutputException(ex.getLocalizedMessage());
+		}
+	}
+	public void writeLeft(StringBuilder builder) throws ShadowException
+	{
+		try
+		{
+			writeLine();
+			writeChars(builder);
+			writeNewline();
+		}
+		catch (IOException ex)
+		{
+			throw new OutputException(ex.getLocalizedMessage());
+		}
+	}
+	private void writeChars(StringBuilder builder) throws IOException
+	{
+		int length = builder.length();
+		if (chars.length < length)
+			chars = new char[Math.max(length, chars.length * 2)];
+		builder.getChars(0, length, chars, 0);
+		out.write(chars, 0, length);
+	}
 	public void writeLeft(String string) throws ShadowException
 	{
 		try
@@ -0,0 +1,599 @@
+package shadow.output.bitcode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import shadow.output.OutputException;
+import shadow.output.bitcode.BitstreamWriter.Record;
+import shadow.output.bitcode.LLVMType.Kind;
+
+/**
+ * Encodes the LLVM assembly written by {@link shadow.output.llvm.LLVMOutput}
+ * as LLVM bitcode, so that <code>opt</code> can load a module without
+ * parsing text. Because the assembly is the input, all of the decisions
+ * about how Shadow types, methods and values are named and laid out stay in
+ * <code>LLVMOutput</code>.
+ * <p>
+ * The bitcode uses the relative value numbering and explicit types of
+ * modern LLVM versions, but keeps names in a module symbol table rather
+ * than a string table, so it can be read by any version of LLVM that the
+ * compiler supports. Local values and blocks are not named, as their names
+ * do not survive optimization anyway.
+ */
+public class BitcodeWriter {
+
+	// Block IDs
+	private static final int MODULE_BLOCK = 8;
+	private static final int ATTRIBUTE_BLOCK = 9;
+	private static final int ATTRIBUTE_GROUP_BLOCK = 10;
+	private static final int CONSTANTS_BLOCK = 11;
+	private static final int FUNCTION_BLOCK = 12;
+	private static final int IDENTIFICATION_BLOCK = 13;
+	private static final int SYMBOL_TABLE_BLOCK = 14;
+	private static final int TYPE_BLOCK = 17;
+	private static final int OPERAND_BUNDLE_TAGS_BLOCK = 21;
+
+	// Record codes used in bitcode
+	private static final int IDENTIFICATION_STRING = 1;
+	private static final int IDENTIFICATION_EPOCH = 2;
+	private static final int MODULE_VERSION = 1;
+	private static final int MODULE_GLOBAL_VARIABLE = 7;
+	private static final int MODULE_FUNCTION = 8;
+	private static final int ATTRIBUTE_ENTRY = 2;
+	private static final int ATTRIBUTE_GROUP_ENTRY = 3;
+	private static final int OPERAND_BUNDLE_TAG = 1;
+	private static final int SYMBOL_TABLE_ENTRY = 1;
+	private static final int FUNCTION_DECLARE_BLOCKS = 1;
+	private static final int FUNCTION_OPERAND_BUNDLE = 55;
+
+	private static final int TYPE_ENTRIES = 1;
+	private static final int TYPE_VOID = 2;
+	private static final int TYPE_FLOAT = 3;
+	private static final int TYPE_DOUBLE = 4;
+	private static final int TYPE_LABEL = 5;
+	private static final int TYPE_OPAQUE = 6;
+	private static final int TYPE_INTEGER = 7;
+	private static final int TYPE_POINTER = 8;
+	private static final int TYPE_ARRAY = 11;
+	private static final int TYPE_STRUCT = 18;
+	private static final int TYPE_STRUCT_NAME = 19;
+	private static final int TYPE_NAMED_STRUCT = 20;
+	private static final int TYPE_FUNCTION = 21;
+	private static final int TYPE_TOKEN = 22;
+
+	private static final int CONSTANT_SET_TYPE = 1;
+	private static final int CONSTANT_NULL = 2;
+	private static final int CONSTANT_UNDEF = 3;
+	private static final int CONSTANT_INTEGER = 4;
+	private static final int CONSTANT_FLOAT = 6;
+	private static final int CONSTANT_AGGREGATE = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_CAST = 11;
+	private static final int CONSTANT_GEP = 12;
+	private static final int CONSTANT_INBOUNDS_GEP = 20;
+	private static final int CONSTANT_BLOCK_ADDRESS = 21;
+	private static final int CONSTANT_DATA = 22;
+
+	// Flags in call, invoke and alloca records
+	private static final int CALL_EXPLICIT_TYPE = 1 << 15;
+	private static final int INVOKE_EXPLICIT_TYPE = 1 << 13;
+	private static final int ALLOCA_EXPLICIT_TYPE = 1 << 6;
+
+	// Tags known to every LLVM context, in order of their IDs
+	private static final String[] OPERAND_BUNDLE_TAGS = { "deopt", "funclet", "gc-transition" };
+	private static final int FUNCLET_TAG = 1;
+
+	private final OutputStream out;
+	private final BitstreamWriter stream = new BitstreamWriter();
+	private final Record record = new Record();
+	private final List<LLVMType> types = new ArrayList<>();
+	private Module module;
+	private int instructionID;	// ID of the next local value in a function
+
+	public BitcodeWriter(OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Encodes a module of LLVM assembly and writes it to the output stream.
+	 * @param text				bytes of the LLVM assembly
+	 * @throws OutputException	if the assembly cannot be encoded
+	 * @throws IOException		if the bitcode cannot be written
+	 */
+	public void write(byte[] text) throws OutputException, IOException {
+		module = new LLVMParser(text).parse();
+		enumerateTypes();
+		List<Global> globals = numberGlobals();
+		List<Constant> constants = numberConstants(globals.size());
+
+		// Magic number: 'BC' 0xC0DE
+		stream.emit('B', 8);
+		stream.emit('C', 8);
+		stream.emit(0x0, 4);
+		stream.emit(0xC, 4);
+		stream.emit(0xE, 4);
+		stream.emit(0xD, 4);
+
+		stream.enterBlock(IDENTIFICATION_BLOCK, 5);
+		stream.record(IDENTIFICATION_STRING, characters("Shadow"));
+		stream.record(IDENTIFICATION_EPOCH, 0);
+		stream.exitBlock();
+
+		stream.enterBlock(MODULE_BLOCK, 3);
+		// Version 1 uses relative IDs for operands
+		stream.record(MODULE_VERSION, 1);
+		writeAttributes();
+		writeTypes();
+		if( module.funclets ) {
+			stream.enterBlock(OPERAND_BUNDLE_TAGS_BLOCK, 3);
+			for( String tag : OPERAND_BUNDLE_TAGS )
+				stream.record(OPERAND_BUNDLE_TAG, characters(tag));
+			stream.exitBlock();
+		}
+		for( Global global : globals )
+			writeGlobal(global);
+		writeConstants(constants);
+		writeSymbolTable(globals);
+		for( Global global : globals )
+			if( global.hasBody() )
+				writeFunction(global, globals.size() + constants.size());
+		stream.exitBlock();
+
+		stream.writeTo(out);
+	}
+
+	private static long[] characters(String string) {
+		byte[] bytes = string.getBytes(StandardCharsets.ISO_8859_1);
+		long[] characters = new long[bytes.length];
+		for( int i = 0; i < bytes.length; ++i )
+			characters[i] = bytes[i] & 0xFF;
+		return characters;
+	}
+
+	/*
+	 * Types.
+	 */
+
+	private void enumerateTypes() {
+		for( LLVMType structure : module.getStructures() )
+			enumerate(structure);
+		for( Global global : module.getGlobals() ) {
+			enumerate(global.type);
+			enumerate(global.valueType);
+			for( Block block : global.blocks )
+				for( Instruction instruction : block.getInstructions() ) {
+					if( instruction.type != null )
+						enumerate(instruction.type);
+					if( instruction.result != null )
+						enumerate(instruction.result.type);
+				}
+		}
+		for( Constant constant : module.getConstants() ) {
+			enumerate(constant.type);
+			if( constant.getSourceType() != null )
+				enumerate(constant.getSourceType());
+		}
+	}
+
+	/*
+	 * Numbers a type after its contents, as a bitcode reader can only
+	 * refer ahead to named structures.
+	 */
+	private void enumerate(LLVMType type) {
+		if( type.id >= 0 )
+			return;
+		boolean named = type.getName() != null;
+		if( named )
+			type.id = Integer.MAX_VALUE;	// visiting
+		if( !type.isOpaque() )
+			for( LLVMType element : type.getElements() )
+				enumerate(element);
+		if( type.id >= 0 && type.id != Integer.MAX_VALUE )
+			return;
+		type.id = types.size();
+		types.add(type);
+	}
+
+	private void writeTypes() {
+		stream.enterBlock(TYPE_BLOCK, 4);
+		stream.record(TYPE_ENTRIES, types.size());
+		for( LLVMType type : types ) {
+			switch( type.getKind() ) {
+			case VOID: stream.record(TYPE_VOID); break;
+			case FLOAT: stream.record(TYPE_FLOAT); break;
+			case DOUBLE: stream.record(TYPE_DOUBLE); break;
+			case LABEL: stream.record(TYPE_LABEL); break;
+			case TOKEN: stream.record(TYPE_TOKEN); break;
+			case INTEGER: stream.record(TYPE_INTEGER, type.getWidth()); break;
+			case POINTER: stream.record(TYPE_POINTER, type.getElement().id, 0); break;
+			case ARRAY: stream.record(TYPE_ARRAY, type.getWidth(), type.getElement().id); break;
+			case FUNCTION:
+				record.clear().add(type.isVarArgs() ? 1 : 0);
+				for( LLVMType element : type.getElements() )
+					record.add(element.id);
+				stream.record(TYPE_FUNCTION, record);
+				break;
+			case STRUCT:
+				if( type.getName() != null )
+					stream.record(TYPE_STRUCT_NAME, characters(type.getName()));
+				if( type.isOpaque() ) {
+					stream.record(TYPE_OPAQUE, 0);
+					break;
+				}
+				record.clear().add(0);	// not packed
+				for( LLVMType element : type.getElements() )
+					record.add(element.id);
+				stream.record(type.getName() != null ? TYPE_NAMED_STRUCT : TYPE_STRUCT, record);
+				break;
+			}
+		}
+		stream.exitBlock();
+	}
+
+	/*
+	 * Attributes.
+	 */
+
+	private void writeAttributes() {
+		if( module.getAttributeLists().isEmpty() )
+			return;
+
+		stream.enterBlock(ATTRIBUTE_GROUP_BLOCK, 3);
+		int id = 1;
+		for( List<Long> group : module.getAttributeGroups() ) {
+			record.clear().add(id++).add(group.get(0));
+			long kinds = group.get(1);
+			for( int kind = 0; kind < 64; ++kind )
+				if( (kinds & (1L << kind)) != 0 )
+					record.add(0).add(kind);	// 0 marks an attribute without a value
+			stream.record(ATTRIBUTE_GROUP_ENTRY, record);
+		}
+		stream.exitBlock();
+
+		stream.enterBlock(ATTRIBUTE_BLOCK, 3);
+		for( List<Long> list : module.getAttributeLists() ) {
+			record.clear();
+			for( long group : list )
+				record.add(group);
+			stream.record(ATTRIBUTE_ENTRY, record);
+		}
+		stream.exitBlock();
+	}
+
+	/*
+	 * Globals and constants.
+	 */
+
+	// Variables are numbered before functions, as in LLVM's own writer
+	private List<Global> numberGlobals() {
+		List<Global> globals = new ArrayList<>();
+		for( Global global : module.getGlobals() )
+			if( !global.function )
+				globals.add(global);
+		for( Global global : module.getGlobals() )
+			if( global.function )
+				globals.add(global);
+		for( int i = 0; i < globals.size(); ++i )
+			globals.get(i).id = i;
+		return globals;
+	}
+
+	// Constants are grouped by type, since each change of type takes a record
+	private List<Constant> numberConstants(int first) {
+		List<Constant> constants = new ArrayList<>(module.getConstants());
+		constants.sort(Comparator.comparingInt(constant -> constant.type.id));
+		for( int i = 0; i < constants.size(); ++i )
+			constants.get(i).id = first + i;
+		return constants;
+	}
+
+	private void writeGlobal(Global global) {
+		record.clear();
+		if( global.function ) {
+			record.add(global.valueType.id);
+			record.add(0);		// C calling convention
+			record.add(global.hasBody() ? 0 : 1);
+			record.add(global.linkage);
+			record.add(global.attributes);
+			record.add(0).add(0).add(0).add(0);		// alignment, section, visibility, garbage collector
+			record.add(global.unnamedAddress ? 1 : 0);
+			record.add(0).add(0).add(0).add(0);		// prologue, DLL storage, comdat, prefix
+			record.add(global.personality == null ? 0 : global.personality.id + 1);
+			stream.record(MODULE_FUNCTION, record);
+		}
+		else {
+			record.add(global.valueType.id);
+			record.add(2 | (global.constant ? 1 : 0));	// explicit type, address space 0
+			record.add(global.initializer == null ? 0 : global.initializer.id + 1);
+			record.add(global.linkage);
+			record.add(0).add(0).add(0);			// alignment, section, visibility
+			record.add(global.threadLocal ? 1 : 0);	// general dynamic model
+			record.add(global.unnamedAddress ? 1 : 0);
+			record.add(0).add(0).add(0);			// externally initialized, DLL storage, comdat
+			stream.record(MODULE_GLOBAL_VARIABLE, record);
+		}
+	}
+
+	private void writeConstants(List<Constant> constants) throws OutputException {
+		stream.enterBlock(CONSTANTS_BLOCK, 4);
+		LLVMType type = null;
+		for( Constant constant : constants ) {
+			if( constant.type != type ) {
+				type = constant.type;
+				stream.record(CONSTANT_SET_TYPE, type.id);
+			}
+			record.clear();
+			switch( constant.getKind() ) {
+			case NULL:
+				stream.record(CONSTANT_NULL);
+				break;
+			case UNDEF:
+				stream.record(CONSTANT_UNDEF);
+				break;
+			case INTEGER:
+				stream.record(CONSTANT_INTEGER, signed(constant.getValue()));
+				break;
+			case FLOAT:
+				stream.record(CONSTANT_FLOAT, constant.getValue());
+				break;
+			case AGGREGATE:
+				for( Value element : constant.getOperands() )
+					record.add(element.id);
+				stream.record(CONSTANT_AGGREGATE, record);
+				break;
+			case DATA: {
+				LLVMType element = type.getElement();
+				long mask = element.is(Kind.INTEGER) && element.getWidth() < 64 ? (1L << element.getWidth()) - 1 : -1L;
+				for( long value : constant.getData() )
+					record.add(value & mask);
+				stream.record(element.is(Kind.INTEGER) && element.getWidth() == 8 ? CONSTANT_STRING : CONSTANT_DATA, record);
+				break;
+			}
+			case CAST: {
+				Value operand = constant.getOperands()[0];
+				stream.record(CONSTANT_CAST, constant.getValue(), operand.type.id, operand.id);
+				break;
+			}
+			case GEP:
+				record.add(constant.getSourceType().id);
+				for( Value operand : constant.getOperands() )
+					record.add(operand.type.id).add(operand.id);
+				stream.record(constant.getValue() != 0 ? CONSTANT_INBOUNDS_GEP : CONSTANT_GEP, record);
+				break;
+			case BLOCK_ADDRESS: {
+				Value function = constant.getOperands()[0];
+				if( constant.getBlock().index <= 0 )
+					throw new OutputException("Cannot take the address of an entry block");
+				stream.record(CONSTANT_BLOCK_ADDRESS, function.type.id, function.id, constant.getBlock().index);
+				break;
+			}
+			}
+		}
+		stream.exitBlock();
+	}
+
+	private static long signed(long value) {
+		return value >= 0 ? value << 1 : (-value << 1) | 1;
+	}
+
+	private void writeSymbolTable(List<Global> globals) {
+		stream.enterBlock(SYMBOL_TABLE_BLOCK, 4);
+		for( Global global : globals ) {
+			record.clear().add(global.id);
+			for( long character : characters(global.getName()) )
+				record.add(character);
+			stream.record(SYMBOL_TABLE_ENTRY, record);
+		}
+		stream.exitBlock();
+	}
+
+	/*
+	 * Functions.
+	 */
+
+	private void writeFunction(Global function, int firstLocal) {
+		int id = firstLocal;
+		for( Local argument : function.arguments )
+			argument.id = id++;
+		for( Block block : function.blocks )
+			for( Instruction instruction : block.getInstructions() )
+				if( instruction.result != null )
+					instruction.result.id = id++;
+
+		stream.enterBlock(FUNCTION_BLOCK, 4);
+		stream.record(FUNCTION_DECLARE_BLOCKS, function.blocks.size());
+		instructionID = firstLocal + function.arguments.size();
+		for( Block block : function.blocks )
+			for( Instruction instruction : block.getInstructions() ) {
+				writeInstruction(instruction);
+				if( instruction.result != null )
+					++instructionID;
+			}
+		stream.exitBlock();
+	}
+
+	private void writeInstruction(Instruction instruction) {
+		Value[] operands = instruction.operands;
+		Block[] blocks = instruction.blocks;
+		record.clear();
+		switch( instruction.opcode ) {
+		case RETURN:
+			if( operands.length > 0 )
+				pushValueAndType(operands[0]);
+			break;
+		case BRANCH:
+			record.add(blocks[0].index);
+			if( blocks.length > 1 ) {
+				record.add(blocks[1].index);
+				pushValue(operands[0]);
+			}
+			break;
+		case SWITCH:
+			record.add(instruction.type.id);
+			pushValue(operands[0]);
+			record.add(blocks[0].index);
+			for( int i = 1; i < operands.length; ++i )
+				record.add(operands[i].id).add(blocks[i].index);
+			break;
+		case INDIRECT_BRANCH:
+			record.add(instruction.type.id);
+			pushValue(operands[0]);
+			for( Block block : blocks )
+				record.add(block.index);
+			break;
+		case INVOKE:
+			writeFunclet(instruction);
+			record.add(instruction.attributes);
+			record.add(INVOKE_EXPLICIT_TYPE);
+			record.add(blocks[0].index).add(blocks[1].index);
+			pushCall(instruction);
+			break;
+		case CALL:
+			writeFunclet(instruction);
+			record.add(instruction.attributes);
+			record.add(instruction.code | CALL_EXPLICIT_TYPE);	// tail call flag
+			pushCall(instruction);
+			break;
+		case RESUME:
+			pushValueAndType(operands[0]);
+			break;
+		case CLEANUP_RETURN:
+			pushValue(operands[0]);
+			if( blocks.length > 0 )
+				record.add(blocks[0].index);
+			break;
+		case CATCH_RETURN:
+			pushValue(operands[0]);
+			record.add(blocks[0].index);
+			break;
+		case CATCH_SWITCH:
+			pushValue(operands[0]);
+			record.add(blocks.length - instruction.code);	// handlers, then any unwind destination
+			for( Block block : blocks )
+				record.add(block.index);
+			break;
+		case CATCH_PAD:
+		case CLEANUP_PAD:
+			pushValue(operands[0]);
+			record.add(operands.length - 1);
+			for( int i = 1; i < operands.length; ++i )
+				pushValueAndType(operands[i]);
+			break;
+		case BINARY:
+			pushValueAndType(operands[0]);
+			pushValue(operands[1]);
+			record.add(instruction.code);
+			break;
+		case CAST:
+			pushValueAndType(operands[0]);
+			record.add(instruction.type.id);
+			record.add(instruction.code);
+			break;
+		case COMPARE:
+			pushValueAndType(operands[0]);
+			pushValue(operands[1]);
+			record.add(instruction.code);
+			break;
+		case SELECT:
+			pushValueAndType(operands[1]);
+			pushValue(operands[2]);
+			pushValueAndType(operands[0]);
+			break;
+		case EXTRACT_VALUE:
+			pushValueAndType(operands[0]);
+			for( long index : instruction.indices )
+				record.add(index);
+			break;
+		case INSERT_VALUE:
+			pushValueAndType(operands[0]);
+			pushValueAndType(operands[1]);
+			for( long index : instruction.indices )
+				record.add(index);
+			break;
+		case PHI:
+			record.add(instruction.type.id);
+			for( int i = 0; i < operands.length; ++i ) {
+				// Incoming values are often defined later, so the offset is signed
+				record.add(signed((long) instructionID - operands[i].id));
+				record.add(blocks[i].index);
+			}
+			break;
+		case ALLOCA:
+			record.add(instruction.type.id);
+			record.add(operands[0].type.id);
+			record.add(operands[0].id);			// absolute
+			record.add(ALLOCA_EXPLICIT_TYPE);	// no alignment
+			break;
+		case LOAD:
+			pushValueAndType(operands[0]);
+			record.add(instruction.type.id);
+			record.add(0).add(0);				// no alignment, not volatile
+			break;
+		case STORE:
+			pushValueAndType(operands[1]);
+			pushValueAndType(operands[0]);
+			record.add(0).add(0);				// no alignment, not volatile
+			break;
+		case GET_ELEMENT_POINTER:
+			record.add(instruction.code);
+			record.add(instruction.type.id);
+			for( Value operand : operands )
+				pushValueAndType(operand);
+			break;
+		case LANDING_PAD:
+			record.add(instruction.type.id);
+			record.add(instruction.code);
+			record.add(operands.length);
+			for( int i = 0; i < operands.length; ++i ) {
+				record.add(instruction.indices[i]);
+				pushValueAndType(operands[i]);
+			}
+			break;
+		case UNREACHABLE:
+			break;
+		}
+		stream.record(instruction.opcode.getCode(), record);
+	}
+
+	/*
+	 * Adds the function type, callee and arguments of a call or invoke.
+	 * Arguments matching fixed parameters need no type.
+	 */
+	private void pushCall(Instruction instruction) {
+		Value[] operands = instruction.operands;
+		int parameters = instruction.type.getParameters().size();
+		record.add(instruction.type.id);
+		pushValueAndType(operands[0]);
+		for( int i = 1; i < operands.length; ++i ) {
+			if( i <= parameters )
+				pushValue(operands[i]);
+			else
+				pushValueAndType(operands[i]);
+		}
+	}
+
+	private void writeFunclet(Instruction instruction) {
+		if( instruction.funclet != null ) {
+			record.clear().add(FUNCLET_TAG);
+			pushValueAndType(instruction.funclet[0]);
+			stream.record(FUNCTION_OPERAND_BUNDLE, record);
+			record.clear();
+		}
+	}
+
+	// Operands are numbered relative to the instruction
+	private void pushValue(Value value) {
+		record.add((instructionID - value.id) & 0xFFFFFFFFL);
+	}
+
+	// Forward references also need their type
+	private void pushValueAndType(Value value) {
+		pushValue(value);
+		if( value.id >= instructionID )
+			record.add(value.type.id);
+	}
+}
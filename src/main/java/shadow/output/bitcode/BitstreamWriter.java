@@ -0,0 +1,134 @@
+package shadow.output.bitcode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Writes the LLVM bitstream container format: fields of arbitrary bit width
+ * packed from the least significant bit of little-endian 32-bit words,
+ * variable bit rate (VBR) integers, nested blocks and records.
+ * <p>
+ * No abbreviations are defined, so every record is written in the
+ * unabbreviated form, which any bitcode reader accepts. Block lengths are
+ * filled in when each block ends, so the whole stream is kept in memory
+ * until {@link #writeTo(OutputStream)} is called.
+ */
+class BitstreamWriter {
+
+	// Abbreviation IDs that are always defined
+	private static final int END_BLOCK = 0;
+	private static final int ENTER_SUBBLOCK = 1;
+	private static final int UNABBREV_RECORD = 3;
+
+	private int[] words = new int[1024];
+	private int wordCount;
+	private long current;	// bits not yet stored in a full word
+	private int bits;		// number of valid bits in current
+	private int abbreviationWidth = 2;
+
+	// Width of the enclosing block and position of its length word
+	private final Deque<int[]> blocks = new ArrayDeque<>();
+
+	public void emit(long value, int width) {
+		current |= (value & ((1L << width) - 1)) << bits;
+		bits += width;
+		if( bits >= 32 ) {
+			addWord((int) current);
+			current >>>= 32;
+			bits -= 32;
+		}
+	}
+
+	public void emitVBR(long value, int width) {
+		long threshold = 1L << (width - 1);
+		while( Long.compareUnsigned(value, threshold) >= 0 ) {
+			emit((value & (threshold - 1)) | threshold, width);
+			value >>>= width - 1;
+		}
+		emit(value, width);
+	}
+
+	private void addWord(int word) {
+		if( wordCount == words.length )
+			words = Arrays.copyOf(words, wordCount * 2);
+		words[wordCount++] = word;
+	}
+
+	private void alignToWord() {
+		if( bits > 0 )
+			emit(0, 32 - bits);
+	}
+
+	public void enterBlock(int id, int width) {
+		emit(ENTER_SUBBLOCK, abbreviationWidth);
+		emitVBR(id, 8);
+		emitVBR(width, 4);
+		alignToWord();
+		blocks.push(new int[] { abbreviationWidth, wordCount });
+		addWord(0);	// length in words, filled in by exitBlock()
+		abbreviationWidth = width;
+	}
+
+	public void exitBlock() {
+		emit(END_BLOCK, abbreviationWidth);
+		alignToWord();
+		int[] block = blocks.pop();
+		abbreviationWidth = block[0];
+		words[block[1]] = wordCount - block[1] - 1;
+	}
+
+	public void record(int code, long... operands) {
+		record(code, operands, operands.length);
+	}
+
+	public void record(int code, long[] operands, int length) {
+		emit(UNABBREV_RECORD, abbreviationWidth);
+		emitVBR(code, 6);
+		emitVBR(length, 6);
+		for( int i = 0; i < length; ++i )
+			emitVBR(operands[i], 6);
+	}
+
+	public void record(int code, Record operands) {
+		record(code, operands.values, operands.size);
+	}
+
+	/**
+	 * Writes the stream, which must not be inside any block.
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		alignToWord();
+		byte[] bytes = new byte[wordCount * 4];
+		for( int i = 0; i < wordCount; ++i ) {
+			int word = words[i];
+			bytes[4 * i] = (byte) word;
+			bytes[4 * i + 1] = (byte) (word >>> 8);
+			bytes[4 * i + 2] = (byte) (word >>> 16);
+			bytes[4 * i + 3] = (byte) (word >>> 24);
+		}
+		out.write(bytes);
+	}
+
+	/**
+	 * Growable list of record operands, reused between records.
+	 */
+	static class Record {
+		private long[] values = new long[64];
+		private int size;
+
+		public Record add(long value) {
+			if( size == values.length )
+				values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+			return this;
+		}
+
+		public Record clear() {
+			size = 0;
+			return this;
+		}
+	}
+}
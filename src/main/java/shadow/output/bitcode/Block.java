@@ -0,0 +1,26 @@
+package shadow.output.bitcode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A basic block. Bitcode refers to blocks by their position in the function,
+ * which is only known once the block is defined.
+ */
+class Block {
+	private final String name;
+	private final List<Instruction> instructions = new ArrayList<>();
+	int index = -1;
+
+	Block(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<Instruction> getInstructions() {
+		return instructions;
+	}
+}
@@ -0,0 +1,123 @@
+package shadow.output.bitcode;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A constant, including constant expressions. Constants are made unique by
+ * the {@link Module}, so each one is written to the bitcode only once.
+ */
+class Constant extends Value {
+
+	public enum Kind {
+		NULL,			// null, zeroinitializer or none
+		UNDEF,
+		INTEGER,		// value sign-extended to 64 bits
+		FLOAT,			// value holds the bits of a float or double
+		AGGREGATE,		// structure or array of operands
+		DATA,			// array of integer or floating-point values
+		CAST,			// value holds the cast opcode
+		GEP,			// value is 1 for inbounds
+		BLOCK_ADDRESS
+	}
+
+	private final Kind kind;
+	private final long value;
+	private final Value[] operands;
+	private final long[] data;
+	private final LLVMType sourceType;	// element type of a GEP pointer
+	private final Block block;			// target of a block address
+	private int hash;
+
+	private Constant(Kind kind, LLVMType type, long value, Value[] operands, long[] data, LLVMType sourceType, Block block) {
+		super(type);
+		this.kind = kind;
+		this.value = value;
+		this.operands = operands;
+		this.data = data;
+		this.sourceType = sourceType;
+		this.block = block;
+	}
+
+	public static Constant getNull(LLVMType type) {
+		return new Constant(Kind.NULL, type, 0, null, null, null, null);
+	}
+
+	public static Constant getUndef(LLVMType type) {
+		return new Constant(Kind.UNDEF, type, 0, null, null, null, null);
+	}
+
+	public static Constant getInteger(LLVMType type, long value) {
+		int shift = 64 - type.getWidth();
+		return new Constant(Kind.INTEGER, type, value << shift >> shift, null, null, null, null);
+	}
+
+	public static Constant getFloat(LLVMType type, long bits) {
+		return new Constant(Kind.FLOAT, type, bits, null, null, null, null);
+	}
+
+	public static Constant getAggregate(LLVMType type, Value[] elements) {
+		return new Constant(Kind.AGGREGATE, type, 0, elements, null, null, null);
+	}
+
+	public static Constant getData(LLVMType type, long[] elements) {
+		return new Constant(Kind.DATA, type, 0, null, elements, null, null);
+	}
+
+	public static Constant getCast(LLVMType type, int opcode, Value operand) {
+		return new Constant(Kind.CAST, type, opcode, new Value[] { operand }, null, null, null);
+	}
+
+	public static Constant getElementPointer(LLVMType type, boolean inbounds, LLVMType sourceType, Value[] operands) {
+		return new Constant(Kind.GEP, type, inbounds ? 1 : 0, operands, null, sourceType, null);
+	}
+
+	public static Constant getBlockAddress(LLVMType type, Global function, Block block) {
+		return new Constant(Kind.BLOCK_ADDRESS, type, 0, new Value[] { function }, null, null, block);
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public long getValue() {
+		return value;
+	}
+
+	public Value[] getOperands() {
+		return operands;
+	}
+
+	public long[] getData() {
+		return data;
+	}
+
+	public LLVMType getSourceType() {
+		return sourceType;
+	}
+
+	public Block getBlock() {
+		return block;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if( this == other )
+			return true;
+		if( !(other instanceof Constant) )
+			return false;
+		Constant constant = (Constant) other;
+		// Operands are globals or constants that are already unique
+		return kind == constant.kind && type == constant.type && value == constant.value &&
+				Arrays.equals(operands, constant.operands) && Arrays.equals(data, constant.data) &&
+				sourceType == constant.sourceType && block == constant.block;
+	}
+
+	@Override
+	public int hashCode() {
+		// Cached, since constants are hashed again as operands of larger ones
+		if( hash == 0 )
+			hash = Objects.hash(kind, type, value, Arrays.hashCode(operands), Arrays.hashCode(data), sourceType, block);
+		return hash;
+	}
+}
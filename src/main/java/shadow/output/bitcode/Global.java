@@ -0,0 +1,59 @@
+package shadow.output.bitcode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A global variable or function. Like locals, globals are created when they
+ * are first referred to and filled in when their definition is parsed.
+ */
+class Global extends Value {
+
+	// Linkage codes used in bitcode
+	public static final int EXTERNAL = 0;
+	public static final int INTERNAL = 3;
+	public static final int PRIVATE = 9;
+	public static final int LINKONCE_ODR = 19;
+
+	private final String name;
+	boolean defined;
+	boolean function;
+	int linkage = EXTERNAL;
+	boolean unnamedAddress;
+
+	// Variables
+	LLVMType valueType;
+	boolean constant;
+	boolean threadLocal;
+	Value initializer;
+
+	// Functions
+	int attributes;		// index of the attribute list, or 0 for none
+	Value personality;
+	final List<Local> arguments = new ArrayList<>();
+	final List<Block> blocks = new ArrayList<>();
+	final Map<String, Block> blockNames = new HashMap<>();
+
+	Global(String name, LLVMType type) {
+		super(type);
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean hasBody() {
+		return function && !blocks.isEmpty();
+	}
+
+	/**
+	 * Gets a block of this function by name, creating it if it has not been
+	 * referred to before.
+	 */
+	public Block getBlock(String name) {
+		return blockNames.computeIfAbsent(name, Block::new);
+	}
+}
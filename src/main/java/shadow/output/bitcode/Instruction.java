@@ -0,0 +1,55 @@
+package shadow.output.bitcode;
+
+/**
+ * An instruction in a basic block. The meaning of the fields depends on the
+ * opcode, following the layout of the bitcode record for the instruction:
+ * <ul>
+ * <li>{@code type} is the explicit type of the record, such as the allocated
+ * type of an <code>alloca</code>, the result of a cast or the function type
+ * of a call.</li>
+ * <li>{@code code} is the binary or cast opcode, the comparison predicate,
+ * whether a call is a tail call, whether a landing pad is a cleanup or
+ * whether a <code>getelementptr</code> is inbounds.</li>
+ * <li>{@code operands} and {@code blocks} are in the order LLVM stores them,
+ * so the value stored comes before the address.</li>
+ * </ul>
+ */
+class Instruction {
+
+	public enum Opcode {
+		RETURN(10), BRANCH(11), SWITCH(12), INVOKE(13), UNREACHABLE(15), INDIRECT_BRANCH(31), RESUME(39),
+		CLEANUP_RETURN(48), CATCH_RETURN(49), CATCH_SWITCH(52),
+		BINARY(2), CAST(3), SELECT(29), EXTRACT_VALUE(26), INSERT_VALUE(27), COMPARE(28),
+		PHI(16), ALLOCA(19), LOAD(20), GET_ELEMENT_POINTER(43), STORE(44), CALL(34),
+		LANDING_PAD(47), CATCH_PAD(50), CLEANUP_PAD(51);
+
+		private final int code;
+
+		Opcode(int code) {
+			this.code = code;
+		}
+
+		// Record code in a function block
+		public int getCode() {
+			return code;
+		}
+
+		public boolean isTerminator() {
+			return ordinal() <= CATCH_SWITCH.ordinal();
+		}
+	}
+
+	final Opcode opcode;
+	Local result;
+	LLVMType type;
+	int code;
+	int attributes;			// index of the attribute list of a call, or 0 for none
+	Value[] operands = new Value[0];
+	Block[] blocks = new Block[0];
+	long[] indices;			// aggregate indices, or the kinds of landing pad clauses
+	Value[] funclet;		// token of an enclosing funclet pad, as an operand bundle
+
+	Instruction(Opcode opcode) {
+		this.opcode = opcode;
+	}
+}
@@ -0,0 +1,1346 @@
+package shadow.output.bitcode;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.output.OutputException;
+import shadow.output.bitcode.Instruction.Opcode;
+import shadow.output.bitcode.LLVMType.Kind;
+
+/**
+ * Parses the LLVM assembly written by {@link shadow.output.llvm.LLVMOutput}
+ * into a {@link Module}. Only the parts of the language that the output
+ * uses are accepted: there is no metadata, no alignment and no flags on
+ * arithmetic. Anything else is reported as an error rather than guessed at,
+ * since a mistake would only show up as a confusing failure in
+ * <code>opt</code>.
+ * <p>
+ * Type definitions may refer to types defined later in the file, so the
+ * text is first scanned for them and each one is parsed when it is first
+ * used.
+ */
+class LLVMParser {
+
+	// Token kinds
+	private static final int END = 0;
+	private static final int LOCAL = 1;		// %name
+	private static final int GLOBAL = 2;		// @name
+	private static final int LABEL = 3;		// name:
+	private static final int WORD = 4;
+	private static final int INTEGER = 5;
+	private static final int FLOAT = 6;
+	private static final int STRING = 7;		// c"text"
+	private static final int QUOTED = 8;		// "text"
+	private static final int ELLIPSIS = 9;
+	private static final int SYMBOL = 10;
+
+	private static final Map<String, Integer> ATTRIBUTES = new HashMap<>();
+	private static final Map<String, Integer> BINARY_OPERATORS = new HashMap<>();
+	private static final Map<String, Integer> CASTS = new HashMap<>();
+	private static final Map<String, Integer> INTEGER_PREDICATES = new HashMap<>();
+	private static final Map<String, Integer> FLOAT_PREDICATES = new HashMap<>();
+
+	static {
+		String[] attributes = { "alwaysinline", "2", "inlinehint", "4", "noalias", "9", "nocapture", "11",
+				"noinline", "14", "noreturn", "17", "nounwind", "18", "readnone", "20", "readonly", "21",
+				"returned", "22", "signext", "24", "zeroext", "34", "cold", "36", "nonnull", "39" };
+		for( int i = 0; i < attributes.length; i += 2 )
+			ATTRIBUTES.put(attributes[i], Integer.valueOf(attributes[i + 1]));
+
+		String[] operators = { "add", "sub", "mul", "udiv", "sdiv", "urem", "srem", "shl", "lshr", "ashr", "and", "or", "xor" };
+		for( int i = 0; i < operators.length; ++i )
+			BINARY_OPERATORS.put(operators[i], i);
+		// Floating-point operations share the codes of their integer counterparts
+		String[] floatOperators = { "fadd", "fsub", "fmul", null, "fdiv", null, "frem" };
+		for( int i = 0; i < floatOperators.length; ++i )
+			if( floatOperators[i] != null )
+				BINARY_OPERATORS.put(floatOperators[i], i);
+
+		String[] casts = { "trunc", "zext", "sext", "fptoui", "fptosi", "uitofp", "sitofp", "fptrunc", "fpext",
+				"ptrtoint", "inttoptr", "bitcast" };
+		for( int i = 0; i < casts.length; ++i )
+			CASTS.put(casts[i], i);
+
+		String[] integerPredicates = { "eq", "ne", "ugt", "uge", "ult", "ule", "sgt", "sge", "slt", "sle" };
+		for( int i = 0; i < integerPredicates.length; ++i )
+			INTEGER_PREDICATES.put(integerPredicates[i], 32 + i);
+
+		String[] floatPredicates = { "false", "oeq", "ogt", "oge", "olt", "ole", "one", "ord", "uno", "ueq",
+				"ugt", "uge", "ult", "ule", "une", "true" };
+		for( int i = 0; i < floatPredicates.length; ++i )
+			FLOAT_PREDICATES.put(floatPredicates[i], i);
+	}
+
+	private final byte[] text;
+	private final int length;
+	private final Module module = new Module();
+
+	// Named types, by the offset just after "type" in their definitions
+	private final Map<String, Integer> typeDefinitions = new HashMap<>();
+	private final Map<String, LLVMType> namedTypes = new HashMap<>();
+	private final Map<String, Integer> typeEnds = new HashMap<>();
+	private final Set<String> resolving = new HashSet<>();
+
+	// Current token, whose text runs from start to end without any sigil or quotes
+	private int position;
+	private int kind;
+	private int offset, start, end;
+
+	// Function being parsed
+	private Global function;
+	private final Map<String, Local> locals = new HashMap<>();
+	private int unnamed;
+
+	public LLVMParser(byte[] text) {
+		this.text = text;
+		length = text.length;
+	}
+
+	public Module parse() throws OutputException {
+		findTypeDefinitions();
+		position = 0;
+		next();
+		while( kind != END ) {
+			if( kind == LOCAL )
+				parseTypeDefinition();
+			else if( kind == GLOBAL )
+				parseGlobalVariable();
+			else if( isWord("declare") )
+				parseFunction(false);
+			else if( isWord("define") )
+				parseFunction(true);
+			else
+				throw error("Unexpected " + describe());
+		}
+
+		for( Global global : module.getGlobals() )
+			if( !global.defined )
+				throw new OutputException("Undefined global @" + global.getName());
+
+		return module;
+	}
+
+	/*
+	 * Types.
+	 */
+
+	private void findTypeDefinitions() throws OutputException {
+		for( int i = 0; i < length; ++i ) {
+			if( text[i] == '%' && (i == 0 || text[i - 1] == '\n') ) {
+				position = i;
+				next();
+				String name = text();
+				next();
+				if( isSymbol('=') ) {
+					next();
+					if( isWord("type") && typeDefinitions.put(name, end) != null )
+						throw error("Type %" + name + " is defined more than once");
+				}
+			}
+		}
+	}
+
+	private void parseTypeDefinition() throws OutputException {
+		String name = text();
+		// Parsed when the name was first used, unless it never was
+		getNamedType(name);
+		position = typeEnds.get(name);
+		next();
+	}
+
+	private LLVMType getNamedType(String name) throws OutputException {
+		LLVMType type = namedTypes.get(name);
+		if( type != null )
+			return type;
+
+		Integer definition = typeDefinitions.get(name);
+		if( definition == null )
+			throw error("Undefined type %" + name);
+
+		int savedPosition = position, savedKind = kind, savedOffset = offset, savedStart = start, savedEnd = end;
+		position = definition;
+		next();
+		if( isWord("opaque") ) {
+			type = module.createStructure(name);
+			namedTypes.put(name, type);
+			next();
+		}
+		else if( isSymbol('{') ) {
+			// Fields can refer to the structure itself
+			type = module.createStructure(name);
+			namedTypes.put(name, type);
+			type.setElements(parseTypeList('{', '}'));
+		}
+		else {
+			if( !resolving.add(name) )
+				throw error("Type %" + name + " is defined in terms of itself");
+			type = parseType();
+			namedTypes.put(name, type);
+		}
+		typeEnds.put(name, offset);
+
+		position = savedPosition;
+		kind = savedKind;
+		offset = savedOffset;
+		start = savedStart;
+		end = savedEnd;
+		return type;
+	}
+
+	private LLVMType parseType() throws OutputException {
+		LLVMType type;
+		if( kind == LOCAL ) {
+			type = getNamedType(text());
+			next();
+		}
+		else if( kind == WORD ) {
+			type = getPrimitiveType(text());
+			next();
+		}
+		else if( isSymbol('[') ) {
+			next();
+			int size = parseInt();
+			expectWord("x");
+			LLVMType element = parseType();
+			expect(']');
+			type = module.getArray(size, element);
+		}
+		else if( isSymbol('{') )
+			type = module.getStructure(parseTypeList('{', '}'));
+		else
+			throw error("Expected a type but found " + describe());
+
+		while( true ) {
+			if( isSymbol('*') ) {
+				next();
+				type = type.getPointer();
+			}
+			else if( isSymbol('(') ) {
+				next();
+				List<LLVMType> parameters = new ArrayList<>();
+				boolean varArgs = false;
+				if( !isSymbol(')') ) {
+					do {
+						if( kind == ELLIPSIS ) {
+							next();
+							varArgs = true;
+							break;
+						}
+						parameters.add(parseType());
+					} while( accept(',') );
+				}
+				expect(')');
+				type = module.getFunction(type, parameters, varArgs);
+			}
+			else
+				return type;
+		}
+	}
+
+	private LLVMType getPrimitiveType(String name) throws OutputException {
+		switch( name ) {
+		case "void": return module.VOID;
+		case "float": return module.FLOAT;
+		case "double": return module.DOUBLE;
+		case "label": return module.LABEL;
+		case "token": return module.TOKEN;
+		}
+		if( name.length() > 1 && name.charAt(0) == 'i' ) {
+			try {
+				return module.getInteger(Integer.parseInt(name.substring(1)));
+			}
+			catch( NumberFormatException e ) {
+			}
+		}
+		throw error("Unknown type " + name);
+	}
+
+	private List<LLVMType> parseTypeList(char open, char close) throws OutputException {
+		expect(open);
+		List<LLVMType> types = new ArrayList<>();
+		if( !isSymbol(close) ) {
+			do {
+				types.add(parseType());
+			} while( accept(',') );
+		}
+		expect(close);
+		return types;
+	}
+
+	/*
+	 * Values.
+	 */
+
+	private Value parseTypedValue() throws OutputException {
+		return parseValue(parseType());
+	}
+
+	private Value parseValue(LLVMType type) throws OutputException {
+		if( kind == LOCAL ) {
+			if( function == null )
+				throw error("Local value %" + text() + " outside of a function");
+			String name = text();
+			next();
+			return getLocal(name, type);
+		}
+		return parseConstant(type);
+	}
+
+	private Local getLocal(String name, LLVMType type) throws OutputException {
+		Local local = locals.get(name);
+		if( local == null ) {
+			local = new Local(name, type);
+			locals.put(name, local);
+		}
+		else if( local.type != type )
+			throw error("%" + name + " is used as both " + local.type + " and " + type);
+		return local;
+	}
+
+	private Global getGlobal(String name, LLVMType type) throws OutputException {
+		Global global = module.getGlobal(name, type);
+		if( global.type == null )
+			global.type = type;
+		else if( type != null && global.type != type )
+			throw error("@" + name + " is used as both " + global.type + " and " + type);
+		return global;
+	}
+
+	private Value parseTypedConstant() throws OutputException {
+		return parseConstant(parseType());
+	}
+
+	/*
+	 * Parses a constant, or a global, which is also a constant in LLVM.
+	 */
+	private Value parseConstant(LLVMType type) throws OutputException {
+		Constant constant;
+		if( kind == GLOBAL ) {
+			String name = text();
+			next();
+			return getGlobal(name, type);
+		}
+		else if( kind == INTEGER ) {
+			if( !type.is(Kind.INTEGER) )
+				throw error("Integer constant of type " + type);
+			constant = Constant.getInteger(type, parseLong());
+			next();
+		}
+		else if( kind == FLOAT ) {
+			constant = Constant.getFloat(type, parseFloatBits(type));
+			next();
+		}
+		else if( kind == STRING )
+			constant = parseString(type);
+		else if( isSymbol('{') )
+			constant = parseAggregate(type, Kind.STRUCT, '{', '}');
+		else if( isSymbol('[') )
+			constant = parseAggregate(type, Kind.ARRAY, '[', ']');
+		else if( kind == WORD ) {
+			String word = text();
+			next();
+			switch( word ) {
+			case "true":
+			case "false":
+				if( type.getWidth() != 1 || !type.is(Kind.INTEGER) )
+					throw error("Boolean constant of type " + type);
+				constant = Constant.getInteger(type, word.equals("true") ? 1 : 0);
+				break;
+			case "null":
+			case "zeroinitializer":
+			case "none":
+				constant = Constant.getNull(type);
+				break;
+			case "undef":
+				constant = Constant.getUndef(type);
+				break;
+			case "getelementptr":
+				constant = parseConstantElementPointer(type);
+				break;
+			case "blockaddress":
+				constant = parseBlockAddress(type);
+				break;
+			default:
+				Integer opcode = CASTS.get(word);
+				if( opcode == null )
+					throw error("Unknown constant " + word);
+				expect('(');
+				Value operand = parseTypedConstant();
+				expectWord("to");
+				if( parseType() != type )
+					throw error("Cast to a type other than " + type);
+				expect(')');
+				constant = Constant.getCast(type, opcode, operand);
+			}
+		}
+		else
+			throw error("Expected a value but found " + describe());
+
+		return module.getConstant(constant);
+	}
+
+	private Constant parseAggregate(LLVMType type, Kind aggregate, char open, char close) throws OutputException {
+		if( !type.is(aggregate) )
+			throw error("Aggregate constant of type " + type);
+		next();
+		List<Value> elements = new ArrayList<>();
+		if( !isSymbol(close) ) {
+			do {
+				elements.add(parseTypedConstant());
+			} while( accept(',') );
+		}
+		expect(close);
+
+		int count = aggregate == Kind.ARRAY ? type.getWidth() : type.getElements().size();
+		if( elements.size() != count )
+			throw error("Constant of type " + type + " has " + elements.size() + " elements");
+		for( int i = 0; i < count; ++i ) {
+			LLVMType element = aggregate == Kind.ARRAY ? type.getElement() : type.getElement(i);
+			if( elements.get(i).type != element )
+				throw error("Element " + i + " of constant " + type + " has type " + elements.get(i).type);
+		}
+
+		// Bitcode has no empty aggregates, but they are all zero anyway
+		if( count == 0 )
+			return Constant.getNull(type);
+
+		// Arrays of numbers are written more compactly
+		if( aggregate == Kind.ARRAY && isData(type.getElement()) ) {
+			long[] data = new long[count];
+			int i = 0;
+			while( i < count && isNumber(elements.get(i)) ) {
+				data[i] = ((Constant) elements.get(i)).getValue();
+				++i;
+			}
+			if( i == count )
+				return Constant.getData(type, data);
+		}
+
+		return Constant.getAggregate(type, elements.toArray(new Value[count]));
+	}
+
+	private static boolean isData(LLVMType type) {
+		if( type.is(Kind.INTEGER) ) {
+			int width = type.getWidth();
+			return width == 8 || width == 16 || width == 32 || width == 64;
+		}
+		return type.is(Kind.FLOAT) || type.is(Kind.DOUBLE);
+	}
+
+	private static boolean isNumber(Value value) {
+		if( !(value instanceof Constant) )
+			return false;
+		Constant.Kind kind = ((Constant) value).getKind();
+		return kind == Constant.Kind.INTEGER || kind == Constant.Kind.FLOAT;
+	}
+
+	private Constant parseString(LLVMType type) throws OutputException {
+		long[] bytes = new long[end - start];
+		int count = 0;
+		for( int i = start; i < end; ++i ) {
+			int c = text[i] & 0xFF;
+			if( c == '\\' ) {
+				if( i + 1 < end && text[i + 1] == '\\' ) {
+					++i;
+				}
+				else if( i + 2 < end ) {
+					c = Integer.parseInt(new String(text, i + 1, 2, StandardCharsets.ISO_8859_1), 16);
+					i += 2;
+				}
+			}
+			bytes[count++] = c;
+		}
+		if( !type.is(Kind.ARRAY) || type.getElement() != module.getInteger(8) || type.getWidth() != count )
+			throw error("String constant of type " + type + " has " + count + " characters");
+		next();
+		if( count == 0 )
+			return Constant.getNull(type);
+		long[] data = new long[count];
+		System.arraycopy(bytes, 0, data, 0, count);
+		return Constant.getData(type, data);
+	}
+
+	private Constant parseConstantElementPointer(LLVMType type) throws OutputException {
+		boolean inbounds = acceptWord("inbounds");
+		expect('(');
+		LLVMType source = parseType();
+		List<Value> operands = new ArrayList<>();
+		while( accept(',') )
+			operands.add(parseTypedConstant());
+		expect(')');
+		if( getElementPointerType(source, operands) != type )
+			throw error("getelementptr does not produce " + type);
+		return Constant.getElementPointer(type, inbounds, source, operands.toArray(new Value[operands.size()]));
+	}
+
+	private Constant parseBlockAddress(LLVMType type) throws OutputException {
+		expect('(');
+		if( kind != GLOBAL )
+			throw error("Expected a function but found " + describe());
+		Global target = getGlobal(text(), null);
+		next();
+		expect(',');
+		if( kind != LOCAL )
+			throw error("Expected a label but found " + describe());
+		Block block = target.getBlock(text());
+		next();
+		expect(')');
+		return Constant.getBlockAddress(type, target, block);
+	}
+
+	private LLVMType getElementPointerType(LLVMType source, List<Value> operands) throws OutputException {
+		if( operands.size() < 2 || operands.get(0).type != source.getPointer() )
+			throw error("getelementptr needs a pointer to " + source + " and an index");
+		LLVMType type = source;
+		for( int i = 2; i < operands.size(); ++i ) {
+			if( type.is(Kind.STRUCT) && !type.isOpaque() ) {
+				Value index = operands.get(i);
+				if( !(index instanceof Constant) || ((Constant) index).getKind() != Constant.Kind.INTEGER )
+					throw error("Structure index must be a constant");
+				type = type.getElement((int) ((Constant) index).getValue());
+			}
+			else if( type.is(Kind.ARRAY) )
+				type = type.getElement();
+			else
+				throw error("Cannot index into " + type);
+		}
+		return type.getPointer();
+	}
+
+	private long parseLong() {
+		String number = text();
+		try {
+			return Long.parseLong(number);
+		}
+		catch( NumberFormatException e ) {
+			// Unsigned values too large for a long keep their bits
+			return new BigInteger(number).longValue();
+		}
+	}
+
+	private int parseInt() throws OutputException {
+		if( kind != INTEGER )
+			throw error("Expected an integer but found " + describe());
+		int value = (int) parseLong();
+		next();
+		return value;
+	}
+
+	private long parseFloatBits(LLVMType type) throws OutputException {
+		String number = text();
+		double value;
+		if( number.startsWith("0x") )
+			value = Double.longBitsToDouble(Long.parseUnsignedLong(number.substring(2), 16));
+		else
+			value = Double.parseDouble(number);
+
+		if( type.is(Kind.DOUBLE) )
+			return Double.doubleToRawLongBits(value);
+		else if( type.is(Kind.FLOAT) )
+			return Float.floatToRawIntBits((float) value) & 0xFFFFFFFFL;
+		else
+			throw error("Floating-point constant of type " + type);
+	}
+
+	/*
+	 * Globals and functions.
+	 */
+
+	private void parseGlobalVariable() throws OutputException {
+		String name = text();
+		next();
+		expect('=');
+		int linkage = parseLinkage();
+		boolean external = linkage < 0;
+		boolean unnamedAddress = false;
+		boolean threadLocal = false;
+		while( true ) {
+			if( acceptWord("unnamed_addr") )
+				unnamedAddress = true;
+			else if( acceptWord("thread_local") )
+				threadLocal = true;
+			else
+				break;
+		}
+		boolean constant = acceptWord("constant");
+		if( !constant )
+			expectWord("global");
+
+		LLVMType type = parseType();
+		Global global = defineGlobal(name, type.getPointer());
+		global.valueType = type;
+		global.linkage = external ? Global.EXTERNAL : linkage;
+		global.unnamedAddress = unnamedAddress;
+		global.threadLocal = threadLocal;
+		global.constant = constant;
+		if( !external )
+			global.initializer = parseConstant(type);
+	}
+
+	/*
+	 * Returns the linkage code, or -1 for an external declaration.
+	 */
+	private int parseLinkage() throws OutputException {
+		if( acceptWord("private") )
+			return Global.PRIVATE;
+		else if( acceptWord("internal") )
+			return Global.INTERNAL;
+		else if( acceptWord("linkonce_odr") )
+			return Global.LINKONCE_ODR;
+		else if( acceptWord("external") )
+			return -1;
+		return Global.EXTERNAL;
+	}
+
+	private Global defineGlobal(String name, LLVMType type) throws OutputException {
+		Global global = getGlobal(name, type);
+		if( global.defined )
+			throw error("@" + name + " is defined more than once");
+		global.defined = true;
+		return global;
+	}
+
+	private long parseAttributes() throws OutputException {
+		long attributes = 0;
+		while( kind == WORD ) {
+			Integer code = ATTRIBUTES.get(text());
+			if( code == null )
+				break;
+			attributes |= 1L << code;
+			next();
+		}
+		return attributes;
+	}
+
+	private void parseFunction(boolean definition) throws OutputException {
+		next();
+		int linkage = parseLinkage();
+		if( linkage < 0 )
+			linkage = Global.EXTERNAL;
+		long returnAttributes = parseAttributes();
+		LLVMType returnType = parseType();
+		if( kind != GLOBAL )
+			throw error("Expected a function name but found " + describe());
+		String name = text();
+		next();
+
+		expect('(');
+		List<LLVMType> parameters = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		List<Long> slots = new ArrayList<>();
+		boolean varArgs = false;
+		if( !isSymbol(')') ) {
+			do {
+				if( kind == ELLIPSIS ) {
+					next();
+					varArgs = true;
+					break;
+				}
+				parameters.add(parseType());
+				slots.add((long) parameters.size());
+				slots.add(parseAttributes());
+				if( kind == LOCAL ) {
+					names.add(text());
+					next();
+				}
+				else
+					names.add(null);
+			} while( accept(',') );
+		}
+		expect(')');
+
+		boolean unnamedAddress = false;
+		long functionAttributes = 0;
+		while( true ) {
+			if( acceptWord("unnamed_addr") )
+				unnamedAddress = true;
+			else {
+				long attributes = parseAttributes();
+				if( attributes == 0 )
+					break;
+				functionAttributes |= attributes;
+			}
+		}
+		Value personality = null;
+		if( acceptWord("personality") )
+			personality = parseTypedConstant();
+
+		LLVMType type = module.getFunction(returnType, parameters, varArgs);
+		Global global = defineGlobal(name, type.getPointer());
+		global.function = true;
+		global.valueType = type;
+		global.linkage = linkage;
+		global.unnamedAddress = unnamedAddress;
+		global.personality = personality;
+		slots.add(0, Module.FUNCTION_ATTRIBUTES);
+		slots.add(1, functionAttributes);
+		slots.add(2, Module.RETURN_ATTRIBUTES);
+		slots.add(3, returnAttributes);
+		global.attributes = module.getAttributes(toArray(slots));
+
+		if( definition )
+			parseBody(global, names);
+	}
+
+	private static long[] toArray(List<Long> values) {
+		long[] array = new long[values.size()];
+		for( int i = 0; i < array.length; ++i )
+			array[i] = values.get(i);
+		return array;
+	}
+
+	private void parseBody(Global global, List<String> names) throws OutputException {
+		function = global;
+		locals.clear();
+		unnamed = 0;
+		List<LLVMType> parameters = global.valueType.getParameters();
+		for( int i = 0; i < parameters.size(); ++i ) {
+			String name = names.get(i) != null ? names.get(i) : String.valueOf(unnamed++);
+			Local argument = getLocal(name, parameters.get(i));
+			argument.defined = true;
+			global.arguments.add(argument);
+		}
+
+		expect('{');
+		Block block = null;
+		while( !isSymbol('}') ) {
+			if( kind == LABEL ) {
+				if( block != null )
+					throw error("Block " + block.getName() + " has no terminator");
+				block = startBlock(text());
+				next();
+				continue;
+			}
+			else if( block == null )
+				block = startBlock(String.valueOf(unnamed++));
+
+			Instruction instruction = parseInstruction();
+			block.getInstructions().add(instruction);
+			if( instruction.opcode.isTerminator() )
+				block = null;
+		}
+		if( block != null || global.blocks.isEmpty() )
+			throw error("Function @" + global.getName() + " does not end with a terminator");
+		next();
+
+		for( Block target : global.blockNames.values() )
+			if( target.index < 0 )
+				throw error("Undefined label %" + target.getName() + " in @" + global.getName());
+		for( Local local : locals.values() )
+			if( !local.defined )
+				throw error("Undefined value %" + local.getName() + " in @" + global.getName());
+		function = null;
+	}
+
+	private Block startBlock(String name) throws OutputException {
+		Block block = function.getBlock(name);
+		if( block.index >= 0 )
+			throw error("Label %" + name + " is defined more than once");
+		block.index = function.blocks.size();
+		function.blocks.add(block);
+		return block;
+	}
+
+	private Block parseLabel() throws OutputException {
+		expectWord("label");
+		return parseBlockName();
+	}
+
+	private Block parseBlockName() throws OutputException {
+		if( kind != LOCAL )
+			throw error("Expected a label but found " + describe());
+		Block block = function.getBlock(text());
+		next();
+		return block;
+	}
+
+	/*
+	 * Instructions.
+	 */
+
+	private Instruction parseInstruction() throws OutputException {
+		String name = null;
+		if( kind == LOCAL ) {
+			name = text();
+			next();
+			expect('=');
+		}
+		if( kind != WORD )
+			throw error("Expected an instruction but found " + describe());
+		String word = text();
+		next();
+
+		Instruction instruction;
+		LLVMType result = module.VOID;
+		switch( word ) {
+		case "ret":
+			instruction = new Instruction(Opcode.RETURN);
+			if( !acceptWord("void") )
+				instruction.operands = new Value[] { parseTypedValue() };
+			break;
+		case "br":
+			instruction = new Instruction(Opcode.BRANCH);
+			if( isWord("label") )
+				instruction.blocks = new Block[] { parseLabel() };
+			else {
+				instruction.operands = new Value[] { parseTypedValue() };
+				if( instruction.operands[0].type != module.getInteger(1) )
+					throw error("Branch condition must be i1");
+				expect(',');
+				Block trueBlock = parseLabel();
+				expect(',');
+				instruction.blocks = new Block[] { trueBlock, parseLabel() };
+			}
+			break;
+		case "switch": {
+			instruction = new Instruction(Opcode.SWITCH);
+			Value condition = parseTypedValue();
+			expect(',');
+			List<Value> operands = new ArrayList<>();
+			List<Block> blocks = new ArrayList<>();
+			operands.add(condition);
+			blocks.add(parseLabel());
+			expect('[');
+			while( !isSymbol(']') ) {
+				operands.add(parseTypedConstant());
+				expect(',');
+				blocks.add(parseLabel());
+			}
+			next();
+			instruction.type = condition.type;
+			instruction.operands = operands.toArray(new Value[operands.size()]);
+			instruction.blocks = blocks.toArray(new Block[blocks.size()]);
+			break;
+		}
+		case "indirectbr": {
+			instruction = new Instruction(Opcode.INDIRECT_BRANCH);
+			instruction.operands = new Value[] { parseTypedValue() };
+			instruction.type = instruction.operands[0].type;
+			expect(',');
+			instruction.blocks = parseLabelList();
+			break;
+		}
+		case "invoke":
+			instruction = new Instruction(Opcode.INVOKE);
+			result = parseCall(instruction);
+			expectWord("to");
+			Block normal = parseLabel();
+			expectWord("unwind");
+			instruction.blocks = new Block[] { normal, parseLabel() };
+			break;
+		case "unreachable":
+			instruction = new Instruction(Opcode.UNREACHABLE);
+			break;
+		case "resume":
+			instruction = new Instruction(Opcode.RESUME);
+			instruction.operands = new Value[] { parseTypedValue() };
+			break;
+		case "catchswitch": {
+			instruction = new Instruction(Opcode.CATCH_SWITCH);
+			instruction.operands = new Value[] { parseParentPad() };
+			expect('[');
+			List<Block> blocks = new ArrayList<>();
+			do {
+				blocks.add(parseLabel());
+			} while( accept(',') );
+			expect(']');
+			expectWord("unwind");
+			if( !parseUnwindToCaller() ) {
+				blocks.add(parseLabel());
+				instruction.code = 1;
+			}
+			instruction.blocks = blocks.toArray(new Block[blocks.size()]);
+			result = module.TOKEN;
+			break;
+		}
+		case "catchret":
+			instruction = new Instruction(Opcode.CATCH_RETURN);
+			expectWord("from");
+			instruction.operands = new Value[] { parseValue(module.TOKEN) };
+			expectWord("to");
+			instruction.blocks = new Block[] { parseLabel() };
+			break;
+		case "cleanupret":
+			instruction = new Instruction(Opcode.CLEANUP_RETURN);
+			expectWord("from");
+			instruction.operands = new Value[] { parseValue(module.TOKEN) };
+			expectWord("unwind");
+			if( !parseUnwindToCaller() )
+				instruction.blocks = new Block[] { parseLabel() };
+			break;
+		case "catchpad":
+		case "cleanuppad": {
+			instruction = new Instruction(word.equals("catchpad") ? Opcode.CATCH_PAD : Opcode.CLEANUP_PAD);
+			List<Value> operands = new ArrayList<>();
+			operands.add(parseParentPad());
+			expect('[');
+			if( !isSymbol(']') ) {
+				do {
+					operands.add(parseTypedValue());
+				} while( accept(',') );
+			}
+			expect(']');
+			instruction.operands = operands.toArray(new Value[operands.size()]);
+			result = module.TOKEN;
+			break;
+		}
+		case "tail":
+			expectWord("call");
+			instruction = new Instruction(Opcode.CALL);
+			instruction.code = 1;
+			result = parseCall(instruction);
+			break;
+		case "call":
+			instruction = new Instruction(Opcode.CALL);
+			result = parseCall(instruction);
+			break;
+		case "alloca":
+			instruction = new Instruction(Opcode.ALLOCA);
+			instruction.type = parseType();
+			if( accept(',') )
+				instruction.operands = new Value[] { parseTypedValue() };
+			else
+				instruction.operands = new Value[] { module.getConstant(Constant.getInteger(module.getInteger(32), 1)) };
+			result = instruction.type.getPointer();
+			break;
+		case "load":
+			instruction = new Instruction(Opcode.LOAD);
+			instruction.type = parseType();
+			expect(',');
+			instruction.operands = new Value[] { parseTypedValue() };
+			if( instruction.operands[0].type != instruction.type.getPointer() )
+				throw error("Cannot load " + instruction.type + " from " + instruction.operands[0].type);
+			result = instruction.type;
+			break;
+		case "store": {
+			instruction = new Instruction(Opcode.STORE);
+			Value value = parseTypedValue();
+			expect(',');
+			Value address = parseTypedValue();
+			if( address.type != value.type.getPointer() )
+				throw error("Cannot store " + value.type + " to " + address.type);
+			instruction.operands = new Value[] { value, address };
+			break;
+		}
+		case "getelementptr": {
+			instruction = new Instruction(Opcode.GET_ELEMENT_POINTER);
+			instruction.code = acceptWord("inbounds") ? 1 : 0;
+			instruction.type = parseType();
+			List<Value> operands = new ArrayList<>();
+			while( accept(',') )
+				operands.add(parseTypedValue());
+			result = getElementPointerType(instruction.type, operands);
+			instruction.operands = operands.toArray(new Value[operands.size()]);
+			break;
+		}
+		case "icmp":
+		case "fcmp": {
+			instruction = new Instruction(Opcode.COMPARE);
+			Integer predicate = (word.equals("icmp") ? INTEGER_PREDICATES : FLOAT_PREDICATES).get(kind == WORD ? text() : "");
+			if( predicate == null )
+				throw error("Unknown predicate for " + word + ": " + describe());
+			next();
+			instruction.code = predicate;
+			Value left = parseTypedValue();
+			expect(',');
+			instruction.operands = new Value[] { left, parseValue(left.type) };
+			result = module.getInteger(1);
+			break;
+		}
+		case "select": {
+			instruction = new Instruction(Opcode.SELECT);
+			Value condition = parseTypedValue();
+			expect(',');
+			Value trueValue = parseTypedValue();
+			expect(',');
+			instruction.operands = new Value[] { condition, trueValue, parseValue(parseType()) };
+			if( instruction.operands[2].type != trueValue.type )
+				throw error("select between " + trueValue.type + " and " + instruction.operands[2].type);
+			result = trueValue.type;
+			break;
+		}
+		case "phi": {
+			instruction = new Instruction(Opcode.PHI);
+			instruction.type = parseType();
+			List<Value> operands = new ArrayList<>();
+			List<Block> blocks = new ArrayList<>();
+			do {
+				expect('[');
+				operands.add(parseValue(instruction.type));
+				expect(',');
+				blocks.add(parseBlockName());
+				expect(']');
+			} while( accept(',') );
+			instruction.operands = operands.toArray(new Value[operands.size()]);
+			instruction.blocks = blocks.toArray(new Block[blocks.size()]);
+			result = instruction.type;
+			break;
+		}
+		case "extractvalue": {
+			instruction = new Instruction(Opcode.EXTRACT_VALUE);
+			instruction.operands = new Value[] { parseTypedValue() };
+			instruction.indices = parseIndices();
+			result = getAggregateElement(instruction.operands[0].type, instruction.indices);
+			break;
+		}
+		case "insertvalue": {
+			instruction = new Instruction(Opcode.INSERT_VALUE);
+			Value aggregate = parseTypedValue();
+			expect(',');
+			instruction.operands = new Value[] { aggregate, parseTypedValue() };
+			instruction.indices = parseIndices();
+			if( getAggregateElement(aggregate.type, instruction.indices) != instruction.operands[1].type )
+				throw error("Cannot insert " + instruction.operands[1].type + " into " + aggregate.type);
+			result = aggregate.type;
+			break;
+		}
+		case "landingpad": {
+			instruction = new Instruction(Opcode.LANDING_PAD);
+			instruction.type = parseType();
+			instruction.code = acceptWord("cleanup") ? 1 : 0;
+			List<Value> operands = new ArrayList<>();
+			List<Long> clauses = new ArrayList<>();
+			while( isWord("catch") || isWord("filter") ) {
+				clauses.add(isWord("catch") ? 0L : 1L);
+				next();
+				operands.add(parseTypedConstant());
+			}
+			instruction.operands = operands.toArray(new Value[operands.size()]);
+			instruction.indices = toArray(clauses);
+			result = instruction.type;
+			break;
+		}
+		default: {
+			Integer code = BINARY_OPERATORS.get(word);
+			if( code != null ) {
+				instruction = new Instruction(Opcode.BINARY);
+				instruction.code = code;
+				Value left = parseTypedValue();
+				expect(',');
+				instruction.operands = new Value[] { left, parseValue(left.type) };
+				result = left.type;
+				break;
+			}
+			code = CASTS.get(word);
+			if( code != null ) {
+				instruction = new Instruction(Opcode.CAST);
+				instruction.code = code;
+				instruction.operands = new Value[] { parseTypedValue() };
+				expectWord("to");
+				instruction.type = parseType();
+				result = instruction.type;
+				break;
+			}
+			throw error("Unknown instruction " + word);
+		}
+		}
+
+		// Values are numbered whether or not they are named
+		if( result != module.VOID ) {
+			if( name == null )
+				name = String.valueOf(unnamed);
+			instruction.result = getLocal(name, result);
+			if( instruction.result.defined )
+				throw error("%" + name + " is defined more than once");
+			instruction.result.defined = true;
+			if( isNumber(name) )
+				unnamed = Integer.parseInt(name) + 1;
+		}
+		else if( name != null )
+			throw error("Instruction " + word + " has no result for %" + name);
+
+		return instruction;
+	}
+
+	private static boolean isNumber(String name) {
+		for( int i = 0; i < name.length(); ++i )
+			if( name.charAt(i) < '0' || name.charAt(i) > '9' )
+				return false;
+		return !name.isEmpty() && name.length() < 10;
+	}
+
+	/*
+	 * Parses the callee and arguments of a call or invoke, any attributes
+	 * and a funclet operand bundle, returning the type of the result.
+	 */
+	private LLVMType parseCall(Instruction instruction) throws OutputException {
+		long returnAttributes = parseAttributes();
+		LLVMType type = parseType();
+		if( kind != GLOBAL && kind != LOCAL )
+			throw error("Expected a function but found " + describe());
+		boolean global = kind == GLOBAL;
+		String name = text();
+		next();
+
+		expect('(');
+		List<Value> operands = new ArrayList<>();
+		List<LLVMType> types = new ArrayList<>();
+		List<Long> slots = new ArrayList<>();
+		operands.add(null);
+		if( !isSymbol(')') ) {
+			do {
+				LLVMType argumentType = parseType();
+				slots.add((long) operands.size());
+				slots.add(parseAttributes());
+				operands.add(parseValue(argumentType));
+				types.add(argumentType);
+			} while( accept(',') );
+		}
+		expect(')');
+
+		LLVMType functionType = type.is(Kind.FUNCTION) ? type : module.getFunction(type, types, false);
+		List<LLVMType> parameters = functionType.getParameters();
+		if( types.size() < parameters.size() || (types.size() > parameters.size() && !functionType.isVarArgs()) )
+			throw error("Wrong number of arguments in call to %" + name);
+		for( int i = 0; i < parameters.size(); ++i )
+			if( types.get(i) != parameters.get(i) )
+				throw error("Argument " + i + " in call to " + name + " has type " + types.get(i));
+		LLVMType pointer = functionType.getPointer();
+		operands.set(0, global ? getGlobal(name, pointer) : getLocal(name, pointer));
+
+		long functionAttributes = parseAttributes();
+		if( accept('[') ) {
+			if( kind != QUOTED || !text().equals("funclet") )
+				throw error("Unknown operand bundle " + describe());
+			next();
+			expect('(');
+			instruction.funclet = new Value[] { parseTypedValue() };
+			expect(')');
+			expect(']');
+			module.funclets = true;
+			functionAttributes |= parseAttributes();
+		}
+
+		instruction.type = functionType;
+		instruction.operands = operands.toArray(new Value[operands.size()]);
+		slots.add(0, Module.FUNCTION_ATTRIBUTES);
+		slots.add(1, functionAttributes);
+		slots.add(2, Module.RETURN_ATTRIBUTES);
+		slots.add(3, returnAttributes);
+		instruction.attributes = module.getAttributes(toArray(slots));
+		return functionType.getElement();
+	}
+
+	private Value parseParentPad() throws OutputException {
+		expectWord("within");
+		if( acceptWord("none") )
+			return module.getConstant(Constant.getNull(module.TOKEN));
+		return parseValue(module.TOKEN);
+	}
+
+	private boolean parseUnwindToCaller() throws OutputException {
+		if( acceptWord("to") ) {
+			expectWord("caller");
+			return true;
+		}
+		return false;
+	}
+
+	private Block[] parseLabelList() throws OutputException {
+		expect('[');
+		List<Block> blocks = new ArrayList<>();
+		if( !isSymbol(']') ) {
+			do {
+				blocks.add(parseLabel());
+			} while( accept(',') );
+		}
+		expect(']');
+		return blocks.toArray(new Block[blocks.size()]);
+	}
+
+	private long[] parseIndices() throws OutputException {
+		List<Long> indices = new ArrayList<>();
+		while( accept(',') )
+			indices.add((long) parseInt());
+		return toArray(indices);
+	}
+
+	private LLVMType getAggregateElement(LLVMType type, long[] indices) throws OutputException {
+		for( long index : indices ) {
+			if( type.is(Kind.STRUCT) && !type.isOpaque() && index < type.getElements().size() )
+				type = type.getElement((int) index);
+			else if( type.is(Kind.ARRAY) && index < type.getWidth() )
+				type = type.getElement();
+			else
+				throw error("Invalid index " + index + " into " + type);
+		}
+		return type;
+	}
+
+	/*
+	 * Tokens.
+	 */
+
+	private void next() throws OutputException {
+		while( position < length ) {
+			byte c = text[position];
+			if( c == ' ' || c == '\t' || c == '\r' || c == '\n' )
+				++position;
+			else if( c == ';' ) {
+				while( position < length && text[position] != '\n' )
+					++position;
+			}
+			else
+				break;
+		}
+
+		offset = start = position;
+		if( position >= length ) {
+			kind = END;
+			end = position;
+			return;
+		}
+
+		byte c = text[position];
+		if( c == '%' || c == '@' ) {
+			kind = c == '%' ? LOCAL : GLOBAL;
+			++position;
+			if( position < length && text[position] == '"' )
+				readQuoted();
+			else {
+				start = position;
+				while( position < length && isNameCharacter(text[position]) )
+					++position;
+				end = position;
+				if( start == end )
+					throw error("Missing name after " + (char) c);
+			}
+		}
+		else if( c == 'c' && position + 1 < length && text[position + 1] == '"' ) {
+			kind = STRING;
+			++position;
+			readQuoted();
+		}
+		else if( c == '"' ) {
+			kind = QUOTED;
+			readQuoted();
+		}
+		else if( c == '0' && position + 1 < length && text[position + 1] == 'x' ) {
+			kind = FLOAT;
+			position += 2;
+			while( position < length && Character.digit(text[position], 16) >= 0 )
+				++position;
+			end = position;
+		}
+		else if( c == '-' || isDigit(c) ) {
+			++position;
+			boolean decimal = false;
+			while( position < length ) {
+				byte d = text[position];
+				if( isDigit(d) )
+					++position;
+				else if( d == '.' || d == 'e' || d == 'E' ||
+						((d == '+' || d == '-') && (text[position - 1] == 'e' || text[position - 1] == 'E')) ) {
+					decimal = true;
+					++position;
+				}
+				else
+					break;
+			}
+			end = position;
+			kind = decimal ? FLOAT : INTEGER;
+			if( position < length && text[position] == ':' ) {
+				kind = LABEL;
+				++position;
+			}
+		}
+		else if( c == '.' && position + 2 < length && text[position + 1] == '.' && text[position + 2] == '.' ) {
+			kind = ELLIPSIS;
+			position += 3;
+			end = position;
+		}
+		else if( isNameCharacter(c) ) {
+			while( position < length && isNameCharacter(text[position]) && text[position] != '-' )
+				++position;
+			end = position;
+			kind = WORD;
+			if( position < length && text[position] == ':' ) {
+				kind = LABEL;
+				++position;
+			}
+		}
+		else {
+			kind = SYMBOL;
+			end = ++position;
+		}
+	}
+
+	private void readQuoted() throws OutputException {
+		start = ++position;
+		while( position < length && text[position] != '"' )
+			++position;
+		if( position >= length )
+			throw error("Unterminated string");
+		end = position++;
+	}
+
+	private static boolean isDigit(byte c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isNameCharacter(byte c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) ||
+				c == '_' || c == '.' || c == '$' || c == '-';
+	}
+
+	private String text() {
+		return new String(text, start, end - start, StandardCharsets.ISO_8859_1);
+	}
+
+	private boolean isSymbol(char symbol) {
+		return kind == SYMBOL && text[start] == symbol;
+	}
+
+	private boolean isWord(String word) {
+		if( kind != WORD || end - start != word.length() )
+			return false;
+		for( int i = 0; i < word.length(); ++i )
+			if( text[start + i] != word.charAt(i) )
+				return false;
+		return true;
+	}
+
+	private boolean accept(char symbol) throws OutputException {
+		if( isSymbol(symbol) ) {
+			next();
+			return true;
+		}
+		return false;
+	}
+
+	private boolean acceptWord(String word) throws OutputException {
+		if( isWord(word) ) {
+			next();
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(char symbol) throws OutputException {
+		if( !accept(symbol) )
+			throw error("Expected " + symbol + " but found " + describe());
+	}
+
+	private void expectWord(String word) throws OutputException {
+		if( !acceptWord(word) )
+			throw error("Expected " + word + " but found " + describe());
+	}
+
+	private String describe() {
+		return kind == END ? "end of file" : "\"" + new String(text, start, Math.min(end, length) - start, StandardCharsets.ISO_8859_1) + "\"";
+	}
+
+	private OutputException error(String message) {
+		int line = 1;
+		for( int i = 0; i < offset; ++i )
+			if( text[i] == '\n' )
+				++line;
+		return new OutputException("LLVM line " + line + ": " + message);
+	}
+}
@@ -0,0 +1,118 @@
+package shadow.output.bitcode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An LLVM type. Apart from named structures, types are unique within a
+ * {@link Module}, so they can be compared with <code>==</code>.
+ */
+class LLVMType {
+
+	public enum Kind {
+		VOID, FLOAT, DOUBLE, LABEL, TOKEN, INTEGER, POINTER, ARRAY, STRUCT, FUNCTION
+	}
+
+	private final Kind kind;
+	private final int width;			// bits of an integer, elements of an array
+	private final String name;			// only for named structures
+	private List<LLVMType> elements;	// pointee, array element, structure fields or return and parameters
+	private final boolean varArgs;
+	private LLVMType pointer;			// cached pointer to this type
+	int id = -1;						// index in the bitcode type table
+
+	LLVMType(Kind kind) {
+		this(kind, 0, null, Collections.emptyList(), false);
+	}
+
+	LLVMType(Kind kind, int width, String name, List<LLVMType> elements, boolean varArgs) {
+		this.kind = kind;
+		this.width = width;
+		this.name = name;
+		this.elements = elements;
+		this.varArgs = varArgs;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public boolean is(Kind kind) {
+		return this.kind == kind;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isOpaque() {
+		return elements == null;
+	}
+
+	public boolean isVarArgs() {
+		return varArgs;
+	}
+
+	public List<LLVMType> getElements() {
+		return elements;
+	}
+
+	/**
+	 * Sets the fields of a named structure once its definition is parsed.
+	 * A <code>null</code> list leaves the structure opaque.
+	 */
+	void setElements(List<LLVMType> elements) {
+		this.elements = elements;
+	}
+
+	public LLVMType getElement(int index) {
+		return elements.get(index);
+	}
+
+	// Pointee of a pointer, or return type of a function
+	public LLVMType getElement() {
+		return elements.get(0);
+	}
+
+	public List<LLVMType> getParameters() {
+		return elements.subList(1, elements.size());
+	}
+
+	public LLVMType getPointer() {
+		if( pointer == null )
+			pointer = new LLVMType(Kind.POINTER, 0, null, Collections.singletonList(this), false);
+		return pointer;
+	}
+
+	/*
+	 * Key under which structural types are made unique.
+	 */
+	static List<Object> key(Kind kind, int width, List<LLVMType> elements, boolean varArgs) {
+		return Arrays.asList(kind, width, elements, varArgs);
+	}
+
+	@Override
+	public String toString() {
+		switch( kind ) {
+		case VOID: return "void";
+		case FLOAT: return "float";
+		case DOUBLE: return "double";
+		case LABEL: return "label";
+		case TOKEN: return "token";
+		case INTEGER: return "i" + width;
+		case POINTER: return getElement() + "*";
+		case ARRAY: return "[" + width + " x " + getElement() + "]";
+		case STRUCT:
+			if( name != null )
+				return "%" + name;
+			return elements.toString().replace('[', '{').replace(']', '}');
+		default:
+			return getElement() + " " + getParameters().toString().replace('[', '(').replace(']', ')');
+		}
+	}
+}
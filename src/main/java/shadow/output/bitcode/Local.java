@@ -0,0 +1,19 @@
+package shadow.output.bitcode;
+
+/**
+ * A function argument or the result of an instruction. Locals are created
+ * when they are first referred to, which may be before they are defined.
+ */
+class Local extends Value {
+	private final String name;
+	boolean defined;
+
+	Local(String name, LLVMType type) {
+		super(type);
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
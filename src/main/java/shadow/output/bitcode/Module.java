@@ -0,0 +1,121 @@
+package shadow.output.bitcode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import shadow.output.bitcode.LLVMType.Kind;
+
+/**
+ * The contents of an LLVM module: its types, globals, constants and
+ * attribute lists, each made unique so that the {@link BitcodeWriter} can
+ * number them.
+ */
+class Module {
+
+	// Attribute list slots, numbered as in bitcode
+	public static final long FUNCTION_ATTRIBUTES = 0xFFFFFFFFL;
+	public static final long RETURN_ATTRIBUTES = 0;
+
+	public final LLVMType VOID = new LLVMType(Kind.VOID);
+	public final LLVMType FLOAT = new LLVMType(Kind.FLOAT);
+	public final LLVMType DOUBLE = new LLVMType(Kind.DOUBLE);
+	public final LLVMType LABEL = new LLVMType(Kind.LABEL);
+	public final LLVMType TOKEN = new LLVMType(Kind.TOKEN);
+
+	private final Map<List<Object>, LLVMType> types = new HashMap<>();
+	private final List<LLVMType> structures = new ArrayList<>();
+	private final Map<String, Global> globals = new LinkedHashMap<>();
+	private final Map<Constant, Constant> constants = new LinkedHashMap<>();
+	private final Map<List<Long>, Integer> attributeLists = new LinkedHashMap<>();
+	private final Map<List<Long>, Integer> attributeGroups = new LinkedHashMap<>();
+	boolean funclets;
+
+	public LLVMType getInteger(int width) {
+		return getType(Kind.INTEGER, width, Collections.emptyList(), false);
+	}
+
+	public LLVMType getArray(int length, LLVMType element) {
+		return getType(Kind.ARRAY, length, Collections.singletonList(element), false);
+	}
+
+	public LLVMType getStructure(List<LLVMType> fields) {
+		return getType(Kind.STRUCT, 0, fields, false);
+	}
+
+	public LLVMType getFunction(LLVMType result, List<LLVMType> parameters, boolean varArgs) {
+		List<LLVMType> elements = new ArrayList<>(parameters.size() + 1);
+		elements.add(result);
+		elements.addAll(parameters);
+		return getType(Kind.FUNCTION, 0, elements, varArgs);
+	}
+
+	private LLVMType getType(Kind kind, int width, List<LLVMType> elements, boolean varArgs) {
+		return types.computeIfAbsent(LLVMType.key(kind, width, elements, varArgs),
+				key -> new LLVMType(kind, width, null, elements, varArgs));
+	}
+
+	/**
+	 * Creates an identified structure, which is opaque until its fields are
+	 * set.
+	 */
+	public LLVMType createStructure(String name) {
+		LLVMType structure = new LLVMType(Kind.STRUCT, 0, name, null, false);
+		structures.add(structure);
+		return structure;
+	}
+
+	public List<LLVMType> getStructures() {
+		return structures;
+	}
+
+	public Global getGlobal(String name, LLVMType type) {
+		return globals.computeIfAbsent(name, key -> new Global(key, type));
+	}
+
+	public Collection<Global> getGlobals() {
+		return globals.values();
+	}
+
+	public Constant getConstant(Constant constant) {
+		Constant existing = constants.putIfAbsent(constant, constant);
+		return existing == null ? constant : existing;
+	}
+
+	public Collection<Constant> getConstants() {
+		return constants.keySet();
+	}
+
+	/**
+	 * Gets the index of an attribute list, counting from 1.
+	 * @param slots		pairs of slot and attribute kinds, where the kinds are
+	 * a mask with a bit set for each attribute code
+	 * @return			index of the list, or 0 if it is empty
+	 */
+	public int getAttributes(long... slots) {
+		List<Long> groups = new ArrayList<>();
+		for( int i = 0; i < slots.length; i += 2 )
+			if( slots[i + 1] != 0 ) {
+				List<Long> group = Arrays.asList(slots[i], slots[i + 1]);
+				groups.add((long) attributeGroups.computeIfAbsent(group, key -> attributeGroups.size() + 1));
+			}
+		if( groups.isEmpty() )
+			return 0;
+		return attributeLists.computeIfAbsent(groups, key -> attributeLists.size() + 1);
+	}
+
+	// Slot and kinds of each group, in order of their IDs
+	public Collection<List<Long>> getAttributeGroups() {
+		return attributeGroups.keySet();
+	}
+
+	// IDs of the groups in each list, in order of the list indexes
+	public Collection<List<Long>> getAttributeLists() {
+		return attributeLists.keySet();
+	}
+}
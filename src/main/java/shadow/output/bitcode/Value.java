@@ -0,0 +1,19 @@
+package shadow.output.bitcode;
+
+/**
+ * A value that instructions and constants can refer to. Values are numbered
+ * by the {@link BitcodeWriter} in the order in which bitcode readers create
+ * them.
+ */
+abstract class Value {
+	LLVMType type;
+	int id = -1;
+
+	Value(LLVMType type) {
+		this.type = type;
+	}
+
+	public LLVMType getType() {
+		return type;
+	}
+}
@@ -1,6 +1,7 @@
 package shadow.output.llvm;
 
 import shadow.Configuration;
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.interpreter.*;
 import shadow.output.AbstractOutput;
@@ -8,6 +9,7 @@ import shadow.tac.*;
 import shadow.tac.TACMethod.TACFinallyFunction;
 import shadow.tac.nodes.*;
 import shadow.typecheck.type.*;
+import shadow.typecheck.type.StandardTypes;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -19,7 +21,7 @@ import java.util.Map.Entry;
 
 public class LLVMOutput extends AbstractOutput {
 	private int tempCounter = 0;
-	private List<String> stringLiterals = new LinkedList<String>();	
+	private Map<String, Integer> stringLiterals = new LinkedHashMap<String, Integer>();	
 	private HashSet<Type> unparameterizedGenerics = new HashSet<Type>();
 	private int classCounter = 0;
 	private HashSet<MethodSignature> usedSignatures = new HashSet<MethodSignature>();
@@ -32,23 +34,155 @@ public class LLVMOutput extends AbstractOutput {
 	private TACModule module;
 	private boolean skipMethod = false;	
 
-	public LLVMOutput(Path file) throws ShadowException {
+	/*
+	 * Mangled names are rebuilt from scratch every time a type is converted
+	 * to a string, and the same few types and methods are mentioned over and
+	 * over again in a module. Each output object writes a single module, so
+	 * it remembers the text it has already generated for each type, method,
+	 * and temporary.
+	 */
+	private final Map<Type, String> typeNames = new IdentityHashMap<Type, String>();
+	private final Map<Type, String> nullableTypeNames = new IdentityHashMap<Type, String>();
+	private final Map<Type, String> methodTableTypes = new IdentityHashMap<Type, String>();
+	private final Map<Type, String> arrayHeaders = new IdentityHashMap<Type, String>();
+	private final Map<MethodSignature, String> methodNames = new IdentityHashMap<MethodSignature, String>();
+	private final Map<MethodSignature, String> methodDeclarations = new IdentityHashMap<MethodSignature, String>();
+	private final Map<MethodSignature, String> methodTypes = new IdentityHashMap<MethodSignature, String>();
+	private final Map<Type, String> rawNames = new IdentityHashMap<Type, String>();
+	private final List<String> temps = new ArrayList<String>();
+
+	/*
+	 * Instructions are built in a single buffer that is reused for every
+	 * line of the module. The append helpers below copy the cached text for
+	 * types, temporaries, and symbols into it, so writing an instruction does
+	 * not create the intermediate strings that concatenation would.
+	 */
+	private final StringBuilder line = new StringBuilder(256);
+
+	private final Session session;
+
+	public LLVMOutput(Session session, Path file) throws ShadowException {
 		super(file);
+		this.session = session;
 	}
 	
-	public LLVMOutput(OutputStream stream) throws ShadowException {
+	public LLVMOutput(Session session, OutputStream stream) throws ShadowException {
 		super(stream);
+		this.session = session;
+	}
+
+	private StandardTypes standard() {
+		return session.getStandardTypes();
 	}
 
 	private String temp(int offset)
 	{
-		return '%' + Integer.toString(tempCounter - offset - 1);
+		return tempName(tempCounter - offset - 1);
 	}
 	private String nextTemp()
 	{
-		return '%' + Integer.toString(tempCounter++);
+		return tempName(tempCounter++);
+	}
+	
+	// Temporaries are numbered from zero in every method, so the names are shared
+	private String tempName(int number) {
+		if( number < 0 )
+			return '%' + Integer.toString(number);
+		
+		while( temps.size() <= number )
+			temps.add('%' + Integer.toString(temps.size()));
+		return temps.get(number);
 	}
 
+	private StringBuilder line() {
+		line.setLength(0);
+		return line;
+	}
+	
+	private void writeLine() throws ShadowException {
+		writer.write(line);
+	}
+	
+	private StringBuilder appendType(StringBuilder sb, Type type) {
+		return sb.append(type(type));
+	}
+	
+	private StringBuilder appendType(StringBuilder sb, Type type, boolean nullable) {
+		return sb.append(type(type, nullable));
+	}
+	
+	private StringBuilder appendType(StringBuilder sb, ModifiedType type) {
+		return sb.append(type(type));
+	}
+	
+	// Appends the mangled name of the structure for a type, e.g. %shadow:standard@Object
+	private StringBuilder appendRaw(StringBuilder sb, Type type) {
+		String name = rawNames.get(type);
+		if( name == null ) {
+			name = '%' + raw(type);
+			rawNames.put(type, name);
+		}
+		return sb.append(name);
+	}
+	
+	private StringBuilder appendSymbol(StringBuilder sb, TACOperand node) {
+		return sb.append(symbol(node));
+	}
+	
+	private StringBuilder appendSymbol(StringBuilder sb, TACLabel label) {
+		return sb.append('%').append(label.toString());
+	}
+	
+	private StringBuilder appendTypeText(StringBuilder sb, Type type, String name, boolean reference) {
+		appendType(sb, type);
+		if( reference )
+			sb.append('*');
+		return sb.append(' ').append(name);
+	}
+	
+	private StringBuilder appendTypeText(StringBuilder sb, ModifiedType type, String name, boolean reference) {
+		appendType(sb, type);
+		if( reference )
+			sb.append('*');
+		return sb.append(' ').append(name);
+	}
+	
+	private StringBuilder appendTypeSymbol(StringBuilder sb, TACOperand node) {
+		return appendTypeText(sb, node, symbol(node), false);
+	}
+	
+	private StringBuilder appendTypeSymbol(StringBuilder sb, Type type, TACOperand node) {
+		return appendTypeText(sb, type, symbol(node), false);
+	}
+	
+	private StringBuilder appendTypeLiteral(StringBuilder sb, int value) {
+		return appendType(sb, standard().INT).append(' ').append(value);
+	}
+	
+	private StringBuilder appendFunclet(StringBuilder sb, TACCatchPad catchPad) {
+		if( catchPad != null )
+			sb.append(" [ \"funclet\"(token ").append(catchPad.getToken()).append(")]");
+		return sb;
+	}
+	
+	// Appends a class as a Class value, casting it from GenericClass if needed
+	private StringBuilder appendClass(StringBuilder sb, Type type, boolean generic) {
+		appendType(sb, standard().CLASS).append(' ');
+		if( generic ) {
+			sb.append("bitcast (");
+			appendType(sb, standard().GENERIC_CLASS).append(' ').append(classOf(type)).append(" to ");
+			return appendType(sb, standard().CLASS).append(')');
+		}
+		return sb.append(classOf(type));
+	}
+	
+	// Appends a constant array header with its length, up to the first element
+	private StringBuilder appendArrayHeader(StringBuilder sb, Type baseType, int size) {
+		sb.append(arrayHeader(baseType));
+		appendType(sb, standard().LONG).append(' ').append(size).append(", [").append(size).append(" x ");
+		return appendType(sb, baseType).append("] [");
+	}
+	
 	/**
 	 * Determines either the next temporary variable or the local variable 
 	 * that will store the result of this action. That name is stored in the
@@ -102,7 +236,7 @@ public class LLVMOutput extends AbstractOutput {
 				//external stuff for types outside of this file
 				if( !moduleType.encloses(type) ) {					
 					writer.write(classOf(type) +
-							" = external constant %" + raw(Type.CLASS));					
+							" = external constant %" + raw(standard().CLASS));					
 					if( type instanceof ClassType )				
 						writer.write(methodTable(type) +
 								" = external constant " + methodTableType(type, false));					
@@ -132,7 +266,7 @@ public class LLVMOutput extends AbstractOutput {
 					//external stuff for types outside of this file
 					if( !moduleType.encloses(type) )
 						writer.write(classOf(type) +
-								" = external constant %" + raw(Type.CLASS));					
+								" = external constant %" + raw(standard().CLASS));					
 				}
 				else {
 					Type unparameterizedType = type.getTypeWithoutTypeArguments();
@@ -161,40 +295,39 @@ public class LLVMOutput extends AbstractOutput {
 	}
 
 	private void writeTypeDefinition(Type type) throws ShadowException {
-		StringBuilder sb = new StringBuilder();
-
 		if( type instanceof InterfaceType ) {
-			sb.append(methodTableType(type, false)).append(" = type { ");			
-			writer.write(sb.append(methodList(type.orderAllMethods(), false)).
-					append(" }").toString());
+			StringBuilder sb = line().append(methodTableType(type, false)).append(" = type { ");
+			appendMethodList(sb, type.orderAllMethods(), false).append(" }");
+			writeLine();
 		}
 		else if (type instanceof ClassType) {	
 			if( type.isUninstantiated() ) {
-				sb.append(methodTableType(type, false)).append(" = type { ");				
-				writer.write(sb.append(methodList(type.orderAllMethods(), false)).
-						append(" }").toString());
+				StringBuilder sb = line().append(methodTableType(type, false)).append(" = type { ");
+				appendMethodList(sb, type.orderAllMethods(), false).append(" }");
+				writeLine();
 
-				sb.setLength(0);
+				sb = line();
 				
 				//first thing in every object is the reference count
-				sb.append('%' + raw(type)).append(" = type { ");
-				sb.append(type(Type.ULONG)).append(", ");
+				appendRaw(sb, type).append(" = type { ");
+				sb.append(type(standard().ULONG)).append(", ");
 
 				//second thing in every object is the class
-				sb.append(type(Type.CLASS)).append(", ");
+				sb.append(type(standard().CLASS)).append(", ");
 
 				//then the method table
 				sb.append(methodTableType(type));
 
 
 				if (type.isPrimitive()) //put wrapped value in for primitives
-					sb.append(", ").append(type(type));
+					appendType(sb.append(", "), type);
 				else {			
 					for (Entry<String, ? extends ModifiedType> field :
 						((ClassType)type).orderAllFields())					
-						sb.append(", ").append(type(field.getValue()));					
+						appendType(sb.append(", "), field.getValue());					
 				}
-				writer.write(sb.append(" }").toString());
+				sb.append(" }");
+				writeLine();
 			}
 		}	
 	}
@@ -240,15 +373,15 @@ public class LLVMOutput extends AbstractOutput {
 
 			//generic classes don't list interfaces (because their parameterized versions have those)
 			//but they do share interfaceData (the actual methods)			
-			interfaceData.append("unnamed_addr constant { %ulong, " + type(Type.GENERIC_CLASS) + "," + methodTableType(Type.ARRAY) + ", %long, [").
+			interfaceData.append("unnamed_addr constant { %ulong, " + type(standard().GENERIC_CLASS) + "," + methodTableType(standard().ARRAY) + ", %long, [").
 			append(interfaceCount).append(" x ").
-			append(type(Type.METHOD_TABLE)).append("]} { %ulong -1, " + type(Type.GENERIC_CLASS) + " " + classOf(new ArrayType(Type.METHOD_TABLE)) + ", " +
-			methodTableType(Type.ARRAY) + " " + methodTable(Type.ARRAY) + ", " + typeLiteral(interfaceCount) + ", [" + interfaceCount + " x " + type(Type.METHOD_TABLE) + "] [");
+			append(type(standard().METHOD_TABLE)).append("]} { %ulong -1, " + type(standard().GENERIC_CLASS) + " " + classOf(new ArrayType(standard().METHOD_TABLE)) + ", " +
+			methodTableType(standard().ARRAY) + " " + methodTable(standard().ARRAY) + ", " + typeLiteral(interfaceCount) + ", [" + interfaceCount + " x " + type(standard().METHOD_TABLE) + "] [");
 			StringBuilder interfaceClasses = new StringBuilder( interfaces(moduleType) + " = private ");
 
-			interfaceClasses.append("unnamed_addr constant { %ulong, " + type(Type.GENERIC_CLASS) + "," + methodTableType(Type.ARRAY) + ", %long, [").
+			interfaceClasses.append("unnamed_addr constant { %ulong, " + type(standard().GENERIC_CLASS) + "," + methodTableType(standard().ARRAY) + ", %long, [").
 			append(interfaceCount).append(" x ").
-			append(type(Type.CLASS)).append("]} { %ulong -1, " + typeText(Type.GENERIC_CLASS, classOf(new ArrayType(Type.CLASS))) + ", " + methodTableType(Type.ARRAY) + " " + methodTable(Type.ARRAY) + ", " + typeLiteral((long)interfaceCount) + ", [" + interfaceCount + " x " + type(Type.CLASS) + "] [");
+			append(type(standard().CLASS)).append("]} { %ulong -1, " + typeText(standard().GENERIC_CLASS, classOf(new ArrayType(standard().CLASS))) + ", " + methodTableType(standard().ARRAY) + " " + methodTable(standard().ARRAY) + ", " + typeLiteral((long)interfaceCount) + ", [" + interfaceCount + " x " + type(standard().CLASS) + "] [");
 
 			boolean firstData = true;
 			boolean firstClass = true;
@@ -258,17 +391,18 @@ public class LLVMOutput extends AbstractOutput {
 					List<MethodSignature> methods = type.orderAllMethods(module.
 							getClassType());
 
-					String methodsType = methodList(methods, false);
-					writer.write("@_class" + classCounter +
-							" = private unnamed_addr constant { " + methodsType +
-							" } { " + methodList(methods, true) + " }");
+					StringBuilder sb = line().append("@_class").append(classCounter).
+							append(" = private unnamed_addr constant { ");
+					appendMethodList(sb, methods, false).append(" } { ");
+					appendMethodList(sb, methods, true).append(" }");
+					writeLine();
 					if( firstData )
 						firstData = false;
 					else
 						interfaceData.append(", ");
-					interfaceData.append(type(Type.METHOD_TABLE)).append(" bitcast ({ ").
-					append(methodsType).append(" }* @_class").append(classCounter).
-					append(" to ").append(type(Type.METHOD_TABLE)).append(")");
+					interfaceData.append(type(standard().METHOD_TABLE)).append(" bitcast ({ ");
+					appendMethodList(interfaceData, methods, false).append(" }* @_class").append(classCounter).
+					append(" to ").append(type(standard().METHOD_TABLE)).append(")");
 				}				
 
 				if( firstClass )
@@ -276,10 +410,7 @@ public class LLVMOutput extends AbstractOutput {
 				else
 					interfaceClasses.append(", ");
 				
-				if( type.isFullyInstantiated() )
-					interfaceClasses.append(typeText(Type.CLASS, "bitcast (" + type(Type.GENERIC_CLASS) + " " + classOf(type) + " to " + type(Type.CLASS) + ")"));
-				else
-					interfaceClasses.append(typeText(Type.CLASS, classOf(type)));
+				appendClass(interfaceClasses, type, type.isFullyInstantiated());
 				classCounter++;
 			}
 			writer.write(interfaceData.append("]}").toString());
@@ -298,45 +429,56 @@ public class LLVMOutput extends AbstractOutput {
 			flags |= SINGLETON;
 		if (module.isClass()) {
 			//add in methods that are inherited from parent classes
+			//(classes in the same file, such as sibling inner classes, are already defined)
 			for( MethodSignature signature : methods)			
-				if( (signature.getOuter() instanceof ClassType) && !module.getType().encloses(signature.getOuter()) && !signature.isWrapper() )
+				if( (signature.getOuter() instanceof ClassType) && !this.module.getType().encloses(signature.getOuter()) && !signature.isWrapper() )
 					usedSignatures.add(signature);
 
 			ClassType parentType = ((ClassType)moduleType).getExtendType();
-			writer.write(methodTable(moduleType) + " = constant " +
-					methodTableType(moduleType, false) + " { " +					
-					methodList(methods, true) + " }");
+			StringBuilder sb = line().append(methodTable(moduleType)).append(" = constant ").
+					append(methodTableType(moduleType, false)).append(" { ");
+			appendMethodList(sb, methods, true).append(" }");
+			writeLine();
 
 			//nothing will ever be the raw, unparameterized class
 			if( !moduleType.isParameterized() ) {
+				List<ClassType> superclassList = getSuperclasses(moduleType);
+				sb = line().append(superclasses(moduleType)).append(" = private unnamed_addr constant ").
+					append(superclassesType(superclassList)).append(' ');
+				appendSuperclassesValue(sb, superclassList);
+				writeLine();
+
 				writer.write(classOf(moduleType) + " = constant %" +
-					raw(Type.CLASS) + " { " + 
+					raw(standard().CLASS) + " { " + 
 					
-					type(Type.ULONG) + " " + literal(-1) + ", " + //reference count 
+					type(standard().ULONG) + " " + literal(-1) + ", " + //reference count 
 
-					type(Type.CLASS) + " " + classOf(Type.CLASS) + ", " + //class
-					methodTableType(Type.CLASS) + " " + methodTable(Type.CLASS) + ", " + //methods
+					type(standard().CLASS) + " " + classOf(standard().CLASS) + ", " + //class
+					methodTableType(standard().CLASS) + " " + methodTable(standard().CLASS) + ", " + //methods
 					
-					type(Type.ARRAY) + " bitcast ({%ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" +
-					interfaceCount + " x " + type(Type.METHOD_TABLE) + "]}* " +
-					interfaceData(moduleType) + " to " + type(Type.ARRAY) + "), " +
+					type(standard().ARRAY) + " bitcast ({%ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" +
+					interfaceCount + " x " + type(standard().METHOD_TABLE) + "]}* " +
+					interfaceData(moduleType) + " to " + type(standard().ARRAY) + "), " +
 					
-					type(Type.ARRAY) + //interfaces 
+					type(standard().ARRAY) + //interfaces 
 
 					( moduleType.isParameterized() ?							
 							" null, " :		
 								 
-								"bitcast ({%ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" +
-								interfaceCount + " x " + type(Type.CLASS) +	"]}* " +
-								interfaces(moduleType) + " to " + type(Type.ARRAY) + "), " ) +
+								"bitcast ({%ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" +
+								interfaceCount + " x " + type(standard().CLASS) +	"]}* " +
+								interfaces(moduleType) + " to " + type(standard().ARRAY) + "), " ) +
 
 					typeLiteral(moduleType.toString(Type.PACKAGES)) + ", " +  //name
 
-					typeText(Type.CLASS, parentType != null ?  //parent class
+					typeText(standard().CLASS, parentType != null ?  //parent class
 							classOf(parentType) : null) + ", " +
+
+					type(standard().ARRAY) + " bitcast (" + superclassesType(superclassList) + "* " + //superclasses
+					superclasses(moduleType) + " to " + type(standard().ARRAY) + "), " +
 					
 					typeLiteral(flags) + ", " +			//flags
-					typeText(Type.INT, sizeof(moduleType)) + //size 
+					typeText(standard().INT, sizeof(moduleType)) + //size 
 					" }" );
 			}
 		}
@@ -346,21 +488,22 @@ public class LLVMOutput extends AbstractOutput {
 			//nothing will ever be the raw, unparameterized class
 			if( !moduleType.isParameterized() ) {
 				writer.write(classOf(moduleType) + " = constant %" +
-					raw(Type.CLASS) + " { " + 
+					raw(standard().CLASS) + " { " + 
 					
-					type(Type.ULONG) + " " + literal(-1) + ", " + //reference count
+					type(standard().ULONG) + " " + literal(-1) + ", " + //reference count
 
-					type(Type.CLASS) + " " + classOf(Type.CLASS) + ", " + //class
-					methodTableType(Type.CLASS) + " " + methodTable(Type.CLASS) + ", " + //methods
+					type(standard().CLASS) + " " + classOf(standard().CLASS) + ", " + //class
+					methodTableType(standard().CLASS) + " " + methodTable(standard().CLASS) + ", " + //methods
 				
-					type(Type.ARRAY) + " null, " + //interfaceTables
-					type(Type.ARRAY) +  " null, " + //interfaces
+					type(standard().ARRAY) + " null, " + //interfaceTables
+					type(standard().ARRAY) +  " null, " + //interfaces
 					
 					typeLiteral(moduleType.toString(Type.PACKAGES)) + ", " + //name 
-					type(Type.CLASS) + " null, " + //parent
+					type(standard().CLASS) + " null, " + //parent
+					type(standard().ARRAY) + " null, " + //superclasses
 
 					typeLiteral(flags) + ", " +
-					typeText(Type.INT, sizeof(moduleType)) + //size 
+					typeText(standard().INT, sizeof(moduleType)) + //size 
 					" }");
 			}
 		}
@@ -381,12 +524,12 @@ public class LLVMOutput extends AbstractOutput {
 	
 	private void writeExceptions() throws ShadowException {
 		
-		//MethodSignature isSubtype = Type.CLASS.getMatchingMethod("isSubtype", new SequenceType(Type.CLASS));
+		//MethodSignature isSubtype = standard().CLASS.getMatchingMethod("isSubtype", new SequenceType(standard().CLASS));
 		
-		//if(module.getType() != Type.CLASS && !usedSignatures.contains(isSubtype))
+		//if(module.getType() != standard().CLASS && !usedSignatures.contains(isSubtype))
 		//	writer.write("declare " + methodToString(isSubtype, true, true));
 		
-		writer.write("declare i32 @__exceptionFilter(i8*, i8*, " + type(Type.CLASS) + ")"); 
+		writer.write("declare i32 @__exceptionFilter(i8*, i8*, " + type(standard().CLASS) + ")"); 
 		//writer.write("declare i64 @__exceptionHashCode(i8*)"); 
 		
 		//i1 @shadow.standard..Class_MisSubtype_shadow.standard..Class(%shadow.standard..Class*, %shadow.standard..Class*)
@@ -395,7 +538,7 @@ public class LLVMOutput extends AbstractOutput {
 		for(ExceptionType exceptionType : exceptions) {
 			writer.write("define linkonce_odr i32 " + exceptionMethod(exceptionType) + "(i8* %0, i8* %1) {");
 			writer.indent();
-				writer.write("%3 = call i32 @__exceptionFilter(i8* %0, i8* %1, " + type(Type.CLASS) + " " + classOf(exceptionType) + ")");
+				writer.write("%3 = call i32 @__exceptionFilter(i8* %0, i8* %1, " + type(standard().CLASS) + " " + classOf(exceptionType) + ")");
 				writer.write("ret i32 %3");
 			writer.outdent();
 			writer.write("}");
@@ -419,7 +562,7 @@ public class LLVMOutput extends AbstractOutput {
 			startingClasses.remove(type);
 			
 			if( (type instanceof ArrayType && !((ArrayType)type).containsUnboundTypeParameters()) ||
-				(type.isFullyInstantiated() && !type.getTypeWithoutTypeArguments().equals(Type.ARRAY) && !type.getTypeWithoutTypeArguments().equals(Type.ARRAY_NULLABLE)) ) {
+				(type.isFullyInstantiated() && !type.getTypeWithoutTypeArguments().equals(standard().ARRAY) && !type.getTypeWithoutTypeArguments().equals(standard().ARRAY_NULLABLE)) ) {
 				genericClasses.add(type);
 				
 				SequenceType dependencies = null;
@@ -433,9 +576,9 @@ public class LLVMOutput extends AbstractOutput {
 					for( ModifiedType modifiedType : dependencies ) {						
 						Type dependency = modifiedType.getType();						
 						//arrays are in their "generic" form and should be turned back
-						if( dependency.getTypeWithoutTypeArguments().equals(Type.ARRAY))
+						if( dependency.getTypeWithoutTypeArguments().equals(standard().ARRAY))
 							dependency = new ArrayType(dependency.getTypeParameters().getType(0));
-						else if( dependency.getTypeWithoutTypeArguments().equals(Type.ARRAY_NULLABLE))
+						else if( dependency.getTypeWithoutTypeArguments().equals(standard().ARRAY_NULLABLE))
 							dependency = new ArrayType(dependency.getTypeParameters().getType(0), true);
 						
 						if( !genericClasses.contains(dependency) ) {						
@@ -446,8 +589,8 @@ public class LLVMOutput extends AbstractOutput {
 			}			
 		}
 		
-		writeUnparameterizedGeneric(Type.ARRAY, definedGenerics);
-		writeUnparameterizedGeneric(Type.ARRAY_NULLABLE, definedGenerics);		
+		writeUnparameterizedGeneric(standard().ARRAY, definedGenerics);
+		writeUnparameterizedGeneric(standard().ARRAY_NULLABLE, definedGenerics);		
 
 		for( Type type : genericClasses ) {
 			//write type and method table declarations (even for current types!)			
@@ -470,7 +613,7 @@ public class LLVMOutput extends AbstractOutput {
 			if( !module.getType().encloses(unparameterizedType) ) {				
 				if( unparameterizedType instanceof ClassType ) {
 					writer.write( interfaceData(unparameterizedType) +
-							" = external constant { %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + unparameterizedType.getAllInterfaces().size() + " x " + type(Type.METHOD_TABLE) + "]}");
+							" = external constant { %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + unparameterizedType.getAllInterfaces().size() + " x " + type(standard().METHOD_TABLE) + "]}");
 					writer.write(methodTable(unparameterizedType) +
 							" = external constant " + methodTableType(unparameterizedType, false));
 				}						
@@ -495,12 +638,12 @@ public class LLVMOutput extends AbstractOutput {
 		if(Configuration.isWindows()) {
 			writer.write("declare i32 @__C_specific_handler(...)");
 			//writer.write("declare i32 @__CxxFrameHandler3 (...)"); 
-			writer.write("@__exceptionStorage = external global " + type(Type.EXCEPTION));			
+			writer.write("@__exceptionStorage = external global " + type(standard().EXCEPTION));			
 		}
 		else {
 			writer.write("declare i32 @__shadow_personality_v0(...)");
 			
-			writer.write("declare " + type(Type.EXCEPTION) + " @__shadow_catch(i8* nocapture) nounwind");
+			writer.write("declare " + type(standard().EXCEPTION) + " @__shadow_catch(i8* nocapture) nounwind");
 			writer.write("declare i32 @llvm.eh.typeid.for(i8*) nounwind readnone");
 		}
 		
@@ -509,7 +652,7 @@ public class LLVMOutput extends AbstractOutput {
 		writer.write("declare void @llvm.localescape(...) nounwind");
 		writer.write("declare i8* @llvm.localrecover(i8*, i8*, i32) nounwind readnone");
 		
-		writer.write("declare void @__shadow_throw(" + type(Type.OBJECT) + ") noreturn");
+		writer.write("declare void @__shadow_throw(" + type(standard().OBJECT) + ") noreturn");
 		//memcopy
 		writer.write("declare void @llvm.memcpy.p0i8.p0i8.i64(i8*, i8*, i64, i32, i1)");
 		
@@ -527,11 +670,16 @@ public class LLVMOutput extends AbstractOutput {
 		writeModuleDefinition(module);		
 	}
 
-	private String methodList(Iterable<MethodSignature> methods, boolean name)
+	private StringBuilder appendMethodList(StringBuilder sb,
+			Iterable<MethodSignature> methods, boolean name)
 			throws ShadowException {
-		StringBuilder sb = new StringBuilder();
-		for (MethodSignature method : methods) {			
-			sb.append(", ").append(methodType(method));
+		boolean first = true;
+		for (MethodSignature method : methods) {
+			if (first)
+				first = false;
+			else
+				sb.append(", ");
+			sb.append(methodType(method));
 			if (name) {
 				sb.append(' ');
 				if(method.isAbstract())
@@ -540,19 +688,15 @@ public class LLVMOutput extends AbstractOutput {
 					sb.append(name(method));
 			}
 		}
-
-		if( sb.length() > 0 )
-			return sb.substring(2);
-		else
-			return sb.toString();  //no methods!
+		return sb;
 	}
 
 	public void writeStringLiterals() throws ShadowException {
 		int stringIndex = 0;
 		
-		final String UBYTE_ARRAY_CLASS = "bitcast (" + type(Type.GENERIC_CLASS) + " " + classOf(new ArrayType(Type.UBYTE)) + " to " + type(Type.CLASS) + ")";
+		final String UBYTE_ARRAY_CLASS = "bitcast (" + type(standard().GENERIC_CLASS) + " " + classOf(new ArrayType(standard().UBYTE)) + " to " + type(standard().CLASS) + ")";
 		
-		for (String literal : stringLiterals) {
+		for (String literal : stringLiterals.keySet()) {
 			byte[] data = null;
 			try
 			{
@@ -580,17 +724,17 @@ public class LLVMOutput extends AbstractOutput {
 					append(Character.forDigit(b & 0xf, 16));
 			}
 			writer.write("@_array" + stringIndex + " = private unnamed_addr " +
-					"constant {%ulong, " + type(Type.CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + data.length + " x " + type(Type.UBYTE) +
-					"]} { %ulong -1, " + typeText(Type.CLASS, UBYTE_ARRAY_CLASS) + ", " + methodTableType(Type.ARRAY) + " " + methodTable(Type.ARRAY) + ", " + typeLiteral((long)data.length) + ", [" + data.length + " x " + type(Type.UBYTE) +
+					"constant {%ulong, " + type(standard().CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + data.length + " x " + type(standard().UBYTE) +
+					"]} { %ulong -1, " + typeText(standard().CLASS, UBYTE_ARRAY_CLASS) + ", " + methodTableType(standard().ARRAY) + " " + methodTable(standard().ARRAY) + ", " + typeLiteral((long)data.length) + ", [" + data.length + " x " + type(standard().UBYTE) +
 					"] c\"" + sb + "\" }");
 			writer.write("@_string" + stringIndex + " = private unnamed_addr " +
-					"constant %" + raw(Type.STRING) + " { " +
-					type(Type.ULONG) + " " + literal(-1) + ", " +					
-					type(Type.CLASS) + " " + classOf(Type.STRING) + ", " +
-					methodTableType(Type.STRING) + " " + methodTable(Type.STRING) + ", " +					
-					type(Type.ARRAY) + " bitcast (" +
-					"{%ulong, " + type(Type.CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + data.length + " x " + type(Type.UBYTE) + "]}* " +
-					"@_array" + stringIndex + " to " + type(Type.ARRAY) + "), " +
+					"constant %" + raw(standard().STRING) + " { " +
+					type(standard().ULONG) + " " + literal(-1) + ", " +					
+					type(standard().CLASS) + " " + classOf(standard().STRING) + ", " +
+					methodTableType(standard().STRING) + " " + methodTable(standard().STRING) + ", " +					
+					type(standard().ARRAY) + " bitcast (" +
+					"{%ulong, " + type(standard().CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + data.length + " x " + type(standard().UBYTE) + "]}* " +
+					"@_array" + stringIndex + " to " + type(standard().ARRAY) + "), " +
 					typeLiteral(ascii) + " }");
 			stringIndex++;
 		}		
@@ -693,14 +837,14 @@ public class LLVMOutput extends AbstractOutput {
 
 	@Override
 	public void visit(TACLongToPointer node) throws ShadowException {
-		writer.write(nextTemp(node) + " = inttoptr " + type(Type.ULONG) + " " +
+		writer.write(nextTemp(node) + " = inttoptr " + type(standard().ULONG) + " " +
 				symbol(node.getOperand(0)) + " to " + type(node.getType())); 
 	}
 
 	@Override
 	public void visit(TACPointerToLong node) throws ShadowException {		
 		writer.write(nextTemp(node) + " = ptrtoint " + typeSymbol(node.getOperand(0)) +
-				" to " + type(Type.ULONG));
+				" to " + type(standard().ULONG));
 	}
 
 	@Override
@@ -749,13 +893,6 @@ public class LLVMOutput extends AbstractOutput {
 	}
 	
 	
-	private String funcletData(TACCatchPad catchPad) {
-		if(catchPad == null)
-			return "";
-		
-		return " [ \"funclet\"(token " + catchPad.getToken() + ")]";
-	}
-	
 	@Override
 	public void visit(TACMethodPointer node) throws ShadowException {
 		node.setData(symbol(node.getPointer()));		
@@ -764,15 +901,14 @@ public class LLVMOutput extends AbstractOutput {
 	@Override
 	public void visit(TACMethodName node) throws ShadowException {
 		if (node.getOuterType() instanceof InterfaceType) {
-			writer.write(nextTemp() + " = extractvalue " +
-					type(node.getOuterType()) + " " + symbol(node.getPrefix()) + ", 0");
-			writer.write(nextTemp() + " = getelementptr " +
-					methodTableType(node.getOuterType(), false) +
-					", " + methodTableType(node.getOuterType()) + " " +
-					temp(1) + ", i32 0, i32 " + node.getIndex());
-			String back1 = temp(0);
-			writer.write(nextTemp(node) + " = load " + methodType(node) + ", " + methodType(node) +
-					"* " + back1);
+			StringBuilder sb = appendType(line().append(nextTemp()).append(" = extractvalue "), node.getOuterType()).append(' ');
+			appendSymbol(sb, node.getPrefix()).append(", 0");
+			writeLine();
+			line().append(nextTemp()).append(" = getelementptr ").append(methodTableType(node.getOuterType(), false)).
+				append(", ").append(methodTableType(node.getOuterType())).append(' ').
+				append(temp(1)).append(", i32 0, i32 ").append(node.getIndex());
+			writeLine();
+			loadMethod(node);
 		}
 		else if (node.hasPrefix() && 
 				//Devirtualization conditions below
@@ -781,22 +917,22 @@ public class LLVMOutput extends AbstractOutput {
 				!node.getType().getModifiers().isLocked() &&
 				!(node.getOuterType() instanceof SingletonType) &&
 				!node.getType().getModifiers().isPrivate() &&
-				!node.isSuper() ) {	
-			writer.write(nextTemp() + " = getelementptr inbounds %" +
-					raw(node.getPrefix().getType()) + ", " + 					
-					typeSymbol(node.getPrefix()) + ", i32 0, i32 2");
-
-			writer.write(nextTemp() + " = load " + methodTableType(node.getPrefix().getType()) + ", " +
-					methodTableType(node.getPrefix().getType()) + "* " + temp(1));
-
-			writer.write(nextTemp() + " = getelementptr inbounds " +
-					methodTableType(node.getPrefix().getType(), false) + ", " + 
-					methodTableType(node.getPrefix().getType()) + " " +
-					temp(1) + ", i32 0, i32 " + node.getIndex()); //may need to + 1 to the node.getIndex() if a parent method table is added	
-
-			String back1 = temp(0);
-			writer.write(nextTemp(node) + " = load " + methodType(node) + ", " + methodType(node) +
-					"* " + back1);
+				!node.isSuper() &&
+				!node.isDirect() ) {	
+			Type prefixType = node.getPrefix().getType();
+			StringBuilder sb = appendRaw(line().append(nextTemp()).append(" = getelementptr inbounds "), prefixType).append(", ");
+			appendTypeSymbol(sb, node.getPrefix()).append(", i32 0, i32 2");
+			writeLine();
+
+			line().append(nextTemp()).append(" = load ").append(methodTableType(prefixType)).append(", ").
+				append(methodTableType(prefixType)).append("* ").append(temp(1));
+			writeLine();
+
+			line().append(nextTemp()).append(" = getelementptr inbounds ").append(methodTableType(prefixType, false)).
+				append(", ").append(methodTableType(prefixType)).append(' ').
+				append(temp(1)).append(", i32 0, i32 ").append(node.getIndex()); //may need to + 1 to the node.getIndex() if a parent method table is added	
+			writeLine();
+			loadMethod(node);
 		}
 		else {			
 			node.setData(name(node));
@@ -806,6 +942,14 @@ public class LLVMOutput extends AbstractOutput {
 		}
 	}
 
+	// Loads the method pointer found in the last temporary
+	private void loadMethod(TACMethodName node) throws ShadowException {
+		String back1 = temp(0);
+		String type = methodType(node);
+		line().append(nextTemp(node)).append(" = load ").append(type).append(", ").append(type).append("* ").append(back1);
+		writeLine();
+	}
+
 	@Override
 	public void visit(TACClass node) throws ShadowException {		
 		node.setData(node.getClassData().getData());
@@ -815,8 +959,9 @@ public class LLVMOutput extends AbstractOutput {
 	public void visit(TACSequence node) throws ShadowException {
 		String current = "undef";
 		for (int i = 0; i < node.size(); i++) {
-			writer.write(nextTemp() + " = insertvalue " + typeText(node,
-					current) + ", " + typeSymbol(node.get(i)) + ", " + i);
+			StringBuilder sb = appendTypeText(line().append(nextTemp()).append(" = insertvalue "), node, current, false).append(", ");
+			appendTypeSymbol(sb, node.get(i)).append(", ").append(i);
+			writeLine();
 			current = temp(0);
 		}
 		node.setData(current);
@@ -824,8 +969,9 @@ public class LLVMOutput extends AbstractOutput {
 
 	@Override
 	public void visit(TACSequenceElement node ) throws ShadowException {	
-		writer.write(nextTemp(node) + " = extractvalue " +
-				typeSymbol(node.getOperand(0)) + ", " + node.getIndex());		
+		appendTypeSymbol(line().append(nextTemp(node)).append(" = extractvalue "), node.getOperand(0)).
+			append(", ").append(node.getIndex());
+		writeLine();
 	}	
 
 	@Override
@@ -842,8 +988,8 @@ public class LLVMOutput extends AbstractOutput {
 
 			switch(node.getKind()) {		
 			case INTERFACE_TO_OBJECT:
-				writer.write(nextTemp(node) + " = extractvalue " +
-						typeSymbol(source) + ", 1");			
+				appendTypeSymbol(line().append(nextTemp(node)).append(" = extractvalue "), source).append(", 1");
+				writeLine();
 				break;
 			case ITEM_TO_SEQUENCE:
 				writer.write(nextTemp(node) + " = insertvalue " + type(node) +
@@ -851,7 +997,7 @@ public class LLVMOutput extends AbstractOutput {
 				break;
 			case NULL_TO_INTERFACE:
 				writer.write(nextTemp(node) + " = insertvalue " + type(node) +
-						" zeroinitializer, " + type(Type.OBJECT) + " null, 1");
+						" zeroinitializer, " + type(standard().OBJECT) + " null, 1");
 				break;
 			case OBJECT_TO_INTERFACE:
 				//operand 1 is the interface method table
@@ -861,18 +1007,19 @@ public class LLVMOutput extends AbstractOutput {
 						" undef, " + methodTableType(destType) + " " + temp(1) +
 						", 0");
 				writer.write(nextTemp() + " = bitcast " +
-						typeSymbol(source) + " to " + type(Type.OBJECT));			
+						typeSymbol(source) + " to " + type(standard().OBJECT));			
 				back1 = temp(0);
 				back2 = temp(1);
 				writer.write(nextTemp(node) + " = insertvalue " + typeText(destType,
-						back2) + ", " + typeText(Type.OBJECT, back1) + ", 1");
+						back2) + ", " + typeText(standard().OBJECT, back1) + ", 1");
 				break;	
 			case OBJECT_TO_ARRAY:	
 			case OBJECT_TO_OBJECT:
 				srcTypeName = type(srcType, true); // nullable takes care of primitives in object form
 				destTypeName = type(destType, true);
-				writer.write(nextTemp(node) + " = bitcast " +
-						srcTypeName + ' ' + symbol(source) + " to " + destTypeName);
+				appendSymbol(line().append(nextTemp(node)).append(" = bitcast ").append(srcTypeName).append(' '), source).
+					append(" to ").append(destTypeName);
+				writeLine();
 				break;			
 			case OBJECT_TO_PRIMITIVE:
 				writer.write(nextTemp() + " = bitcast " + typeSymbol(source) + " to %" + raw(destType) +  "*");
@@ -883,14 +1030,14 @@ public class LLVMOutput extends AbstractOutput {
 				writer.write(nextTemp(node) + " = load " +  type(destType) + ", " + typeText(destType, back1, true));			
 				break;
 			case PRIMITIVE_TO_OBJECT:
-				writer.write(nextTemp() + " = call noalias " +	type(Type.OBJECT) + " @__allocate(" + 
-						type(Type.CLASS) + ' ' +
-						classOf(srcType) + ", " + methodTableType(Type.OBJECT) + " bitcast(" +
+				writer.write(nextTemp() + " = call noalias " +	type(standard().OBJECT) + " @__allocate(" + 
+						type(standard().CLASS) + ' ' +
+						classOf(srcType) + ", " + methodTableType(standard().OBJECT) + " bitcast(" +
 						methodTableType(srcType) + " " + methodTable(srcType) + " to " +
-						methodTableType(Type.OBJECT) + ")" + ")");			
+						methodTableType(standard().OBJECT) + ")" + ")");			
 				back1 = temp(0);
 				String result = nextTemp(node); 
-				writer.write(result + " = bitcast " + typeText(Type.OBJECT,
+				writer.write(result + " = bitcast " + typeText(standard().OBJECT,
 						back1) + " to %" + raw(srcType) + "*");
 				writer.write(nextTemp() + " = getelementptr inbounds %" +
 						raw(srcType) + ", %" + raw(srcType) + "* " + result + ", i32 0, i32 3");
@@ -924,12 +1071,13 @@ public class LLVMOutput extends AbstractOutput {
 					else
 						instruction = srcWidth > destWidth ? "trunc" : (srcWidth < destWidth ? "zext" : "bitcast");
 				}		
-				writer.write(nextTemp(node) + " = " + instruction + ' ' +
-						srcTypeName + ' ' + symbol(source) + " to " + destTypeName);
+				appendSymbol(line().append(nextTemp(node)).append(" = ").append(instruction).append(' ').append(srcTypeName).append(' '), source).
+					append(" to ").append(destTypeName);
+				writeLine();
 				break;
 			case SEQUENCE_TO_ITEM:			
-				writer.write(nextTemp(node) + " = extractvalue " +
-						typeSymbol(source) + ", 0");	
+				appendTypeSymbol(line().append(nextTemp(node)).append(" = extractvalue "), source).append(", 0");
+				writeLine();
 				break;
 			case SEQUENCE_TO_SEQUENCE:
 				String current = "undef";
@@ -963,15 +1111,15 @@ public class LLVMOutput extends AbstractOutput {
 		//this is pretty ugly, but if we retrieved a generic type parameter's method table, it'll be stored as MethodTable*, not an Object_methods*
 		if( type instanceof TypeParameter ) {			
 			TypeParameter parameter = (TypeParameter) type;
-			writer.write(nextTemp() + " = bitcast " + type(Type.METHOD_TABLE) + " " +  symbol(methods) +  " to "  + methodTableType(parameter.getClassBound()));
+			writer.write(nextTemp() + " = bitcast " + type(standard().METHOD_TABLE) + " " +  symbol(methods) +  " to "  + methodTableType(parameter.getClassBound()));
 		//any other method table will be of the correct type but needs cast to Object_methods* for compatibility with allocate()
 		}
 		else 
-			writer.write(nextTemp() + " = bitcast " + methodTableType(type.getTypeWithoutTypeArguments()) + " " +  symbol(methods) +  " to "  + methodTableType(Type.OBJECT));
+			writer.write(nextTemp() + " = bitcast " + methodTableType(type.getTypeWithoutTypeArguments()) + " " +  symbol(methods) +  " to "  + methodTableType(standard().OBJECT));
 		String back1 = temp(0);		
-		writer.write(nextTemp(node) + " = call noalias " + type(Type.OBJECT) +
-				" @__allocate(" + type(Type.CLASS) +
-				" " + symbol(_class) + ", " + methodTableType(Type.OBJECT) + " " + back1 +
+		writer.write(nextTemp(node) + " = call noalias " + type(standard().OBJECT) +
+				" @__allocate(" + type(standard().CLASS) +
+				" " + symbol(_class) + ", " + methodTableType(standard().OBJECT) + " " + back1 +
 				" )");
 	}
 
@@ -979,16 +1127,45 @@ public class LLVMOutput extends AbstractOutput {
 	public void visit(TACNewArray node) throws ShadowException {		
 		String allocationClass = typeSymbol(node.getAllocationClass());		
 		ArrayType type = node.getType();
-		if( type.isNullable() ) {		
-			writer.write(nextTemp() + " = call noalias " + type(Type.ARRAY) + " @__allocateArray(" +
-					allocationClass + ", " + typeSymbol(node.getSize()) + ", " + typeText(Type.BOOLEAN, "true") + ')');
+		if( node.isStackAllocated() )
+			stackArray(node);
+		else if( type.isNullable() ) {		
+			writer.write(nextTemp() + " = call noalias " + type(standard().ARRAY) + " @__allocateArray(" +
+					allocationClass + ", " + typeSymbol(node.getSize()) + ", " + typeText(standard().BOOLEAN, "true") + ')');
 			
 			String last = temp(0);
-			writer.write(nextTemp(node) + " = bitcast " + typeText(Type.ARRAY, last) + " to " + type(Type.ARRAY_NULLABLE));
+			writer.write(nextTemp(node) + " = bitcast " + typeText(standard().ARRAY, last) + " to " + type(standard().ARRAY_NULLABLE));
 		}
 		else
-			writer.write(nextTemp(node) + " = call noalias " + type(Type.ARRAY) + " @__allocateArray(" +
-					allocationClass + ", " + typeSymbol(node.getSize()) + ", " + typeText(Type.BOOLEAN, "false") + ')');
+			writer.write(nextTemp(node) + " = call noalias " + type(standard().ARRAY) + " @__allocateArray(" +
+					allocationClass + ", " + typeSymbol(node.getSize()) + ", " + typeText(standard().BOOLEAN, "false") + ')');
+	}
+
+	/*
+	 * Lays out an array that never leaves its method on the stack, with
+	 * the same header that __allocateArray() fills in. The reference count
+	 * is the value that marks objects which are never freed, so increments
+	 * and decrements skip it. Only primitive arrays that are never passed
+	 * to methods (other than to read their sizes) are allocated this way,
+	 * so the method table is never needed and is left null.
+	 */
+	private void stackArray(TACNewArray node) throws ShadowException {
+		String array = "%" + raw(standard().ARRAY);
+		String storage = "{ " + array + ", [" + node.getStackLength() + " x " + type(node.getBaseType()) + "] }";
+		writer.write(nextTemp() + " = alloca " + storage);
+		writer.write("store " + storage + " zeroinitializer, " + storage + "* " + temp(0));
+		String back1 = temp(0);
+		String result = nextTemp(node);
+		writer.write(result + " = bitcast " + storage + "* " + back1 + " to " + type(standard().ARRAY));
+
+		writer.write(nextTemp() + " = getelementptr inbounds " + array + ", " + typeText(standard().ARRAY, result) + ", i32 0, i32 0");
+		writer.write("store " + typeText(standard().ULONG, "-1") + ", " + typeText(standard().ULONG, temp(0), true));
+		writer.write(nextTemp() + " = getelementptr inbounds " + array + ", " + typeText(standard().ARRAY, result) + ", i32 0, i32 1");
+		back1 = temp(0);
+		writer.write(nextTemp() + " = bitcast " + typeSymbol(node.getAllocationClass()) + " to " + type(standard().CLASS));
+		writer.write("store " + typeText(standard().CLASS, temp(0)) + ", " + typeText(standard().CLASS, back1, true));
+		writer.write(nextTemp() + " = getelementptr inbounds " + array + ", " + typeText(standard().ARRAY, result) + ", i32 0, i32 3");
+		writer.write("store " + typeText(standard().LONG, Long.toString(node.getStackLength())) + ", " + typeText(standard().LONG, temp(0), true));
 	}
 
 	@Override
@@ -1015,17 +1192,24 @@ public class LLVMOutput extends AbstractOutput {
 	private void visitUnary(TACUnary node, String instruction, String first)
 			throws ShadowException {
 
-		writer.write(nextTemp(node) + " = " + instruction + ' ' + typeText(node,
-				first) + ", " + symbol(node.getOperand()));
+		StringBuilder sb = line().append(nextTemp(node)).append(" = ").append(instruction).append(' ');
+		appendTypeText(sb, node, first, false).append(", ");
+		appendSymbol(sb, node.getOperand());
+		writeLine();
 	}
 	
 	@Override
 	public void visit(TACAllocateVariable node) throws ShadowException { 
 		TACVariable local = node.getVariable();
-		writer.write(name(local) + " = alloca " + type(local));
+		String name = name(local);
+		appendType(line().append(name).append(" = alloca "), local);
+		writeLine();
 		// Only _exception is expected to be a SequenceType
-		if(!(local.getType() instanceof SequenceType) && (!local.getType().isPrimitive() || local.getModifiers().isNullable()))
-			writer.write("store " + type(local) + " " + literal(new ShadowNull(local.getType())) + ", " + typeText(local, name(local), true));
+		if(!(local.getType() instanceof SequenceType) && (!local.getType().isPrimitive() || local.getModifiers().isNullable())) {
+			StringBuilder sb = appendType(line().append("store "), local).append(' ').append(literal(new ShadowNull(local.getType()))).append(", ");
+			appendTypeText(sb, local, name, true);
+			writeLine();
+		}
 	}
 	
 	@Override
@@ -1041,57 +1225,33 @@ public class LLVMOutput extends AbstractOutput {
 		else
 			reference = variable = node.getVariable();
 		
-		
-		if( node.isIncrement() ) {			
-			if( node.isField() ) {
-				writer.write(nextTemp() + " = getelementptr inbounds " +
-						"%" + raw(field.getPrefix().getType()) + ", " + 
-						typeSymbol(field.getPrefix()) + ", i32 0, i32 " +
-						(field.getIndex()));				
-				writer.write(nextTemp() + " = load " + type(field) + ", " +
-						typeText(field, temp(1), true));
-				name = temp(0);
-			}
-			else if( variable.getOriginalName().equals("this") ) //special case for this
-				name = "%0";
-			else {
-				writer.write(nextTemp() + " = load " + type(variable) + ", " + typeText(variable, name(variable), true));
-				name = temp(0);
-			}			
-						
-			if( reference.getType() instanceof InterfaceType )
-				writer.write(nextTemp() + " = extractvalue " + typeText(reference, name) + ", 1");					
-			else
-				writer.write(nextTemp() + " = bitcast " + typeText(reference, name) + " to " + type(Type.OBJECT) );
-
-			//same increment for both cases
-			writer.write("call void @__incrementRef(" + typeText(Type.OBJECT, temp(0)) + ") nounwind");	
-		}
-		else {			
-			if( node.isField() ) {
-				writer.write(nextTemp() + " = getelementptr inbounds " +
-						"%" + raw(field.getPrefix().getType()) + ", " + 
-						typeSymbol(field.getPrefix()) + ", i32 0, i32 " +
-						(field.getIndex()));				
-				writer.write(nextTemp() + " = load " + type(field) + ", " +
-						typeText(field, temp(1), true));
-				name = temp(0);
-			}
-			else if( variable.getOriginalName().equals("this") )
-				name = "%0";
-			else {
-				writer.write(nextTemp() + " = load " + type(variable) + ", " + typeText(variable, name(variable), true));
-				name = temp(0);
-			}
-				
-			if( reference.getType() instanceof InterfaceType )
-				writer.write(nextTemp() + " = extractvalue " + typeText(reference, name) + ", 1");									
-			else				
-				writer.write(nextTemp() + " = bitcast " + typeText(reference, name) + " to " + type(Type.OBJECT) );
-			
-			//same decrement for these two cases
-			writer.write("call void @__decrementRef(" + typeText(Type.OBJECT, temp(0)) + ") nounwind");			
+		// Loading the reference is the same for increments and decrements
+		if( node.isField() ) {
+			fieldElement(field);
+			StringBuilder sb = appendType(line().append(nextTemp()).append(" = load "), field).append(", ");
+			appendTypeText(sb, field, temp(1), true);
+			writeLine();
+			name = temp(0);
 		}
+		else if( variable.getOriginalName().equals("this") ) //special case for this
+			name = "%0";
+		else {
+			StringBuilder sb = appendType(line().append(nextTemp()).append(" = load "), variable).append(", ");
+			appendTypeText(sb, variable, name(variable), true);
+			writeLine();
+			name = temp(0);
+		}			
+					
+		if( reference.getType() instanceof InterfaceType )
+			appendTypeText(line().append(nextTemp()).append(" = extractvalue "), reference, name, false).append(", 1");
+		else
+			appendType(appendTypeText(line().append(nextTemp()).append(" = bitcast "), reference, name, false).append(" to "), standard().OBJECT);
+		writeLine();
+
+		if( node.isIncrement() )
+			incrementRef(temp(0), null);
+		else
+			decrementRef(temp(0), null);
 	}
 
 	@Override
@@ -1176,19 +1336,22 @@ public class LLVMOutput extends AbstractOutput {
 		Type type = node.getOperand(0).getType();
 
 		if( type instanceof InterfaceType ) {			
-			writer.write(nextTemp() + " = extractvalue " +
-					typeSymbol(node.getOperand(0)) + ", 1");
-			writer.write(nextTemp() + " = extractvalue " +
-					typeSymbol(node.getOperand(0)) + ", 1");
+			appendTypeSymbol(line().append(nextTemp()).append(" = extractvalue "), node.getOperand(0)).append(", 1");
+			writeLine();
+			appendTypeSymbol(line().append(nextTemp()).append(" = extractvalue "), node.getOperand(0)).append(", 1");
+			writeLine();
 			String back1 = temp(0);
 			String back2 = temp(1);
-			writer.write(nextTemp(node) + " = icmp eq" + type(Type.OBJECT)
-			+ back2 + ", " + back1);		
+			appendType(line().append(nextTemp(node)).append(" = icmp eq"), standard().OBJECT).
+				append(back2).append(", ").append(back1);
+			writeLine();
 		}
 		else {		
 			String op = type.isFloating() ? "fcmp oeq " : "icmp eq " ;
-			writer.write(nextTemp(node) + " = " + op + typeSymbol(
-					node.getOperand(0)) + ", " + symbol(node.getOperand(1)));
+			StringBuilder sb = line().append(nextTemp(node)).append(" = ").append(op);
+			appendTypeSymbol(sb, node.getOperand(0)).append(", ");
+			appendSymbol(sb, node.getOperand(1));
+			writeLine();
 		}		
 	}
 
@@ -1219,7 +1382,7 @@ public class LLVMOutput extends AbstractOutput {
 	private void visitOperation(TACBinary node, String signed,
 			String unsigned, String floatingPoint, String instruction)
 					throws ShadowException {
-		StringBuilder sb = new StringBuilder(nextTemp(node)).append(" = ");
+		StringBuilder sb = line().append(nextTemp(node)).append(" = ");
 		Type type = node.getFirst().getType();
 		if (type.isIntegral() || !type.isPrimitive())
 			if (type.isSigned())
@@ -1228,9 +1391,9 @@ public class LLVMOutput extends AbstractOutput {
 				sb.append(unsigned);
 		else
 			sb.append(floatingPoint);
-		writer.write(sb.append(instruction).append(' ').append(typeSymbol(type,
-				node.getFirst())).append(", ").append(symbol(node.getSecond())).
-				toString());
+		appendTypeSymbol(sb.append(instruction).append(' '), type, node.getFirst()).append(", ");
+		appendSymbol(sb, node.getSecond());
+		writeLine();
 	}
 	private void visitRotateLeft(TACBinary node) throws ShadowException {
 		visitRotate(node, "shl", "lshr");
@@ -1272,8 +1435,11 @@ public class LLVMOutput extends AbstractOutput {
 			else 
 				gcObjectStore( name(variable), variable.getType(), node.getValue(), node.isIncrementReference() && node.isGarbageCollected(), node.isDecrementReference() && node.isGarbageCollected(), node.getCatchPad() );
 		}
-		else if(variable.isFinallyVariable() ) // And not garbage collected
-			writer.write("store " + typeSymbol(node.getValue()) + ", " + type(variable) + "* " + name(variable));
+		else if(variable.isFinallyVariable() ) { // And not garbage collected
+			StringBuilder sb = appendTypeSymbol(line().append("store "), node.getValue()).append(", ");
+			appendType(sb, variable).append("* ").append(name(variable));
+			writeLine();
+		}
 	}
 	
 
@@ -1310,21 +1476,17 @@ public class LLVMOutput extends AbstractOutput {
 
 		if( reference instanceof TACSingletonRef) {
 			TACSingletonRef singleton = (TACSingletonRef) reference;			
-			writer.write(nextTemp(node) + " = load " + type(singleton) + ", " +
-					typeText(singleton, '@' + raw(singleton.getType(), "_instance"), true));
-
+			StringBuilder sb = appendType(line().append(nextTemp(node)).append(" = load "), singleton).append(", ");
+			appendType(sb, singleton).append("* @").append(raw(singleton.getType(), "_instance"));
+			writeLine();
 		}		
 		else if( reference instanceof TACArrayRef ) {
 			TACArrayRef arrayRef = (TACArrayRef) reference; //has type of result			
-			ArrayType arrayType = (ArrayType) arrayRef.getArray().getType();
-			ClassType genericArray = arrayType.convertToGeneric().getTypeWithoutTypeArguments();
-			writer.write(nextTemp() + " = getelementptr inbounds %" +			
-					raw(genericArray) + ", " + typeSymbol(arrayRef.getArray()) + ", " + typeLiteral(1));
-			writer.write(nextTemp() + " = bitcast " + typeTemp(arrayType, 1) + " to " + type(arrayRef) + "*");
-			writer.write(nextTemp() + " = getelementptr inbounds " + type(arrayRef) + ", " + typeText(arrayRef, temp(1), true) + ", " + typeSymbol(arrayRef.getIndex()));
+			arrayElement(arrayRef);
 			back1 = temp(0);
-			writer.write(nextTemp(node) + " = load " + type(arrayRef) + ", " +
-					typeText(arrayRef, back1, true));
+			StringBuilder sb = appendType(line().append(nextTemp(node)).append(" = load "), arrayRef).append(", ");
+			appendTypeText(sb, arrayRef, back1, true);
+			writeLine();
 		}
 		else if( reference instanceof TACFieldRef ) {			
 			TACFieldRef fieldRef = (TACFieldRef) reference;
@@ -1332,14 +1494,15 @@ public class LLVMOutput extends AbstractOutput {
 			if( prefixType instanceof ArrayType )
 				prefixType = ((ArrayType)prefixType).convertToGeneric();
 			else if( prefixType instanceof MethodType )
-				prefixType = Type.METHOD;
-			writer.write(nextTemp() + " = getelementptr inbounds " +
-					"%" + raw(prefixType) + ", " + type(prefixType) + " " + 
-					symbol(fieldRef.getPrefix()) + ", i32 0, i32 " +
-					(fieldRef.getIndex()));
+				prefixType = standard().METHOD;
+			StringBuilder sb = appendRaw(line().append(nextTemp()).append(" = getelementptr inbounds "), prefixType).append(", ");
+			appendType(sb, prefixType).append(' ');
+			appendSymbol(sb, fieldRef.getPrefix()).append(", i32 0, i32 ").append(fieldRef.getIndex());
+			writeLine();
 			back1 = temp(0);
-			writer.write(nextTemp(node) + " = load " + type(fieldRef) + ", " +
-					typeText(fieldRef, back1, true));
+			sb = appendType(line().append(nextTemp(node)).append(" = load "), fieldRef).append(", ");
+			appendTypeText(sb, fieldRef, back1, true);
+			writeLine();
 		}
 		/*
 		else if( reference instanceof TACConstantRef ) {
@@ -1352,9 +1515,30 @@ public class LLVMOutput extends AbstractOutput {
 		*/
 		else if( reference instanceof TACGlobalRef ) {
 			TACGlobalRef global = (TACGlobalRef) reference;
-			writer.write(nextTemp(node) + " = load " + type(global) + ", " + type(global) + "* " + global.getName());
+			StringBuilder sb = appendType(line().append(nextTemp(node)).append(" = load "), global).append(", ");
+			appendType(sb, global).append("* ").append(global.getName());
+			writeLine();
 		}		
 	}
+	
+	/*
+	 * Finds the address of an array element, leaving it in the last temporary.
+	 */
+	private void arrayElement(TACArrayRef arrayRef) throws ShadowException {
+		ArrayType arrayType = (ArrayType) arrayRef.getArray().getType();
+		ClassType genericArray = arrayType.convertToGeneric().getTypeWithoutTypeArguments();
+		StringBuilder sb = appendRaw(line().append(nextTemp()).append(" = getelementptr inbounds "), genericArray).append(", ");
+		appendTypeSymbol(sb, arrayRef.getArray()).append(", ");
+		appendTypeLiteral(sb, 1);
+		writeLine();
+		sb = appendTypeText(line().append(nextTemp()).append(" = bitcast "), arrayType, temp(1), false).append(" to ");
+		appendType(sb, arrayRef).append('*');
+		writeLine();
+		sb = appendType(line().append(nextTemp()).append(" = getelementptr inbounds "), arrayRef).append(", ");
+		appendTypeText(sb, arrayRef, temp(1), true).append(", ");
+		appendTypeSymbol(sb, arrayRef.getIndex());
+		writeLine();
+	}
 
 	@Override
 	public void visit(TACStore node) throws ShadowException {
@@ -1363,17 +1547,13 @@ public class LLVMOutput extends AbstractOutput {
 		if( reference instanceof TACSingletonRef) {
 			//singletons are never GC
 			TACSingletonRef singleton = (TACSingletonRef) reference;			
-			writer.write("store " + typeSymbol(node.getValue()) + ", " +
-					typeText(singleton, '@' + raw(singleton.getType(), "_instance"), true));			
+			StringBuilder sb = appendTypeSymbol(line().append("store "), node.getValue()).append(", ");
+			appendType(sb, singleton).append("* @").append(raw(singleton.getType(), "_instance"));
+			writeLine();
 		}
 		else if( reference instanceof TACArrayRef ) {
 			TACArrayRef arrayRef = (TACArrayRef) reference; //has type of result			
-			ArrayType arrayType = (ArrayType) arrayRef.getArray().getType();
-			ClassType genericArray = arrayType.convertToGeneric().getTypeWithoutTypeArguments();
-			writer.write(nextTemp() + " = getelementptr inbounds %" +
-					raw(genericArray) + ", " + typeSymbol(arrayRef.getArray()) + ", " + typeLiteral(1));
-			writer.write(nextTemp() + " = bitcast " + typeTemp(arrayType, 1) + " to " + type(arrayRef) + "*");
-			writer.write(nextTemp() + " = getelementptr inbounds " + type(arrayRef) + ", " + typeText(arrayRef, temp(1), true) + ", " + typeSymbol(arrayRef.getIndex()));
+			arrayElement(arrayRef);
 			
 			if( node.isGarbageCollected() ) {
 				if( arrayRef.getType() instanceof InterfaceType )					
@@ -1382,16 +1562,15 @@ public class LLVMOutput extends AbstractOutput {
 				else 
 					gcObjectStore(temp(0), arrayRef.getType(), node.getValue(), node.isIncrementReference(), node.isDecrementReference(), null );				
 			}
-			else
-				writer.write("store " + typeSymbol(node.getValue()) + ", " + 
-						typeText(arrayRef, temp(0), true));			
+			else {
+				StringBuilder sb = appendTypeSymbol(line().append("store "), node.getValue()).append(", ");
+				appendTypeText(sb, arrayRef, temp(0), true);
+				writeLine();
+			}
 		}
 		else if( reference instanceof TACFieldRef ) {
 			TACFieldRef fieldRef = (TACFieldRef) reference;
-			writer.write(nextTemp() + " = getelementptr inbounds " +
-					"%" + raw(fieldRef.getPrefix().getType()) + ", " + 
-					typeSymbol(fieldRef.getPrefix()) + ", i32 0, i32 " +
-					(fieldRef.getIndex()));			
+			fieldElement(fieldRef);
 			
 			if( node.isGarbageCollected() ) {
 				if( fieldRef.getType() instanceof InterfaceType )					
@@ -1400,55 +1579,95 @@ public class LLVMOutput extends AbstractOutput {
 				else 
 					gcObjectStore(temp(0), fieldRef.getType(), node.getValue(), node.isIncrementReference(), node.isDecrementReference(), null );
 			}
-			else
-				writer.write("store " + typeSymbol(node.getValue()) + ", " + 
-						typeText(fieldRef.getType(), temp(0), true));			
+			else {
+				StringBuilder sb = appendTypeSymbol(line().append("store "), node.getValue()).append(", ");
+				appendTypeText(sb, fieldRef.getType(), temp(0), true);
+				writeLine();
+			}
 		}
 	}	
 	
+	/*
+	 * Finds the address of a field, leaving it in the last temporary.
+	 */
+	private void fieldElement(TACFieldRef fieldRef) throws ShadowException {
+		StringBuilder sb = appendRaw(line().append(nextTemp()).append(" = getelementptr inbounds "), fieldRef.getPrefix().getType()).append(", ");
+		appendTypeSymbol(sb, fieldRef.getPrefix()).append(", i32 0, i32 ").append(fieldRef.getIndex());
+		writeLine();
+	}
+	
+	private void incrementRef(String object, TACCatchPad catchPad) throws ShadowException {
+		StringBuilder sb = appendTypeText(line().append("call void @__incrementRef("), standard().OBJECT, object, false).append(") nounwind");
+		appendFunclet(sb, catchPad);
+		writeLine();
+	}
+	
+	private void decrementRef(String object, TACCatchPad catchPad) throws ShadowException {
+		StringBuilder sb = appendTypeText(line().append("call void @__decrementRef("), standard().OBJECT, object, false).append(") nounwind");
+		appendFunclet(sb, catchPad);
+		writeLine();
+	}
+	
 	
 	private void gcObjectStore(String destination, Type type, TACOperand value, boolean increment, boolean decrement, TACCatchPad catchPad ) throws ShadowException {
 		if( increment ) {
-			writer.write(nextTemp() + " = bitcast " + typeSymbol(value) + " to " + type(Type.OBJECT));
-			writer.write("call void @__incrementRef(" + typeText(Type.OBJECT, temp(0)) + ") nounwind");
+			StringBuilder sb = appendTypeSymbol(line().append(nextTemp()).append(" = bitcast "), value).append(" to ");
+			appendType(sb, standard().OBJECT);
+			writeLine();
+			incrementRef(temp(0), null);
 		}
 				
 		//decrement old value in variable
 		//gc type is always nullable, to catch the wrapper versions of primitives
 		if( decrement ) {
-			writer.write(nextTemp() + " = load " + type(type, true) + ", " + type(type, true) + "* " + destination);
-			writer.write(nextTemp() + " = bitcast " + type(type, true) + " " + temp(1) + " to " + type(Type.OBJECT));					
-			writer.write("call void @__decrementRef(" + typeText(Type.OBJECT, temp(0)) + ") nounwind" + funcletData(catchPad));
+			StringBuilder sb = appendType(line().append(nextTemp()).append(" = load "), type, true).append(", ");
+			appendType(sb, type, true).append("* ").append(destination);
+			writeLine();
+			sb = appendType(line().append(nextTemp()).append(" = bitcast "), type, true).append(' ').append(temp(1)).append(" to ");
+			appendType(sb, standard().OBJECT);
+			writeLine();
+			decrementRef(temp(0), catchPad);
 		}
 		//then store new value					
-		writer.write("store " + typeSymbol(value) + ", " + type(type, true) + "* " + destination);		
+		StringBuilder sb = appendTypeSymbol(line().append("store "), value).append(", ");
+		appendType(sb, type, true).append("* ").append(destination);
+		writeLine();
 	}
 	
 	private void gcInterfaceStore(String destination, InterfaceType type, TACOperand value, boolean increment, boolean decrement, TACCatchPad catchPad ) throws ShadowException {
 		if( increment ) {
 			//increment the Object* reference
-			writer.write(nextTemp() + " = extractvalue " + typeSymbol(value) + ", 1");
-			writer.write("call void @__incrementRef(" + typeText(Type.OBJECT, temp(0)) + ") nounwind" + funcletData(catchPad));
+			appendTypeSymbol(line().append(nextTemp()).append(" = extractvalue "), value).append(", 1");
+			writeLine();
+			incrementRef(temp(0), catchPad);
 		}
 		
 		//decrement the old one	
 		if( decrement ) {
-			writer.write(nextTemp() + " = getelementptr inbounds " + type(type) + ", " +
-					typeText(type, destination, true) + ", i32 0, i32 1");
-			writer.write(nextTemp() + " = load " + type(Type.OBJECT) + ", " + typeText(Type.OBJECT, temp(1), true));					
-			writer.write("call void @__decrementRef(" + typeText(Type.OBJECT, temp(0)) + ") nounwind" + funcletData(catchPad));
+			StringBuilder sb = appendType(line().append(nextTemp()).append(" = getelementptr inbounds "), type).append(", ");
+			appendTypeText(sb, type, destination, true).append(", i32 0, i32 1");
+			writeLine();
+			sb = appendType(line().append(nextTemp()).append(" = load "), standard().OBJECT).append(", ");
+			appendTypeText(sb, standard().OBJECT, temp(1), true);
+			writeLine();
+			decrementRef(temp(0), catchPad);
 		}
 				
 		//store the whole thing after decrement
-		writer.write("store " + typeSymbol(value) + ", " + typeText(type, destination, true));		
+		StringBuilder sb = appendTypeSymbol(line().append("store "), value).append(", ");
+		appendTypeText(sb, type, destination, true);
+		writeLine();
 	}
 
 
 	@Override
 	public void visit(TACLocalLoad node) throws ShadowException {	
 		TACVariable variable = node.getVariable();
-		if( node.isGarbageCollected() || variable.isFinallyVariable() )
-			writer.write(nextTemp(node) + " = load " + type(variable) + ", " + type(variable) + "* " + name(variable));
+		if( node.isGarbageCollected() || variable.isFinallyVariable() ) {
+			StringBuilder sb = appendType(line().append(nextTemp(node)).append(" = load "), variable).append(", ");
+			appendType(sb, variable).append("* ").append(name(variable));
+			writeLine();
+		}
 		else {		
 			TACOperand store = node.getPreviousStore(); 
 			if( store == null ) {
@@ -1470,12 +1689,13 @@ public class LLVMOutput extends AbstractOutput {
 		if( !node.isGarbageCollected() && !node.getVariable().isFinallyVariable() ) {
 			Map<TACLabel, TACOperand> values = node.getPreviousStores();
 			if( values.size() > 1 ) {
-				StringBuilder sb = new StringBuilder(name(node)).
-						append(" = phi "). append(type(node)).append(" ");			 
-				for( Map.Entry<TACLabel, TACOperand> entry : values.entrySet() )
-					sb.append("[ ").append(symbol(entry.getValue())).append(", ").
-					append(symbol(entry.getKey())).append(" ],");
-				writer.write(sb.deleteCharAt(sb.length() - 1).toString());	
+				StringBuilder sb = appendType(line().append(name(node)).append(" = phi "), node).append(' ');
+				for( Map.Entry<TACLabel, TACOperand> entry : values.entrySet() ) {
+					appendSymbol(sb.append("[ "), entry.getValue()).append(", ");
+					appendSymbol(sb, entry.getKey()).append(" ],");
+				}
+				sb.setLength(sb.length() - 1);
+				writeLine();
 			}
 			else if( values.size() == 1 )
 				node.setData(values.values().iterator().next().getData());
@@ -1491,15 +1711,18 @@ public class LLVMOutput extends AbstractOutput {
 
 	@Override
 	public void visit(TACBranch node) throws ShadowException {
-		if (node.isConditional())
-			writer.write("br " + typeSymbol(node.getCondition()) + ", label " +
-					symbol(node.getTrueLabel()) + ", label " +
-					symbol(node.getFalseLabel()));
-		else if (node.isDirect())
-			writer.write("br label " + symbol(node.getLabel()));
+		if (node.isConditional()) {
+			StringBuilder sb = appendTypeSymbol(line().append("br "), node.getCondition()).append(", label ");
+			appendSymbol(sb, node.getTrueLabel()).append(", label ");
+			appendSymbol(sb, node.getFalseLabel());
+			writeLine();
+		}
+		else if (node.isDirect()) {
+			appendSymbol(line().append("br label "), node.getLabel());
+			writeLine();
+		}
 		else if (node.isIndirect()) {
-			StringBuilder sb = new StringBuilder("indirectbr ").
-					append(typeSymbol(node.getPhi())).append(", [ ");
+			StringBuilder sb = appendTypeSymbol(line().append("indirectbr "), node.getPhi()).append(", [ ");
 			TACPhi phi = node.getPhi();
 			boolean first = true;
 			for(TACOperand operand : phi.getPreviousStores().values()) {
@@ -1508,16 +1731,37 @@ public class LLVMOutput extends AbstractOutput {
 				else
 					sb.append(", ");
 				TACLabelAddress address = (TACLabelAddress) operand;
-				sb.append("label ").append(symbol(address.getLabel()));
+				appendSymbol(sb.append("label "), address.getLabel());
 			}
 			sb.append(" ]");
-			writer.write(sb.toString());
+			writeLine();
 		}
 	}
 
+	@Override
+	public void visit(TACSwitch node) throws ShadowException {
+		// Switches on known values are left with only the default
+		if (node.getCaseValues().isEmpty()) {
+			appendSymbol(line().append("br label "), node.getDefault());
+			writeLine();
+			return;
+		}
+
+		StringBuilder sb = appendTypeSymbol(line().append("switch "), node.getValue()).append(", label ");
+		appendSymbol(sb, node.getDefault()).append(" [");
+		List<TACLiteral> values = node.getCaseValues();
+		List<TACLabel> labels = node.getCaseLabels();
+		for( int i = 0; i < values.size(); ++i ) {
+			appendTypeSymbol(sb.append(' '), values.get(i)).append(", label ");
+			appendSymbol(sb, labels.get(i));
+		}
+		sb.append(" ]");
+		writeLine();
+	}
+
 	@Override
 	public void visit(TACLabel node) throws ShadowException {
-		writer.writeLeft(name(node) + ':');
+		writer.writeLeft(line().append(name(node)).append(':'));
 	}
 
 	@Override
@@ -1527,41 +1771,44 @@ public class LLVMOutput extends AbstractOutput {
 
 		// No precomputation done
 		if( value == null ) {
-			StringBuilder sb = new StringBuilder(unwindLabel != null ?
-					"invoke" : "call").append(' ');
 			TACMethodRef method = node.getMethodRef();
+			StringBuilder sb = line();
+			if (!method.getReturnTypes().isEmpty())
+				sb.append(nextTemp(node)).append(" = ");
+			sb.append(unwindLabel != null ? "invoke" : "call").append(' ');
 			if( method instanceof TACMethodName ) {
 				TACMethodName methodName = (TACMethodName) method;
-				sb.append(methodToString(methodName, false, false)).append(symbol(methodName)).append('(');
+				appendSymbol(sb.append(methodToString(methodName, false, false)), methodName).append('(');
 			}
 			else if( method instanceof TACMethodPointer ) {
 				TACMethodPointer methodPointer = (TACMethodPointer) method;
-				sb.append(methodToString(methodPointer)).append(symbol(methodPointer)).append('(');
+				appendSymbol(sb.append(methodToString(methodPointer)), methodPointer).append('(');
 			}
 			boolean first = true;
 			for (TACOperand param : node.getParameters())
 				if (first) {
 					first = false;			
-					sb.append(typeSymbol(param));
+					appendTypeSymbol(sb, param);
 				}
 				else
-					sb.append(", ").append(typeSymbol(param));
-
-			if (!method.getReturnTypes().isEmpty())
-				sb.insert(0, nextTemp(node) + " = ");
+					appendTypeSymbol(sb.append(", "), param);
 
-			writer.write(sb.append(')').toString());
+			sb.append(')');
+			writeLine();
 			if (unwindLabel != null) {						
 				writer.indent(2);
-				writer.write(" to label " + symbol(node.getNoExceptionLabel()) + " unwind label " +
-						symbol(unwindLabel));			
+				sb = appendSymbol(line().append(" to label "), node.getNoExceptionLabel()).append(" unwind label ");
+				appendSymbol(sb, unwindLabel);
+				writeLine();
 				writer.outdent(2);
 			}
 		}
 		else {
 			node.setData(value.getData());
-			if( unwindLabel != null )
-				writer.write("br label " + symbol(node.getNoExceptionLabel()));			
+			if( unwindLabel != null ) {
+				appendSymbol(line().append("br label "), node.getNoExceptionLabel());
+				writeLine();
+			}
 		}
 	}
 	
@@ -1585,16 +1832,18 @@ public class LLVMOutput extends AbstractOutput {
 
 	@Override
 	public void visit(TACReturn node) throws ShadowException {
-		if (node.hasReturnValue())
-			writer.write("ret " + typeSymbol(node.getReturnValue()));
+		if (node.hasReturnValue()) {
+			appendTypeSymbol(line().append("ret "), node.getReturnValue());
+			writeLine();
+		}
 		else
 			writer.write("ret void");
 	}
 
 	@Override
 	public void visit(TACThrow node) throws ShadowException {
-			writer.write(nextTemp() + " = bitcast " + typeSymbol(node.getException()) + " to " + type(Type.OBJECT));
-			writer.write("call void @__incrementRef(" + typeText(Type.OBJECT, temp(0)) + ") nounwind");
+			writer.write(nextTemp() + " = bitcast " + typeSymbol(node.getException()) + " to " + type(standard().OBJECT));
+			writer.write("call void @__incrementRef(" + typeText(standard().OBJECT, temp(0)) + ") nounwind");
 			TACLabel unwindLabel = node.getBlock().getUnwind();
 
 			writer.write((unwindLabel != null ?
@@ -1687,9 +1936,9 @@ public class LLVMOutput extends AbstractOutput {
 		
 		exceptions.add(node.getType());
 
-		writer.write(nextTemp() + " = load " + type(Type.EXCEPTION) + ", " + type(Type.EXCEPTION) + "* @__exceptionStorage");
+		writer.write(nextTemp() + " = load " + type(standard().EXCEPTION) + ", " + type(standard().EXCEPTION) + "* @__exceptionStorage");
 		int offset = node.hasLocalStore() ? 0 : 1;
-		writer.write(nextTemp(node) + " = bitcast " + type(Type.EXCEPTION) + " " + temp(offset) + " to " + type(node.getType()));
+		writer.write(nextTemp(node) + " = bitcast " + type(standard().EXCEPTION) + " " + temp(offset) + " to " + type(node.getType()));
 		//writer.write("store " + type(node.getVariable()) + " " + temp(0) + ", " + type(node.getVariable()) + "* " +  name(node.getVariable()));
 		
 		
@@ -1731,7 +1980,7 @@ public class LLVMOutput extends AbstractOutput {
 			}
 
 			for(TACCatch catch_ : catches)
-				writer.write("catch " + type(Type.CLASS) + ' ' +
+				writer.write("catch " + type(standard().CLASS) + ' ' +
 						classOf(catch_.getType()));
 		}
 		
@@ -1741,10 +1990,10 @@ public class LLVMOutput extends AbstractOutput {
 	@Override
 	public void visit(TACCatch node) throws ShadowException {
 		//writer.write(nextTemp() + " = extractvalue " + typeSymbol(node.getOperand(0)) + ", 0");
-		writer.write(nextTemp() + " = call " + type(Type.EXCEPTION) +
+		writer.write(nextTemp() + " = call " + type(standard().EXCEPTION) +
 				" @__shadow_catch(i8* " + symbol(node.getOperand(0)) + ") nounwind");
 		int offset = node.hasLocalStore() ? 0 : 1;
-		writer.write(nextTemp(node) + " = bitcast " + type(Type.EXCEPTION) +
+		writer.write(nextTemp(node) + " = bitcast " + type(standard().EXCEPTION) +
 				' ' + temp(offset) + " to " + type(node.getType()));
 	}
 
@@ -1753,6 +2002,16 @@ public class LLVMOutput extends AbstractOutput {
 		writer.write("resume " + typeSymbol(node.getException()));
 	}
 
+	// Start of a constant array with the given element type, up to its length
+	private String arrayHeader(Type baseType) {
+		String header = arrayHeaders.get(baseType);
+		if( header == null ) {
+			header = "{ %ulong -1, " + typeText(standard().GENERIC_CLASS, classOf(new ArrayType(baseType))) + ", " + methodTableType(standard().ARRAY) + " " + methodTable(standard().ARRAY) + ", ";
+			arrayHeaders.put(baseType, header);
+		}
+		return header;
+	}
+
 	private static String interfaceData(Type type) {
 		return "@_interfaceData" + type.toString(Type.MANGLE);
 	}
@@ -1769,6 +2028,46 @@ public class LLVMOutput extends AbstractOutput {
 		return "@_interfaces" + type.toString(Type.MANGLE | Type.TYPE_PARAMETERS);
 	}
 
+	private static String superclasses(Type type) {
+		return "@_superclasses" + type.toString(Type.MANGLE);
+	}
+
+	private static String genericSuperclasses(Type type) {
+		return "@_superclasses" + type.toString(Type.MANGLE | Type.TYPE_PARAMETERS);
+	}
+
+	/*
+	 * Gets the classes that a class extends, starting from the root of the
+	 * hierarchy and ending with the class itself. Class.isSubtype() finds
+	 * whether one class extends another by looking up the other class at its
+	 * own depth in this list. Array classes are never extended and compare
+	 * their base types instead, so their lists are empty.
+	 */
+	private static List<ClassType> getSuperclasses(Type type) {
+		LinkedList<ClassType> superclasses = new LinkedList<ClassType>();
+		if( type instanceof ClassType && !(type instanceof ArrayType) )
+			for( ClassType current = (ClassType) type; current != null; current = current.getExtendType() )
+				superclasses.addFirst(current);
+		return superclasses;
+	}
+
+	private String superclassesType(List<ClassType> superclasses) {
+		return "{ %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + superclasses.size() + " x " + type(standard().CLASS) + "] }";
+	}
+
+	private StringBuilder appendSuperclassesValue(StringBuilder sb, List<ClassType> superclasses) {
+		appendArrayHeader(sb, standard().CLASS, superclasses.size());
+		boolean first = true;
+		for( ClassType superclass : superclasses ) {
+			if( first )
+				first = false;
+			else
+				sb.append(", ");
+			appendClass(sb, superclass, superclass.isFullyInstantiated());
+		}
+		return sb.append("]}");
+	}
+
 	public static String classOf(Type type) {
 		if( type.isPrimitive() )
 			return '@' + type.getTypeName() + "_class";
@@ -1784,46 +2083,69 @@ public class LLVMOutput extends AbstractOutput {
 		else if( type instanceof ArrayType ) {
 			ArrayType arrayType = (ArrayType) type;
 			if( arrayType.isNullable() )
-				return methodTable(Type.ARRAY_NULLABLE);
+				return methodTable(Type.standard().ARRAY_NULLABLE);
 			else
-				return methodTable(Type.ARRAY);			
+				return methodTable(Type.standard().ARRAY);			
 		}
 		return "@" + raw(type, "_methods");
 	}
 
-	private static String methodTableType(Type type) {
+	private String methodTableType(Type type) {
 		return methodTableType(type, true);
 	}
 	
-	private static String methodTableType(Type type, boolean reference) {
+	private String methodTableType(Type type, boolean reference) {
+		if( reference ) {
+			String name = methodTableTypes.get(type);
+			if( name == null ) {
+				name = methodTableTypeText(type, true);
+				methodTableTypes.put(type, name);
+			}
+			return name;
+		}
+		
+		return methodTableTypeText(type, false);
+	}
+	
+	private static String methodTableTypeText(Type type, boolean reference) {
 		if( type instanceof ArrayType ) {
 			ArrayType arrayType = (ArrayType) type;
 			if( arrayType.isNullable() )
-				return methodTableType(Type.ARRAY_NULLABLE, reference);
+				return methodTableTypeText(Type.standard().ARRAY_NULLABLE, reference);
 			else
-				return methodTableType(Type.ARRAY, reference);			
+				return methodTableTypeText(Type.standard().ARRAY, reference);			
 		}
 		
 		return "%" + raw(type, reference ? "_methods*" : "_methods" );
 	}
 
-	private static String methodType(TACMethodName method) {
-		return methodToString(method, false, true) + '*';
+	private String methodType(TACMethodName method) {
+		return methodType(method.getSignature());
 	}
 
-	private static String methodType(MethodSignature method) {
-		return methodToString(method, false, true) + '*';
+	private String methodType(MethodSignature method) {
+		String type = methodTypes.get(method);
+		if( type == null ) {
+			type = methodToString(method, false, true) + '*';
+			methodTypes.put(method, type);
+		}
+		return type;
 	}
 
-	private static String methodToString(TACMethod method) {
-		return methodToString(method.getSignature(), true, true);
+	private String methodToString(TACMethod method) {
+		return methodToString(method.getSignature());
 	}
 
-	private static String methodToString(MethodSignature signature) {
-		return methodToString(signature, true, true);
+	private String methodToString(MethodSignature signature) {
+		String declaration = methodDeclarations.get(signature);
+		if( declaration == null ) {
+			declaration = methodToString(signature, true, true);
+			methodDeclarations.put(signature, declaration);
+		}
+		return declaration;
 	}
 	
-	private static String methodToString(TACMethodPointer pointer) {
+	private String methodToString(TACMethodPointer pointer) {
 		StringBuilder sb = new StringBuilder();		
 		SequenceType returnTypes = pointer.getUninstantiatedReturnTypes();
 		if( returnTypes.size() == 0 )
@@ -1837,7 +2159,7 @@ public class LLVMOutput extends AbstractOutput {
 		return sb.toString();
 	}
 
-	private static String methodToString(MethodSignature signature, boolean name,
+	private String methodToString(MethodSignature signature, boolean name,
 			boolean parameters) {
 		StringBuilder sb = new StringBuilder();
 		if (name && signature.isWrapper())
@@ -1847,7 +2169,7 @@ public class LLVMOutput extends AbstractOutput {
 
 		if( primitiveOrInterfaceCreate ) {			
 			if( signature.getOuter() instanceof InterfaceType ) //in situations where an interface contains a create
-				sb.append(type(Type.OBJECT));
+				sb.append(type(standard().OBJECT));
 			else
 				sb.append(type(signature.getOuter(), true)); //the nullable looks odd, but it gets the Object version of the primitive
 		}
@@ -1884,13 +2206,13 @@ public class LLVMOutput extends AbstractOutput {
 
 	}
 
-	private static String methodToString( TACMethodName method, boolean name,
+	private String methodToString( TACMethodName method, boolean name,
 			boolean parameters ) {
 
 		return methodToString( method.getSignature(), name, parameters );
 	}
 
-	private static String sizeof( Type type ) {
+	private String sizeof( Type type ) {
 		String name;
 		if( type instanceof InterfaceType ) 
 			name = type(type) + "*";		
@@ -1900,17 +2222,31 @@ public class LLVMOutput extends AbstractOutput {
 				" null, i32 1) to i32)";		
 	}
 
-	private static String type( ModifiedType type ) {
+	private String type( ModifiedType type ) {
 		return type(type.getType(), type.getModifiers().isNullable());
 	}
 
-	protected static String type( Type type ) {
+	protected String type( Type type ) {
 		return type(type, false);
 	}
 
-	protected static String type(Type type, boolean nullable) {
+	protected String type(Type type, boolean nullable) {
 		if (type == null)
 			throw new NullPointerException();
+		// Array types are created on the fly, but they only need the array class
+		if (type instanceof ArrayType)
+			return type((ArrayType)type);
+		
+		Map<Type, String> names = nullable ? nullableTypeNames : typeNames;
+		String name = names.get(type);
+		if( name == null ) {
+			name = typeText(type, nullable);
+			names.put(type, name);
+		}
+		return name;
+	}
+	
+	private String typeText(Type type, boolean nullable) {
 		if (type instanceof ArrayType)
 			return type((ArrayType)type);
 		if (type instanceof SequenceType)
@@ -1931,15 +2267,15 @@ public class LLVMOutput extends AbstractOutput {
 		throw new IllegalArgumentException("Unknown type.");
 	}
 
-	protected static String type(ArrayType type) {
+	protected String type(ArrayType type) {
 		if( type.isNullable() )
-			return type(Type.ARRAY_NULLABLE);
+			return type(standard().ARRAY_NULLABLE);
 		else
-			return type(Type.ARRAY);
+			return type(standard().ARRAY);
 	}
 
 
-	private static String type(SequenceType type) {
+	private String type(SequenceType type) {
 		if (type.isEmpty())
 			return "void";
 		if (type.size() == 1)
@@ -1950,21 +2286,21 @@ public class LLVMOutput extends AbstractOutput {
 		return sb.replace(sb.length() - 2, sb.length(), " }").toString();
 	}
 
-	private static String type(PointerType type) {		
+	private String type(PointerType type) {		
 		return "i8*";
 	}
 
-	private static String type(ClassType type, boolean nullable) {		
+	private String type(ClassType type, boolean nullable) {		
 		if (type.isPrimitive() && !nullable)
 			return '%' + type.getTypeName();
 
 		if( type == Type.NULL )
-			return '%' + Type.OBJECT.toString(Type.MANGLE) + '*';
+			return '%' + standard().OBJECT.toString(Type.MANGLE) + '*';
 
 		return '%' + type.toString(Type.MANGLE) + '*';
 	}
 	
-	private static String type(MethodType type, boolean nullable) {	
+	private String type(MethodType type, boolean nullable) {	
 		StringBuilder sb = new StringBuilder();
 		
 		//should never be a create
@@ -1981,7 +2317,7 @@ public class LLVMOutput extends AbstractOutput {
 		SequenceType parameterTypes = type.getTypeWithoutTypeArguments().getParameterTypes();
 		Type outer = type.getOuter();
 		if( outer == null || outer instanceof InterfaceType )
-			sb.append(type(Type.OBJECT));
+			sb.append(type(standard().OBJECT));
 		else
 			sb.append(type(outer));			
 
@@ -1993,15 +2329,15 @@ public class LLVMOutput extends AbstractOutput {
 		return sb.toString();		
 	}
 
-	private static String type(InterfaceType type) {
-		return "{ " + methodTableType(type) + ", " + type(Type.OBJECT) + " }";
+	private String type(InterfaceType type) {
+		return "{ " + methodTableType(type) + ", " + type(standard().OBJECT) + " }";
 	}
 
-	private static String type(TypeParameter type) {
+	private String type(TypeParameter type) {
 		return type(type.getClassBound());
 	}
 
-	private static String type(MethodTableType type) {
+	private String type(MethodTableType type) {
 		return '%' + type.toString(Type.MANGLE) + '*';
 	}
 
@@ -2018,7 +2354,7 @@ public class LLVMOutput extends AbstractOutput {
 	}
 
 	public static String declareGeneric(String class_) {
-		return class_ + " = external constant %" + raw(Type.GENERIC_CLASS) + System.lineSeparator();
+		return class_ + " = external constant %" + raw(Type.standard().GENERIC_CLASS) + System.lineSeparator();
 	}
 	
 	private String name(TACLabel label) {
@@ -2036,21 +2372,26 @@ public class LLVMOutput extends AbstractOutput {
 	}
 	*/
 
-	private static String name(TACConstant constant) {
+	private String name(TACConstant constant) {
 		return new StringBuilder("@").
 				append(raw(constant.getFieldKey().parentType, "_C" + constant.getFieldKey().fieldName)).toString();
 	}
 
-	private static String name(TACMethodName method) {		
+	private String name(TACMethodName method) {		
 		return name(method.getSignature());	
 	}
 
-	private static String name(MethodSignature method) {
-		return '@' + method.getMangledName();
+	private String name(MethodSignature method) {
+		String name = methodNames.get(method);
+		if( name == null ) {
+			name = '@' + method.getMangledName();
+			methodNames.put(method, name);
+		}
+		return name;
 	}
 
 	public static String name(TACMethod method) {
-		return name(method.getSignature());
+		return '@' + method.getSignature().getMangledName();
 	}
 
 	public static String symbol(TACLabel node) {
@@ -2139,51 +2480,47 @@ public class LLVMOutput extends AbstractOutput {
 	}
 
 	private String literal(String value) {
-		int index = stringLiterals.indexOf(value);
-		if (index == -1) {
+		Integer index = stringLiterals.get(value);
+		if (index == null) {
 			index = stringLiterals.size();
-			stringLiterals.add(value);			
+			stringLiterals.put(value, index);			
 		}
 		return "@_string" + index;
 	}
 
 	private String typeLiteral(boolean value) {
-		return typeText(Type.BOOLEAN, literal(value));
+		return typeText(standard().BOOLEAN, literal(value));
 	}
 
-	private static String typeLiteral(int value) {
-		return typeText(Type.INT, literal(value));
+	private String typeLiteral(int value) {
+		return typeText(standard().INT, literal(value));
 	}
 	
-	private static String typeLiteral(long value) {
-		return typeText(Type.LONG, literal(value));
+	private String typeLiteral(long value) {
+		return typeText(standard().LONG, literal(value));
 	}
 
 	private String typeLiteral(String value) {
-		return typeText(Type.STRING, literal(value));
+		return typeText(standard().STRING, literal(value));
 	}
 
 	private String typeLiteral(ShadowValue value) {
 		return typeText(value, literal(value));
 	}
 
-	private String typeTemp(Type type, int offset) {
-		return typeText(type, temp(offset));
-	}
-
-	private static String typeText(Type type, String name) {
+	private String typeText(Type type, String name) {
 		return combine(type(type), name, false);
 	}
 
-	private static String typeText(Type type, String name, boolean reference) {
+	private String typeText(Type type, String name, boolean reference) {
 		return combine(type(type), name, reference);
 	}
 
-	private static String typeText(ModifiedType type, String name) {
+	private String typeText(ModifiedType type, String name) {
 		return combine(type(type), name, false);
 	}
 
-	private static String typeText(ModifiedType type, String name, boolean reference) {
+	private String typeText(ModifiedType type, String name, boolean reference) {
 		return combine(type(type), name, reference);
 	}
 
@@ -2199,17 +2536,17 @@ public class LLVMOutput extends AbstractOutput {
 		Type baseType = type.getBaseType();
 		String baseClass;
 		if( baseType.isFullyInstantiated() || baseType instanceof ArrayType )
-			baseClass = typeText(Type.CLASS, "bitcast (" + type(Type.GENERIC_CLASS) + " " + classOf(baseType) + " to " + type(Type.CLASS) + ")");
+			baseClass = typeText(standard().CLASS, "bitcast (" + type(standard().GENERIC_CLASS) + " " + classOf(baseType) + " to " + type(standard().CLASS) + ")");
 		else
-			baseClass = typeText(Type.CLASS, classOf(baseType));
+			baseClass = typeText(standard().CLASS, classOf(baseType));
 
 		arrayClasses.add("@" + withGenerics(type,  "_class"));		
 		
 		ClassType arrayAsGeneric = type.convertToGeneric();
 		ClassType noArguments = arrayAsGeneric.getTypeWithoutTypeArguments();
 		ArrayList<InterfaceType> interfaceList = arrayAsGeneric.getAllInterfaces();
-		String interfaces = " bitcast ({ %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + interfaceList.size() + " x " +
-				type(Type.CLASS) + "]}* " + genericInterfaces(type) + " to " + type(Type.ARRAY) + ")";
+		String interfaces = " bitcast ({ %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + interfaceList.size() + " x " +
+				type(standard().CLASS) + "]}* " + genericInterfaces(type) + " to " + type(standard().ARRAY) + ")";
 		
 		String interfaceData;
 		
@@ -2218,33 +2555,33 @@ public class LLVMOutput extends AbstractOutput {
 		if( !module.getType().equals(noArguments) )
 			interfaceData = interfaceData(noArguments);
 		else
-			interfaceData = " bitcast ({ %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + interfaceList.size() + " x " +
-					type(Type.METHOD_TABLE) + "]}* " + interfaceData(noArguments) + " to " + type(Type.ARRAY) + ")";
+			interfaceData = " bitcast ({ %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + interfaceList.size() + " x " +
+					type(standard().METHOD_TABLE) + "]}* " + interfaceData(noArguments) + " to " + type(standard().ARRAY) + ")";
 		
 		int classListSize = arrayAsGeneric.getTypeParameters().size() + arrayAsGeneric.getDependencyList().size();		
 		
 		writer.write("@" + withGenerics(type,  "_class") + " = linkonce unnamed_addr constant  %" +
-				raw(Type.GENERIC_CLASS) + " { " +
+				raw(standard().GENERIC_CLASS) + " { " +
 				
-				type(Type.ULONG) + " " + literal(-1L) + ", " + //reference count
+				type(standard().ULONG) + " " + literal(-1L) + ", " + //reference count
 				
-				typeText(Type.CLASS, classOf(Type.GENERIC_CLASS)) + ", " + //class
-				methodTableType(Type.GENERIC_CLASS) + " " + methodTable(Type.GENERIC_CLASS) + ", " + //methods
+				typeText(standard().CLASS, classOf(standard().GENERIC_CLASS)) + ", " + //class
+				methodTableType(standard().GENERIC_CLASS) + " " + methodTable(standard().GENERIC_CLASS) + ", " + //methods
 
-				typeText(Type.ARRAY, interfaceData) + ", " + //data (method tables)											
-				typeText(Type.ARRAY, interfaces) + ", " + //interfaces
+				typeText(standard().ARRAY, interfaceData) + ", " + //data (method tables)											
+				typeText(standard().ARRAY, interfaces) + ", " + //interfaces
 				
 				typeLiteral(type.toString()) + ", " + //name 
 				baseClass + ", "  +//parent
 
 				typeLiteral(ARRAY | GENERIC) + ", " + //flags	
-				typeText(Type.INT, sizeof(noArguments)) + ", " + //size				
+				typeText(standard().INT, sizeof(noArguments)) + ", " + //size				
 				
-				type(Type.ARRAY) + " bitcast ( { %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + classListSize + " x " + type(Type.CLASS) + "]}* " +
-				"@_parameters" + type.toString(Type.MANGLE | Type.TYPE_PARAMETERS) + " to " + type(Type.ARRAY)+ "), " + //parameters
+				type(standard().ARRAY) + " bitcast ( { %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + classListSize + " x " + type(standard().CLASS) + "]}* " +
+				"@_parameters" + type.toString(Type.MANGLE | Type.TYPE_PARAMETERS) + " to " + type(standard().ARRAY)+ "), " + //parameters
 
-				type(Type.ARRAY) + " bitcast ( { %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + arrayAsGeneric.getTypeParameters().size() + " x " + type(Type.METHOD_TABLE) + "]}* " +
-				"@_tables" + type.toString(Type.MANGLE | Type.TYPE_PARAMETERS) + " to " + type(Type.ARRAY) + ")} " ); //tables	
+				type(standard().ARRAY) + " bitcast ( { %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + arrayAsGeneric.getTypeParameters().size() + " x " + type(standard().METHOD_TABLE) + "]}* " +
+				"@_tables" + type.toString(Type.MANGLE | Type.TYPE_PARAMETERS) + " to " + type(standard().ARRAY) + ")} " ); //tables	
 	}
 	*/
 	
@@ -2262,34 +2599,24 @@ public class LLVMOutput extends AbstractOutput {
 
 		String interfaceData;
 		String interfaces;		
+		String superclasses;
 		int flags = GENERIC;	
 		
 
 		if( generic instanceof InterfaceType ) {
 			flags |= INTERFACE;
 			interfaceData = interfaces = " zeroinitializer, ";			
+			superclasses = " null, ";
 		}
 		else {			
 			ArrayList<InterfaceType> interfaceList = genericAsObject.getAllInterfaces();
-			interfaceData = " bitcast ({ %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + interfaceList.size() + " x " +
-					type(Type.METHOD_TABLE) + "]}* " + interfaceData(noArguments) + " to " + type(Type.ARRAY) + "), ";					
-			interfaces = " bitcast ({ %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + interfaceList.size() + " x " +
-					type(Type.CLASS) + "]}* " + genericInterfaces(generic) + " to " + type(Type.ARRAY) + "), ";			
+			interfaceData = " bitcast ({ %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + interfaceList.size() + " x " +
+					type(standard().METHOD_TABLE) + "]}* " + interfaceData(noArguments) + " to " + type(standard().ARRAY) + "), ";					
+			interfaces = " bitcast ({ %ulong, " + type(standard().GENERIC_CLASS) + ", " + methodTableType(standard().ARRAY) + ", %long, [" + interfaceList.size() + " x " +
+					type(standard().CLASS) + "]}* " + genericInterfaces(generic) + " to " + type(standard().ARRAY) + "), ";			
+			superclasses = " bitcast (" + superclassesType(getSuperclasses(generic)) + "* " + genericSuperclasses(generic) + " to " + type(standard().ARRAY) + "), ";
 		}
 
-		//get parent class
-		String parentClass;
-		if( genericAsObject instanceof ClassType  ) {
-			ClassType parent = ((ClassType) genericAsObject).getExtendType();					
-			if( parent.isFullyInstantiated() || parent instanceof ArrayType )
-				parentClass = type(Type.CLASS) + " (" + typeText(Type.GENERIC_CLASS, classOf(parent)) + " to " + type(Type.CLASS) + ")";
-			else
-				parentClass = typeText(Type.CLASS, classOf(parent));			
-		}
-		else				
-			parentClass = type(Type.CLASS) +  " null";		
-		
-		
 		int classListSize = parameterList.size();
 		if( generic instanceof ClassType ) {
 			ClassType classType = (ClassType)genericAsObject;
@@ -2308,29 +2635,40 @@ public class LLVMOutput extends AbstractOutput {
 		else
 			name = generic.toString(Type.PACKAGES);
 
-		writer.write(classOf(generic) + " = linkonce_odr unnamed_addr constant  %" +
-				raw(Type.GENERIC_CLASS) + " { " + 
-				
-				type(Type.ULONG) + " " + literal(-1) + ", " + //reference count				
+		StringBuilder sb = line().append(classOf(generic)).append(" = linkonce_odr unnamed_addr constant  ");
+		appendRaw(sb, standard().GENERIC_CLASS).append(" { ");
+		appendType(sb, standard().ULONG).append(" -1, "); //reference count
+		appendTypeText(sb, standard().CLASS, classOf(standard().GENERIC_CLASS), false).append(", "); //class
+		sb.append(methodTableType(standard().GENERIC_CLASS)).append(' ').append(methodTable(standard().GENERIC_CLASS)).append(", "); //methods
+		appendTypeText(sb, standard().ARRAY, interfaceData, false); //data (method tables)
+		appendTypeText(sb, standard().ARRAY, interfaces, false); //interfaces
+		sb.append(typeLiteral(name)).append(", "); //name
 
-				typeText(Type.CLASS, classOf(Type.GENERIC_CLASS)) + ", " + //class
-				methodTableType(Type.GENERIC_CLASS) + " " + methodTable(Type.GENERIC_CLASS) + ", " + //methods
-				
-				typeText(Type.ARRAY, interfaceData) + //data (method tables)
+		//parent
+		if( genericAsObject instanceof ClassType  ) {
+			ClassType parent = ((ClassType) genericAsObject).getExtendType();
+			appendClass(sb, parent, parent.isFullyInstantiated() || parent instanceof ArrayType);
+		}
+		else
+			appendType(sb, standard().CLASS).append(" null");
+		sb.append(", ");
 
-				typeText(Type.ARRAY, interfaces) + //interfaces
-				
-				typeLiteral(name) + ", " + //name 
-				parentClass + ", "  +//parent
-				
-				typeLiteral(flags) + ", " + //flags							
-				typeText(Type.INT, sizeof(noArguments)) + ", " + //size
-				
-				type(Type.ARRAY) + " bitcast ( { %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + classListSize + " x " + type(Type.CLASS) + "]}* " +
-				"@_parameters" + generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS) + " to " + type(Type.ARRAY)+ "), " + //parameters
+		appendTypeText(sb, standard().ARRAY, superclasses, false); //superclasses
+		appendTypeLiteral(sb, flags).append(", "); //flags
+		appendTypeText(sb, standard().INT, sizeof(noArguments), false).append(", "); //size
+
+		//parameters
+		appendType(sb, standard().ARRAY).append(" bitcast ( { %ulong, ");
+		appendType(sb, standard().GENERIC_CLASS).append(", ").append(methodTableType(standard().ARRAY)).append(", %long, [").append(classListSize).append(" x ");
+		appendType(sb, standard().CLASS).append("]}* @_parameters").append(generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS)).append(" to ");
+		appendType(sb, standard().ARRAY).append("), ");
 
-				type(Type.ARRAY) + " bitcast ( { %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + parameterList.size() + " x " + type(Type.METHOD_TABLE) + "]}* " +
-				"@_tables" + generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS) + " to " + type(Type.ARRAY) + ")} " ); //tables
+		//tables
+		appendType(sb, standard().ARRAY).append(" bitcast ( { %ulong, ");
+		appendType(sb, standard().GENERIC_CLASS).append(", ").append(methodTableType(standard().ARRAY)).append(", %long, [").append(parameterList.size()).append(" x ");
+		appendType(sb, standard().METHOD_TABLE).append("]}* @_tables").append(generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS)).append(" to ");
+		appendType(sb, standard().ARRAY).append(")} ");
+		writeLine();
 	}
 
 	private void writeGenericClassSupportingMaterial(Type generic) throws ShadowException {				
@@ -2344,7 +2682,11 @@ public class LLVMOutput extends AbstractOutput {
 		
 		if( generic instanceof ClassType ) {
 			List<InterfaceType> interfaces = genericAsObject.getAllInterfaces();
-			StringBuilder sb = new StringBuilder("{ %ulong -1, " + typeText(Type.GENERIC_CLASS, classOf(new ArrayType(Type.CLASS))) + ", " + methodTableType(Type.ARRAY) + " " + methodTable(Type.ARRAY) + ", " + typeLiteral((long)interfaces.size()) + ", ["  + interfaces.size() + " x " + type(Type.CLASS) + "] [");
+			StringBuilder sb = line().append(genericInterfaces(generic)).
+					append(" = linkonce_odr unnamed_addr constant {%ulong, ").append(type(standard().GENERIC_CLASS)).append(", ").
+					append(methodTableType(standard().ARRAY)).append(", ").append(type(standard().LONG)).append(", [").
+					append(interfaces.size()).append(" x ").append(type(standard().CLASS)).append("]} ");
+			appendArrayHeader(sb, standard().CLASS, interfaces.size());
 			first = true;
 
 			for(InterfaceType _interface : interfaces ) {		
@@ -2352,16 +2694,17 @@ public class LLVMOutput extends AbstractOutput {
 					first = false;
 				else
 					sb.append(", ");
-				if( _interface.isFullyInstantiated() )
-					sb.append(type(Type.CLASS) + " bitcast (" + typeText(Type.GENERIC_CLASS, classOf(_interface) + " to " + type(Type.CLASS) + ")"));
-				else
-					sb.append(typeText(Type.CLASS, classOf(_interface)));							
+				appendClass(sb, _interface, _interface.isFullyInstantiated());
 			}
 
-			sb.append("]}");					
+			sb.append("]}");
+			writeLine();
 
-			writer.write(genericInterfaces(generic) +
-					" = linkonce_odr unnamed_addr constant {%ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", " + type(Type.LONG) + ", [" + interfaces.size() + " x " + type(Type.CLASS) + "]} " + sb.toString());
+			List<ClassType> superclassList = getSuperclasses(generic);
+			sb = line().append(genericSuperclasses(generic)).append(" = linkonce_odr unnamed_addr constant ").
+					append(superclassesType(superclassList)).append(' ');
+			appendSuperclassesValue(sb, superclassList);
+			writeLine();
 		}
 		
 		int classListSize = genericAsObject.getTypeParameters() != null ? genericAsObject.getTypeParameters().size() : 0;
@@ -2373,33 +2716,22 @@ public class LLVMOutput extends AbstractOutput {
 
 		//write definitions of type parameters
 		List<ModifiedType> parameterList = genericAsObject.getTypeParameters();
-		StringBuilder parameters = new StringBuilder("{ %ulong -1, " + typeText(Type.GENERIC_CLASS, classOf(new ArrayType(Type.CLASS))) + ", " + methodTableType(Type.ARRAY) + " " + methodTable(Type.ARRAY) + ", " + typeLiteral((long)classListSize) + ", ["  + classListSize + " x " + type(Type.CLASS) + "] [");
-		StringBuilder tables = new StringBuilder("{ %ulong -1, " + typeText(Type.GENERIC_CLASS, classOf(new ArrayType(Type.METHOD_TABLE))) + ", " + methodTableType(Type.ARRAY) + " " + methodTable(Type.ARRAY) + ", "+ typeLiteral((long)parameterList.size()) + ", ["  + parameterList.size() + " x " + type(Type.METHOD_TABLE) + "] [");
+		StringBuilder sb = line().append("@_parameters").append(generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS)).
+				append(" = linkonce_odr unnamed_addr constant { %ulong, ").append(type(standard().GENERIC_CLASS)).append(", ").
+				append(methodTableType(standard().ARRAY)).append(", %long, [").append(classListSize).append(" x ").
+				append(type(standard().CLASS)).append("] } ");
+		appendArrayHeader(sb, standard().CLASS, classListSize);
 		first = true;
 		 
 		for( ModifiedType parameter : parameterList ) {	
 			Type parameterType = parameter.getType();
-			Type parameterWithoutArguments = parameterType.getTypeWithoutTypeArguments();
 
 			if( first )
 				first = false;
-			else {
-				parameters.append(", ");
-				tables.append(", ");
-			}
-
-			//handle classes
-			parameters.append(type(Type.CLASS)).append(" ");
-			if( parameterType.isFullyInstantiated() || parameterType instanceof ArrayType )
-				parameters.append("bitcast (").append(type(Type.GENERIC_CLASS)).append(" ").append(classOf(parameterType)).append(" to ").append(type(Type.CLASS)).append(")");
 			else
-				parameters.append(classOf(parameterType));
+				sb.append(", ");
 
-			//handle corresponding method tables
-			if( parameterType instanceof InterfaceType )
-				tables.append(type(Type.METHOD_TABLE)).append(" null"); //no method table for interfaces			
-			else
-				tables.append(type(Type.METHOD_TABLE)).append(" bitcast (" + methodTableType(parameterWithoutArguments) + " " + methodTable(parameterWithoutArguments) + " to " + type(Type.METHOD_TABLE) + ")" );			
+			appendClass(sb, parameterType, parameterType.isFullyInstantiated() || parameterType instanceof ArrayType);
 		}
 		
 		//handle extra class dependencies
@@ -2410,28 +2742,48 @@ public class LLVMOutput extends AbstractOutput {
 					Type parameterType = parameter.getType();
 					
 					//arrays are in their "generic" form and should be turned back
-					if( parameterType.getTypeWithoutTypeArguments().equals(Type.ARRAY))
+					if( parameterType.getTypeWithoutTypeArguments().equals(standard().ARRAY))
 						parameterType = new ArrayType(parameterType.getTypeParameters().getType(0));
-					else if( parameterType.getTypeWithoutTypeArguments().equals(Type.ARRAY_NULLABLE))
+					else if( parameterType.getTypeWithoutTypeArguments().equals(standard().ARRAY_NULLABLE))
 						parameterType = new ArrayType(parameterType.getTypeParameters().getType(0), true);
 	
-					parameters.append(", ");
-					parameters.append(type(Type.CLASS)).append(" ");
-					if( parameterType.isFullyInstantiated() || parameterType instanceof ArrayType )
-						parameters.append("bitcast (").append(type(Type.GENERIC_CLASS)).append(" ").append(classOf(parameterType)).append(" to ").append(type(Type.CLASS)).append(")");
-					else
-						parameters.append(classOf(parameterType));
+					sb.append(", ");
+					appendClass(sb, parameterType, parameterType.isFullyInstantiated() || parameterType instanceof ArrayType);
 				}
 		}
 
-		parameters.append("]}");
-		tables.append("]}");
+		sb.append("]}");
+		writeLine();
 
-		writer.write("@_parameters" + generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS) +
-				" = linkonce_odr unnamed_addr constant { %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + classListSize + " x " + type(Type.CLASS) + "] } " + parameters.toString());
-		
-		writer.write("@_tables" + generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS) +
-				" = linkonce_odr unnamed_addr constant { %ulong, " + type(Type.GENERIC_CLASS) + ", " + methodTableType(Type.ARRAY) + ", %long, [" + parameterList.size() + " x " + type(Type.METHOD_TABLE) + "] } " + tables.toString());
+		//write the method tables that correspond to the type parameters
+		sb = line().append("@_tables").append(generic.toString(Type.MANGLE | Type.TYPE_PARAMETERS)).
+				append(" = linkonce_odr unnamed_addr constant { %ulong, ").append(type(standard().GENERIC_CLASS)).append(", ").
+				append(methodTableType(standard().ARRAY)).append(", %long, [").append(parameterList.size()).append(" x ").
+				append(type(standard().METHOD_TABLE)).append("] } ");
+		appendArrayHeader(sb, standard().METHOD_TABLE, parameterList.size());
+		first = true;
+
+		for( ModifiedType parameter : parameterList ) {
+			Type parameterType = parameter.getType();
+			Type parameterWithoutArguments = parameterType.getTypeWithoutTypeArguments();
+
+			if( first )
+				first = false;
+			else
+				sb.append(", ");
+
+			appendType(sb, standard().METHOD_TABLE);
+			if( parameterType instanceof InterfaceType )
+				sb.append(" null"); //no method table for interfaces
+			else {
+				sb.append(" bitcast (").append(methodTableType(parameterWithoutArguments)).append(' ').
+				append(methodTable(parameterWithoutArguments)).append(" to ");
+				appendType(sb, standard().METHOD_TABLE).append(')');
+			}
+		}
+
+		sb.append("]}");
+		writeLine();
 	}	
 
 	public Set<String> getGenericClasses() {
@@ -2447,4 +2799,4 @@ public class LLVMOutput extends AbstractOutput {
 	}
 
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -51,6 +51,7 @@ import shadow.tac.nodes.TACSequence;
 import shadow.tac.nodes.TACSequenceElement;
 import shadow.tac.nodes.TACSingletonRef;
 import shadow.tac.nodes.TACStore;
+import shadow.tac.nodes.TACSwitch;
 import shadow.tac.nodes.TACThrow;
 import shadow.tac.nodes.TACTypeId;
 import shadow.tac.nodes.TACUnary;
@@ -282,6 +283,21 @@ public class TextOutput extends AbstractOutput
 			sb.append(symbol(node.getLabel()));
 		writer.write(sb.append(';').toString());
 	}
+
+	@Override
+	public void visit(TACSwitch node) throws ShadowException {
+		continueBlock(true);
+		StringBuilder sb = new StringBuilder("switch ");
+		inline.visit(sb, node.getValue()).append(" { ");
+		List<TACLiteral> values = node.getCaseValues();
+		List<TACLabel> labels = node.getCaseLabels();
+		for( int i = 0; i < values.size(); ++i ) {
+			inline.visit(sb, values.get(i)).append(": ").
+					append(symbol(labels.get(i))).append(", ");
+		}
+		sb.append("default: ").append(symbol(node.getDefault())).append(" }");
+		writer.write(sb.append(';').toString());
+	}
 	
 	@Override
 	public void visit(TACCallFinallyFunction node) throws ShadowException {
@@ -67,7 +67,8 @@ public class Context extends ParserRuleContext implements ModifiedType {
 		
 	private Type type;	
 	private Modifiers modifiers;
-	private MethodSignature signature;
+	// Re-pointed by ClassType.partiallyReplace() while statements may be checked on other threads
+	private volatile MethodSignature signature;
 	private Type enclosingType;
 	private Documentation documentation;
 	private List<MethodSignature> operations;
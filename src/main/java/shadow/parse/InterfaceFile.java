@@ -0,0 +1,531 @@
+package shadow.parse;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+
+import shadow.Loggers;
+import shadow.Main;
+import shadow.doctool.Documentation;
+import shadow.parse.ShadowParser.CompilationUnitContext;
+
+/**
+ * Binary form of a <tt>.meta</tt> file. A <tt>.meta</tt> file is Shadow
+ * source, so reading it normally means lexing, parsing, and checking it
+ * again on every build. The interface file next to it holds the tree that
+ * this produced (with modifiers already resolved), which can be rebuilt
+ * directly without going through the lexer, the parser, or the
+ * {@link ParseChecker}.
+ * <p>
+ * An interface file is only used if it was written by the same version of
+ * the compiler, with the same grammar and context classes, from the current
+ * contents of its <tt>.meta</tt> file. Otherwise, the <tt>.meta</tt> file is
+ * parsed as usual and the interface file is written again. Since the tree
+ * is stored through the fields of the context classes, an interface file
+ * whose header matches but whose tree cannot be rebuilt points to a bug,
+ * and reading it throws instead of quietly falling back to parsing.
+ * <p>
+ * Layout (all integers are big-endian):
+ * <ul>
+ * <li>header: magic number, format number, compiler version, hash of the
+ * grammar and context classes, and the hash of the <tt>.meta</tt> file</li>
+ * <li>string table: names of context classes and labels, and token text</li>
+ * <li>token table: type, text, line, column, and character indices</li>
+ * <li>tree: each context in preorder with its class, start and stop tokens,
+ * modifiers, children, and labeled tokens</li>
+ * </ul>
+ */
+public class InterfaceFile {
+
+	public static final String EXTENSION = ".interface";
+
+	private static final int MAGIC = 0x53484946; // "SHIF"
+	private static final int FORMAT = 2;
+
+	private static final byte RULE = 0;
+	private static final byte TERMINAL = 1;
+
+	private static final int HAS_DOCUMENTATION = 1;
+
+	private static final byte TOKEN_LABEL = 0;
+	private static final byte CONTEXT_LABEL = 1;
+	private static final byte TOKEN_LIST_LABEL = 2;
+	private static final byte CONTEXT_LIST_LABEL = 3;
+
+	// Context classes generated from the grammar, by simple name
+	private static final Map<String, Class<?>> contextClasses = new HashMap<>();
+	private static final Map<Class<?>, Constructor<?>> constructors = new ConcurrentHashMap<>();
+	private static final Map<Class<?>, Field[]> labels = new ConcurrentHashMap<>();
+
+	// Hash of the grammar and of the fields of every context class
+	private static final String LAYOUT;
+
+	static {
+		for( Class<?> nested : ShadowParser.class.getClasses() )
+			if( Context.class.isAssignableFrom(nested) )
+				contextClasses.put(nested.getSimpleName(), nested);
+
+		LAYOUT = hash(getLayout().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * Describes everything that decides how a tree is stored: the grammar,
+	 * through the ATN that the parser was generated from, and the instance
+	 * fields of Context and of each generated context class. A change to
+	 * any of them changes the hash, so older interface files are ignored.
+	 */
+	private static String getLayout() {
+		List<Class<?>> classes = new ArrayList<>(contextClasses.values());
+		classes.sort(Comparator.comparing(Class::getName));
+		classes.add(0, Context.class);
+
+		StringBuilder layout = new StringBuilder(ShadowParser._serializedATN);
+		for( Class<?> contextClass : classes ) {
+			layout.append('\n').append(contextClass.getName());
+			Field[] fields = contextClass.getDeclaredFields();
+			Arrays.sort(fields, Comparator.comparing(Field::getName));
+			for( Field field : fields )
+				if( !Modifier.isStatic(field.getModifiers()) )
+					layout.append(' ').append(field.getName()).append(':').append(field.getGenericType().getTypeName());
+		}
+		return layout.toString();
+	}
+
+	/**
+	 * Gets the interface file that goes with a <tt>.meta</tt> file.
+	 * @param metaFile		path to <tt>.meta</tt> file
+	 * @return				path to interface file
+	 */
+	public static Path getPath(Path metaFile) {
+		String name = metaFile.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		if( dot >= 0 )
+			name = name.substring(0, dot);
+		return metaFile.resolveSibling(name + EXTENSION);
+	}
+
+	/**
+	 * Rebuilds the tree for a <tt>.meta</tt> file from its interface file.
+	 * @param metaFile		path to <tt>.meta</tt> file
+	 * @return				tree for the file, or <code>null</code> if there is
+	 * no up-to-date interface file
+	 */
+	public static CompilationUnitContext read(Path metaFile) {
+		Path file = getPath(metaFile);
+		if( !Files.exists(file) )
+			return null;
+
+		ByteBuffer in;
+		try {
+			in = ByteBuffer.wrap(Files.readAllBytes(file));
+			if( in.getInt() != MAGIC || in.getInt() != FORMAT || !readString(in).equals(Main.VERSION) ||
+					!readString(in).equals(LAYOUT) )
+				return null;
+
+			if( !readString(in).equals(hash(Files.readAllBytes(metaFile))) )
+				return null;
+		}
+		catch( IOException | RuntimeException e ) {
+			Loggers.PARSER.debug("Ignoring interface file " + file + ": " + e);
+			return null;
+		}
+
+		// The file was written with the current layout, so it must be readable
+		try {
+			return new Reader(in, metaFile).read();
+		}
+		catch( IOException | ReflectiveOperationException | RuntimeException e ) {
+			Loggers.PARSER.error("Interface file " + file + " does not match its layout: " + e);
+			throw new IllegalStateException("Unreadable interface file " + file, e);
+		}
+	}
+
+	/**
+	 * Writes the interface file for a <tt>.meta</tt> file that was just
+	 * parsed without errors.
+	 * @param metaFile		path to <tt>.meta</tt> file
+	 * @param node			tree produced by parsing it
+	 */
+	public static void write(Path metaFile, CompilationUnitContext node) {
+		Path file = getPath(metaFile);
+		Path temporary = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID() + ".tmp");
+		try {
+			String hash = hash(Files.readAllBytes(metaFile));
+			try( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))) ) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT);
+				writeString(out, Main.VERSION);
+				writeString(out, LAYOUT);
+				writeString(out, hash);
+				new Writer(node).write(out);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch( IOException | ReflectiveOperationException e ) {
+			Loggers.PARSER.warn("Failed to write interface file " + file + ": " + e.getMessage());
+		}
+		finally {
+			try {
+				Files.deleteIfExists(temporary);
+			}
+			catch( IOException e ) {
+				// Nothing else to clean up
+			}
+		}
+	}
+
+	/*
+	 * Strings are stored as a length followed by UTF-8 bytes, since
+	 * writeUTF() is limited to 64 KB and is slow to read back.
+	 */
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		String string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return string;
+	}
+
+	/*
+	 * Labels in the grammar (like operator in unaryExpression or operators
+	 * in multiplicativeExpression) become public fields that are set by the
+	 * parser, so they have to be restored along with the children. Other
+	 * public fields come from rule locals, which are filled in later.
+	 */
+	private static Field[] getLabels(Class<?> contextClass) {
+		Field[] fields = labels.get(contextClass);
+		if( fields == null ) {
+			List<Field> list = new ArrayList<>();
+			for( Field field : contextClass.getDeclaredFields() )
+				if( Modifier.isPublic(field.getModifiers()) && getLabelKind(field) >= 0 )
+					list.add(field);
+			fields = list.toArray(new Field[list.size()]);
+			labels.put(contextClass, fields);
+		}
+		return fields;
+	}
+
+	private static int getLabelKind(Field field) {
+		Class<?> type = field.getType();
+		if( type == Token.class )
+			return TOKEN_LABEL;
+		if( Context.class.isAssignableFrom(type) )
+			return CONTEXT_LABEL;
+		if( type == List.class && field.getGenericType() instanceof ParameterizedType ) {
+			Type element = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+			if( element == Token.class )
+				return TOKEN_LIST_LABEL;
+			if( element instanceof Class && Context.class.isAssignableFrom((Class<?>) element) )
+				return CONTEXT_LIST_LABEL;
+		}
+		return -1;
+	}
+
+	private static Constructor<?> getConstructor(Class<?> contextClass) throws NoSuchMethodException {
+		Constructor<?> constructor = constructors.get(contextClass);
+		if( constructor == null ) {
+			constructor = contextClass.getConstructor(ParserRuleContext.class, int.class);
+			constructor.setAccessible(true);
+			constructors.put(contextClass, constructor);
+		}
+		return constructor;
+	}
+
+	private static String hash(byte[] data) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			char[] digits = "0123456789abcdef".toCharArray();
+			byte[] bytes = digest.digest(data);
+			char[] hex = new char[bytes.length * 2];
+			for( int i = 0; i < bytes.length; ++i ) {
+				hex[2*i] = digits[(bytes[i] >> 4) & 0xf];
+				hex[2*i + 1] = digits[bytes[i] & 0xf];
+			}
+			return new String(hex);
+		}
+		catch( NoSuchAlgorithmException e ) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class Writer {
+		private final CompilationUnitContext root;
+		private final Map<String, Integer> strings = new HashMap<>();
+		private final List<String> stringList = new ArrayList<>();
+		private final Map<Token, Integer> tokens = new IdentityHashMap<>();
+		private final List<Token> tokenList = new ArrayList<>();
+
+		public Writer(CompilationUnitContext root) {
+			this.root = root;
+		}
+
+		public void write(DataOutputStream out) throws IOException, ReflectiveOperationException {
+			// Tables are filled while the tree is encoded, so the tree is encoded first
+			ByteArrayOutputStream treeBytes = new ByteArrayOutputStream();
+			DataOutputStream tree = new DataOutputStream(treeBytes);
+			writeContext(root, tree);
+			tree.flush();
+
+			out.writeInt(stringList.size());
+			for( String string : stringList )
+				writeString(out, string);
+
+			out.writeInt(tokenList.size());
+			for( Token token : tokenList ) {
+				out.writeInt(token.getType());
+				out.writeInt(getString(token.getText()));
+				out.writeInt(token.getLine());
+				out.writeInt(token.getCharPositionInLine());
+				out.writeInt(token.getStartIndex());
+				out.writeInt(token.getStopIndex());
+			}
+
+			treeBytes.writeTo(out);
+		}
+
+		private void writeContext(Context context, DataOutputStream out) throws IOException, ReflectiveOperationException {
+			out.writeInt(getString(context.getClass().getSimpleName()));
+			out.writeInt(context.invokingState);
+			out.writeInt(getToken(context.getStart()));
+			out.writeInt(getToken(context.getStop()));
+			out.writeInt(context.getModifiers().getModifiers());
+			out.writeByte(context.hasDocumentation() ? HAS_DOCUMENTATION : 0);
+
+			int count = context.getChildCount();
+			out.writeInt(count);
+			for( int i = 0; i < count; ++i ) {
+				ParseTree child = context.getChild(i);
+				if( child instanceof Context ) {
+					out.writeByte(RULE);
+					writeContext((Context) child, out);
+				}
+				else if( child instanceof TerminalNode ) {
+					out.writeByte(TERMINAL);
+					out.writeInt(getToken(((TerminalNode) child).getSymbol()));
+				}
+				else
+					throw new IOException("Unexpected node " + child.getClass().getSimpleName());
+			}
+
+			List<Field> set = new ArrayList<>();
+			for( Field field : getLabels(context.getClass()) ) {
+				Object value = field.get(context);
+				if( value != null && !(value instanceof List && ((List<?>) value).isEmpty()) )
+					set.add(field);
+			}
+
+			out.writeInt(set.size());
+			for( Field field : set ) {
+				byte kind = (byte) getLabelKind(field);
+				Object value = field.get(context);
+				out.writeInt(getString(field.getName()));
+				out.writeByte(kind);
+				switch( kind ) {
+				case TOKEN_LABEL:
+					out.writeInt(getToken((Token) value));
+					break;
+				case CONTEXT_LABEL:
+					out.writeInt(getChild(context, value));
+					break;
+				case TOKEN_LIST_LABEL:
+					out.writeInt(((List<?>) value).size());
+					for( Object token : (List<?>) value )
+						out.writeInt(getToken((Token) token));
+					break;
+				case CONTEXT_LIST_LABEL:
+					out.writeInt(((List<?>) value).size());
+					for( Object child : (List<?>) value )
+						out.writeInt(getChild(context, child));
+					break;
+				}
+			}
+		}
+
+		/*
+		 * Labeled contexts are always children of the context with the label.
+		 */
+		private int getChild(Context context, Object child) throws IOException {
+			for( int i = 0; i < context.getChildCount(); ++i )
+				if( context.getChild(i) == child )
+					return i;
+			throw new IOException("Labeled context is not a child");
+		}
+
+		private int getString(String string) {
+			Integer index = strings.get(string);
+			if( index == null ) {
+				index = stringList.size();
+				strings.put(string, index);
+				stringList.add(string);
+			}
+			return index;
+		}
+
+		private int getToken(Token token) {
+			if( token == null )
+				return -1;
+
+			Integer index = tokens.get(token);
+			if( index == null ) {
+				index = tokenList.size();
+				tokens.put(token, index);
+				tokenList.add(token);
+				getString(token.getText());
+			}
+			return index;
+		}
+	}
+
+	private static class Reader {
+		private final ByteBuffer in;
+		private final Pair<TokenSource, CharStream> source;
+		private String[] strings;
+		private Token[] tokens;
+		// Constructors of context classes, by string table index
+		private Constructor<?>[] constructors;
+
+		public Reader(ByteBuffer in, Path metaFile) {
+			this.in = in;
+			// Contexts find their file through the source name of their tokens
+			CharStream stream = CharStreams.fromString("", metaFile.toAbsolutePath().toString());
+			source = new Pair<>(null, stream);
+		}
+
+		public CompilationUnitContext read() throws IOException, ReflectiveOperationException {
+			strings = new String[in.getInt()];
+			for( int i = 0; i < strings.length; ++i )
+				strings[i] = readString(in);
+			constructors = new Constructor<?>[strings.length];
+
+			tokens = new Token[in.getInt()];
+			for( int i = 0; i < tokens.length; ++i ) {
+				int type = in.getInt();
+				String text = strings[in.getInt()];
+				int line = in.getInt();
+				int column = in.getInt();
+				int start = in.getInt();
+				int stop = in.getInt();
+				CommonToken token = new CommonToken(source, type, Token.DEFAULT_CHANNEL, start, stop);
+				token.setText(text);
+				token.setLine(line);
+				token.setCharPositionInLine(column);
+				token.setTokenIndex(i);
+				tokens[i] = token;
+			}
+
+			Context root = readContext(null);
+			if( !(root instanceof CompilationUnitContext) )
+				throw new IOException("Root is not a compilation unit");
+			return (CompilationUnitContext) root;
+		}
+
+		private Context readContext(Context parent) throws IOException, ReflectiveOperationException {
+			int name = in.getInt();
+			Constructor<?> constructor = constructors[name];
+			if( constructor == null ) {
+				Class<?> contextClass = contextClasses.get(strings[name]);
+				if( contextClass == null )
+					throw new ClassNotFoundException(strings[name]);
+				constructor = getConstructor(contextClass);
+				constructors[name] = constructor;
+			}
+
+			int invokingState = in.getInt();
+			Context context = (Context) constructor.newInstance(parent, invokingState);
+			context.start = getToken(in.getInt());
+			context.stop = getToken(in.getInt());
+			int modifiers = in.getInt();
+			if( modifiers != 0 )
+				context.addModifiers(modifiers);
+			if( (in.get() & HAS_DOCUMENTATION) != 0 )
+				context.setDocumentation(Documentation.empty());
+
+			int count = in.getInt();
+			for( int i = 0; i < count; ++i ) {
+				byte kind = in.get();
+				if( kind == RULE )
+					context.addChild(readContext(context));
+				else if( kind == TERMINAL )
+					context.addChild(new TerminalNodeImpl(getToken(in.getInt())));
+				else
+					throw new IOException("Unknown node kind " + kind);
+			}
+
+			int labelCount = in.getInt();
+			for( int i = 0; i < labelCount; ++i ) {
+				Field field = getLabel(context, strings[in.getInt()]);
+				byte kind = in.get();
+				switch( kind ) {
+				case TOKEN_LABEL:
+					field.set(context, getToken(in.getInt()));
+					break;
+				case CONTEXT_LABEL:
+					field.set(context, context.getChild(in.getInt()));
+					break;
+				case TOKEN_LIST_LABEL:
+				case CONTEXT_LIST_LABEL:
+					@SuppressWarnings("unchecked")
+					List<Object> list = (List<Object>) field.get(context);
+					int size = in.getInt();
+					for( int j = 0; j < size; ++j )
+						list.add(kind == TOKEN_LIST_LABEL ? getToken(in.getInt()) : context.getChild(in.getInt()));
+					break;
+				default:
+					throw new IOException("Unknown label kind " + kind);
+				}
+			}
+
+			return context;
+		}
+
+		private Token getToken(int index) {
+			return index < 0 ? null : tokens[index];
+		}
+
+		private Field getLabel(Context context, String name) throws NoSuchFieldException {
+			for( Field field : getLabels(context.getClass()) )
+				if( field.getName().equals(name) )
+					return field;
+			throw new NoSuchFieldException(name);
+		}
+	}
+}
@@ -33,8 +33,21 @@ public class ParseChecker extends ShadowVisitorErrorReporter {
 	}
 	
 	public CompilationUnitContext getCompilationUnit(Path path) throws IOException {
+		// Meta files are usually unchanged since the last build, so their
+		// trees can be loaded from interface files instead of parsed again
+		boolean meta = path.toString().endsWith(".meta");
+		if( meta ) {
+			CompilationUnitContext context = InterfaceFile.read(path);
+			if( context != null )
+				return context;
+		}
+		
 		CharStream stream = CharStreams.fromPath(path.toAbsolutePath());		
-		return getCompilationUnit(stream);
+		CompilationUnitContext context = getCompilationUnit(stream);
+		if( meta && getErrorReporter().getErrorList().size() == 0 )
+			InterfaceFile.write(path, context);
+		
+		return context;
 	}
 	
 	public CompilationUnitContext getCompilationUnit(String source, Path path) throws IOException {
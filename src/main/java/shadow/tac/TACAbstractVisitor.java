@@ -40,6 +40,7 @@ import shadow.tac.nodes.TACReturn;
 import shadow.tac.nodes.TACSequence;
 import shadow.tac.nodes.TACSequenceElement;
 import shadow.tac.nodes.TACStore;
+import shadow.tac.nodes.TACSwitch;
 import shadow.tac.nodes.TACThrow;
 import shadow.tac.nodes.TACTypeId;
 import shadow.tac.nodes.TACUnary;
@@ -142,6 +143,8 @@ public abstract class TACAbstractVisitor implements TACVisitor {
 	@Override
 	public void visit(TACStore node) throws ShadowException { }
 	@Override
+	public void visit(TACSwitch node) throws ShadowException { }
+	@Override
 	public void visit(TACThrow node) throws ShadowException { }
 	@Override
 	public void visit(TACTypeId node) throws ShadowException { }
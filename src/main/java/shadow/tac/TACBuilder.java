@@ -1,25 +1,36 @@
 package shadow.tac;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.RuleNode;
 
 import shadow.Configuration;
+import shadow.Session;
 import shadow.interpreter.ConstantFieldInterpreter.FieldKey;
+import shadow.interpreter.InterpreterException;
 import shadow.interpreter.ShadowBoolean;
+import shadow.interpreter.ShadowCode;
 import shadow.interpreter.ShadowInteger;
 import shadow.interpreter.ShadowNull;
 import shadow.interpreter.ShadowString;
 import shadow.interpreter.ShadowUndefined;
+import shadow.interpreter.ShadowValue;
 import shadow.parse.Context;
 import shadow.parse.ShadowBaseVisitor;
 import shadow.parse.ShadowParser;
@@ -74,6 +85,7 @@ import shadow.tac.nodes.TACSequence;
 import shadow.tac.nodes.TACSequenceElement;
 import shadow.tac.nodes.TACSingletonRef;
 import shadow.tac.nodes.TACStore;
+import shadow.tac.nodes.TACSwitch;
 import shadow.tac.nodes.TACThrow;
 import shadow.tac.nodes.TACTypeId;
 import shadow.tac.nodes.TACUnary;
@@ -92,12 +104,14 @@ import shadow.typecheck.type.PropertyType;
 import shadow.typecheck.type.SequenceType;
 import shadow.typecheck.type.SimpleModifiedType;
 import shadow.typecheck.type.SingletonType;
+import shadow.typecheck.type.StandardTypes;
 import shadow.typecheck.type.SubscriptType;
 import shadow.typecheck.type.Type;
 import shadow.typecheck.type.TypeParameter;
 import shadow.typecheck.type.UnboundMethodType;
 
 public class TACBuilder extends ShadowBaseVisitor<Void> {
+	private final Session session;
 	private TACNode anchor;	
 	private TACMethod method;
 	private TACOperand prefix;
@@ -106,6 +120,14 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 	private Deque<TACModule> moduleStack = new ArrayDeque<TACModule>();
 	private Deque<TACMethod> methodStack = new ArrayDeque<TACMethod>();
 
+	public TACBuilder(Session session) {
+		this.session = session;
+	}
+
+	private StandardTypes standard() {
+		return session.getStandardTypes();
+	}
+
 
 	public TACModule build(Context node) {		
 		method = null;
@@ -280,6 +302,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		return( node instanceof TACBranch ||
 				node instanceof TACCleanupRet ||
 				node instanceof TACReturn ||
+				node instanceof TACSwitch ||
 				node instanceof TACThrow );
 	}
 
@@ -744,7 +767,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				boolean currentNullable = current.getModifiers().isNullable();
 				boolean nextNullable = next.getModifiers().isNullable();
 				if( currentType.isPrimitive() && nextType.isPrimitive() && ( currentNullable || nextNullable )) {
-					TACVariable var = method.addTempLocal(new SimpleModifiedType(Type.BOOLEAN));
+					TACVariable var = method.addTempLocal(new SimpleModifiedType(standard().BOOLEAN));
 					TACLabel done = new TACLabel(method);
 
 					if( currentNullable && nextNullable ) {							
@@ -823,11 +846,11 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 			//get class from object
 			TACMethodName methodName = new TACMethodName(anchor, value,
-					Type.OBJECT.getMatchingMethod("getClass", new SequenceType()));						
+					standard().OBJECT.getMatchingMethod("getClass", new SequenceType()));						
 			TACOperand valueClass = new TACCall(anchor, methodName, methodName.getPrefix());
 
 			methodName = new TACMethodName(anchor, valueClass,
-					Type.CLASS.getMatchingMethod("isSubtype", new SequenceType(Type.CLASS)));
+					standard().CLASS.getMatchingMethod("isSubtype", new SequenceType(standard().CLASS)));
 
 			ctx.setOperand(new TACCall(anchor, methodName, methodName.getPrefix(), comparisonClass));
 		}
@@ -846,12 +869,12 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 	private TACOperand convertToString( TACOperand operand ) {
 		Type type = resolveType(operand.getType());
-		if( !type.equals(Type.STRING ) ) {
+		if( !type.equals(standard().STRING ) ) {
 			if ( operand.getModifiers().isNullable() && !(type instanceof ArrayType) ) { // || !type.isPrimitive() && !(type instanceof ArrayType))
 				TACLabel nullLabel = new TACLabel(method),
 						nonnullLabel = new TACLabel(method),
 						doneLabel = new TACLabel(method);
-				TACVariable var = method.addTempLocal(new SimpleModifiedType(Type.STRING));
+				TACVariable var = method.addTempLocal(new SimpleModifiedType(standard().STRING));
 				new TACBranch(anchor, new TACBinary(anchor, operand,
 						new TACLiteral(anchor, new ShadowNull(operand.getType()))), nullLabel,
 						nonnullLabel);
@@ -892,7 +915,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				last = convertToString(last);
 
 			TACOperand next = convertToString(ctx.shiftExpression(i).appendBefore(anchor));
-			last = new TACCall(anchor, new TACMethodName(anchor, Type.STRING.getMethodOverloads("concatenate").get(0)),
+			last = new TACCall(anchor, new TACMethodName(anchor, standard().STRING.getMethodOverloads("concatenate").get(0)),
 					Arrays.asList(last, next));
 		}
 
@@ -994,7 +1017,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 		// Interfaces themselves are value types, so extract the object pointer inside
 		if( operand.getType() instanceof InterfaceType )
-			operand = TACCast.cast(anchor, new SimpleModifiedType(Type.OBJECT), operand);
+			operand = TACCast.cast(anchor, new SimpleModifiedType(standard().OBJECT), operand);
 
 		// Branch to the handler, either a recover block or the unexpected null exception
 		new TACBranch(anchor, new TACBinary(anchor, operand, new TACLiteral(anchor,
@@ -1012,8 +1035,8 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				new TACBranch(anchor, block.getRecover());
 			}		
 			else {			
-				TACOperand object = new TACNewObject(anchor, Type.UNEXPECTED_NULL_EXCEPTION);
-				MethodSignature signature = Type.UNEXPECTED_NULL_EXCEPTION.getMatchingMethod("create", new SequenceType());						
+				TACOperand object = new TACNewObject(anchor, standard().UNEXPECTED_NULL_EXCEPTION);
+				MethodSignature signature = standard().UNEXPECTED_NULL_EXCEPTION.getMatchingMethod("create", new SequenceType());						
 				TACCall exception = new TACCall(anchor, new TACMethodName(anchor, signature), object);
 
 				new TACThrow(anchor, exception);
@@ -1074,13 +1097,13 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		TACMethodName methodName = new TACMethodName(anchor,
 				prefix,				
 				methodType.getKnownSignature());
-		TACOperand refAsMethodTable = TACCast.cast(anchor, new SimpleModifiedType(Type.METHOD_TABLE), methodName, false);
+		TACOperand refAsMethodTable = TACCast.cast(anchor, new SimpleModifiedType(standard().METHOD_TABLE), methodName, false);
 
 		params.add(refAsMethodTable);
 		params.add(prefix);
-		params.add(new TACLiteral(anchor, new ShadowNull(new ArrayType(Type.OBJECT))));
+		params.add(new TACLiteral(anchor, new ShadowNull(new ArrayType(standard().OBJECT))));
 
-		MethodSignature signature = Type.METHOD.recursivelyGetMethodOverloads("create").get(0);
+		MethodSignature signature = standard().METHOD.recursivelyGetMethodOverloads("create").get(0);
 		//internally sets prefix
 		return callCreate(signature, params, signature.getOuter());
 	}
@@ -1300,8 +1323,8 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		if( prefixType instanceof ArrayType && !(((ArrayType)prefixType).getBaseType() instanceof TypeParameter) ) {
 			TACOperand index = ctx.conditionalExpression().appendBefore(anchor);
 			Type indexType = index.getType();
-			if( !indexType.equals(Type.LONG))
-				index = TACCast.cast(anchor, new SimpleModifiedType(Type.LONG, index.getModifiers()), index);				
+			if( !indexType.equals(standard().LONG))
+				index = TACCast.cast(anchor, new SimpleModifiedType(standard().LONG, index.getModifiers()), index);				
 
 			prefix = new TACLoad(anchor, new TACArrayRef(anchor, prefix, index));			
 		}				
@@ -1532,18 +1555,18 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		new TACBranch(anchor, condition, doneLabel, errorLabel);			
 		errorLabel.insertBefore(anchor);
 
-		TACOperand object = new TACNewObject(anchor, Type.ASSERT_EXCEPTION);
+		TACOperand object = new TACNewObject(anchor, standard().ASSERT_EXCEPTION);
 		List<TACOperand> params = new ArrayList<TACOperand>();
 		params.add(object);			
 		MethodSignature signature;			
 
 		if( ctx.conditionalExpression().size() > 1 ) { // has message
 			TACOperand message = convertToString( ctx.conditionalExpression(1).appendBefore(anchor) );
-			signature = Type.ASSERT_EXCEPTION.getMatchingMethod("create", new SequenceType(message));
+			signature = standard().ASSERT_EXCEPTION.getMatchingMethod("create", new SequenceType(message));
 			params.add( message );				
 		}
 		else
-			signature = Type.ASSERT_EXCEPTION.getMatchingMethod("create", new SequenceType());
+			signature = standard().ASSERT_EXCEPTION.getMatchingMethod("create", new SequenceType());
 
 		TACCall exception = new TACCall(anchor, new TACMethodName(anchor, signature), params);
 		new TACThrow(anchor, exception);
@@ -1706,56 +1729,64 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		List<TACLabel> labels = new ArrayList<TACLabel>( ctx.switchLabel().size() );
 
 		if( !( value.getType() instanceof EnumType ) ) {	
-			//first go through and do the conditions
-			for( int i = 0; i < ctx.switchLabel().size(); ++i ) {	
-				ShadowParser.SwitchLabelContext label = ctx.switchLabel(i);
-
-				if( label.primaryExpression().size() == 0 ) 
-					labels.add(defaultLabel);
-				else { // not default
-					label.appendBefore(anchor); //append (all) label conditions
-					TACLabel matchingCase = new TACLabel(method);
-					labels.add(matchingCase);
-
-					for( int j = 0; j < label.primaryExpression().size(); ++j ) {
-						TACOperand operand = label.primaryExpression(j).getOperand();
-						TACOperand comparison;
-						MethodSignature signature = type.getMatchingMethod("equal", new SequenceType(operand));
-
-						if( type.isPrimitive() && signature.isImport() )
-							comparison = new TACBinary(anchor, value, operand); //equivalent to ===
-						else								
-							comparison = new TACCall(anchor, new TACMethodName(anchor, value, signature), value, operand);
-
-						boolean moreConditions = false;
-						if( j < label.primaryExpression().size() - 1 ) //more conditions in this label
-							moreConditions = true;
-						else if( i < ctx.switchLabel().size() - 2) //at least two more labels (of which only one can be default)
-							moreConditions = true;
-						else if( i < ctx.switchLabel().size() - 1 && ctx.switchLabel(i + 1).primaryExpression().size() > 0 ) //one more label which isn't default
-							moreConditions = true;
-						else
-							moreConditions = false;							
-
-						TACLabel next;
-
-						if( moreConditions )
-							next = new TACLabel(method);
-						else if( ctx.hasDefault )
-							next = defaultLabel;
-						else
-							next = doneLabel;
-
-						new TACBranch(anchor, comparison, matchingCase, next);
-
-						if( moreConditions )
-							next.insertBefore(anchor);							
+			List<List<ShadowValue>> cases = getCaseValues(ctx, value);
+			TACLabel otherwise = ctx.hasDefault ? defaultLabel : doneLabel;
+			if( cases == null ) {
+				//first go through and do the conditions
+				for( int i = 0; i < ctx.switchLabel().size(); ++i ) {	
+					ShadowParser.SwitchLabelContext label = ctx.switchLabel(i);
+
+					if( label.primaryExpression().size() == 0 ) 
+						labels.add(defaultLabel);
+					else { // not default
+						label.appendBefore(anchor); //append (all) label conditions
+						TACLabel matchingCase = new TACLabel(method);
+						labels.add(matchingCase);
+
+						for( int j = 0; j < label.primaryExpression().size(); ++j ) {
+							TACOperand operand = label.primaryExpression(j).getOperand();
+							TACOperand comparison;
+							MethodSignature signature = type.getMatchingMethod("equal", new SequenceType(operand));
+
+							if( type.isPrimitive() && signature.isImport() )
+								comparison = new TACBinary(anchor, value, operand); //equivalent to ===
+							else								
+								comparison = new TACCall(anchor, new TACMethodName(anchor, value, signature), value, operand);
+
+							boolean moreConditions = false;
+							if( j < label.primaryExpression().size() - 1 ) //more conditions in this label
+								moreConditions = true;
+							else if( i < ctx.switchLabel().size() - 2) //at least two more labels (of which only one can be default)
+								moreConditions = true;
+							else if( i < ctx.switchLabel().size() - 1 && ctx.switchLabel(i + 1).primaryExpression().size() > 0 ) //one more label which isn't default
+								moreConditions = true;
+							else
+								moreConditions = false;							
+
+							TACLabel next;
+
+							if( moreConditions )
+								next = new TACLabel(method);
+							else if( ctx.hasDefault )
+								next = defaultLabel;
+							else
+								next = doneLabel;
+
+							new TACBranch(anchor, comparison, matchingCase, next);
+
+							if( moreConditions )
+								next.insertBefore(anchor);							
+						}
 					}
 				}
-			}
 
-			if( ctx.hasDefault && ctx.switchLabel().size() == 1 ) //only default exists, needs a direct jump
-				new TACBranch(anchor, defaultLabel);
+				if( ctx.hasDefault && ctx.switchLabel().size() == 1 ) //only default exists, needs a direct jump
+					new TACBranch(anchor, defaultLabel);
+			}
+			else if( type.isString() )
+				buildStringSwitch(value, cases, labels, defaultLabel, otherwise);
+			else
+				buildIntegralSwitch(value, cases, labels, defaultLabel, otherwise);
 
 			//then go through and add the executable blocks of code to jump to
 			for( int i = 0; i < ctx.statement().size(); ++i ) {				
@@ -1773,6 +1804,152 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		return null;
 	}
 
+	/*
+	 * Gets the values of the labels in a switch statement if they are all
+	 * literals that a TACSwitch can branch on directly, or null if the labels
+	 * must be compared with the value one after another.  Default labels
+	 * have no values.
+	 */
+	private static List<List<ShadowValue>> getCaseValues(ShadowParser.SwitchStatementContext ctx, TACOperand value)
+	{
+		Type type = value.getType();
+		if( !(type.isIntegral() || type.isString()) || value.getModifiers().isNullable() )
+			return null;
+
+		List<List<ShadowValue>> cases = new ArrayList<List<ShadowValue>>(ctx.switchLabel().size());
+		boolean hasCase = false;
+		for( ShadowParser.SwitchLabelContext label : ctx.switchLabel() ) {
+			List<ShadowValue> values = new ArrayList<ShadowValue>(label.primaryExpression().size());
+			for( PrimaryExpressionContext expression : label.primaryExpression() ) {
+				if( !(expression.getOperand() instanceof TACLiteral) )
+					return null;
+
+				ShadowValue literal = ((TACLiteral)expression.getOperand()).getValue();
+				if( type.isString() ) {
+					if( !(literal instanceof ShadowString) )
+						return null;
+				}
+				else {
+					// Labels of smaller types are widened to the type of the value
+					BigInteger number = integerValue(literal);
+					if( number == null )
+						return null;
+					try {
+						literal = literal.cast(type);
+					}
+					catch( InterpreterException | UnsupportedOperationException e ) {
+						return null;
+					}
+					if( !number.equals(integerValue(literal)) )
+						return null;
+				}
+				values.add(literal);
+				hasCase = true;
+			}
+			cases.add(values);
+		}
+
+		return hasCase ? cases : null;
+	}
+
+	private static BigInteger integerValue(ShadowValue value)
+	{
+		if( value instanceof ShadowInteger )
+			return ((ShadowInteger)value).getValue();
+		else if( value instanceof ShadowCode )
+			return BigInteger.valueOf(((ShadowCode)value).getValue());
+		else
+			return null;
+	}
+
+	/*
+	 * Branches on an integral value with a single switch, which LLVM can
+	 * lower to a jump table or a binary search depending on how dense the
+	 * cases are.  A value repeated in a later label is never reached, as
+	 * with the comparisons.
+	 */
+	private void buildIntegralSwitch(TACOperand value,
+			List<List<ShadowValue>> cases, List<TACLabel> labels, TACLabel defaultLabel, TACLabel otherwise)
+	{
+		TACSwitch switch_ = new TACSwitch(anchor, value, otherwise);
+		Set<BigInteger> used = new HashSet<BigInteger>();
+		for( List<ShadowValue> values : cases ) {
+			if( values.isEmpty() )
+				labels.add(defaultLabel);
+			else {
+				TACLabel matchingCase = new TACLabel(method);
+				labels.add(matchingCase);
+				for( ShadowValue literal : values )
+					if( used.add(integerValue(literal)) )
+						switch_.addCase(literal, matchingCase);
+			}
+		}
+	}
+
+	/*
+	 * Branches on the hash of a String value, whose values for the labels
+	 * are known at compile time.  Each hash leads to comparisons with only
+	 * the labels that have it.  The hash is computed the same way as
+	 * String.hash, over the UTF-8 bytes of the literal.
+	 */
+	private void buildStringSwitch(TACOperand value,
+			List<List<ShadowValue>> cases, List<TACLabel> labels, TACLabel defaultLabel, TACLabel otherwise)
+	{
+		Map<BigInteger, List<ShadowString>> strings = new LinkedHashMap<BigInteger, List<ShadowString>>();
+		Map<String, TACLabel> targets = new HashMap<String, TACLabel>();
+		for( List<ShadowValue> values : cases ) {
+			if( values.isEmpty() )
+				labels.add(defaultLabel);
+			else {
+				TACLabel matchingCase = new TACLabel(method);
+				labels.add(matchingCase);
+				for( ShadowValue literal : values ) {
+					ShadowString string = (ShadowString) literal;
+					if( !targets.containsKey(string.getValue()) ) {
+						targets.put(string.getValue(), matchingCase);
+						BigInteger hash = hash(string.getValue());
+						if( !strings.containsKey(hash) )
+							strings.put(hash, new ArrayList<ShadowString>());
+						strings.get(hash).add(string);
+					}
+				}
+			}
+		}
+
+		Type type = value.getType();
+		TACMethodName hashMethod = new TACMethodName(anchor, value, type.getMatchingMethod("hash", new SequenceType()));
+		TACSwitch switch_ = new TACSwitch(anchor, new TACCall(anchor, hashMethod, value), otherwise);
+		List<TACLabel> hashLabels = new ArrayList<TACLabel>(strings.size());
+		for( BigInteger hash : strings.keySet() ) {
+			TACLabel hashLabel = new TACLabel(method);
+			hashLabels.add(hashLabel);
+			switch_.addCase(new ShadowInteger(hash, 8, false), hashLabel);
+		}
+
+		Iterator<TACLabel> iterator = hashLabels.iterator();
+		for( List<ShadowString> group : strings.values() ) {
+			iterator.next().insertBefore(anchor);
+			for( int i = 0; i < group.size(); ++i ) {
+				TACOperand operand = new TACLiteral(anchor, group.get(i));
+				MethodSignature signature = type.getMatchingMethod("equal", new SequenceType(operand));
+				TACOperand comparison = new TACCall(anchor, new TACMethodName(anchor, value, signature), value, operand);
+				TACLabel next = i < group.size() - 1 ? new TACLabel(method) : otherwise;
+				new TACBranch(anchor, comparison, targets.get(group.get(i).getValue()), next);
+				if( next != otherwise )
+					next.insertBefore(anchor);
+			}
+		}
+	}
+
+	// Matches String.hash: value * 31 + byte for each byte, as a ulong
+	private static BigInteger hash(String string)
+	{
+		long hash = 0;
+		for( byte data : string.getBytes(StandardCharsets.UTF_8) )
+			hash = hash * 31 + (data & 0xFF);
+		return new BigInteger(Long.toUnsignedString(hash));
+	}
+
 	@Override public Void visitSwitchLabel(ShadowParser.SwitchLabelContext ctx)	
 	{ 
 		visitChildren(ctx);
@@ -1883,7 +2060,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 					conditionLabel = new TACLabel(method);
 
 			//make iterator (long index)
-			iterator = method.addTempLocal(new SimpleModifiedType(Type.LONG));
+			iterator = method.addTempLocal(new SimpleModifiedType(standard().LONG));
 			new TACLocalStore(anchor, iterator, new TACLiteral(anchor, new ShadowInteger(0L)));
 			TACOperand length = arraySize(anchor, collection, true);
 			new TACBranch(anchor, conditionLabel);  //init is done, jump to condition
@@ -1906,7 +2083,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 			value.setContext(null); //avoid dead code removal error
 			TACLiteral one = new TACLiteral(anchor, new ShadowInteger(1L));
 			one.setContext(null);
-			value = new TACBinary(anchor, value, Type.LONG.getMatchingMethod("add", new SequenceType(Type.LONG)), "+", one, false );
+			value = new TACBinary(anchor, value, standard().LONG.getMatchingMethod("add", new SequenceType(standard().LONG)), "+", one, false );
 			value.setContext(null);
 			new TACLocalStore(anchor, iterator, value).setContext(null);			
 
@@ -1915,7 +2092,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 			//check if iterator < array length
 			value = new TACLocalLoad(anchor, iterator);
-			condition = new TACBinary(anchor, value, Type.LONG.getMatchingMethod("compare", new SequenceType(Type.LONG)), "<", length, true );
+			condition = new TACBinary(anchor, value, standard().LONG.getMatchingMethod("compare", new SequenceType(standard().LONG)), "<", length, true );
 
 			new TACBranch(anchor, condition, bodyLabel, endLabel);		
 			endLabel.insertBefore(anchor);
@@ -2713,7 +2890,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 			TACOperand address = new TACPointerToLong(anchor, this_);					
 
 			TACOperand map = new TACLocalLoad(anchor, method.getParameter("addresses"));
-			TACMethodName indexMethod = new TACMethodName(anchor, Type.ADDRESS_MAP.getMatchingMethod("containsKey", new SequenceType(Type.ULONG)) );
+			TACMethodName indexMethod = new TACMethodName(anchor, standard().ADDRESS_MAP.getMatchingMethod("containsKey", new SequenceType(standard().ULONG)) );
 			TACOperand test = new TACCall(anchor, indexMethod, map, address );
 
 			TACLabel copyLabel = new TACLabel(method),
@@ -2722,18 +2899,18 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 			new TACBranch(anchor, test, returnLabel, copyLabel);
 			copyLabel.insertBefore(anchor);			
 
-			if( type.getTypeWithoutTypeArguments().equals(Type.ARRAY) || type.getTypeWithoutTypeArguments().equals(Type.ARRAY_NULLABLE) ) {
+			if( type.getTypeWithoutTypeArguments().equals(standard().ARRAY) || type.getTypeWithoutTypeArguments().equals(standard().ARRAY_NULLABLE) ) {
 				Type genericArray = type.getTypeWithoutTypeArguments();
-				boolean isNullable = type.getTypeWithoutTypeArguments().equals(Type.ARRAY_NULLABLE);				
+				boolean isNullable = type.getTypeWithoutTypeArguments().equals(standard().ARRAY_NULLABLE);				
 
-				TACOperand arrayClass = TACCast.cast(anchor, new SimpleModifiedType(Type.GENERIC_CLASS, new Modifiers(Modifiers.IMMUTABLE)), new TACLoad(anchor, new TACFieldRef(this_, new SimpleModifiedType(Type.CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")));
+				TACOperand arrayClass = TACCast.cast(anchor, new SimpleModifiedType(standard().GENERIC_CLASS, new Modifiers(Modifiers.IMMUTABLE)), new TACLoad(anchor, new TACFieldRef(this_, new SimpleModifiedType(standard().CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")));
 				TACOperand length = arraySize(anchor, this_, true);
 
 				//allocate a new array (which by default gets a ref count of 1)
 				TACOperand array = new TACNewArray(anchor, new ArrayType(genericArray.getTypeParameters().get(0).getType(), isNullable), arrayClass, length);
 
 
-				TACOperand classArray = new TACLoad(anchor, new TACFieldRef(arrayClass, new SimpleModifiedType(new ArrayType(Type.CLASS), new Modifiers(Modifiers.IMMUTABLE)), "parameters"));
+				TACOperand classArray = new TACLoad(anchor, new TACFieldRef(arrayClass, new SimpleModifiedType(new ArrayType(standard().CLASS), new Modifiers(Modifiers.IMMUTABLE)), "parameters"));
 				TACOperand baseClass = new TACLoad(anchor, new TACArrayRef(anchor, classArray, new TACLiteral(anchor, new ShadowInteger(0L)), false));
 
 				TACLabel primitive = new TACLabel(method);
@@ -2743,16 +2920,16 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				TACLabel condition = new TACLabel(method);
 
 
-				TACMethodName isPrimitive = new TACMethodName(anchor, baseClass, Type.CLASS.getMatchingMethod("isPrimitive", new SequenceType()));
+				TACMethodName isPrimitive = new TACMethodName(anchor, baseClass, standard().CLASS.getMatchingMethod("isPrimitive", new SequenceType()));
 				TACOperand checkPrimitive = new TACCall(anchor, isPrimitive, isPrimitive.getPrefix());
 				new TACBranch(anchor, checkPrimitive, primitive, startLoop);	
 
 				//if primitive
 				primitive.insertBefore(anchor);				
 
-				TACMethodName getWidth = new TACMethodName(anchor, baseClass, Type.CLASS.getMatchingMethod("width", new SequenceType()));
+				TACMethodName getWidth = new TACMethodName(anchor, baseClass, standard().CLASS.getMatchingMethod("width", new SequenceType()));
 				TACOperand width = new TACCall(anchor, getWidth, getWidth.getPrefix());
-				TACOperand sizeInBytes = new TACBinary(anchor, length, Type.LONG.getMatchingMethod("multiply", new SequenceType(Type.LONG)), "*", width);  
+				TACOperand sizeInBytes = new TACBinary(anchor, length, standard().LONG.getMatchingMethod("multiply", new SequenceType(standard().LONG)), "*", width);  
 
 				new TACCopyMemory(anchor, array, this_,  sizeInBytes, true );			
 
@@ -2761,13 +2938,13 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				//start loop
 				startLoop.insertBefore(anchor);
 
-				TACVariable i = method.addTempLocal(new SimpleModifiedType(Type.LONG));
+				TACVariable i = method.addTempLocal(new SimpleModifiedType(standard().LONG));
 				new TACLocalStore(anchor, i, new TACLiteral(anchor, new ShadowInteger(0L)));
 				new TACBranch(anchor, condition);				
 
 				condition.insertBefore(anchor);
 
-				TACOperand loop = new TACBinary(anchor, new TACLocalLoad(anchor, i), Type.LONG.getMatchingMethod("compare", new SequenceType(Type.LONG)), "<", length, true );
+				TACOperand loop = new TACBinary(anchor, new TACLocalLoad(anchor, i), standard().LONG.getMatchingMethod("compare", new SequenceType(standard().LONG)), "<", length, true );
 				new TACBranch(anchor, loop, body, done);
 				body.insertBefore(anchor);
 
@@ -2786,7 +2963,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 				makeCopyLabel.insertBefore(anchor);
 
-				TACMethodName copy = new TACMethodName(anchor, value, Type.OBJECT.getMatchingMethod("copy", new SequenceType(Type.ADDRESS_MAP)));
+				TACMethodName copy = new TACMethodName(anchor, value, standard().OBJECT.getMatchingMethod("copy", new SequenceType(standard().ADDRESS_MAP)));
 
 				value = new TACCall(anchor, copy, copy.getPrefix(), map);
 				new TACCall(anchor, indexStore, array, new TACLocalLoad(anchor, i), value);						
@@ -2794,7 +2971,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 				skipLabel.insertBefore(anchor);						
 
-				new TACLocalStore(anchor, i, new TACBinary(anchor, new TACLocalLoad(anchor, i), Type.LONG.getMatchingMethod("add", new SequenceType(Type.LONG)), "+", new TACLiteral(anchor, new ShadowInteger(1L)), false ));
+				new TACLocalStore(anchor, i, new TACBinary(anchor, new TACLocalLoad(anchor, i), standard().LONG.getMatchingMethod("add", new SequenceType(standard().LONG)), "+", new TACLiteral(anchor, new ShadowInteger(1L)), false ));
 				new TACBranch(anchor, condition);					
 
 				done.insertBefore(anchor);
@@ -2808,9 +2985,9 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 				//add it to the map of addresses
 				SequenceType arguments = new SequenceType();
-				arguments.add(new SimpleModifiedType(Type.ULONG));  //key
-				arguments.add(new SimpleModifiedType(Type.ULONG));  //value
-				indexMethod = new TACMethodName(anchor, Type.ADDRESS_MAP.getMatchingMethod("index", arguments) );
+				arguments.add(new SimpleModifiedType(standard().ULONG));  //key
+				arguments.add(new SimpleModifiedType(standard().ULONG));  //value
+				indexMethod = new TACMethodName(anchor, standard().ADDRESS_MAP.getMatchingMethod("index", arguments) );
 				TACOperand newAddress = new TACPointerToLong(anchor, object);					
 				new TACCall(anchor, indexMethod, map, address, newAddress);
 
@@ -2818,7 +2995,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				TACOperand size = new TACLoad(anchor, new TACFieldRef(object.getClassData(), "size"));
 				new TACCopyMemory(anchor, object, this_, size);
 
-				if( type.equals(Type.OBJECT))
+				if( type.equals(standard().OBJECT))
 					duplicate = object;
 				else
 					duplicate = TACCast.cast(anchor, new SimpleModifiedType(type), object); //casts object to type
@@ -2848,11 +3025,11 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 							if( entryType.getType() instanceof InterfaceType ) {
 								//cast converts from interface to object
-								field = TACCast.cast(anchor, new SimpleModifiedType(Type.OBJECT), field);
-								copyMethod = new TACMethodName(anchor, field, Type.OBJECT.getMatchingMethod("copy", new SequenceType(Type.ADDRESS_MAP)));
+								field = TACCast.cast(anchor, new SimpleModifiedType(standard().OBJECT), field);
+								copyMethod = new TACMethodName(anchor, field, standard().OBJECT.getMatchingMethod("copy", new SequenceType(standard().ADDRESS_MAP)));
 							}
 							else //normal object or array
-								copyMethod = new TACMethodName(anchor, field, entryType.getType().getMatchingMethod("copy", new SequenceType(Type.ADDRESS_MAP)));
+								copyMethod = new TACMethodName(anchor, field, entryType.getType().getMatchingMethod("copy", new SequenceType(standard().ADDRESS_MAP)));
 
 							TACOperand nullCondition = new TACBinary(anchor, field, new TACLiteral(anchor, new ShadowNull(field.getType())));
 							new TACBranch(anchor, nullCondition, skipField, copyField); //if null, skip
@@ -2888,7 +3065,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 			returnLabel.insertBefore(anchor);
 
-			indexMethod = new TACMethodName(anchor, Type.ADDRESS_MAP.getMatchingMethod("index", new SequenceType(Type.ULONG)) );
+			indexMethod = new TACMethodName(anchor, standard().ADDRESS_MAP.getMatchingMethod("index", new SequenceType(standard().ULONG)) );
 			TACOperand index = new TACCall(anchor, indexMethod, map, address );
 			TACOperand existingObject = new TACLongToPointer(anchor, index, new SimpleModifiedType(type));
 
@@ -3157,6 +3334,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				node instanceof TACPointerToLong ||
 				node instanceof TACReturn || // Doesn't matter in finally
 				node instanceof TACSequence || 
+				node instanceof TACSwitch ||
 				node instanceof TACTypeId ||
 				node instanceof TACUnary);
 	}
@@ -3209,10 +3387,10 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				//comparisons will always give positive, negative or zero integer
 				//must be compared to 0 with regular int comparison to work
 				if( isCompare ) {
-					TACVariable var = method.addTempLocal(new SimpleModifiedType(Type.INT));
+					TACVariable var = method.addTempLocal(new SimpleModifiedType(standard().INT));
 					new TACLocalStore(anchor, var, new TACCall(anchor, new TACMethodName(anchor, current, signature), current, next));		
 					current = new TACLocalLoad(anchor, var);					
-					current = new TACBinary(anchor, current, Type.INT.getMatchingMethod("compare", new SequenceType(Type.INT)), op, new TACLiteral(anchor, new ShadowInteger(0)), true );
+					current = new TACBinary(anchor, current, standard().INT.getMatchingMethod("compare", new SequenceType(standard().INT)), op, new TACLiteral(anchor, new ShadowInteger(0)), true );
 				}
 				else
 					current = new TACCall(anchor, new TACMethodName(anchor, current, signature), current, next);				
@@ -3234,7 +3412,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 				endLabel = new TACLabel(method);
 
 		//make iterator (int index)
-		TACVariable iterator = method.addTempLocal(new SimpleModifiedType(Type.LONG));
+		TACVariable iterator = method.addTempLocal(new SimpleModifiedType(standard().LONG));
 		new TACLocalStore(anchor, iterator, new TACLiteral(anchor, new ShadowInteger(0)));
 		TACOperand length = arraySize(anchor, array, true);			
 		new TACBranch(anchor, conditionLabel);  //init is done, jump to condition
@@ -3253,7 +3431,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		updateLabel.insertBefore(anchor);			
 
 		//increment iterator							
-		TACOperand value = new TACBinary(anchor, new TACLocalLoad(anchor, iterator), Type.LONG.getMatchingMethod("add", new SequenceType(Type.LONG)), "+", new TACLiteral(anchor, new ShadowInteger(1)));
+		TACOperand value = new TACBinary(anchor, new TACLocalLoad(anchor, iterator), standard().LONG.getMatchingMethod("add", new SequenceType(standard().LONG)), "+", new TACLiteral(anchor, new ShadowInteger(1)));
 		new TACLocalStore(anchor, iterator, value);	
 
 		new TACBranch(anchor, conditionLabel);
@@ -3261,7 +3439,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 		//check if iterator < array length
 		value = new TACLocalLoad(anchor, iterator);			
-		TACOperand condition = new TACBinary(anchor, value, Type.LONG.getMatchingMethod("compare", new SequenceType(Type.LONG)), "<", length, true );
+		TACOperand condition = new TACBinary(anchor, value, standard().LONG.getMatchingMethod("compare", new SequenceType(standard().LONG)), "<", length, true );
 
 		new TACBranch(anchor, condition, bodyLabel, endLabel);		
 		endLabel.insertBefore(anchor);
@@ -3294,7 +3472,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		if (dimension < sizes.size() - 1)
 		{	
 			ArrayType baseType = (ArrayType) type.getBaseType();
-			TACVariable index = method.addTempLocal(new SimpleModifiedType(Type.INT));
+			TACVariable index = method.addTempLocal(new SimpleModifiedType(standard().INT));
 			new TACLocalStore(anchor, index, new TACLiteral(anchor, new ShadowInteger(0)));
 			TACClass class_ = new TACClass(anchor, baseType);
 			TACLabel bodyLabel = new TACLabel(method),
@@ -3304,7 +3482,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 			bodyLabel.insertBefore(anchor);
 			new TACStore(anchor, new TACArrayRef(anchor, alloc, new TACLocalLoad(anchor, index), false),
 					visitArrayAllocation(baseType, class_, sizes, dimension + 1, create, params, defaultValue));
-			new TACLocalStore(anchor, index, new TACBinary(anchor, new TACLocalLoad(anchor, index), Type.INT.getMatchingMethod("add", new SequenceType(Type.INT)), "+",
+			new TACLocalStore(anchor, index, new TACBinary(anchor, new TACLocalLoad(anchor, index), standard().INT.getMatchingMethod("add", new SequenceType(standard().INT)), "+",
 					new TACLiteral(anchor, new ShadowInteger(1))));
 			new TACBranch(anchor, condLabel);
 			condLabel.insertBefore(anchor);
@@ -3404,8 +3582,8 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		Type type = ctx.getType();
 
 		if( !type.getModifiers().isImmutable() ) { //if immutable, do nothing, the old one is fine
-			TACNewObject object = new TACNewObject(anchor, Type.ADDRESS_MAP );
-			TACMethodName create = new TACMethodName(anchor, Type.ADDRESS_MAP.getMatchingMethod("create", new SequenceType()) );
+			TACNewObject object = new TACNewObject(anchor, standard().ADDRESS_MAP );
+			TACMethodName create = new TACMethodName(anchor, standard().ADDRESS_MAP.getMatchingMethod("create", new SequenceType()) );
 			TACOperand map = new TACCall(anchor, create, object);
 
 			TACMethodName copyMethod;
@@ -3418,17 +3596,17 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 
 			if( type instanceof InterfaceType )	{	
 				//cast converts from interface to object
-				data = TACCast.cast(anchor, new SimpleModifiedType(Type.OBJECT), data);
+				data = TACCast.cast(anchor, new SimpleModifiedType(standard().OBJECT), data);
 				TACOperand nullCondition = new TACBinary(anchor, data, new TACLiteral(anchor, new ShadowNull(data.getType())));
 				new TACBranch(anchor, nullCondition, nullLabel, copyLabel);
 				copyLabel.insertBefore(anchor);
-				copyMethod = new TACMethodName(anchor, data, Type.OBJECT.getMatchingMethod("copy", new SequenceType(Type.ADDRESS_MAP)));						
+				copyMethod = new TACMethodName(anchor, data, standard().OBJECT.getMatchingMethod("copy", new SequenceType(standard().ADDRESS_MAP)));						
 			}
 			else {
 				TACOperand nullCondition = new TACBinary(anchor, data, new TACLiteral(anchor, new ShadowNull(data.getType())));						
 				new TACBranch(anchor, nullCondition, nullLabel, copyLabel);
 				copyLabel.insertBefore(anchor);
-				copyMethod  = new TACMethodName(anchor, data, type.getMatchingMethod("copy", new SequenceType(Type.ADDRESS_MAP)));						
+				copyMethod  = new TACMethodName(anchor, data, type.getMatchingMethod("copy", new SequenceType(standard().ADDRESS_MAP)));						
 			}
 
 			TACOperand copy = new TACCall(anchor, copyMethod, data, map);
@@ -3513,7 +3691,7 @@ public class TACBuilder extends ShadowBaseVisitor<Void> {
 		}
 		params.add(runnerRef);
 
-		prefix = callCreate(threadCreateSignature, params, Type.THREAD);
+		prefix = callCreate(threadCreateSignature, params, standard().THREAD);
 		ctx.setOperand(prefix);
 
 		return null;
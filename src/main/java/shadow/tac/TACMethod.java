@@ -16,7 +16,9 @@ import java.util.Set;
 
 import shadow.Configuration;
 import shadow.ShadowException;
+import shadow.interpreter.ShadowNull;
 import shadow.interpreter.ShadowUndefined;
+import shadow.interpreter.ShadowValue;
 import shadow.output.text.TextOutput;
 import shadow.tac.analysis.ControlFlowGraph;
 import shadow.tac.nodes.TACAllocateVariable;
@@ -31,6 +33,7 @@ import shadow.tac.nodes.TACLocalRecover;
 import shadow.tac.nodes.TACLocalStore;
 import shadow.tac.nodes.TACNewArray;
 import shadow.tac.nodes.TACNode;
+import shadow.tac.nodes.TACOperand;
 import shadow.tac.nodes.TACParameter;
 import shadow.tac.nodes.TACPhi;
 import shadow.tac.nodes.TACReference;
@@ -139,7 +142,7 @@ public class TACMethod
 		int parameter = 0;		
 		
 		if( prefixType instanceof InterfaceType )
-			prefixType = Type.OBJECT;
+			prefixType = Type.standard().OBJECT;
 		
 		ModifiedType modifiedType = new SimpleModifiedType(prefixType);
 		//we mark the primitive "this" as nullable, to show that it's the object version of the primitive
@@ -147,7 +150,7 @@ public class TACMethod
 			modifiedType.getModifiers().addModifier(Modifiers.NULLABLE);
 		
 		if (signature.isCreate() )
-			new TACLocalStore(node, addParameter(modifiedType, "this"), TACCast.cast(node, modifiedType, new TACParameter(node, new SimpleModifiedType(Type.OBJECT), parameter++)));
+			new TACLocalStore(node, addParameter(modifiedType, "this"), TACCast.cast(node, modifiedType, new TACParameter(node, new SimpleModifiedType(Type.standard().OBJECT), parameter++)));
 		else if(!signature.isImport())
 			new TACLocalStore(node, addParameter(modifiedType, "this"), new TACParameter(node, modifiedType, parameter++));
 			
@@ -299,8 +302,12 @@ public class TACMethod
 						TACStore store = (TACStore) node;
 						TACReference reference = store.getReference();
 											
-						if( reference.needsGarbageCollection() )
+						if( reference.needsGarbageCollection() ) {
 							store.setGarbageCollected(true);
+							//nothing to increment when storing null
+							if( isNull(store.getValue()) )
+								store.setIncrementReference(false);
+						}
 					}											
 					else if( node instanceof TACNewArray ) {
 						TACNewArray newArray = (TACNewArray) node;
@@ -376,8 +383,111 @@ public class TACMethod
 			}
 		}
 		
+		removeBorrowedReferenceCounts(storedVariables, parameterStores.keySet());
 		addCleanup(storedVariables, cleanupCalls);
 	}
+
+	/*
+	 * Parameters that are never stored (including "this") are borrowed from
+	 * the caller, which keeps them alive for the whole call. A local that
+	 * only ever holds borrowed values (or null) is borrowed as well, so the
+	 * increment when it is stored and the decrement when it is cleaned up
+	 * cancel out and can both be removed. Stores of null never need
+	 * increments.
+	 */
+	private void removeBorrowedReferenceCounts(Set<TACVariable> storedVariables, Set<TACVariable> borrowedParameters) {
+		Map<TACVariable, List<TACLocalStore>> stores = new HashMap<TACVariable, List<TACLocalStore>>();
+		TACNode start = getNode();
+		TACNode node = start.getNext();
+		while( node != start ) {
+			if( node instanceof TACLocalStore && node.isGarbageCollected() ) {
+				TACLocalStore store = (TACLocalStore) node;
+				if( isNull(store.getValue()) )
+					store.setIncrementReference(false);
+
+				List<TACLocalStore> variableStores = stores.get(store.getVariable());
+				if( variableStores == null ) {
+					variableStores = new ArrayList<TACLocalStore>();
+					stores.put(store.getVariable(), variableStores);
+				}
+				variableStores.add(store);
+			}
+			node = node.getNext();
+		}
+
+		//stores inside finally functions are not tracked here
+		Set<TACVariable> finallyStored = new HashSet<TACVariable>();
+		for( TACFinallyFunction function : finallyFunctions ) {
+			start = function.getNode();
+			node = start;
+			do {
+				if( node instanceof TACLocalStore )
+					finallyStored.add(((TACLocalStore)node).getVariable());
+				node = node.getNext();
+			} while( node != start );
+		}
+
+		Set<TACVariable> parameters = new HashSet<TACVariable>(borrowedParameters);
+		parameters.removeAll(finallyStored);
+
+		//start by assuming every candidate is borrowed, then remove the
+		//ones that store anything else until nothing changes
+		Set<TACVariable> borrowed = new HashSet<TACVariable>();
+		for( TACVariable variable : storedVariables )
+			if( !variable.isReturn() && !finallyStored.contains(variable) && stores.containsKey(variable) )
+				borrowed.add(variable);
+
+		boolean changed = true;
+		while( changed ) {
+			changed = false;
+			Iterator<TACVariable> iterator = borrowed.iterator();
+			while( iterator.hasNext() ) {
+				TACVariable variable = iterator.next();
+				for( TACLocalStore store : stores.get(variable) ) {
+					if( !isBorrowed(store.getValue(), parameters, borrowed) ) {
+						iterator.remove();
+						changed = true;
+						break;
+					}
+				}
+			}
+		}
+
+		for( TACVariable variable : borrowed ) {
+			for( TACLocalStore store : stores.get(variable) ) {
+				store.setIncrementReference(false);
+				store.setDecrementReference(false);
+			}
+			storedVariables.remove(variable);
+		}
+	}
+
+	private static boolean isBorrowed(TACOperand value, Set<TACVariable> parameters, Set<TACVariable> borrowed) {
+		value = removeObjectCasts(value);
+		if( isNull(value) )
+			return true;
+		if( value instanceof TACLocalLoad ) {
+			TACVariable variable = ((TACLocalLoad)value).getVariable();
+			return variable.getOriginalName().equals("this") || parameters.contains(variable) || borrowed.contains(variable);
+		}
+		return false;
+	}
+
+	private static boolean isNull(TACOperand value) {
+		value = removeObjectCasts(value);
+		if( value instanceof TACLiteral ) {
+			ShadowValue literal = ((TACLiteral)value).getValue();
+			return literal instanceof ShadowNull || literal instanceof ShadowUndefined;
+		}
+		return false;
+	}
+
+	// Casts between object types keep the same object
+	private static TACOperand removeObjectCasts(TACOperand value) {
+		while( value instanceof TACCast && ((TACCast)value).getKind() == TACCast.Kind.OBJECT_TO_OBJECT )
+			value = ((TACCast)value).getOperand(0);
+		return value;
+	}
     
 	
 	public TACMethod addParameters(TACNode node)
@@ -624,7 +734,9 @@ public class TACMethod
 			}
 			node = node.getNext();
 		} while( node != start );
-		
+
+		//removed stores change which variables are live
+		graph.clearAnalyses();
 	}
 	/*
 	public void setNormalCleanupAnchor(TACNode node) {
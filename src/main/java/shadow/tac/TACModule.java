@@ -11,7 +11,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import shadow.Job;
+import shadow.Loggers;
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.output.text.TextOutput;
 import shadow.parse.Context;
@@ -21,6 +27,7 @@ import shadow.parse.ShadowParser.VariableDeclaratorContext;
 import shadow.tac.analysis.CallGraph;
 import shadow.tac.analysis.ControlFlowGraph;
 import shadow.tac.analysis.ControlFlowGraph.StorageData;
+import shadow.tac.analysis.Inliner;
 import shadow.typecheck.DirectedGraph.CycleFoundException;
 import shadow.typecheck.ErrorReporter;
 import shadow.typecheck.TypeCheckException.Error;
@@ -146,66 +153,132 @@ public class TACModule {
     }
     
 
-	public List<ControlFlowGraph> optimizeTAC(ErrorReporter reporter, boolean checkOnly) {
+	/**
+	 * Optimizes the methods of this module and its inner classes, returning
+	 * their control flow graphs. Each method is optimized independently, so
+	 * methods are spread across the TAC optimizer pool when the session has
+	 * one. Errors are still reported in method order.
+	 * @param session		session whose pool runs the methods
+	 * @param reporter		reporter for errors found in the methods
+	 * @param checkOnly		whether the methods are only being checked
+	 * @return				graphs for all implemented methods
+	 */
+	public List<ControlFlowGraph> optimizeTAC(Session session, ErrorReporter reporter, boolean checkOnly) {
 
-		List<TACMethod> methodList = getMethods();
+		List<TACMethod> methodList = new ArrayList<TACMethod>();
+		for( TACMethod method : getMethods() ) {
+			MethodSignature signature = method.getSignature();
+			
+			//don't bother with unimplemented methods
+			if( !signature.getModifiers().isAbstract() && !signature.isImport() )
+				methodList.add(method);
+		}
+		
+		//small methods are captured before any method is changed
+		Job job = session.getJob();
+		int budget = checkOnly ? 0 : job != null ? job.getInlineBudget() : Job.DEFAULT_INLINE_BUDGET;
+		Inliner inliner = new Inliner(methodList, budget);
+		
 		List<ControlFlowGraph> graphs = new ArrayList<ControlFlowGraph>(methodList.size());
+		ExecutorService optimizer = session.getTACOptimizer();
+		if( optimizer == null || methodList.size() < 2 ) {
+			for( TACMethod method : methodList )
+				graphs.add(optimize(method, inliner, reporter));
+			
+			return graphs;
+		}
 		
-		for( TACMethod method : methodList  ) {
-			MethodSignature signature = method.getSignature();
+		List<ErrorReporter> reporters = new ArrayList<ErrorReporter>(methodList.size());
+		List<Future<ControlFlowGraph>> futures = new ArrayList<Future<ControlFlowGraph>>(methodList.size());
+		for( TACMethod method : methodList ) {
+			ErrorReporter methodReporter = new ErrorReporter(Loggers.TYPE_CHECKER);
+			reporters.add(methodReporter);
+			futures.add(optimizer.submit(session.bind(() -> optimize(method, inliner, methodReporter))));
+		}
+		
+		for( int i = 0; i < futures.size(); ++i ) {
+			graphs.add(getGraph(futures.get(i)));
+			reporter.addAll(reporters.get(i));
+		}
+		
+		return graphs;
+	}
+	
+	/*
+	 * Runs the optimizations that need only a single method: inlining of
+	 * small methods from the same file, constant propagation, removal of
+	 * bounds checks and null checks whose outcome is known, and unreachable
+	 * code removal (repeated until nothing changes), followed by the final
+	 * cleanup of stores and allocations.
+	 */
+	private static ControlFlowGraph optimize(TACMethod method, Inliner inliner, ErrorReporter reporter) {
+		MethodSignature signature = method.getSignature();
+		
+		//adds garbage collection and code that cleans up variables that need garbage collection
+		//at the end of the method
+		method.addGarbageCollection();
 
-			//don't bother with unimplemented methods
-			if( !signature.getModifiers().isAbstract() && !signature.isImport() ) {	
-				
-				//adds garbage collection and code that cleans up variables that need garbage collection
-				//at the end of the method
-				method.addGarbageCollection();
+		ControlFlowGraph graph = new ControlFlowGraph(method);
+		
+		//do first pass always
+		boolean changed = graph.removeUnreachableCode();
+		graph.removeRedundantErrors(); //some unreachable code errors are redundant
+		
+		//calls with only one possible target skip the method table
+		graph.devirtualizeCalls();
+		//small methods reached by those calls are copied in
+		inliner.inline(graph);
+		
+		if( !signature.isVoid() && !graph.returns() )
+			graph.addError(signature.getNode(), Error.NOT_ALL_PATHS_RETURN, "Value-returning method " + signature.getSymbol() + signature.getMethodType() + " may not return on all paths");
 
-				ControlFlowGraph graph = new ControlFlowGraph(method);
-				
-				/*
-				PrintWriter out;
-				try {
-					out = new PrintWriter(new File("clean method.txt"));
-					out.print(method.toString());
-					out.close();
-					
-				} catch (FileNotFoundException e) {
-					// TODO Auto-generated catch block
-					e.printStackTrace();
-				}
-				*/
-				
-				
-				//do first pass always
-				boolean changed = graph.removeUnreachableCode();
-				graph.removeRedundantErrors(); //some unreachable code errors are redundant
-				
-				if( !signature.isVoid() && !graph.returns() )
-					graph.addError(signature.getNode(), Error.NOT_ALL_PATHS_RETURN, "Value-returning method " + signature.getSymbol() + signature.getMethodType() + " may not return on all paths");
+		graph.addPhiNodes();
+		if( graph.propagateConstants() )
+			changed = true;
+		
+		reporter.addAll(graph); //adds errors (if any) to main reporter
+		
+		//remove code cut off by folded branches; since constants and reachable
+		//edges are found together, this normally stops after one round
+		while( changed ) {	
+			changed = graph.removeUnreachableCode();					
+			if( changed )
+				changed = graph.propagateConstants();
+		}				
 
-				graph.addPhiNodes();
-				if( graph.propagateConstants() )
-					changed = true;
-				
-				reporter.addAll(graph); //adds errors (if any) to main reporter
-				
-				//now keep cycling if there is more unreachable code or 
-				//more constants propagated
-				while( changed ) {	
-					changed = graph.removeUnreachableCode();					
-					if( changed )
-						changed = graph.propagateConstants();
-				}				
+		//bounds checks that always pass, such as those in counted loops over
+		//arrays, and null checks on values already known not to be null
+		changed = graph.removeBoundsChecks();
+		if( graph.removeNullChecks() )
+			changed = true;
+		if( changed )
+			graph.removeUnreachableCodeQuietly();
 
-				method.removeUndefinedStores(graph);				
-				method.addAllocations();
-				
-				graphs.add(graph);
-			}
-		}
+		//arrays that never leave the method can go on the stack
+		graph.allocateArraysOnStack();
+
+		method.removeUndefinedStores(graph);				
+		method.addAllocations();
 		
-		return graphs;
+		return graph;
+	}
+	
+	private static ControlFlowGraph getGraph(Future<ControlFlowGraph> future) {
+		try {
+			return future.get();
+		}
+		catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException )
+				throw (RuntimeException) cause;
+			if( cause instanceof java.lang.Error )
+				throw (java.lang.Error) cause;
+			throw new IllegalStateException(cause);
+		}
+		catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while optimizing TAC", e);
+		}
 	}
 	
 	private void addCreateEdges(CallGraph creates)
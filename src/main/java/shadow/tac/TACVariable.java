@@ -116,9 +116,9 @@ public class TACVariable implements ModifiedType
 				!(type instanceof MethodType) &&
 				//!(type instanceof InterfaceType) &&
 				!(type instanceof SingletonType) &&
-				!type.equals(Type.CLASS) &&
-				!type.equals(Type.GENERIC_CLASS) &&
-				!type.equals(Type.METHOD_TABLE) &&
+				!type.equals(Type.standard().CLASS) &&
+				!type.equals(Type.standard().GENERIC_CLASS) &&
+				!type.equals(Type.standard().METHOD_TABLE) &&
 				(!type.isPrimitive() || getModifiers().isNullable());
 	}
 }
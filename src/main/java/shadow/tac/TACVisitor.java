@@ -39,6 +39,7 @@ import shadow.tac.nodes.TACReturn;
 import shadow.tac.nodes.TACSequence;
 import shadow.tac.nodes.TACSequenceElement;
 import shadow.tac.nodes.TACStore;
+import shadow.tac.nodes.TACSwitch;
 import shadow.tac.nodes.TACThrow;
 import shadow.tac.nodes.TACTypeId;
 import shadow.tac.nodes.TACUnary;
@@ -82,6 +83,7 @@ public interface TACVisitor {
 	public abstract void visit(TACReturn node) throws ShadowException;	
 	public abstract void visit(TACSequence node) throws ShadowException;
 	public abstract void visit(TACStore node) throws ShadowException;
+	public abstract void visit(TACSwitch node) throws ShadowException;
 	public abstract void visit(TACThrow node) throws ShadowException;
 	public abstract void visit(TACTypeId node) throws ShadowException;
 	public abstract void visit(TACUnary node) throws ShadowException;	
@@ -0,0 +1,311 @@
+package shadow.tac.analysis;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.interpreter.ShadowInteger;
+import shadow.tac.analysis.ControlFlowGraph.Block;
+import shadow.tac.nodes.TACBinary;
+import shadow.tac.nodes.TACBranch;
+import shadow.tac.nodes.TACCall;
+import shadow.tac.nodes.TACCast;
+import shadow.tac.nodes.TACFieldRef;
+import shadow.tac.nodes.TACLiteral;
+import shadow.tac.nodes.TACLoad;
+import shadow.tac.nodes.TACLocalLoad;
+import shadow.tac.nodes.TACMethodName;
+import shadow.tac.nodes.TACNewArray;
+import shadow.tac.nodes.TACNode;
+import shadow.tac.nodes.TACOperand;
+import shadow.tac.nodes.TACPhi;
+import shadow.tac.nodes.TACUpdate;
+import shadow.typecheck.type.ArrayType;
+import shadow.typecheck.type.Type;
+
+/**
+ * Finds the array bounds checks in a {@link ControlFlowGraph} that always
+ * pass, so that they can be removed.
+ * <p>
+ * A bounds check is a branch on <code>index &lt; length</code>, where both
+ * sides have been converted to <code>ulong</code> and the length is loaded
+ * from the array, as {@link shadow.tac.nodes.TACArrayRef} builds it. The
+ * check always passes if the index is a constant that is smaller than the
+ * constant length of an array created in the method, or if the index is
+ * known to be at least zero and the check can only be reached after a
+ * branch that found the index to be smaller than the length of the same
+ * array. The second case covers loops such as
+ * <code>for( int i = 0; i &lt; array-&gt;size; i += 1 )</code>.
+ * <p>
+ * An index is known to be at least zero if it is a constant that is at
+ * least zero, has an unsigned type, or is a phi node whose values are all
+ * known to be at least zero. A phi node may also use a value that adds one
+ * to itself if that addition can only be reached after finding that the
+ * value is smaller than the length of some array, which keeps the addition
+ * from overflowing. This is how the counter of a loop is recognized.
+ * <p>
+ * Values are compared after looking through local variables and through
+ * conversions that cannot change a value that is at least zero, since the
+ * same array or counter is often loaded again for each use.
+ * <p>
+ * The results are a snapshot of the graph when it was analyzed.
+ */
+public class BoundsCheckElimination {
+	private final Set<TACBranch> passingChecks = Collections.newSetFromMap(new IdentityHashMap<TACBranch, Boolean>());
+	private final DominatorTree dominators;
+	private final Map<TACNode, Block> nodeBlocks = new IdentityHashMap<>();
+
+	/**
+	 * Analyzes the bounds checks in a control flow graph.
+	 * @param graph		graph to analyze
+	 */
+	public BoundsCheckElimination(ControlFlowGraph graph) {
+		dominators = graph.getDominatorTree();
+		for( Block block : graph )
+			for( TACNode node : block )
+				nodeBlocks.put(node, block);
+
+		for( Block block : graph ) {
+			TACNode last = block.getLast();
+			if( last instanceof TACBranch && ((TACBranch)last).isConditional() && dominators.contains(block) ) {
+				TACBranch branch = (TACBranch) last;
+				TACOperand condition = TACOperand.value(branch.getCondition());
+				if( condition instanceof TACBinary && isBoundsCheck((TACBinary)condition) &&
+						passes((TACBinary)condition, block) )
+					passingChecks.add(branch);
+			}
+		}
+	}
+
+	/**
+	 * Gets the bounds checks that always pass.
+	 * @return branches whose condition is always true
+	 */
+	public Set<TACBranch> getPassingChecks() {
+		return Collections.unmodifiableSet(passingChecks);
+	}
+
+	// Compares an index converted to ulong with the length of an array
+	private static boolean isBoundsCheck(TACBinary condition) {
+		return condition.getOperation().equals("<") &&
+				condition.getType().equals(Type.standard().BOOLEAN) &&
+				isUnsignedLong(condition.getFirst()) && isUnsignedLong(condition.getSecond()) &&
+				getLengthArray(condition.getSecond()) != null;
+	}
+
+	private static boolean isUnsignedLong(TACOperand operand) {
+		return TACOperand.value(operand).getType().equals(Type.standard().ULONG);
+	}
+
+	private boolean passes(TACBinary condition, Block block) {
+		TACOperand index = resolveValue(condition.getFirst());
+		TACOperand array = getLengthArray(condition.getSecond());
+
+		if( index instanceof TACLiteral ) {
+			BigInteger value = getInteger(index);
+			BigInteger length = getConstantLength(array);
+			return value != null && length != null && value.signum() >= 0 && value.compareTo(length) < 0;
+		}
+
+		// An earlier check on the same index and array already passed
+		if( isBelowLength(index, array, block, true) )
+			return true;
+
+		return isNonNegative(index, new HashSet<TACPhi>()) && isBelowLength(index, array, block, false);
+	}
+
+	/*
+	 * Whether a dominating branch found a value to be smaller than the
+	 * length of an array. If the array is null, any array will do, but only
+	 * lengths that fit in the type of the value count, so that adding one to
+	 * the value cannot overflow. If only checks count, the branch must be
+	 * another bounds check, which also found the value to be at least zero.
+	 */
+	private boolean isBelowLength(TACOperand value, TACOperand array, Block block, boolean onlyChecks) {
+		Block current = block;
+		Block dominator = dominators.getImmediateDominator(current);
+		while( dominator != null ) {
+			if( current.getIncoming().size() == 1 && dominator.getLast() instanceof TACBranch ) {
+				TACBranch branch = (TACBranch) dominator.getLast();
+				if( branch.isConditional() && getBlock(branch.getTrueLabel()) == current &&
+						getBlock(branch.getFalseLabel()) != current ) {
+					TACOperand condition = TACOperand.value(branch.getCondition());
+					if( condition instanceof TACBinary && (!onlyChecks || isBoundsCheck((TACBinary)condition)) &&
+							isBelowLength((TACBinary)condition, value, array) )
+						return true;
+				}
+			}
+
+			current = dominator;
+			dominator = dominators.getImmediateDominator(current);
+		}
+
+		return false;
+	}
+
+	private static boolean isBelowLength(TACBinary condition, TACOperand value, TACOperand array) {
+		TACOperand smaller, larger;
+		if( condition.getOperation().equals("<") ) {
+			smaller = condition.getFirst();
+			larger = condition.getSecond();
+		}
+		else if( condition.getOperation().equals(">") ) {
+			smaller = condition.getSecond();
+			larger = condition.getFirst();
+		}
+		else
+			return false;
+
+		TACOperand lengthArray = getLengthArray(larger);
+		if( lengthArray == null || resolveValue(smaller) != value )
+			return false;
+
+		if( array != null )
+			return isSameArray(lengthArray, array);
+
+		return Type.getWidth(resolveValue(larger)) <= Type.getWidth(value);
+	}
+
+	/*
+	 * Whether a value is known to be at least zero. Phi nodes are assumed
+	 * to be while their values are checked, which is what lets a counter
+	 * depend on its own earlier value.
+	 */
+	private boolean isNonNegative(TACOperand value, Set<TACPhi> assumed) {
+		Type type = value.getType();
+		if( value instanceof TACLiteral ) {
+			BigInteger integer = getInteger(value);
+			return integer != null && integer.signum() >= 0;
+		}
+		else if( type.isIntegral() && type.isUnsigned() && !value.getModifiers().isNullable() )
+			return true;
+		else if( value instanceof TACPhi && type.isIntegral() ) {
+			if( !assumed.add((TACPhi)value) )
+				return true;
+
+			boolean result = true;
+			for( TACOperand input : ((TACPhi)value).getPreviousStores().values() )
+				if( !isNonNegativeInput(resolveValue(input), assumed) ) {
+					result = false;
+					break;
+				}
+
+			assumed.remove(value);
+			return result;
+		}
+
+		return false;
+	}
+
+	// Inputs to a phi node can also be one more than a value below a length
+	private boolean isNonNegativeInput(TACOperand input, Set<TACPhi> assumed) {
+		if( input instanceof TACBinary ) {
+			TACBinary binary = (TACBinary) input;
+			TACOperand first = resolveValue(binary.getFirst());
+			BigInteger second = getInteger(resolveValue(binary.getSecond()));
+			Block block = nodeBlocks.get(binary);
+			return binary.getOperation().equals("+") && BigInteger.ONE.equals(second) &&
+					binary.getType().equals(first.getType()) && block != null && dominators.contains(block) &&
+					isNonNegative(first, assumed) && isBelowLength(first, null, block, false);
+		}
+
+		return isNonNegative(input, assumed);
+	}
+
+	/*
+	 * Gets the array whose length is given by an operand, either from the
+	 * size or sizeLong property of an array or by loading the length
+	 * directly, or null if the operand is not the length of an array.
+	 */
+	private static TACOperand getLengthArray(TACOperand operand) {
+		operand = resolveValue(operand);
+		if( operand instanceof TACLoad && ((TACLoad)operand).getReference() instanceof TACFieldRef ) {
+			TACFieldRef field = (TACFieldRef) ((TACLoad)operand).getReference();
+			if( field.getName().equals("sizeLong") && field.getPrefix().getType() instanceof ArrayType )
+				return field.getPrefix();
+		}
+		else if( operand instanceof TACCall && ((TACCall)operand).getMethodRef() instanceof TACMethodName ) {
+			TACCall call = (TACCall) operand;
+			TACMethodName method = (TACMethodName) call.getMethodRef();
+			String name = method.getSignature().getSymbol();
+			Type outer = method.getSignature().getOuter().getTypeWithoutTypeArguments();
+			if( (name.equals("size") || name.equals("sizeLong")) && call.getNumParameters() == 1 &&
+					(outer.equals(Type.standard().ARRAY) || outer.equals(Type.standard().ARRAY_NULLABLE)) )
+				return call.getPrefix();
+		}
+
+		return null;
+	}
+
+	private static boolean isSameArray(TACOperand first, TACOperand second) {
+		return resolveArray(first) == resolveArray(second);
+	}
+
+	private static BigInteger getConstantLength(TACOperand array) {
+		TACOperand value = resolveArray(array);
+		if( value instanceof TACNewArray )
+			return getInteger(resolveValue(((TACNewArray)value).getSize()));
+		return null;
+	}
+
+	private static BigInteger getInteger(TACOperand operand) {
+		if( operand instanceof TACLiteral && ((TACLiteral)operand).getValue() instanceof ShadowInteger )
+			return ((ShadowInteger)((TACLiteral)operand).getValue()).getValue();
+		return null;
+	}
+
+	/*
+	 * Follows a value through local variables and through conversions
+	 * between integer types that keep every value the same. An unsigned
+	 * conversion of a signed value of the same width is also allowed on the
+	 * outside, since it moves negative values past every length that the
+	 * result could be compared with.
+	 */
+	private static TACOperand resolveValue(TACOperand operand) {
+		TACOperand previous = null;
+		boolean outside = true;
+		while( operand != previous ) {
+			previous = operand;
+			operand = TACOperand.value(operand);
+			if( operand instanceof TACCast && ((TACCast)operand).getKind() == TACCast.Kind.PRIMITIVE_TO_PRIMITIVE ) {
+				TACCast cast = (TACCast) operand;
+				TACOperand source = cast.getOperand(0);
+				Type from = source.getType(), to = cast.getType();
+				if( from.isIntegral() && to.isIntegral() ) {
+					int fromWidth = Type.getWidth(source), toWidth = Type.getWidth(cast);
+					if( (toWidth > fromWidth && (from.isUnsigned() || to.isSigned())) ||
+							(toWidth == fromWidth && (from.isSigned() == to.isSigned() || outside && to.isUnsigned())) )
+						operand = source;
+				}
+			}
+			outside = false;
+		}
+		return operand;
+	}
+
+	/*
+	 * Follows an array through local variables and casts to other array
+	 * types. Objects in local variables are never propagated, but the store
+	 * or phi node that reaches a load still identifies its value.
+	 */
+	private static TACOperand resolveArray(TACOperand operand) {
+		TACOperand previous = null;
+		while( operand != previous ) {
+			previous = operand;
+			if( operand instanceof TACLocalLoad && ((TACLocalLoad)operand).getPreviousStore() != null )
+				operand = ((TACLocalLoad)operand).getPreviousStore();
+			if( operand instanceof TACUpdate )
+				operand = ((TACUpdate)operand).getValue();
+			if( operand instanceof TACCast && ((TACCast)operand).getKind() == TACCast.Kind.OBJECT_TO_OBJECT )
+				operand = ((TACCast)operand).getOperand(0);
+		}
+		return operand;
+	}
+
+	private Block getBlock(TACNode label) {
+		return nodeBlocks.get(label);
+	}
+}
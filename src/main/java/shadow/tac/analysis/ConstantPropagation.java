@@ -0,0 +1,393 @@
+package shadow.tac.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.ShadowException;
+import shadow.interpreter.ShadowBoolean;
+import shadow.interpreter.ShadowUndefined;
+import shadow.interpreter.ShadowValue;
+import shadow.interpreter.TACInterpreter;
+import shadow.tac.TACVariable;
+import shadow.tac.analysis.ControlFlowGraph.Block;
+import shadow.tac.nodes.TACBinary;
+import shadow.tac.nodes.TACBranch;
+import shadow.tac.nodes.TACCast;
+import shadow.tac.nodes.TACLabel;
+import shadow.tac.nodes.TACLiteral;
+import shadow.tac.nodes.TACLocalLoad;
+import shadow.tac.nodes.TACLocalStore;
+import shadow.tac.nodes.TACNode;
+import shadow.tac.nodes.TACOperand;
+import shadow.tac.nodes.TACPhi;
+import shadow.tac.nodes.TACSwitch;
+import shadow.tac.nodes.TACUnary;
+
+/**
+ * Finds the values that are constant and the edges that can be taken in a
+ * {@link ControlFlowGraph} in SSA form, using the sparse conditional constant
+ * propagation algorithm from "Constant Propagation with Conditional
+ * Branches" by Wegman and Zadeck.
+ * <p>
+ * Every value starts out unknown and every edge starts out unused. Starting
+ * from the root, a block is visited when one of its incoming edges is found
+ * to be used, and a value is visited again when one of its operands changes.
+ * A conditional branch only uses the edge picked by its condition when the
+ * condition is constant, and a phi node only merges the values coming in on
+ * edges that are used. Values only move from unknown to constant to
+ * varying, so each one changes at most twice, and the work done is roughly
+ * linear in the number of uses. Because values are assumed constant until
+ * shown otherwise, this finds constants (and dead branches) that depend on
+ * each other around loops, which repeatedly folding nodes in place cannot.
+ * <p>
+ * Variables that are garbage collected or used by <code>finally</code>
+ * blocks are always loaded from memory, so their values are treated as
+ * varying. Undefined values are also treated as varying, so that loads
+ * which might see them are still reported.
+ * <p>
+ * The results are a snapshot of the graph when it was analyzed.
+ */
+public class ConstantPropagation {
+	private static final Object VARYING = new Object();
+
+	private final ControlFlowGraph graph;
+	private final Map<TACNode, Block> blocks = new IdentityHashMap<>();
+	private final Map<TACOperand, List<TACNode>> users = new IdentityHashMap<>();
+	private final Map<Block, List<TACPhi>> phis = new IdentityHashMap<>();
+	// Absent values are unknown, others are constant ShadowValues or VARYING
+	private final Map<TACOperand, Object> values = new IdentityHashMap<>();
+	private final Map<Block, Set<Block>> executableEdges = new IdentityHashMap<>(); // Target to sources
+	private final Deque<Block> blockWorklist = new ArrayDeque<>();
+	private final Deque<TACNode> nodeWorklist = new ArrayDeque<>();
+
+	/**
+	 * Analyzes a control flow graph whose phi nodes have been added.
+	 * @param graph		graph to analyze
+	 */
+	public ConstantPropagation(ControlFlowGraph graph) {
+		this.graph = graph;
+		List<Block> order = graph.getReversePostorder();
+		for( Block block : order ) {
+			for( TACNode node : block ) {
+				blocks.put(node, block);
+				for( int i = 0; i < node.getNumOperands(); ++i )
+					addUser(node.getOperand(i), node);
+				if( node instanceof TACLocalLoad )
+					addUser(((TACLocalLoad)node).getPreviousStore(), node);
+				else if( node instanceof TACPhi ) {
+					for( TACOperand input : ((TACPhi)node).getPreviousStores().values() )
+						addUser(input, node);
+					if( !phis.containsKey(block) )
+						phis.put(block, new ArrayList<TACPhi>());
+					phis.get(block).add((TACPhi)node);
+				}
+			}
+		}
+
+		if( order.isEmpty() )
+			return;
+
+		Block root = order.get(0);
+		executableEdges.put(root, Collections.newSetFromMap(new IdentityHashMap<Block, Boolean>()));
+		blockWorklist.add(root);
+		boolean done = false;
+		while( !done ) {
+			while( !blockWorklist.isEmpty() || !nodeWorklist.isEmpty() ) {
+				if( !blockWorklist.isEmpty() ) {
+					for( TACNode node : blockWorklist.remove() )
+						visit(node);
+				}
+				else {
+					TACNode node = nodeWorklist.remove();
+					if( isExecutable(blocks.get(node)) )
+						visit(node);
+				}
+			}
+
+			/*
+			 * A branch on a value that never became known (because it
+			 * depends on values that are never defined) could go either way.
+			 * Its edges are added now and the search continues.
+			 */
+			done = true;
+			for( Block block : order ) {
+				if( isExecutable(block) && block.getLast() instanceof TACBranch ) {
+					TACBranch branch = (TACBranch) block.getLast();
+					if( branch.isConditional() && getValue(branch.getCondition()) == null ) {
+						values.put(branch.getCondition(), VARYING);
+						nodeWorklist.addAll(users.get(branch.getCondition()));
+						done = false;
+					}
+				}
+				else if( isExecutable(block) && block.getLast() instanceof TACSwitch ) {
+					TACSwitch switch_ = (TACSwitch) block.getLast();
+					if( getValue(switch_.getValue()) == null ) {
+						values.put(switch_.getValue(), VARYING);
+						nodeWorklist.addAll(users.get(switch_.getValue()));
+						done = false;
+					}
+				}
+			}
+		}
+	}
+
+	private void addUser(TACOperand operand, TACNode user) {
+		if( operand == null )
+			return;
+
+		List<TACNode> list = users.get(operand);
+		if( list == null ) {
+			list = new ArrayList<>(2);
+			users.put(operand, list);
+		}
+		list.add(user);
+	}
+
+	/**
+	 * Checks whether a block can be reached from the root.
+	 * @param block		block to check
+	 * @return			<code>true</code> if some path through the used edges
+	 * reaches the block
+	 */
+	public boolean isExecutable(Block block) {
+		return executableEdges.containsKey(block);
+	}
+
+	/**
+	 * Checks whether an edge can be taken.
+	 * @param from		block the edge leaves
+	 * @param to		block the edge enters
+	 * @return			<code>true</code> if the edge is used
+	 */
+	public boolean isExecutable(Block from, Block to) {
+		Set<Block> sources = executableEdges.get(to);
+		return sources != null && sources.contains(from);
+	}
+
+	/**
+	 * Gets the constant value of an operand.
+	 * @param operand	operand to check
+	 * @return			constant value, or <code>null</code> if the operand is
+	 * not known to be constant
+	 */
+	public ShadowValue getConstant(TACOperand operand) {
+		Object value = getValue(operand);
+		return value instanceof ShadowValue ? (ShadowValue) value : null;
+	}
+
+	private void addEdge(Block from, Block to) {
+		if( to == null )
+			return;
+
+		Set<Block> sources = executableEdges.get(to);
+		if( sources == null ) {
+			sources = Collections.newSetFromMap(new IdentityHashMap<Block, Boolean>());
+			executableEdges.put(to, sources);
+			sources.add(from);
+			blockWorklist.add(to);
+		}
+		else if( sources.add(from) && phis.containsKey(to) ) {
+			// Only the phi nodes in the block need to see the new edge
+			for( TACPhi phi : phis.get(to) )
+				visit(phi);
+		}
+	}
+
+	/*
+	 * Finds the value of a node from its operands. Branches add the edges
+	 * they can take instead.
+	 */
+	private void visit(TACNode node) {
+		if( node instanceof TACBranch ) {
+			visitBranch((TACBranch) node);
+			return;
+		}
+		else if( node instanceof TACSwitch ) {
+			visitSwitch((TACSwitch) node);
+			return;
+		}
+
+		if( node == blocks.get(node).getLast() ) {
+			// Other blocks (such as those ending in calls) can take every edge
+			Block block = blocks.get(node);
+			for( Block successor : block.getOutgoing() )
+				addEdge(block, successor);
+		}
+
+		if( !(node instanceof TACOperand) )
+			return;
+
+		TACOperand operand = (TACOperand) node;
+		Object value = evaluate(operand);
+		if( value == null )
+			return;
+
+		Object old = values.get(operand);
+		if( old == VARYING || (old != null && value != VARYING && TACLiteral.same((ShadowValue)old, (ShadowValue)value)) )
+			return;
+
+		values.put(operand, value);
+		List<TACNode> list = users.get(operand);
+		if( list != null )
+			nodeWorklist.addAll(list);
+	}
+
+	private void visitBranch(TACBranch branch) {
+		Block block = blocks.get(branch);
+		if( branch.isConditional() ) {
+			TACLabel trueLabel = branch.getTrueLabel();
+			TACLabel falseLabel = branch.getFalseLabel();
+			Object value = getValue(branch.getCondition());
+			if( value instanceof ShadowBoolean ) {
+				boolean condition = ((ShadowBoolean)value).getValue();
+				addEdge(block, graph.getBlock(condition ? trueLabel : falseLabel));
+			}
+			else if( value != null ) {
+				addEdge(block, graph.getBlock(trueLabel));
+				addEdge(block, graph.getBlock(falseLabel));
+			}
+
+			// Edges for exceptions thrown earlier in the block are always possible
+			for( Block successor : block.getOutgoing() )
+				if( successor.getLabel() != trueLabel && successor.getLabel() != falseLabel )
+					addEdge(block, successor);
+		}
+		else {
+			for( Block successor : block.getOutgoing() )
+				addEdge(block, successor);
+		}
+	}
+
+	private void visitSwitch(TACSwitch switch_) {
+		Block block = blocks.get(switch_);
+		Set<TACLabel> labels = new HashSet<TACLabel>(switch_.getCaseLabels());
+		labels.add(switch_.getDefault());
+		Object value = getValue(switch_.getValue());
+		TACLabel target = value instanceof ShadowValue ? switch_.getLabel((ShadowValue)value) : null;
+		if( target != null )
+			addEdge(block, graph.getBlock(target));
+		else if( value != null ) {
+			for( TACLabel label : labels )
+				addEdge(block, graph.getBlock(label));
+		}
+
+		// Edges for exceptions thrown earlier in the block are always possible
+		for( Block successor : block.getOutgoing() )
+			if( !labels.contains(successor.getLabel()) )
+				addEdge(block, successor);
+	}
+
+	/*
+	 * Gets the current value of an operand: null if unknown, a literal if
+	 * constant, and VARYING otherwise.
+	 */
+	private Object getValue(TACOperand operand) {
+		if( operand instanceof TACLiteral ) {
+			ShadowValue value = ((TACLiteral)operand).getValue();
+			return value instanceof ShadowUndefined ? VARYING : value;
+		}
+		if( !blocks.containsKey(operand) || !canBeConstant(operand) )
+			return VARYING;
+
+		return values.get(operand);
+	}
+
+	private static boolean canBeConstant(TACOperand operand) {
+		return operand instanceof TACLocalLoad || operand instanceof TACLocalStore ||
+				operand instanceof TACPhi || operand instanceof TACBinary || operand instanceof TACUnary ||
+				(operand instanceof TACCast && ((TACCast)operand).getKind() == TACCast.Kind.PRIMITIVE_TO_PRIMITIVE);
+	}
+
+	private static boolean isInMemory(TACVariable variable, TACOperand operand) {
+		return operand.isGarbageCollected() || variable.isFinallyVariable();
+	}
+
+	/*
+	 * Applies the transfer function for a node, returning null if the result
+	 * is still unknown.
+	 */
+	private Object evaluate(TACOperand node) {
+		if( !canBeConstant(node) )
+			return VARYING;
+
+		if( node instanceof TACLocalLoad ) {
+			TACLocalLoad load = (TACLocalLoad) node;
+			if( isInMemory(load.getVariable(), load) || load.getPreviousStore() == null )
+				return VARYING;
+			return getValue(load.getPreviousStore());
+		}
+		else if( node instanceof TACLocalStore ) {
+			TACLocalStore store = (TACLocalStore) node;
+			if( isInMemory(store.getVariable(), store) )
+				return VARYING;
+			return getValue(store.getOperand(0));
+		}
+		else if( node instanceof TACPhi )
+			return evaluatePhi((TACPhi) node);
+
+		// Operations are only folded once all their operands are constant
+		List<ShadowValue> operands = new ArrayList<>(2);
+		boolean unknown = false;
+		for( int i = 0; i < node.getNumOperands(); ++i ) {
+			Object value = getValue(node.getOperand(i));
+			if( value == VARYING )
+				return VARYING;
+			else if( value == null )
+				unknown = true;
+			else
+				operands.add((ShadowValue)value);
+		}
+
+		if( unknown )
+			return null;
+
+		try {
+			ShadowValue result;
+			if( node instanceof TACBinary ) {
+				TACBinary binary = (TACBinary) node;
+				result = TACInterpreter.evaluate(binary.getOperation(), operands.get(0), operands.get(1));
+			}
+			else if( node instanceof TACUnary )
+				result = TACInterpreter.evaluate(((TACUnary)node).getOperation(), operands.get(0));
+			else
+				result = operands.get(0).cast(node.getType());
+
+			return result == null ? VARYING : result;
+		}
+		catch( ShadowException e ) {
+			return VARYING; // Cannot be evaluated at compile time
+		}
+	}
+
+	private Object evaluatePhi(TACPhi phi) {
+		if( isInMemory(phi.getVariable(), phi) || phi.getPreviousStores().isEmpty() )
+			return VARYING;
+
+		Block block = blocks.get(phi);
+		Object result = null;
+		for( Map.Entry<TACLabel, TACOperand> entry : phi.getPreviousStores().entrySet() ) {
+			Block predecessor = entry.getKey() == null ? null : graph.getBlock(entry.getKey());
+			if( predecessor != null && !isExecutable(predecessor, block) )
+				continue;
+
+			Object value = getValue(entry.getValue());
+			if( value == null )
+				continue;
+			if( value == VARYING )
+				return VARYING;
+			if( result == null )
+				result = value;
+			else if( !TACLiteral.same((ShadowValue)result, (ShadowValue)value) )
+				return VARYING;
+		}
+
+		return result;
+	}
+}
@@ -2,7 +2,7 @@ package shadow.tac.analysis;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
@@ -19,6 +19,7 @@ import java.util.TreeSet;
 import shadow.Loggers;
 import shadow.interpreter.ShadowBoolean;
 import shadow.interpreter.ShadowNull;
+import shadow.interpreter.ShadowValue;
 import shadow.parse.Context;
 import shadow.parse.ShadowParser;
 import shadow.parse.ShadowParser.VariableDeclaratorContext;
@@ -43,6 +44,7 @@ import shadow.tac.nodes.TACLocalStore;
 import shadow.tac.nodes.TACMethodName;
 import shadow.tac.nodes.TACMethodPointer;
 import shadow.tac.nodes.TACMethodRef;
+import shadow.tac.nodes.TACNewArray;
 import shadow.tac.nodes.TACNode;
 import shadow.tac.nodes.TACOperand;
 import shadow.tac.nodes.TACParameter;
@@ -51,6 +53,7 @@ import shadow.tac.nodes.TACReference;
 import shadow.tac.nodes.TACResume;
 import shadow.tac.nodes.TACReturn;
 import shadow.tac.nodes.TACStore;
+import shadow.tac.nodes.TACSwitch;
 import shadow.tac.nodes.TACThrow;
 import shadow.tac.nodes.TACUpdate;
 import shadow.typecheck.ErrorReporter;
@@ -80,6 +83,12 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 	//Method signatures include information that identifies class
 	private Set<MethodSignature> usedPrivateMethods = new HashSet<>();
 	private Map<TACFinallyFunction, List<TACCallFinallyFunction>> finallyFunctionCalls = new HashMap<>();
+	// Analyses found on demand, forgotten whenever edges change
+	private DominatorTree dominatorTree = null;
+	private DominatorTree postDominatorTree = null;
+	private LoopNest loopNest = null;
+	private Liveness liveness = null;
+	private boolean branchesFolded = false; // Set when propagating constants removes an edge
 
 	/**
 	 * Create a control flow graph for a method.
@@ -134,6 +143,64 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 		return usedPrivateMethods;
 	}
 
+	/**
+	 * Gets the dominator tree for the graph, finding it if the edges have
+	 * changed since it was last found.
+	 * @return dominator tree
+	 */
+	public DominatorTree getDominatorTree() {
+		if( dominatorTree == null )
+			dominatorTree = new DominatorTree(this);
+		return dominatorTree;
+	}
+
+	/**
+	 * Gets the post-dominator tree for the graph, finding it if the edges
+	 * have changed since it was last found.
+	 * @return post-dominator tree
+	 */
+	public DominatorTree getPostDominatorTree() {
+		if( postDominatorTree == null )
+			postDominatorTree = DominatorTree.findPostDominators(this);
+		return postDominatorTree;
+	}
+
+	/**
+	 * Gets the natural loops in the graph, finding them if the edges have
+	 * changed since they were last found.
+	 * @return loop nest
+	 */
+	public LoopNest getLoopNest() {
+		if( loopNest == null )
+			loopNest = new LoopNest(getDominatorTree());
+		return loopNest;
+	}
+
+	/**
+	 * Gets the live variables for each block, finding them if the edges have
+	 * changed since they were last found. Code that adds or removes loads
+	 * and stores without changing edges should call
+	 * {@link #clearAnalyses()} first.
+	 * @return live variables
+	 */
+	public Liveness getLiveness() {
+		if( liveness == null )
+			liveness = new Liveness(this);
+		return liveness;
+	}
+
+	/**
+	 * Forgets the dominator trees, loops, and live variables found so far,
+	 * so that they are found again the next time they are needed. This
+	 * happens automatically when edges are added or removed.
+	 */
+	public void clearAnalyses() {
+		dominatorTree = null;
+		postDominatorTree = null;
+		loopNest = null;
+		liveness = null;
+	}
+
 	/*
 	 * Adds edges from a block to all blocks it branches to.
 	 */
@@ -184,6 +251,12 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 						}
 				}
 			}
+			else if( node instanceof TACSwitch ) {
+				TACSwitch switch_ = (TACSwitch) node;
+				block.addBranch(nodeBlocks.get(switch_.getDefault()));
+				for( TACLabel label : switch_.getCaseLabels() )
+					block.addBranch(nodeBlocks.get(label));
+			}
 			// Handles cases where a method call can cause a catchable exception
 			else if( node instanceof TACCall ) {
 				TACCall call = (TACCall) node;
@@ -659,19 +732,259 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 	 * This method *must* be called in order to create the phi nodes
 	 * needed for constant propagation, checking for undefined variables,
 	 * and proper LLVM IR generation. 
+	 * 
+	 * Phi nodes are placed on the iterated dominance frontiers of the
+	 * blocks that store each variable, but only where the variable is live,
+	 * giving pruned SSA form. Loads are then linked to the store or phi
+	 * that reaches them by walking the dominator tree. Only blocks that
+	 * are reachable from the root are considered, so unreachable code
+	 * should be removed first.
 	 */
 	public void addPhiNodes() {
-		Map<Block,Map<TACVariable,TACLocalStorage>> lastDefinitions = new HashMap<Block,Map<TACVariable, TACLocalStorage>>();
+		DominatorTree dominators = getDominatorTree();
+		List<Block> blocks = dominators.getBlocks();
+		int size = blocks.size();
+		if( size == 0 )
+			return;
+
+		//find the blocks that store each variable and those that load it before storing it
+		Map<TACVariable, BitSet> stores = new HashMap<TACVariable, BitSet>();
+		Map<TACVariable, BitSet> exposedLoads = new HashMap<TACVariable, BitSet>();
+		for( int i = 0; i < size; ++i ) {
+			Set<TACVariable> stored = new HashSet<TACVariable>();
+			for( TACNode node : blocks.get(i) ) {
+				if( node instanceof TACLocalStorage ) {
+					TACVariable variable = ((TACLocalStorage)node).getVariable();
+					stored.add(variable);
+					getBlockSet(stores, variable, size).set(i);
+				}
+				else if( node instanceof TACLocalLoad ) {
+					TACVariable variable = ((TACLocalLoad)node).getVariable();
+					if( !stored.contains(variable) )
+						getBlockSet(exposedLoads, variable, size).set(i);
+				}
+			}
+		}
+
+		//place phi nodes where they are needed
+		List<List<TACPhi>> phis = new ArrayList<List<TACPhi>>(size);
+		for( int i = 0; i < size; ++i )
+			phis.add(new ArrayList<TACPhi>());
+
+		List<BitSet> frontiers = dominators.getFrontiers();
+		for( Entry<TACVariable, BitSet> entry : exposedLoads.entrySet() ) {
+			TACVariable variable = entry.getKey();
+			BitSet storing = stores.get(variable);
+			if( storing == null )
+				storing = new BitSet(size);
+			BitSet live = getLiveBlocks(blocks, dominators, entry.getValue(), storing);
+
+			//a variable live at the root is undefined on some path,
+			//represented by a phi with no previous store on that path			
+			BitSet placed = new BitSet(size);
+			if( live.get(0) ) {
+				placed.set(0);
+				phis.get(0).add(createPhi(blocks.get(0), variable));
+			}
+
+			Deque<Integer> worklist = new ArrayDeque<Integer>();
+			for( int i = storing.nextSetBit(0); i >= 0; i = storing.nextSetBit(i + 1) )
+				worklist.add(i);
+			if( live.get(0) && !storing.get(0) )
+				worklist.add(0);
+
+			BitSet visited = new BitSet(size);
+			while( !worklist.isEmpty() ) {
+				BitSet frontier = frontiers.get(worklist.removeFirst());
+				for( int i = frontier.nextSetBit(0); i >= 0; i = frontier.nextSetBit(i + 1) ) {
+					if( !visited.get(i) ) {
+						visited.set(i);
+						if( live.get(i) && !placed.get(i) ) {
+							placed.set(i);
+							phis.get(i).add(createPhi(blocks.get(i), variable));
+						}
+						if( !storing.get(i) )
+							worklist.add(i);
+					}
+				}
+			}
+		}
+
+		renameVariables(dominators, phis, stores);
+	}
 
-		Collection<Block> blocks = nodeBlocks.values();				
+	private static BitSet getBlockSet(Map<TACVariable, BitSet> sets, TACVariable variable, int size) {
+		BitSet set = sets.get(variable);
+		if( set == null ) {
+			set = new BitSet(size);
+			sets.put(variable, set);
+		}
+		return set;
+	}
 
-		//find the last definition of every variable in every block
-		for( Block block : blocks )
-			lastDefinitions.put(block, block.getLastStores());		
+	/*
+	 * Finds the blocks where a variable is live on entry: those that load it
+	 * before storing it, and those with a path to such a load that does not
+	 * store the variable.
+	 */
+	private static BitSet getLiveBlocks(List<Block> blocks, DominatorTree dominators, BitSet exposedLoads, BitSet stores) {
+		BitSet live = (BitSet) exposedLoads.clone();
+		Deque<Integer> worklist = new ArrayDeque<Integer>();
+		for( int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1) )
+			worklist.add(i);
+
+		while( !worklist.isEmpty() ) {
+			for( Block predecessor : blocks.get(worklist.removeFirst()).incoming ) {
+				int index = dominators.indexOf(predecessor);
+				if( index != -1 && !live.get(index) && !stores.get(index) ) {
+					live.set(index);
+					worklist.add(index);
+				}
+			}
+		}
 
-		//use those definitions when constructing phi nodes
-		for( Block block : blocks )
-			block.addPhiNodes(lastDefinitions);
+		return live;
+	}
+
+	private static TACPhi createPhi(Block block, TACVariable variable) {
+		TACPhi phi = new TACPhi(block.getLabel().getNext(), variable);
+		if( variable.needsGarbageCollection() )
+			phi.setGarbageCollected(true);
+		return phi;
+	}
+
+	/*
+	 * Walks the dominator tree, keeping track of the store or phi that
+	 * reaches each point for every variable. Each load is linked to the
+	 * store that reaches it, and each phi gets the stores that reach the
+	 * ends of the blocks before it.
+	 */
+	private void renameVariables(DominatorTree dominators, List<List<TACPhi>> phis, Map<TACVariable, BitSet> stores) {
+		List<Block> blocks = dominators.getBlocks();
+		Map<TACVariable, TACLocalStorage> reaching = new HashMap<TACVariable, TACLocalStorage>();
+		Map<TACVariable, BitSet> reachedByStores = new HashMap<TACVariable, BitSet>();
+
+		//an explicit stack, since the tree can be deep for long methods
+		Deque<Block> stack = new ArrayDeque<Block>();
+		Deque<Map<TACVariable, TACLocalStorage>> saved = new ArrayDeque<Map<TACVariable, TACLocalStorage>>();
+		Deque<Iterator<Block>> children = new ArrayDeque<Iterator<Block>>();
+
+		Block root = blocks.get(0);
+		stack.push(root);
+		saved.push(renameVariables(root, dominators, phis, stores, reaching, reachedByStores));
+		children.push(dominators.getChildren(root).iterator());
+
+		while( !stack.isEmpty() ) {
+			Iterator<Block> iterator = children.peek();
+			if( iterator.hasNext() ) {
+				Block child = iterator.next();
+				stack.push(child);
+				saved.push(renameVariables(child, dominators, phis, stores, reaching, reachedByStores));
+				children.push(dominators.getChildren(child).iterator());
+			}
+			else {
+				//restore the stores that reached the start of the block
+				for( Entry<TACVariable, TACLocalStorage> entry : saved.pop().entrySet() ) {
+					if( entry.getValue() == null )
+						reaching.remove(entry.getKey());
+					else
+						reaching.put(entry.getKey(), entry.getValue());
+				}
+				stack.pop();
+				children.pop();
+			}
+		}
+	}
+
+	/*
+	 * Links the loads in a single block and fills in the phis of the blocks
+	 * after it. Returns the stores that reached the start of the block for
+	 * every variable it changed.
+	 */
+	private Map<TACVariable, TACLocalStorage> renameVariables(Block block, DominatorTree dominators, List<List<TACPhi>> phis,
+			Map<TACVariable, BitSet> stores, Map<TACVariable, TACLocalStorage> reaching, Map<TACVariable, BitSet> reachedByStores) {
+		Map<TACVariable, TACLocalStorage> saved = new HashMap<TACVariable, TACLocalStorage>();
+		for( TACPhi phi : phis.get(dominators.indexOf(block)) )
+			setReaching(phi, reaching, saved);
+
+		Map<TACVariable, TACLocalStorage> predecessors = new HashMap<TACVariable, TACLocalStorage>();
+		Set<TACVariable> loaded = new HashSet<TACVariable>();
+		for( TACNode node : block ) {
+			if( node instanceof TACLocalStorage ) {  //both TACLocalStore and TACPhi
+				TACLocalStorage store = (TACLocalStorage)node;
+				TACVariable variable = store.getVariable();
+
+				// Useful to know if there was a previous store
+				// primarily for GC: no need to decrement something that was never assigned 
+				if( node instanceof TACLocalStore ) {
+					TACLocalStore localStore = (TACLocalStore) node;
+					if( predecessors.get(variable) != null ) {
+						TACOperand value = predecessors.get(variable).getValue();
+						if( !(value instanceof TACLiteral) || !(((TACLiteral)value).getValue() instanceof ShadowNull) )
+							localStore.setPreviousStore(true);
+					}
+					else if( loaded.contains(variable) || hasPreviousStore(block, variable, dominators, stores, reachedByStores) )
+						localStore.setPreviousStore(true);
+				}
+
+				predecessors.put(variable, store);
+				setReaching(store, reaching, saved);
+			}
+			else if( node instanceof TACLocalLoad ) {
+				TACLocalLoad load = (TACLocalLoad)node;
+				TACVariable variable = load.getVariable();
+				TACLocalStorage store = predecessors.get(variable);
+				if( store == null ) {
+					loaded.add(variable);
+					store = reaching.get(variable);
+				}
+				load.setPreviousStore(store);
+			}
+		}
+
+		for( Block successor : block.outgoing )
+			for( TACPhi phi : phis.get(dominators.indexOf(successor)) )
+				phi.addPreviousStore(block.getLabel(), reaching.get(phi.getVariable()));
+
+		return saved;
+	}
+
+	private static void setReaching(TACLocalStorage store, Map<TACVariable, TACLocalStorage> reaching, Map<TACVariable, TACLocalStorage> saved) {
+		TACVariable variable = store.getVariable();
+		TACLocalStorage old = reaching.put(variable, store);
+		if( !saved.containsKey(variable) )
+			saved.put(variable, old);
+	}
+
+	/*
+	 * Checks whether a variable could have been stored before the start of a
+	 * block, that is, whether the block can be reached by following at
+	 * least one edge from a block that stores the variable.
+	 */
+	private static boolean hasPreviousStore(Block block, TACVariable variable, DominatorTree dominators,
+			Map<TACVariable, BitSet> stores, Map<TACVariable, BitSet> reachedByStores) {
+		BitSet reached = reachedByStores.get(variable);
+		if( reached == null ) {
+			List<Block> blocks = dominators.getBlocks();
+			reached = new BitSet(blocks.size());
+			BitSet storing = stores.get(variable);
+			Deque<Integer> worklist = new ArrayDeque<Integer>();
+			for( int i = storing.nextSetBit(0); i >= 0; i = storing.nextSetBit(i + 1) )
+				worklist.add(i);
+
+			while( !worklist.isEmpty() ) {
+				for( Block successor : blocks.get(worklist.removeFirst()).outgoing ) {
+					int index = dominators.indexOf(successor);
+					if( index != -1 && !reached.get(index) ) {
+						reached.set(index);
+						worklist.add(index);
+					}
+				}
+			}
+			reachedByStores.put(variable, reached);
+		}
+
+		return reached.get(dominators.indexOf(block));
 	}
 
 
@@ -680,25 +993,37 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 	 * This method is not optional if we want to produce legal LLVM IR.
 	 * Propagating constants will also find undefined local variables,
 	 * adding appropriate error messages to the error list.
-	 * 
-	 * @return true if constants propagated more deeply than before 
-	 */	
+	 *
+	 * Constants and the edges that can be taken are first found together
+	 * by sparse conditional constant propagation. Branches on constants are
+	 * folded and phi nodes that are constant are reduced to a single value,
+	 * after which the nodes are updated in place, which copies values into
+	 * the nodes that use them and marks loads of undefined values. Since the
+	 * constants are already known, updating settles within a few passes.
+	 *
+	 * @return true if any branches were folded, which can leave code
+	 * unreachable
+	 */
 	public boolean propagateConstants()
-	{		
+	{
 		List<Block> blocks = getReversePostorder();
+		branchesFolded = false;
+
+		ConstantPropagation constants = new ConstantPropagation(this);
+		for( Block block : blocks ) {
+			if( constants.isExecutable(block) )
+				block.applyConstants(constants);
+		}
 
 		boolean done = false;
-		boolean changed = false;
 		Set<TACLocalLoad> undefinedLoads = new HashSet<TACLocalLoad>();
 
 		while( !done ) {
 			done = true;
 			undefinedLoads.clear();
 			for( Block block : blocks )
-				if( block.propagateValues(undefinedLoads) ) {
+				if( block.propagateValues(undefinedLoads) )
 					done = false;
-					changed = true;
-				}
 		}
 
 		for( TACLocalLoad undefined : undefinedLoads )
@@ -707,7 +1032,92 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 			if( !undefined.getVariable().getOriginalName().startsWith("_exception") && !undefined.getVariable().getOriginalName().equals("return")  && !undefined.getVariable().getOriginalName().startsWith("_return")  )
 				addError(undefined.getContext(), Error.UNDEFINED_VARIABLE, "Variable " + undefined.getVariable().getOriginalName() + " may not have been defined before use");
 
-		return changed;
+		return branchesFolded;
+	}
+
+	/**
+	 * Allocates the arrays that never leave the method on the stack instead
+	 * of the heap, as found by {@link EscapeAnalysis}.
+	 */
+	public void allocateArraysOnStack() {
+		EscapeAnalysis escapes = new EscapeAnalysis(this);
+		for( TACNewArray array : escapes.getStackArrays() )
+			array.setStackLength(escapes.getStackLength(array));
+	}
+
+	/**
+	 * Marks the method calls that can only reach a single implementation,
+	 * as found by {@link Devirtualization}, so that they are called directly
+	 * instead of through the method table.
+	 */
+	public void devirtualizeCalls() {
+		for( TACMethodName method : new Devirtualization(this).getDirectMethods() )
+			method.setDirect(true);
+	}
+
+	/**
+	 * Removes the array bounds checks that always pass, as found by
+	 * {@link BoundsCheckElimination}, by branching directly past them.
+	 *
+	 * @return true if any checks were removed, which leaves the code that
+	 * throws their exceptions unreachable
+	 */
+	public boolean removeBoundsChecks() {
+		Set<TACBranch> checks = new BoundsCheckElimination(this).getPassingChecks();
+		for( Block block : this )
+			if( checks.contains(block.getLast()) )
+				block.simplifyBranch((TACBranch)block.getLast(), true);
+
+		cachedString = null;
+		return !checks.isEmpty();
+	}
+
+	/**
+	 * Removes the comparisons with <code>null</code> whose outcome is
+	 * already known, as found by {@link NullCheckElimination}, by branching
+	 * directly to the side that is always taken.
+	 *
+	 * @return true if any checks were removed, which can leave the code
+	 * that handles <code>null</code> values unreachable
+	 */
+	public boolean removeNullChecks() {
+		Map<TACBranch, Boolean> checks = new NullCheckElimination(this).getKnownChecks();
+		for( Block block : this )
+			if( checks.containsKey(block.getLast()) )
+				block.simplifyBranch((TACBranch)block.getLast(), checks.get(block.getLast()));
+
+		cachedString = null;
+		return !checks.isEmpty();
+	}
+
+	/**
+	 * Removes unreachable code without reporting it as an error, propagating
+	 * constants again after each removal until nothing changes. This is
+	 * used after removing checks, since the code they cut off is only
+	 * unreachable because of what the compiler was able to prove. Any code
+	 * that was already unreachable must have been removed before.
+	 */
+	public void removeUnreachableCodeQuietly() {
+		boolean changed = true;
+		while( changed ) {
+			Set<Block> reachable = new HashSet<Block>();
+			findReachable(root, reachable);
+			for( Block block : nodeBlocks.values() )
+				if( !reachable.contains(block) )
+					for( TACNode node : block )
+						node.setContext(null);
+
+			changed = removeUnreachableCode();
+			if( changed )
+				changed = propagateConstants();
+		}
+	}
+
+	/*
+	 * Gets the block that starts with a label.
+	 */
+	Block getBlock(TACLabel label) {
+		return nodeBlocks.get(label);
 	}
 
 	@Override
@@ -1277,155 +1687,121 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 						// Simplifying branch
 						if( update.getValue() instanceof TACLiteral ) {
 							TACLiteral literal = (TACLiteral) update.getValue();
-							boolean value = ((ShadowBoolean)literal.getValue()).getValue();
-							TACLabel trueLabel = branch.getTrueLabel();
-							TACLabel falseLabel = branch.getFalseLabel();							
-							if( value ) {
-								branch.convertToDirect(trueLabel);
-								Block falseBlock = nodeBlocks.get(falseLabel);
-								outgoing.remove(falseBlock);
-								falseBlock.incoming.remove(this);
-
-								falseBlock.removePhiInput(this);								
-							}
-							else {								
-								branch.convertToDirect(falseLabel);
-								Block trueBlock = nodeBlocks.get(trueLabel);
-								outgoing.remove(trueBlock);
-								trueBlock.incoming.remove(this);
-
-								trueBlock.removePhiInput(this);
-							}
+							simplifyBranch(branch, ((ShadowBoolean)literal.getValue()).getValue());
 							changed = true;
 						}
 					}
 				}
+				else if( node instanceof TACSwitch ) {
+					TACSwitch switch_ = (TACSwitch) node;
+					TACOperand value = switch_.getValue();
+					if( value instanceof TACUpdate && ((TACUpdate)value).update(currentlyUpdating) )
+						changed = true;
+
+					TACOperand literal = TACOperand.value(value);
+					if( literal instanceof TACLiteral && !switch_.getCaseLabels().isEmpty() &&
+							simplifySwitch(switch_, ((TACLiteral)literal).getValue()) )
+						changed = true;
+				}
 			}
 
 			return changed;
 		}
 
-		public void removeEdges() {
-			for( Block block : incoming )
-				block.outgoing.remove(this);
-			for( Block block : outgoing )	
-				block.incoming.remove(this);
-		}
+		/*
+		 * Uses the results of sparse conditional constant propagation:
+		 * phi nodes with constant values keep only those values, and a
+		 * conditional branch with a constant condition becomes direct.
+		 */
+		private void applyConstants(ConstantPropagation constants) {
+			List<TACPhi> phis = new ArrayList<TACPhi>();
+			for( TACNode node : this )
+				if( node instanceof TACPhi )
+					phis.add((TACPhi)node);
+
+			for( TACPhi phi : phis ) {
+				ShadowValue value = constants.getConstant(phi);
+				if( value != null ) {
+					Map<TACLabel, TACOperand> previousStores = phi.getPreviousStores();
+					previousStores.clear();
+					previousStores.put(null, new TACLiteral(phi, value));
+				}
+			}
 
-		public Block(TACLabel label) {
-			this.label = label;
+			if( lastNode instanceof TACBranch ) {
+				TACBranch branch = (TACBranch) lastNode;
+				if( branch.isConditional() ) {
+					ShadowValue condition = constants.getConstant(branch.getCondition());
+					if( condition instanceof ShadowBoolean )
+						simplifyBranch(branch, ((ShadowBoolean)condition).getValue());
+				}
+			}
+			else if( lastNode instanceof TACSwitch ) {
+				TACSwitch switch_ = (TACSwitch) lastNode;
+				ShadowValue value = constants.getConstant(switch_.getValue());
+				if( value != null && !switch_.getCaseLabels().isEmpty() )
+					simplifySwitch(switch_, value);
+			}
 		}
 
 		/*
-		 * Finds the last time that each variable in a block is stored to. 
+		 * Turns a conditional branch into a direct branch to the side chosen
+		 * by its condition, removing the edge to the other side.
 		 */
-		public Map<TACVariable, TACLocalStorage> getLastStores() {
-			Map<TACVariable,TACLocalStorage> stores = new HashMap<TACVariable, TACLocalStorage>();
-			for( TACNode node : this ) {				
-				if( node instanceof TACLocalStorage ) {
-					TACLocalStorage store = (TACLocalStorage)node;
-					stores.put(store.getVariable(), store);					 
-				}				
+		private void simplifyBranch(TACBranch branch, boolean value) {
+			TACLabel target = value ? branch.getTrueLabel() : branch.getFalseLabel();
+			TACLabel other = value ? branch.getFalseLabel() : branch.getTrueLabel();
+			branch.convertToDirect(target);
+
+			Block otherBlock = nodeBlocks.get(other);
+			if( otherBlock != nodeBlocks.get(target) ) {
+				outgoing.remove(otherBlock);
+				otherBlock.incoming.remove(this);
+				clearAnalyses();
+
+				otherBlock.removePhiInput(this);
 			}
-			return stores;
-		}	
+			branchesFolded = true;
+		}
 
 		/*
-		 * Finds the previous time that a variable has been stored to.
-		 * If none, a phi node is inserted. 
+		 * Turns a switch into a direct branch to the label chosen by its
+		 * value, removing the edges to the other labels.
 		 */
-		private TACLocalStorage getPreviousStore(TACVariable variable, Map<Block, Map<TACVariable, TACLocalStorage>> lastStores ) {
-			Map<TACVariable, TACLocalStorage> stores = lastStores.get(this);
-			TACLocalStorage store = stores.get(variable);
-			//defined by block
-			if( store != null )
-				return store;
-
-			//else insert phi node after label
-			TACPhi phi = new TACPhi(label.getNext(), variable);
-			if( variable.needsGarbageCollection() )
-				phi.setGarbageCollected(true);		
-			stores.put(variable, phi);
-			for( Block block : incoming )
-				phi.addPreviousStore(block.getLabel(), block.getPreviousStore(variable, lastStores));
-			return phi;
-		}	
-
-
+		private boolean simplifySwitch(TACSwitch switch_, ShadowValue value) {
+			TACLabel target = switch_.getLabel(value);
+			if( target == null )
+				return false;
 
-		//uses a BFS to see if a variable had a previous assignment
-		public boolean hasPreviousStore(TACVariable variable, Map<Block, Map<TACVariable, TACLocalStorage>> lastStores) {					
-			Set<Block> visited = new HashSet<Block>();
-			Deque<Block> queue = new ArrayDeque<Block>();
-			queue.addLast(this); //start with current block
+			Set<TACLabel> others = new HashSet<TACLabel>(switch_.getCaseLabels());
+			others.add(switch_.getDefault());
+			switch_.convertToDirect(target);
 
-			while( !queue.isEmpty() ) {
-				Block block = queue.removeFirst();
-				visited.add(block);
+			Block targetBlock = nodeBlocks.get(target);
+			for( TACLabel other : others ) {
+				Block otherBlock = nodeBlocks.get(other);
+				if( otherBlock != targetBlock && outgoing.remove(otherBlock) ) {
+					otherBlock.incoming.remove(this);
+					clearAnalyses();
 
-				for( Block parent : block.incoming) {
-					if( lastStores.get(parent).containsKey(variable) )
-						return true;
-					else if( !visited.contains(parent) )
-						queue.addLast(parent);				
+					otherBlock.removePhiInput(this);
 				}
-			}		
-
-			return false;
+			}
+			branchesFolded = true;
+			return true;
 		}
 
-
-		/*
-		 * Adds phi nodes as needed to the current block based on the last
-		 * definitions of variables in other blocks.
-		 */
-		public void addPhiNodes(Map<Block, Map<TACVariable, TACLocalStorage>> lastStores) {
-			Map<TACVariable, TACLocalStorage> stores = lastStores.get(this);
-			Map<TACVariable,TACLocalStorage> predecessors = new HashMap<TACVariable, TACLocalStorage>();
-
-			for( TACNode node : this )	{		
-				if( node instanceof TACLocalStorage ) {  //both TACLocalStore and TACPhiStore
-					TACLocalStorage store = (TACLocalStorage)node;
-					TACVariable variable = store.getVariable();
-
-					// Useful to know if there was a previous store
-					// primarily for GC: no need to decrement something that was never assigned 
-					if( node instanceof TACLocalStore ) {
-						TACLocalStore localStore = (TACLocalStore) node;
-						if( predecessors.get(variable) != null ) {
-							TACOperand value = predecessors.get(variable).getValue();
-							if( !(value instanceof TACLiteral) || !(((TACLiteral)value).getValue() instanceof ShadowNull) )
-								localStore.setPreviousStore(true);
-						}
-						else if( hasPreviousStore(variable, lastStores) )
-							localStore.setPreviousStore(true);
-
-					}
-
-					predecessors.put(variable, store);
-				}
-				else if( node instanceof TACLocalLoad ) {
-					TACLocalLoad load = (TACLocalLoad)node;					
-					TACVariable variable = load.getVariable();
-					TACOperand store = predecessors.get(variable); 
-					if( store == null ) {
-						//add phi
-						TACPhi phi = new TACPhi(label.getNext(), variable);
-						if( variable.needsGarbageCollection() )
-							phi.setGarbageCollected(true);		
-						if( !stores.containsKey(variable) )
-							stores.put(variable, phi);
-						predecessors.put(variable, phi);
-						for( Block block : incoming )
-							phi.addPreviousStore(block.getLabel(), block.getPreviousStore(variable, lastStores));							
-						load.setPreviousStore(phi);
-					}
-					else
-						load.setPreviousStore(store);
-				}
-			}					
+		public void removeEdges() {
+			for( Block block : incoming )
+				block.outgoing.remove(this);
+			for( Block block : outgoing )
+				block.incoming.remove(this);
+			clearAnalyses();
 		}
 
+		public Block(TACLabel label) {
+			this.label = label;
+		}
 
 		/*
 		 * Changes to phi nodes used for indirect branches may have been taken place.
@@ -1458,6 +1834,7 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 							outgoing.remove(block);
 							block.incoming.remove(this);							
 						}						
+						clearAnalyses();
 					}
 				}
 			}
@@ -1465,6 +1842,11 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 			return changed;
 		}
 
+		public Set<Block> getIncoming()
+		{
+			return incoming;
+		}
+
 		public Set<Block> getOutgoing()
 		{
 			return outgoing;
@@ -1596,6 +1978,7 @@ public class ControlFlowGraph extends ErrorReporter implements Iterable<ControlF
 			if( target != null ) {
 				outgoing.add(target);
 				target.incoming.add(this);
+				clearAnalyses();
 			}
 		}
 
@@ -0,0 +1,232 @@
+package shadow.tac.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.tac.TACVariable;
+import shadow.tac.analysis.ControlFlowGraph.Block;
+import shadow.tac.nodes.TACCall;
+import shadow.tac.nodes.TACCast;
+import shadow.tac.nodes.TACLocalLoad;
+import shadow.tac.nodes.TACLocalStore;
+import shadow.tac.nodes.TACMethodName;
+import shadow.tac.nodes.TACNewObject;
+import shadow.tac.nodes.TACNode;
+import shadow.tac.nodes.TACOperand;
+import shadow.typecheck.type.ClassType;
+import shadow.typecheck.type.MethodSignature;
+import shadow.typecheck.type.SingletonType;
+import shadow.typecheck.type.Type;
+
+/**
+ * Finds the method calls in a {@link ControlFlowGraph} that can only reach
+ * a single implementation, so that they can be called directly instead of
+ * through the method table.
+ * <p>
+ * Calls on locked classes, locked methods, private methods, and singletons
+ * are already direct. Beyond those, a call has a single target if:
+ * <ul>
+ * <li>The object is known to have been created by <code>create</code> on an
+ * exact class, directly or through local variables that only ever hold
+ * objects created from that class, and that class does not replace the
+ * method with a different one.</li>
+ * <li>The class of the method is private (or inside a private class), so
+ * every class that could extend it is in the same file, and none of them
+ * overrides the method.</li>
+ * </ul>
+ * Since files are compiled separately, classes that are visible to other
+ * files can always gain new children, so other calls are left alone.
+ * <p>
+ * The results are a snapshot of the graph when it was analyzed.
+ */
+public class Devirtualization {
+	private final Set<TACMethodName> directMethods = Collections.newSetFromMap(new IdentityHashMap<TACMethodName, Boolean>());
+	// Exact classes of the objects held by local variables, or null when unknown
+	private final Map<TACVariable, ClassType> variableTypes = new IdentityHashMap<>();
+	// Classes declared in the file, used when looking for overriding methods
+	private List<ClassType> moduleClasses = null;
+	private final Map<Type, List<MethodSignature>> methodTables = new IdentityHashMap<>();
+
+	/**
+	 * Analyzes the method calls in a control flow graph.
+	 * @param graph		graph to analyze
+	 */
+	public Devirtualization(ControlFlowGraph graph) {
+		findVariableTypes(graph);
+		Type moduleType = graph.getMethod().getSignature().getOuter();
+		while( moduleType.hasOuter() )
+			moduleType = moduleType.getOuter();
+
+		for( Block block : graph )
+			for( TACNode node : block )
+				if( node instanceof TACMethodName ) {
+					TACMethodName method = (TACMethodName) node;
+					if( isVirtual(method) && hasSingleTarget(method, moduleType) )
+						directMethods.add(method);
+				}
+	}
+
+	/**
+	 * Gets the methods that can be called directly.
+	 * @return methods with a single possible implementation
+	 */
+	public Set<TACMethodName> getDirectMethods() {
+		return Collections.unmodifiableSet(directMethods);
+	}
+
+	/*
+	 * Finds the variables that only ever hold objects created from a single
+	 * class. Each variable starts with no known class, and stores can only
+	 * narrow it down to one class or rule it out, so this settles quickly.
+	 */
+	private void findVariableTypes(ControlFlowGraph graph) {
+		Set<TACVariable> unknown = Collections.newSetFromMap(new IdentityHashMap<TACVariable, Boolean>());
+		boolean changed = true;
+		while( changed ) {
+			changed = false;
+			for( Block block : graph ) {
+				for( TACNode node : block ) {
+					if( node instanceof TACLocalStore ) {
+						TACLocalStore store = (TACLocalStore) node;
+						TACVariable variable = store.getVariable();
+						if( unknown.contains(variable) )
+							continue;
+
+						ClassType type = getExactType(store.getValue());
+						ClassType previous = variableTypes.get(variable);
+						if( type == null || (previous != null && !previous.equals(type)) ) {
+							variableTypes.remove(variable);
+							unknown.add(variable);
+							changed = true;
+						}
+						else if( previous == null ) {
+							variableTypes.put(variable, type);
+							changed = true;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Gets the class an object was created from, if it is known. Variables
+	 * that have not been ruled out yet are trusted, which is only safe once
+	 * all of their stores have been seen.
+	 */
+	private ClassType getExactType(TACOperand operand) {
+		operand = removeObjectCasts(operand);
+		if( operand instanceof TACNewObject ) {
+			Type type = ((TACNewObject)operand).getClassType();
+			if( type instanceof ClassType )
+				return (ClassType) type;
+		}
+		else if( operand instanceof TACCall ) {
+			// Creates return the object they are given
+			TACCall call = (TACCall) operand;
+			if( call.getMethodRef() instanceof TACMethodName && !call.isDelegatedCreate() &&
+					((TACMethodName)call.getMethodRef()).getSignature().isCreate() &&
+					removeObjectCasts(call.getPrefix()) instanceof TACNewObject )
+				return getExactType(call.getPrefix());
+		}
+		else if( operand instanceof TACLocalLoad )
+			return variableTypes.get(((TACLocalLoad)operand).getVariable());
+
+		return null;
+	}
+
+	private static TACOperand removeObjectCasts(TACOperand operand) {
+		operand = TACOperand.value(operand);
+		while( operand instanceof TACCast && ((TACCast)operand).getKind() == TACCast.Kind.OBJECT_TO_OBJECT )
+			operand = TACOperand.value(((TACCast)operand).getOperand(0));
+		return operand;
+	}
+
+	/*
+	 * Whether a method would be looked up in the method table, matching
+	 * the conditions used when generating code.
+	 */
+	private static boolean isVirtual(TACMethodName method) {
+		Type outer = method.getOuterType();
+		MethodSignature signature = method.getSignature();
+		return method.hasPrefix() && !method.isSuper() && !method.isDirect() &&
+				outer instanceof ClassType && !(outer instanceof SingletonType) && !outer.isPrimitive() &&
+				!outer.getModifiers().isLocked() && !method.getType().getModifiers().isLocked() &&
+				!method.getType().getModifiers().isPrivate() && !signature.isWrapper() &&
+				outer.getMethodIndex(signature) != -1;
+	}
+
+	private boolean hasSingleTarget(TACMethodName method, Type moduleType) {
+		MethodSignature signature = method.getSignature();
+		int index = method.getIndex();
+
+		ClassType exact = getExactType(method.getPrefix());
+		if( exact != null )
+			return usesMethod(exact, index, signature);
+
+		ClassType outer = (ClassType) method.getOuterType();
+		if( !isPrivate(outer) || outer.isParameterized() || signature.isAbstract() )
+			return false;
+
+		if( moduleClasses == null ) {
+			moduleClasses = new ArrayList<ClassType>();
+			addClasses(moduleType, moduleClasses);
+		}
+
+		boolean found = false;
+		for( ClassType type : moduleClasses )
+			if( extendsClass(type, outer) ) {
+				if( !usesMethod(type, index, signature) )
+					return false;
+				found = true;
+			}
+
+		return found;
+	}
+
+	// Whether a class is the same as another class or one of its descendants
+	private static boolean extendsClass(ClassType type, ClassType parent) {
+		Type raw = parent.getTypeWithoutTypeArguments();
+		while( type != null ) {
+			if( type.getTypeWithoutTypeArguments().equals(raw) )
+				return true;
+			type = type.getExtendType();
+		}
+		return false;
+	}
+
+	// Whether the method table of a class uses the given method at an index
+	private boolean usesMethod(ClassType type, int index, MethodSignature signature) {
+		List<MethodSignature> methods = methodTables.get(type);
+		if( methods == null ) {
+			methods = type.orderAllMethods();
+			methodTables.put(type, methods);
+		}
+		if( index >= methods.size() )
+			return false;
+
+		MethodSignature implementation = methods.get(index);
+		return !implementation.isWrapper() && implementation.equals(signature);
+	}
+
+	// Children of a private class can only be declared in the same file
+	private static boolean isPrivate(Type type) {
+		while( type != null ) {
+			if( type.getModifiers().isPrivate() )
+				return true;
+			type = type.getOuter();
+		}
+		return false;
+	}
+
+	private static void addClasses(Type type, List<ClassType> classes) {
+		if( type instanceof ClassType )
+			classes.add((ClassType)type);
+		for( Type inner : type.getInnerTypes().values() )
+			addClasses(inner, classes);
+	}
+}
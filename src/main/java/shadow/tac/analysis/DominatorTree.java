@@ -0,0 +1,360 @@
+package shadow.tac.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import shadow.tac.analysis.ControlFlowGraph.Block;
+
+/**
+ * The dominator tree or post-dominator tree of a {@link ControlFlowGraph}.
+ * Block A dominates block B if every path from the root of the graph to B
+ * passes through A. Block A post-dominates block B if every path from B to an
+ * exit of the graph passes through A, where the exits are the blocks with no
+ * outgoing edges, such as those that return or throw.
+ * <p>
+ * The tree is found with the iterative algorithm from "A Simple, Fast
+ * Dominance Algorithm" by Cooper, Harvey, and Kennedy, which visits the
+ * blocks in reverse postorder until the immediate dominators stop changing.
+ * A post-dominator tree is found the same way on the reversed graph, with a
+ * virtual exit joining all the real exits as its root. Dominance frontiers
+ * are found from the tree the first time they are asked for. Only blocks
+ * reachable from the root are part of a dominator tree, and only blocks that
+ * are also able to reach an exit are part of a post-dominator tree.
+ * <p>
+ * The tree is a snapshot: it must be rebuilt if edges are added to or
+ * removed from the graph. {@link ControlFlowGraph#getDominatorTree()} and
+ * {@link ControlFlowGraph#getPostDominatorTree()} keep trees that are
+ * rebuilt when needed.
+ */
+public class DominatorTree {
+	private final boolean post;
+	/*
+	 * Reverse postorder, starting with the root. When the root is a virtual
+	 * exit, it is stored as null and hidden from the public methods, whose
+	 * indices are offset to match.
+	 */
+	private final List<Block> nodes;
+	private final int offset;
+	private final Map<Block, Integer> indices = new IdentityHashMap<>();
+	private final int[][] predecessors; // Predecessors in the graph being analyzed
+	private final int[] dominators;
+	private final List<List<Block>> children;
+	// Preorder and postorder numbers in the tree, for constant-time dominance checks
+	private final int[] preorder;
+	private final int[] postorder;
+	private List<BitSet> frontiers = null;
+
+	/**
+	 * Finds the dominator tree for a control flow graph.
+	 * @param graph		graph whose dominators are needed
+	 */
+	public DominatorTree(ControlFlowGraph graph) {
+		this(graph.getReversePostorder(), false);
+	}
+
+	/**
+	 * Finds the post-dominator tree for a control flow graph.
+	 * @param graph		graph whose post-dominators are needed
+	 * @return			post-dominator tree
+	 */
+	public static DominatorTree findPostDominators(ControlFlowGraph graph) {
+		List<Block> blocks = graph.getReversePostorder();
+		Map<Block, Boolean> reachable = new IdentityHashMap<>();
+		List<Block> exits = new ArrayList<>();
+		for( Block block : blocks ) {
+			reachable.put(block, true);
+			if( block.getOutgoing().isEmpty() )
+				exits.add(block);
+		}
+
+		// Postorder of the reversed graph, found without recursion
+		List<Block> order = new ArrayList<>(blocks.size() + 1);
+		Map<Block, Boolean> visited = new IdentityHashMap<>();
+		List<Block> stack = new ArrayList<>();
+		List<Iterator<Block>> iterators = new ArrayList<>();
+		for( Block exit : exits ) {
+			if( visited.put(exit, true) != null )
+				continue;
+			stack.add(exit);
+			iterators.add(exit.getIncoming().iterator());
+			while( !stack.isEmpty() ) {
+				int top = stack.size() - 1;
+				Iterator<Block> iterator = iterators.get(top);
+				if( iterator.hasNext() ) {
+					Block next = iterator.next();
+					if( reachable.containsKey(next) && visited.put(next, true) == null ) {
+						stack.add(next);
+						iterators.add(next.getIncoming().iterator());
+					}
+				}
+				else {
+					order.add(stack.remove(top));
+					iterators.remove(top);
+				}
+			}
+		}
+		order.add(null); // Virtual exit
+		Collections.reverse(order);
+
+		return new DominatorTree(order, true);
+	}
+
+	private DominatorTree(List<Block> nodes, boolean post) {
+		this.post = post;
+		this.nodes = nodes;
+		offset = post ? 1 : 0;
+		int size = nodes.size();
+		for( int i = offset; i < size; ++i )
+			indices.put(nodes.get(i), i);
+
+		predecessors = new int[size][];
+		for( int i = offset; i < size; ++i ) {
+			Block block = nodes.get(i);
+			Collection<Block> edges = post ? block.getOutgoing() : block.getIncoming();
+			int[] list = new int[edges.size() + (post && edges.isEmpty() ? 1 : 0)];
+			int count = 0;
+			for( Block edge : edges ) {
+				Integer index = indices.get(edge);
+				if( index != null )
+					list[count++] = index;
+			}
+			if( post && edges.isEmpty() )
+				list[count++] = 0; // Exits follow the virtual exit in the reversed graph
+			predecessors[i] = count == list.length ? list : Arrays.copyOf(list, count);
+		}
+		if( post && size > 0 )
+			predecessors[0] = new int[0];
+
+		dominators = new int[size];
+		Arrays.fill(dominators, -1);
+		if( size > 0 )
+			dominators[0] = 0;
+
+		boolean changed = true;
+		while( changed ) {
+			changed = false;
+			for( int i = 1; i < size; ++i ) {
+				int dominator = -1;
+				for( int predecessor : predecessors[i] )
+					if( dominators[predecessor] != -1 )
+						dominator = dominator == -1 ? predecessor : intersect(predecessor, dominator);
+
+				if( dominators[i] != dominator ) {
+					dominators[i] = dominator;
+					changed = true;
+				}
+			}
+		}
+
+		children = new ArrayList<>(size);
+		for( int i = 0; i < size; ++i )
+			children.add(new ArrayList<Block>());
+		for( int i = 1; i < size; ++i )
+			children.get(dominators[i]).add(nodes.get(i));
+
+		preorder = new int[size];
+		postorder = new int[size];
+		if( size > 0 )
+			number();
+	}
+
+	/*
+	 * Walks up the tree from both blocks until they meet. Blocks closer to
+	 * the root come earlier in reverse postorder, so the block with the
+	 * larger index is the one to move.
+	 */
+	private int intersect(int first, int second) {
+		while( first != second ) {
+			while( first > second )
+				first = dominators[first];
+			while( second > first )
+				second = dominators[second];
+		}
+		return first;
+	}
+
+	/*
+	 * Numbers the tree in preorder and postorder without recursion, since
+	 * long methods can make very deep trees.
+	 */
+	private void number() {
+		int[] stack = new int[nodes.size()];
+		int[] next = new int[nodes.size()]; // Next child to visit
+		int depth = 0;
+		int counter = 0;
+		int finished = 0;
+		stack[0] = 0;
+		preorder[0] = counter++;
+
+		while( depth >= 0 ) {
+			int index = stack[depth];
+			List<Block> list = children.get(index);
+			if( next[index] < list.size() ) {
+				int child = indices.get(list.get(next[index]++));
+				preorder[child] = counter++;
+				stack[++depth] = child;
+			}
+			else {
+				postorder[index] = finished++;
+				--depth;
+			}
+		}
+	}
+
+	/**
+	 * Checks whether this tree holds post-dominators rather than dominators.
+	 * @return		<code>true</code> for a post-dominator tree
+	 */
+	public boolean isPostDominatorTree() {
+		return post;
+	}
+
+	/**
+	 * Gets the root of the tree. For a dominator tree, this is also the root
+	 * of the graph. The root of a post-dominator tree is a virtual exit that
+	 * is not a real block.
+	 * @return root block, or <code>null</code> if the tree is empty or is a
+	 * post-dominator tree
+	 */
+	public Block getRoot() {
+		return nodes.isEmpty() ? null : nodes.get(0);
+	}
+
+	/**
+	 * Gets the blocks in the tree in reverse postorder with respect to the
+	 * graph (or the reversed graph for post-dominators). Each block comes
+	 * after its dominators.
+	 * @return blocks in reverse postorder
+	 */
+	public List<Block> getBlocks() {
+		return Collections.unmodifiableList(nodes.subList(offset, nodes.size()));
+	}
+
+	/**
+	 * Checks whether a block is in the tree.
+	 * @param block		block to check
+	 * @return			<code>true</code> if the block is part of the tree
+	 */
+	public boolean contains(Block block) {
+		return indices.containsKey(block);
+	}
+
+	/**
+	 * Gets the position of a block in the list returned by
+	 * {@link #getBlocks()}, which is useful for indexing arrays and bit sets.
+	 * @param block		block in the tree
+	 * @return			index of the block, or -1 if it is not in the tree
+	 */
+	public int indexOf(Block block) {
+		Integer index = indices.get(block);
+		return index == null ? -1 : index - offset;
+	}
+
+	/**
+	 * Gets the closest block that strictly dominates the given one.
+	 * @param block		block in the tree
+	 * @return			immediate dominator, or <code>null</code> for the root
+	 * and for blocks immediately post-dominated by the virtual exit
+	 */
+	public Block getImmediateDominator(Block block) {
+		Integer index = indices.get(block);
+		if( index == null || index == 0 )
+			return null;
+
+		return nodes.get(dominators[index]);
+	}
+
+	/**
+	 * Gets the blocks immediately dominated by the given one.
+	 * @param block		block in the tree, or <code>null</code> for the
+	 * children of the virtual exit of a post-dominator tree
+	 * @return			children in the tree
+	 */
+	public List<Block> getChildren(Block block) {
+		Integer index = block == null && post ? Integer.valueOf(0) : indices.get(block);
+		if( index == null || index >= children.size() )
+			return Collections.emptyList();
+
+		return Collections.unmodifiableList(children.get(index));
+	}
+
+	/**
+	 * Checks whether one block dominates (or post-dominates) another. Every
+	 * block dominates itself.
+	 * @param dominator		possible dominator
+	 * @param block			block that may be dominated
+	 * @return				<code>true</code> if both blocks are in the tree and
+	 * every path from the root to <code>block</code> (or from
+	 * <code>block</code> to an exit) goes through <code>dominator</code>
+	 */
+	public boolean dominates(Block dominator, Block block) {
+		Integer first = indices.get(dominator);
+		Integer second = indices.get(block);
+		if( first == null || second == null )
+			return false;
+
+		return preorder[first] <= preorder[second] && postorder[second] <= postorder[first];
+	}
+
+	/**
+	 * Gets the dominance frontier of a block: the blocks where its
+	 * dominance ends. A block is in the frontier of A if A dominates one of
+	 * its predecessors but does not strictly dominate the block itself.
+	 * In a post-dominator tree, successors take the place of predecessors,
+	 * and the frontier of A holds the blocks whose branches decide whether A
+	 * runs.
+	 * @param block		block in the tree
+	 * @return			blocks in the frontier, in the order of
+	 * {@link #getBlocks()}
+	 */
+	public List<Block> getFrontier(Block block) {
+		int index = indexOf(block);
+		if( index == -1 )
+			return Collections.emptyList();
+
+		BitSet frontier = getFrontiers().get(index);
+		List<Block> list = new ArrayList<>(frontier.cardinality());
+		for( int i = frontier.nextSetBit(0); i >= 0; i = frontier.nextSetBit(i + 1) )
+			list.add(nodes.get(i + offset));
+		return list;
+	}
+
+	/*
+	 * Finds all the frontiers at once: each join point is in the frontier
+	 * of every block on the path up the tree from each of its predecessors
+	 * to its immediate dominator. The sets are indexed like getBlocks().
+	 */
+	List<BitSet> getFrontiers() {
+		if( frontiers == null ) {
+			int size = nodes.size();
+			List<BitSet> sets = new ArrayList<>(size);
+			for( int i = 0; i < size; ++i )
+				sets.add(new BitSet(size));
+
+			for( int i = 0; i < size; ++i ) {
+				if( predecessors[i].length < 2 )
+					continue;
+
+				for( int runner : predecessors[i] ) {
+					while( runner != dominators[i] ) {
+						sets.get(runner).set(i - offset);
+						if( runner == 0 )
+							break;
+						runner = dominators[runner];
+					}
+				}
+			}
+
+			frontiers = sets.subList(offset, size);
+		}
+
+		return frontiers;
+	}
+}
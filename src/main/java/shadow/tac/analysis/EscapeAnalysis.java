@@ -0,0 +1,255 @@
+package shadow.tac.analysis;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.interpreter.ShadowInteger;
+import shadow.interpreter.ShadowValue;
+import shadow.tac.TACVariable;
+import shadow.tac.analysis.ControlFlowGraph.Block;
+import shadow.tac.nodes.TACArrayRef;
+import shadow.tac.nodes.TACCall;
+import shadow.tac.nodes.TACCast;
+import shadow.tac.nodes.TACFieldRef;
+import shadow.tac.nodes.TACLoad;
+import shadow.tac.nodes.TACLocalLoad;
+import shadow.tac.nodes.TACLocalStore;
+import shadow.tac.nodes.TACMethodName;
+import shadow.tac.nodes.TACNewArray;
+import shadow.tac.nodes.TACNode;
+import shadow.tac.nodes.TACOperand;
+import shadow.tac.nodes.TACPhi;
+import shadow.tac.nodes.TACReference;
+import shadow.tac.nodes.TACStore;
+import shadow.typecheck.type.ArrayType;
+import shadow.typecheck.type.MethodSignature;
+import shadow.typecheck.type.Type;
+
+/**
+ * Finds the arrays created in a {@link ControlFlowGraph} that never escape
+ * the method that creates them and can therefore be allocated on the stack.
+ * <p>
+ * An array escapes if it is stored anywhere other than a local variable,
+ * returned, thrown, cast to anything but its generic array class, or passed
+ * to any method other than the <code>size</code> and <code>sizeLong</code>
+ * methods of arrays, which only read its length. Loading elements, storing
+ * elements, and copying the array into local variables (and loading it back
+ * out) are the only other uses allowed. Anything this analysis does not
+ * recognize counts as an escape.
+ * <p>
+ * Only arrays of primitive values are put on the stack, since freeing an
+ * array of objects would also release its elements. The length must also
+ * be a small constant, and the array must be created outside of every
+ * cycle in the graph, so that its storage is only needed once per call.
+ * <p>
+ * The results are a snapshot of the graph when it was analyzed.
+ */
+public class EscapeAnalysis {
+	/** Largest number of elements in an array allocated on the stack. */
+	public static final int MAX_STACK_LENGTH = 64;
+
+	private final Map<TACNewArray, Block> arrays = new IdentityHashMap<>();
+	// Operands that might hold an array created in the method
+	private final Map<TACOperand, TACNewArray> aliases = new IdentityHashMap<>();
+	private final Map<TACVariable, TACNewArray> holders = new IdentityHashMap<>();
+	private final Set<TACNewArray> escaped = Collections.newSetFromMap(new IdentityHashMap<TACNewArray, Boolean>());
+	private final Map<TACNewArray, Long> stackLengths = new IdentityHashMap<>();
+
+	/**
+	 * Analyzes the arrays created in a control flow graph.
+	 * @param graph		graph to analyze
+	 */
+	public EscapeAnalysis(ControlFlowGraph graph) {
+		for( Block block : graph )
+			for( TACNode node : block )
+				if( node instanceof TACNewArray ) {
+					arrays.put((TACNewArray)node, block);
+					aliases.put((TACNewArray)node, (TACNewArray)node);
+				}
+
+		if( arrays.isEmpty() )
+			return;
+
+		findAliases(graph);
+		for( Block block : graph )
+			for( TACNode node : block )
+				findEscapes(node);
+
+		ConstantPropagation constants = null;
+		for( Map.Entry<TACNewArray, Block> entry : arrays.entrySet() ) {
+			TACNewArray array = entry.getKey();
+			if( escaped.contains(array) || !hasPrimitiveElements(array) || isOnCycle(entry.getValue()) )
+				continue;
+
+			if( constants == null )
+				constants = new ConstantPropagation(graph);
+			ShadowValue size = constants.getConstant(array.getSize());
+			if( size instanceof ShadowInteger ) {
+				BigInteger length = ((ShadowInteger)size).getValue();
+				if( length.signum() >= 0 && length.compareTo(BigInteger.valueOf(MAX_STACK_LENGTH)) <= 0 )
+					stackLengths.put(array, length.longValue());
+			}
+		}
+	}
+
+	/**
+	 * Gets the arrays that can be allocated on the stack.
+	 * @return arrays that do not escape
+	 */
+	public Set<TACNewArray> getStackArrays() {
+		return Collections.unmodifiableSet(stackLengths.keySet());
+	}
+
+	/**
+	 * Gets the constant length of an array that can be allocated on the
+	 * stack.
+	 * @param array		array created in the graph
+	 * @return			length, or -1 if the array cannot be put on the stack
+	 */
+	public long getStackLength(TACNewArray array) {
+		Long length = stackLengths.get(array);
+		return length == null ? -1 : length;
+	}
+
+	/*
+	 * Follows arrays through the local variables that hold them, until no
+	 * new variables are found.
+	 */
+	private void findAliases(ControlFlowGraph graph) {
+		boolean changed = true;
+		while( changed ) {
+			changed = false;
+			for( Block block : graph ) {
+				for( TACNode node : block ) {
+					if( node instanceof TACLocalStore ) {
+						TACLocalStore store = (TACLocalStore) node;
+						TACNewArray array = getArray(store.getOperand(0));
+						if( array == null )
+							continue;
+
+						TACVariable variable = store.getVariable();
+						TACNewArray previous = holders.get(variable);
+						// Values of variables that are not garbage collected move through phi nodes
+						if( variable.isReturn() || !variable.needsGarbageCollection() )
+							escape(array);
+						else if( previous == null ) {
+							holders.put(variable, array);
+							changed = true;
+						}
+						else if( previous != array ) {
+							escape(array);
+							escape(previous);
+						}
+					}
+					else if( node instanceof TACLocalLoad ) {
+						TACLocalLoad load = (TACLocalLoad) node;
+						TACNewArray array = holders.get(load.getVariable());
+						if( array != null && !aliases.containsKey(load) ) {
+							aliases.put(load, array);
+							changed = true;
+						}
+					}
+					// Arrays are cast to their generic class before their methods are called
+					else if( node instanceof TACCast && isGenericArray(((TACCast)node).getType()) ) {
+						TACNewArray array = getArray(node.getOperand(0));
+						if( array != null && !aliases.containsKey(node) ) {
+							aliases.put((TACCast)node, array);
+							changed = true;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void findEscapes(TACNode node) {
+		if( node instanceof TACLocalStore || node instanceof TACLocalLoad || node instanceof TACNewArray ||
+				(node instanceof TACCast && aliases.containsKey(node)) )
+			return; // Handled when finding aliases
+		else if( node instanceof TACLoad )
+			checkReference(((TACLoad)node).getReference());
+		else if( node instanceof TACStore ) {
+			TACStore store = (TACStore) node;
+			checkReference(store.getReference());
+			escape(getArray(store.getValue()));
+		}
+		else if( node instanceof TACPhi ) {
+			for( TACOperand value : ((TACPhi)node).getPreviousStores().values() )
+				escape(getArray(value));
+		}
+		else if( node instanceof TACMethodName && readsLength((TACMethodName)node) )
+			return;
+		else if( node instanceof TACCall && ((TACCall)node).getMethodRef() instanceof TACMethodName &&
+				readsLength((TACMethodName)((TACCall)node).getMethodRef()) ) {
+			TACCall call = (TACCall) node;
+			for( int i = 2; i < call.getNumOperands(); ++i )
+				escape(getArray(call.getOperand(i)));
+		}
+		else {
+			for( int i = 0; i < node.getNumOperands(); ++i )
+				escape(getArray(node.getOperand(i)));
+		}
+	}
+
+	// Loading and storing elements is fine, but arrays used any other way escape
+	private void checkReference(TACReference reference) {
+		if( reference instanceof TACArrayRef )
+			escape(getArray(((TACArrayRef)reference).getIndex()));
+		else if( reference instanceof TACFieldRef )
+			escape(getArray(((TACFieldRef)reference).getPrefix()));
+	}
+
+	/*
+	 * Whether a method is size() or sizeLong() on arrays. Arrays are locked,
+	 * so these are called directly, without loading the method table.
+	 */
+	private static boolean readsLength(TACMethodName method) {
+		MethodSignature signature = method.getSignature();
+		String name = signature.getSymbol();
+		return isGenericArray(signature.getOuter()) && signature.getOuter().getModifiers().isLocked() &&
+				(name.equals("size") || name.equals("sizeLong"));
+	}
+
+	private static boolean isGenericArray(Type type) {
+		type = type.getTypeWithoutTypeArguments();
+		return type.equals(Type.standard().ARRAY) || type.equals(Type.standard().ARRAY_NULLABLE);
+	}
+
+	private TACNewArray getArray(TACOperand operand) {
+		if( operand == null )
+			return null;
+		TACNewArray array = aliases.get(operand);
+		if( array == null )
+			array = aliases.get(TACOperand.value(operand));
+		return array;
+	}
+
+	private void escape(TACNewArray array) {
+		if( array != null )
+			escaped.add(array);
+	}
+
+	private static boolean hasPrimitiveElements(TACNewArray array) {
+		ArrayType type = array.getType();
+		return !type.isNullable() && type.getBaseType().isPrimitive();
+	}
+
+	// Whether a block can be reached again after leaving it
+	private static boolean isOnCycle(Block block) {
+		Set<Block> visited = Collections.newSetFromMap(new IdentityHashMap<Block, Boolean>());
+		Deque<Block> stack = new ArrayDeque<Block>(block.getOutgoing());
+		while( !stack.isEmpty() ) {
+			Block current = stack.pop();
+			if( current == block )
+				return true;
+			if( visited.add(current) )
+				stack.addAll(current.getOutgoing());
+		}
+		return false;
+	}
+}
@@ -0,0 +1,342 @@
+package shadow.tac.analysis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.interpreter.ShadowUndefined;
+import shadow.tac.TACMethod;
+import shadow.tac.TACMethod.TACFinallyFunction;
+import shadow.tac.TACVariable;
+import shadow.tac.analysis.ControlFlowGraph.Block;
+import shadow.tac.nodes.TACBinary;
+import shadow.tac.nodes.TACBranch;
+import shadow.tac.nodes.TACCall;
+import shadow.tac.nodes.TACCallFinallyFunction;
+import shadow.tac.nodes.TACCast;
+import shadow.tac.nodes.TACFieldRef;
+import shadow.tac.nodes.TACLabel;
+import shadow.tac.nodes.TACLabelAddress;
+import shadow.tac.nodes.TACLiteral;
+import shadow.tac.nodes.TACLoad;
+import shadow.tac.nodes.TACLocalLoad;
+import shadow.tac.nodes.TACLocalStore;
+import shadow.tac.nodes.TACMethodName;
+import shadow.tac.nodes.TACNode;
+import shadow.tac.nodes.TACOperand;
+import shadow.tac.nodes.TACParameter;
+import shadow.tac.nodes.TACPhi;
+import shadow.tac.nodes.TACReference;
+import shadow.tac.nodes.TACReturn;
+import shadow.tac.nodes.TACStore;
+import shadow.tac.nodes.TACUnary;
+import shadow.typecheck.type.MethodSignature;
+import shadow.typecheck.type.ModifiedType;
+import shadow.typecheck.type.SingletonType;
+import shadow.typecheck.type.Type;
+
+/**
+ * Copies the bodies of small methods into the methods that call them.
+ * <p>
+ * Only methods from the file being compiled can be inlined, since other
+ * files are compiled separately and only their signatures are known. A
+ * method qualifies if its body is a straight line of field loads and
+ * stores on <code>this</code>, arithmetic, and primitive conversions, with
+ * no more than the budget's number of those instructions, ending in a
+ * single return. Every value it touches must be primitive, so that no
+ * reference counts need to change, and nothing in it can throw, so that
+ * the cleanup around the call is unaffected. This covers most
+ * <code>get</code> and <code>set</code> properties and small helpers, such
+ * as those comparing or combining fields.
+ * <p>
+ * Calls are only inlined when the method they reach is known: the method
+ * or its class is locked, the method is private, the class is a
+ * singleton, the call is to a parent method, or the call was found to
+ * have a single target by {@link Devirtualization}. An inlined call is
+ * kept in place with the result of the copied body as its value, in the
+ * same way that calls on constant strings are evaluated ahead of time.
+ * <p>
+ * The bodies are captured before any method is optimized, and the nodes
+ * in them are only read afterwards, so the same inliner can be shared by
+ * methods that are optimized in parallel.
+ */
+public class Inliner {
+	private final Map<MethodSignature, Body> bodies = new HashMap<MethodSignature, Body>();
+
+	/*
+	 * Nodes to copy, in order. Loads of local variables stand for the
+	 * parameter or value last stored in them, and the result is the value
+	 * returned, if any.
+	 */
+	private static class Body {
+		private final List<TACNode> nodes = new ArrayList<TACNode>();
+		private final Map<TACNode, TACNode> aliases = new IdentityHashMap<TACNode, TACNode>();
+		private TACNode result;
+	}
+
+	/**
+	 * Finds the methods that are small enough to inline.
+	 * @param methods	methods in the file, before any optimizations
+	 * @param budget	largest number of instructions in an inlined method
+	 */
+	public Inliner(Collection<TACMethod> methods, int budget) {
+		if( budget <= 0 )
+			return;
+
+		for( TACMethod method : methods ) {
+			Body body = getBody(method, budget);
+			if( body != null )
+				bodies.put(method.getSignature(), body);
+		}
+	}
+
+	/**
+	 * Inlines the calls in a control flow graph that reach small methods.
+	 * @param graph		graph whose calls are inlined
+	 * @return			true if any calls were inlined
+	 */
+	public boolean inline(ControlFlowGraph graph) {
+		if( bodies.isEmpty() )
+			return false;
+
+		MethodSignature caller = graph.getMethod().getSignature();
+		List<TACCall> calls = new ArrayList<TACCall>();
+		for( Block block : graph )
+			for( TACNode node : block )
+				if( node instanceof TACCall ) {
+					TACCall call = (TACCall) node;
+					if( !call.hasUpdatedValue() && call.getMethodRef() instanceof TACMethodName ) {
+						TACMethodName method = (TACMethodName) call.getMethodRef();
+						if( !method.getSignature().equals(caller) && isKnownTarget(method) &&
+								bodies.containsKey(method.getSignature()) )
+							calls.add(call);
+					}
+				}
+
+		for( TACCall call : calls )
+			inline(call, bodies.get(((TACMethodName)call.getMethodRef()).getSignature()));
+
+		return !calls.isEmpty();
+	}
+
+	/*
+	 * Copies a body in front of a call, mapping parameters to arguments.
+	 */
+	private static void inline(TACCall call, Body body) {
+		Map<TACNode, TACOperand> copies = new IdentityHashMap<TACNode, TACOperand>();
+		for( TACNode node : body.nodes ) {
+			TACOperand copy = null;
+			if( node instanceof TACParameter )
+				copy = call.getParameter(((TACParameter)node).getNumber());
+			else if( body.aliases.containsKey(node) )
+				copy = copies.get(body.aliases.get(node));
+			else if( node instanceof TACLiteral )
+				copy = new TACLiteral(call, ((TACLiteral)node).getValue());
+			else if( node instanceof TACLoad )
+				copy = new TACLoad(call, copy(((TACLoad)node).getReference(), copies));
+			else if( node instanceof TACStore ) {
+				TACStore store = (TACStore) node;
+				new TACStore(call, copy(store.getReference(), copies), copies.get(store.getValue()));
+			}
+			else if( node instanceof TACBinary ) {
+				TACBinary binary = (TACBinary) node;
+				copy = new TACBinary(call, binary, copies.get(binary.getFirst()), copies.get(binary.getSecond()));
+			}
+			else if( node instanceof TACUnary ) {
+				TACUnary unary = (TACUnary) node;
+				copy = new TACUnary(call, unary, copies.get(unary.getOperand()));
+			}
+			else if( node instanceof TACCast )
+				copy = TACCast.cast(call, (TACCast)node, copies.get(node.getOperand(0)));
+
+			if( copy != null )
+				copies.put(node, copy);
+		}
+
+		// Calls without a value still need one to mark them as done
+		if( body.result != null ) {
+			TACOperand result = copies.get(body.result);
+			// A variable holding the call now holds the copied result
+			if( call.hasLocalStore() )
+				result.setLocalStore(call.getLocalStore());
+			call.setUpdatedValue(result);
+		}
+		else
+			call.setUpdatedValue(call.getPrefix());
+	}
+
+	private static TACFieldRef copy(TACReference reference, Map<TACNode, TACOperand> copies) {
+		TACFieldRef field = (TACFieldRef) reference;
+		return new TACFieldRef(copies.get(field.getPrefix()), field, field.getName());
+	}
+
+	/*
+	 * Whether a call can only reach the method it names, matching the
+	 * conditions used when generating code.
+	 */
+	private static boolean isKnownTarget(TACMethodName method) {
+		Type outer = method.getOuterType();
+		return method.hasPrefix() && (method.isSuper() || method.isDirect() ||
+				outer.getModifiers().isLocked() || outer instanceof SingletonType ||
+				method.getType().getModifiers().isLocked() || method.getType().getModifiers().isPrivate());
+	}
+
+	/*
+	 * Gets the nodes in the body of a method that can be inlined, or null if
+	 * it cannot be inlined. Every method has the same cleanup around its
+	 * body, which is skipped by following the path that the method takes
+	 * when nothing is thrown.
+	 */
+	private static Body getBody(TACMethod method, int budget) {
+		MethodSignature signature = method.getSignature();
+		if( signature.isCreate() || signature.isDestroy() || signature.isCopy() || signature.isWrapper() ||
+				signature.isImport() || signature.isExport() || signature.isAbstract() ||
+				signature.getOuter().isParameterized() || method.getNode() == null )
+			return null;
+
+		Body body = new Body();
+		Map<TACVariable, TACNode> values = new HashMap<TACVariable, TACNode>();
+		Set<TACNode> known = Collections.newSetFromMap(new IdentityHashMap<TACNode, Boolean>());
+		Set<TACLabel> visited = new HashSet<TACLabel>();
+		TACVariable thisVariable = method.getThis();
+		TACNode node = method.getNode();
+		int size = 0;
+		while( !(node instanceof TACReturn) ) {
+			TACNode next = node.getNext();
+			if( node instanceof TACLabel ) {
+				if( !visited.add((TACLabel)node) )
+					return null;
+			}
+			else if( node instanceof TACBranch ) {
+				TACBranch branch = (TACBranch) node;
+				if( branch.isDirect() )
+					next = branch.getLabel();
+				else if( branch.isIndirect() && branch.getPhi().getPreviousStores().size() == 1 &&
+						branch.getPhi().getPreviousStores().values().iterator().next() instanceof TACLabelAddress )
+					next = ((TACLabelAddress)branch.getPhi().getPreviousStores().values().iterator().next()).getLabel();
+				else
+					return null;
+			}
+			else if( node instanceof TACCallFinallyFunction ) {
+				if( !isEmpty(((TACCallFinallyFunction)node).getFinallyFunction()) )
+					return null;
+			}
+			else if( node instanceof TACPhi || node instanceof TACLabelAddress ) {
+				// Only used to pick where cleanup goes next
+			}
+			else if( node instanceof TACParameter ) {
+				body.nodes.add(node);
+				known.add(node);
+			}
+			else if( node instanceof TACLiteral ) {
+				TACLiteral literal = (TACLiteral) node;
+				if( !(literal.getValue() instanceof ShadowUndefined) ) {
+					if( !isPrimitive(literal) )
+						return null;
+					body.nodes.add(node);
+					known.add(node);
+				}
+			}
+			else if( node instanceof TACLocalStore ) {
+				TACLocalStore store = (TACLocalStore) node;
+				TACVariable variable = store.getVariable();
+				TACOperand value = store.getValue();
+				if( value instanceof TACParameter && (variable == thisVariable || isPrimitive(variable)) )
+					values.put(variable, value);
+				else if( value instanceof TACLiteral && ((TACLiteral)value).getValue() instanceof ShadowUndefined )
+					values.remove(variable);
+				else if( isPrimitive(variable) && known.contains(value) )
+					values.put(variable, value);
+				else
+					return null;
+			}
+			else if( node instanceof TACLocalLoad ) {
+				TACNode value = values.get(((TACLocalLoad)node).getVariable());
+				if( value == null || !known.contains(value) )
+					return null;
+				body.aliases.put(node, value);
+				body.nodes.add(node);
+				known.add(node);
+			}
+			else if( node instanceof TACLoad || node instanceof TACStore ) {
+				TACReference reference = node instanceof TACLoad ? ((TACLoad)node).getReference() : ((TACStore)node).getReference();
+				if( !(reference instanceof TACFieldRef) || !isPrimitive(reference) ||
+						!isThis(((TACFieldRef)reference).getPrefix(), body) ||
+						(node instanceof TACStore && !known.contains(((TACStore)node).getValue())) )
+					return null;
+				size++;
+				body.nodes.add(node);
+				known.add(node);
+			}
+			else if( node instanceof TACBinary ) {
+				TACBinary binary = (TACBinary) node;
+				if( !isPrimitive(binary) || !known.contains(binary.getFirst()) || !known.contains(binary.getSecond()) )
+					return null;
+				size++;
+				body.nodes.add(node);
+				known.add(node);
+			}
+			else if( node instanceof TACUnary ) {
+				TACUnary unary = (TACUnary) node;
+				if( !isPrimitive(unary) || !known.contains(unary.getOperand()) )
+					return null;
+				size++;
+				body.nodes.add(node);
+				known.add(node);
+			}
+			else if( node instanceof TACCast ) {
+				TACCast cast = (TACCast) node;
+				if( cast.getKind() != TACCast.Kind.PRIMITIVE_TO_PRIMITIVE || !isPrimitive(cast) ||
+						!known.contains(cast.getOperand(0)) )
+					return null;
+				size++;
+				body.nodes.add(node);
+				known.add(node);
+			}
+			else
+				return null;
+
+			if( size > budget )
+				return null;
+			node = next;
+		}
+
+		// Results are computed in the body, so that they are new values
+		TACReturn return_ = (TACReturn) node;
+		if( return_.hasReturnValue() ) {
+			TACNode value = return_.getReturnValue();
+			if( !known.contains(value) || !isPrimitive(return_.getReturnValue()) )
+				return null;
+			while( body.aliases.containsKey(value) )
+				value = body.aliases.get(value);
+			if( value instanceof TACParameter )
+				return null;
+			body.result = value;
+		}
+
+		return body;
+	}
+
+	// Finally functions with nothing but a return
+	private static boolean isEmpty(TACFinallyFunction function) {
+		TACNode node = function.getNode();
+		while( node instanceof TACLabel )
+			node = node.getNext();
+		return node instanceof TACReturn && !((TACReturn)node).hasReturnValue();
+	}
+
+	private static boolean isThis(TACOperand operand, Body body) {
+		TACNode value = body.aliases.get(operand);
+		return value instanceof TACParameter && ((TACParameter)value).getNumber() == 0;
+	}
+
+	private static boolean isPrimitive(ModifiedType value) {
+		return value.getType().isPrimitive() && !value.getModifiers().isNullable();
+	}
+}
@@ -0,0 +1,229 @@
+package shadow.tac.analysis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.tac.TACVariable;
+import shadow.tac.analysis.ControlFlowGraph.Block;
+import shadow.tac.nodes.TACLocalLoad;
+import shadow.tac.nodes.TACLocalStore;
+import shadow.tac.nodes.TACNode;
+
+/**
+ * The local variables that are live at the start and end of each block of a
+ * {@link ControlFlowGraph}. A variable is live at a point if some path from
+ * that point loads the variable before storing it again.
+ * <p>
+ * Each variable is given a bit, and the live variables of each block are
+ * kept as bit sets, found by iterating the usual backward data flow equations
+ * until nothing changes. Loads and stores are
+ * {@link shadow.tac.nodes.TACLocalLoad} and
+ * {@link shadow.tac.nodes.TACLocalStore} nodes. Phi nodes only merge the
+ * values their variable already has on each incoming edge, so they neither
+ * use nor kill it.
+ * <p>
+ * Only blocks reachable from the root are analyzed. Like a
+ * {@link DominatorTree}, the results are a snapshot: they must be found again
+ * if edges, loads, or stores are added or removed.
+ * {@link ControlFlowGraph#getLiveness()} keeps results that are found again
+ * when edges change.
+ */
+public class Liveness {
+	private final List<TACVariable> variables = new ArrayList<>();
+	private final Map<TACVariable, Integer> indices = new HashMap<>();
+	private final Map<Block, Integer> blocks = new IdentityHashMap<>();
+	private final List<BitSet> liveIn;
+	private final List<BitSet> liveOut;
+
+	/**
+	 * Finds the live variables for a control flow graph.
+	 * @param graph		graph whose live variables are needed
+	 */
+	public Liveness(ControlFlowGraph graph) {
+		List<Block> order = graph.getReversePostorder();
+		int size = order.size();
+		for( int i = 0; i < size; ++i )
+			blocks.put(order.get(i), i);
+
+		// Variables loaded before they are stored and variables stored in each block
+		List<BitSet> uses = new ArrayList<>(size);
+		List<BitSet> definitions = new ArrayList<>(size);
+		for( Block block : order ) {
+			BitSet used = new BitSet();
+			BitSet defined = new BitSet();
+			for( TACNode node : block ) {
+				if( node instanceof TACLocalLoad ) {
+					int index = index(((TACLocalLoad)node).getVariable());
+					if( !defined.get(index) )
+						used.set(index);
+				}
+				else if( node instanceof TACLocalStore )
+					defined.set(index(((TACLocalStore)node).getVariable()));
+			}
+			uses.add(used);
+			definitions.add(defined);
+		}
+
+		liveIn = new ArrayList<>(size);
+		liveOut = new ArrayList<>(size);
+		for( int i = 0; i < size; ++i ) {
+			liveIn.add((BitSet)uses.get(i).clone());
+			liveOut.add(new BitSet());
+		}
+
+		// Visiting blocks in postorder lets most changes flow backward in one pass
+		boolean changed = true;
+		while( changed ) {
+			changed = false;
+			for( int i = size - 1; i >= 0; --i ) {
+				BitSet out = liveOut.get(i);
+				for( Block successor : order.get(i).getOutgoing() ) {
+					Integer index = blocks.get(successor);
+					if( index != null )
+						out.or(liveIn.get(index));
+				}
+
+				BitSet in = (BitSet)out.clone();
+				in.andNot(definitions.get(i));
+				in.or(uses.get(i));
+				if( !in.equals(liveIn.get(i)) ) {
+					liveIn.set(i, in);
+					changed = true;
+				}
+			}
+		}
+	}
+
+	private int index(TACVariable variable) {
+		Integer index = indices.get(variable);
+		if( index == null ) {
+			index = variables.size();
+			indices.put(variable, index);
+			variables.add(variable);
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the variables loaded or stored in the graph. Their positions in
+	 * this list are the bits used for them in the sets returned by
+	 * {@link #getLiveInBits(Block)} and {@link #getLiveOutBits(Block)}.
+	 * @return		variables that are used
+	 */
+	public List<TACVariable> getVariables() {
+		return Collections.unmodifiableList(variables);
+	}
+
+	/**
+	 * Gets the bit used for a variable.
+	 * @param variable	variable to look up
+	 * @return			index of the variable, or -1 if it is never loaded or
+	 * stored
+	 */
+	public int indexOf(TACVariable variable) {
+		Integer index = indices.get(variable);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Gets the variables live at the start of a block as bits.
+	 * @param block		block in the graph
+	 * @return			copy of the set of live variables, which is empty for
+	 * unreachable blocks
+	 */
+	public BitSet getLiveInBits(Block block) {
+		Integer index = blocks.get(block);
+		return index == null ? new BitSet() : (BitSet)liveIn.get(index).clone();
+	}
+
+	/**
+	 * Gets the variables live at the end of a block as bits.
+	 * @param block		block in the graph
+	 * @return			copy of the set of live variables, which is empty for
+	 * unreachable blocks
+	 */
+	public BitSet getLiveOutBits(Block block) {
+		Integer index = blocks.get(block);
+		return index == null ? new BitSet() : (BitSet)liveOut.get(index).clone();
+	}
+
+	/**
+	 * Gets the variables live at the start of a block.
+	 * @param block		block in the graph
+	 * @return			live variables
+	 */
+	public Set<TACVariable> getLiveIn(Block block) {
+		return toVariables(getLiveInBits(block));
+	}
+
+	/**
+	 * Gets the variables live at the end of a block.
+	 * @param block		block in the graph
+	 * @return			live variables
+	 */
+	public Set<TACVariable> getLiveOut(Block block) {
+		return toVariables(getLiveOutBits(block));
+	}
+
+	/**
+	 * Checks whether a variable is live at the start of a block.
+	 * @param block		block in the graph
+	 * @param variable	variable to check
+	 * @return			<code>true</code> if the variable is live
+	 */
+	public boolean isLiveIn(Block block, TACVariable variable) {
+		return isLive(liveIn, block, variable);
+	}
+
+	/**
+	 * Checks whether a variable is live at the end of a block.
+	 * @param block		block in the graph
+	 * @param variable	variable to check
+	 * @return			<code>true</code> if the variable is live
+	 */
+	public boolean isLiveOut(Block block, TACVariable variable) {
+		return isLive(liveOut, block, variable);
+	}
+
+	/**
+	 * Checks whether a variable is live just after a node, by scanning the
+	 * rest of the node's block.
+	 * @param block		block containing the node
+	 * @param node		node in the block
+	 * @param variable	variable to check
+	 * @return			<code>true</code> if the variable may be loaded after
+	 * the node before being stored again
+	 */
+	public boolean isLiveAfter(Block block, TACNode node, TACVariable variable) {
+		TACNode last = block.getLast();
+		while( node != last ) {
+			node = node.getNext();
+			if( node instanceof TACLocalLoad && ((TACLocalLoad)node).getVariable().equals(variable) )
+				return true;
+			if( node instanceof TACLocalStore && ((TACLocalStore)node).getVariable().equals(variable) )
+				return false;
+		}
+
+		return isLiveOut(block, variable);
+	}
+
+	private boolean isLive(List<BitSet> sets, Block block, TACVariable variable) {
+		Integer index = blocks.get(block);
+		Integer bit = indices.get(variable);
+		return index != null && bit != null && sets.get(index).get(bit);
+	}
+
+	private Set<TACVariable> toVariables(BitSet bits) {
+		Set<TACVariable> set = new LinkedHashSet<>();
+		for( int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1) )
+			set.add(variables.get(i));
+		return set;
+	}
+}
@@ -0,0 +1,273 @@
+package shadow.tac.analysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import shadow.tac.analysis.ControlFlowGraph.Block;
+
+/**
+ * The natural loops of a {@link ControlFlowGraph} and how they nest.
+ * <p>
+ * An edge from block T to block H is a back edge if H dominates T. The
+ * natural loop of the back edge is H (its header) together with every block
+ * that can reach T without going through H. Back edges that share a header
+ * are merged into a single loop. Two natural loops with different headers are
+ * either disjoint or one is entirely inside the other, which gives the loops
+ * a tree structure. Cycles that are entered at more than one block have no
+ * header that dominates them, so they are not reported as loops.
+ * <p>
+ * Like a {@link DominatorTree}, the loop nest is a snapshot that must be
+ * found again if edges are added to or removed from the graph.
+ * {@link ControlFlowGraph#getLoopNest()} keeps a loop nest that is found
+ * again when needed.
+ */
+public class LoopNest {
+	private final List<Loop> loops = new ArrayList<>(); // Outer loops before inner ones
+	private final List<Loop> outermost = new ArrayList<>();
+	private final Map<Block, Loop> innermost = new IdentityHashMap<>();
+
+	/**
+	 * Finds the loops in a control flow graph.
+	 * @param dominators	dominator tree for the graph
+	 */
+	public LoopNest(DominatorTree dominators) {
+		if( dominators.isPostDominatorTree() )
+			throw new IllegalArgumentException("Loops must be found with a dominator tree, not a post-dominator tree");
+
+		List<Block> blocks = dominators.getBlocks();
+		for( Block header : blocks ) {
+			List<Block> latches = new ArrayList<>();
+			for( Block predecessor : header.getIncoming() )
+				if( dominators.dominates(header, predecessor) )
+					latches.add(predecessor);
+
+			if( !latches.isEmpty() )
+				loops.add(new Loop(header, latches, dominators));
+		}
+
+		/*
+		 * An inner loop always has fewer blocks than the loops around it, so
+		 * visiting the largest loops first finds each loop's parent as the
+		 * innermost loop seen so far that contains its header.
+		 */
+		Collections.sort(loops, (first, second) -> Integer.compare(second.size(), first.size()));
+		for( Loop loop : loops ) {
+			Loop parent = innermost.get(loop.header);
+			if( parent == null )
+				outermost.add(loop);
+			else {
+				loop.parent = parent;
+				loop.depth = parent.depth + 1;
+				parent.children.add(loop);
+			}
+
+			for( Block block : loop.blocks )
+				innermost.put(block, loop);
+		}
+	}
+
+	/**
+	 * Gets all the loops in the graph. Each loop comes before the loops
+	 * nested inside it.
+	 * @return			all loops
+	 */
+	public List<Loop> getLoops() {
+		return Collections.unmodifiableList(loops);
+	}
+
+	/**
+	 * Gets the loops that are not inside any other loop.
+	 * @return			outermost loops
+	 */
+	public List<Loop> getOutermostLoops() {
+		return Collections.unmodifiableList(outermost);
+	}
+
+	/**
+	 * Gets the innermost loop containing a block.
+	 * @param block		block in the graph
+	 * @return			innermost loop, or <code>null</code> if the block is
+	 * not in a loop
+	 */
+	public Loop getLoop(Block block) {
+		return innermost.get(block);
+	}
+
+	/**
+	 * Gets the number of loops that contain a block.
+	 * @param block		block in the graph
+	 * @return			loop nesting depth, which is 0 outside of loops
+	 */
+	public int getDepth(Block block) {
+		Loop loop = innermost.get(block);
+		return loop == null ? 0 : loop.depth;
+	}
+
+	/**
+	 * A single natural loop, made up of all the blocks that can reach one of
+	 * its back edges without going through its header.
+	 */
+	public static class Loop {
+		private final Block header;
+		private final List<Block> latches;
+		private final List<Block> blocks = new ArrayList<>(); // Same order as the dominator tree
+		private final BitSet members = new BitSet();
+		private final DominatorTree dominators;
+		private final List<Loop> children = new ArrayList<>();
+		private Loop parent = null;
+		private int depth = 1;
+
+		private Loop(Block header, List<Block> latches, DominatorTree dominators) {
+			this.header = header;
+			this.latches = latches;
+			this.dominators = dominators;
+
+			// Walk backward from the latches, stopping at the header
+			members.set(dominators.indexOf(header));
+			Deque<Block> worklist = new ArrayDeque<>();
+			for( Block latch : latches )
+				if( !members.get(dominators.indexOf(latch)) ) {
+					members.set(dominators.indexOf(latch));
+					worklist.push(latch);
+				}
+
+			while( !worklist.isEmpty() ) {
+				Block block = worklist.pop();
+				for( Block predecessor : block.getIncoming() ) {
+					int index = dominators.indexOf(predecessor);
+					if( index != -1 && !members.get(index) ) {
+						members.set(index);
+						worklist.push(predecessor);
+					}
+				}
+			}
+
+			List<Block> order = dominators.getBlocks();
+			for( int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1) )
+				blocks.add(order.get(i));
+		}
+
+		/**
+		 * Gets the header of the loop, the only block in the loop that is
+		 * entered from outside of it. The header dominates every block in
+		 * the loop.
+		 * @return		loop header
+		 */
+		public Block getHeader() {
+			return header;
+		}
+
+		/**
+		 * Gets the blocks in the loop that branch back to the header.
+		 * @return		sources of the back edges
+		 */
+		public List<Block> getLatches() {
+			return Collections.unmodifiableList(latches);
+		}
+
+		/**
+		 * Gets the blocks in the loop, including those in nested loops, in
+		 * reverse postorder. The header comes first.
+		 * @return		blocks in the loop
+		 */
+		public List<Block> getBlocks() {
+			return Collections.unmodifiableList(blocks);
+		}
+
+		/**
+		 * Gets the number of blocks in the loop.
+		 * @return		number of blocks
+		 */
+		public int size() {
+			return blocks.size();
+		}
+
+		/**
+		 * Checks whether a block is in the loop or in a loop nested inside it.
+		 * @param block	block to check
+		 * @return		<code>true</code> if the block is in the loop
+		 */
+		public boolean contains(Block block) {
+			int index = dominators.indexOf(block);
+			return index != -1 && members.get(index);
+		}
+
+		/**
+		 * Gets the blocks outside the loop that are reached by an edge from
+		 * inside it.
+		 * @return		exit blocks, in reverse postorder
+		 */
+		public List<Block> getExits() {
+			BitSet exits = new BitSet();
+			for( Block block : blocks )
+				for( Block successor : block.getOutgoing() ) {
+					int index = dominators.indexOf(successor);
+					if( index != -1 && !members.get(index) )
+						exits.set(index);
+				}
+
+			List<Block> order = dominators.getBlocks();
+			List<Block> list = new ArrayList<>(exits.cardinality());
+			for( int i = exits.nextSetBit(0); i >= 0; i = exits.nextSetBit(i + 1) )
+				list.add(order.get(i));
+			return list;
+		}
+
+		/**
+		 * Gets the block that enters the loop, if there is exactly one
+		 * such block and the header is its only successor. Code that does not
+		 * change from one iteration to the next can be moved there.
+		 * @return		preheader, or <code>null</code> if there is none
+		 */
+		public Block getPreheader() {
+			Block preheader = null;
+			for( Block predecessor : header.getIncoming() ) {
+				if( !contains(predecessor) && dominators.contains(predecessor) ) {
+					if( preheader != null )
+						return null;
+					preheader = predecessor;
+				}
+			}
+
+			if( preheader != null && preheader.getOutgoing().size() != 1 )
+				return null;
+
+			return preheader;
+		}
+
+		/**
+		 * Gets the innermost loop that contains this one.
+		 * @return		enclosing loop, or <code>null</code> for an outermost loop
+		 */
+		public Loop getParent() {
+			return parent;
+		}
+
+		/**
+		 * Gets the loops immediately nested inside this one.
+		 * @return		nested loops
+		 */
+		public List<Loop> getChildren() {
+			return Collections.unmodifiableList(children);
+		}
+
+		/**
+		 * Gets the number of loops that contain this one, including itself.
+		 * @return		nesting depth, which is 1 for an outermost loop
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		@Override
+		public String toString() {
+			return "Loop at " + header;
+		}
+	}
+}
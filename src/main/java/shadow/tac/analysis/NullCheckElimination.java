@@ -0,0 +1,229 @@
+package shadow.tac.analysis;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import shadow.interpreter.ShadowNull;
+import shadow.tac.analysis.ControlFlowGraph.Block;
+import shadow.tac.nodes.TACBinary;
+import shadow.tac.nodes.TACBranch;
+import shadow.tac.nodes.TACCall;
+import shadow.tac.nodes.TACCast;
+import shadow.tac.nodes.TACLiteral;
+import shadow.tac.nodes.TACLocalLoad;
+import shadow.tac.nodes.TACMethodName;
+import shadow.tac.nodes.TACNewObject;
+import shadow.tac.nodes.TACNode;
+import shadow.tac.nodes.TACOperand;
+import shadow.tac.nodes.TACPhi;
+import shadow.tac.nodes.TACUnary;
+import shadow.tac.nodes.TACUpdate;
+
+/**
+ * Finds the comparisons with <code>null</code> in a {@link ControlFlowGraph}
+ * whose outcome is already known, so that the branches on them can be
+ * replaced with direct branches.
+ * <p>
+ * Each <code>check</code> expression branches on whether its value is
+ * <code>null</code> before throwing an <code>UnexpectedNullException</code>
+ * or jumping to a <code>recover</code> block, and comparisons such as
+ * <code>value !== null</code> are branches on the same kind of condition.
+ * A value is known not to be <code>null</code> if:
+ * <ul>
+ * <li>It is an object that was just created or a literal other than
+ * <code>null</code>.</li>
+ * <li>It is a phi node whose values are all known not to be
+ * <code>null</code>.</li>
+ * <li>The branch can only be reached after a branch that found the same
+ * value not to be <code>null</code>, such as an earlier
+ * <code>check</code> or the condition of an enclosing <code>if</code> or
+ * <code>while</code>.</li>
+ * </ul>
+ * Values are compared after looking through local variables and casts
+ * between object and interface types, which never change whether a value
+ * is <code>null</code>.
+ * <p>
+ * The results are a snapshot of the graph when it was analyzed.
+ */
+public class NullCheckElimination {
+	// Branches whose condition is known, mapped to the value of the condition
+	private final Map<TACBranch, Boolean> knownChecks = new IdentityHashMap<>();
+	private final DominatorTree dominators;
+	private final Map<TACNode, Block> nodeBlocks = new IdentityHashMap<>();
+
+	/**
+	 * Analyzes the comparisons with <code>null</code> in a control flow
+	 * graph.
+	 * @param graph		graph to analyze
+	 */
+	public NullCheckElimination(ControlFlowGraph graph) {
+		dominators = graph.getDominatorTree();
+		for( Block block : graph )
+			for( TACNode node : block )
+				nodeBlocks.put(node, block);
+
+		for( Block block : graph ) {
+			TACNode last = block.getLast();
+			if( last instanceof TACBranch && ((TACBranch)last).isConditional() && dominators.contains(block) ) {
+				TACBranch branch = (TACBranch) last;
+				NullComparison comparison = getNullComparison(branch.getCondition());
+				if( comparison != null && isNonNull(comparison.value, block) )
+					knownChecks.put(branch, !comparison.isNull);
+			}
+		}
+	}
+
+	/**
+	 * Gets the branches on comparisons with <code>null</code> whose outcome
+	 * is known.
+	 * @return branches mapped to the value of their conditions
+	 */
+	public Map<TACBranch, Boolean> getKnownChecks() {
+		return Collections.unmodifiableMap(knownChecks);
+	}
+
+	/*
+	 * A condition that compares a value with null, which is either true
+	 * when the value is null or true when it is not.
+	 */
+	private static class NullComparison {
+		private final TACOperand value;
+		private final boolean isNull;
+
+		private NullComparison(TACOperand value, boolean isNull) {
+			this.value = value;
+			this.isNull = isNull;
+		}
+	}
+
+	private static NullComparison getNullComparison(TACOperand condition) {
+		boolean isNull = true;
+		condition = resolveCondition(condition);
+		while( condition instanceof TACUnary && ((TACUnary)condition).getOperation().equals("!") ) {
+			isNull = !isNull;
+			condition = resolveCondition(((TACUnary)condition).getOperand());
+		}
+
+		if( condition instanceof TACBinary && ((TACBinary)condition).getOperation().equals("===") ) {
+			TACBinary binary = (TACBinary) condition;
+			TACOperand first = resolveObject(binary.getFirst());
+			TACOperand second = resolveObject(binary.getSecond());
+			if( isNullLiteral(second) && !isNullLiteral(first) )
+				return new NullComparison(first, isNull);
+			if( isNullLiteral(first) && !isNullLiteral(second) )
+				return new NullComparison(second, isNull);
+		}
+
+		return null;
+	}
+
+	/*
+	 * Whether a value is known not to be null where a block starts.
+	 */
+	private boolean isNonNull(TACOperand value, Block block) {
+		return isNonNull(value, new HashSet<TACPhi>()) || isCheckedNonNull(value, block);
+	}
+
+	/*
+	 * Whether a value is never null. Phi nodes are assumed not to be while
+	 * their values are checked, which lets a loop variable depend on its own
+	 * earlier value.
+	 */
+	private static boolean isNonNull(TACOperand value, Set<TACPhi> assumed) {
+		if( value instanceof TACNewObject )
+			return true;
+		else if( value instanceof TACLiteral )
+			return !isNullLiteral(value);
+		else if( value instanceof TACCall ) {
+			// Creates return the object they are given
+			TACCall call = (TACCall) value;
+			return call.getMethodRef() instanceof TACMethodName && !call.isDelegatedCreate() &&
+					((TACMethodName)call.getMethodRef()).getSignature().isCreate() &&
+					isNonNull(resolveObject(call.getPrefix()), assumed);
+		}
+		else if( value instanceof TACPhi ) {
+			if( !assumed.add((TACPhi)value) )
+				return true;
+
+			boolean result = true;
+			for( TACOperand input : ((TACPhi)value).getPreviousStores().values() )
+				if( !isNonNull(resolveObject(input), assumed) ) {
+					result = false;
+					break;
+				}
+
+			assumed.remove(value);
+			return result;
+		}
+
+		return false;
+	}
+
+	/*
+	 * Whether a dominating branch found a value not to be null on the only
+	 * edge that leads toward a block.
+	 */
+	private boolean isCheckedNonNull(TACOperand value, Block block) {
+		Block current = block;
+		Block dominator = dominators.getImmediateDominator(current);
+		while( dominator != null ) {
+			if( current.getIncoming().size() == 1 && dominator.getLast() instanceof TACBranch ) {
+				TACBranch branch = (TACBranch) dominator.getLast();
+				if( branch.isConditional() ) {
+					Block trueBlock = nodeBlocks.get(branch.getTrueLabel());
+					Block falseBlock = nodeBlocks.get(branch.getFalseLabel());
+					NullComparison comparison = getNullComparison(branch.getCondition());
+					if( trueBlock != falseBlock && comparison != null && comparison.value == value &&
+							(comparison.isNull ? falseBlock : trueBlock) == current )
+						return true;
+				}
+			}
+
+			current = dominator;
+			dominator = dominators.getImmediateDominator(current);
+		}
+
+		return false;
+	}
+
+	private static boolean isNullLiteral(TACOperand operand) {
+		return operand instanceof TACLiteral && ((TACLiteral)operand).getValue() instanceof ShadowNull;
+	}
+
+	// Follows a condition through boolean local variables
+	private static TACOperand resolveCondition(TACOperand operand) {
+		TACOperand previous = null;
+		while( operand != previous ) {
+			previous = operand;
+			operand = TACOperand.value(operand);
+		}
+		return operand;
+	}
+
+	/*
+	 * Follows a value through local variables and casts between object and
+	 * interface types. Objects in local variables are never propagated, but
+	 * the store or phi node that reaches a load still identifies its value.
+	 */
+	private static TACOperand resolveObject(TACOperand operand) {
+		TACOperand previous = null;
+		while( operand != previous ) {
+			previous = operand;
+			operand = TACOperand.value(operand);
+			if( operand instanceof TACLocalLoad && ((TACLocalLoad)operand).getPreviousStore() != null )
+				operand = ((TACLocalLoad)operand).getPreviousStore();
+			if( operand instanceof TACUpdate )
+				operand = ((TACUpdate)operand).getValue();
+			if( operand instanceof TACCast ) {
+				TACCast.Kind kind = ((TACCast)operand).getKind();
+				if( kind == TACCast.Kind.OBJECT_TO_OBJECT || kind == TACCast.Kind.OBJECT_TO_INTERFACE ||
+						kind == TACCast.Kind.INTERFACE_TO_OBJECT )
+					operand = ((TACCast)operand).getOperand(0);
+			}
+		}
+		return operand;
+	}
+}
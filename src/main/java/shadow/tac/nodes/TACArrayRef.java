@@ -38,20 +38,20 @@ public class TACArrayRef extends TACReference
 			TACLabel throwLabel = new TACLabel(method);
 			
 			//by casting to unsigned, we don't need to do a negative check
-			TACOperand unsignedLength = TACCast.cast(node, new SimpleModifiedType(Type.ULONG), index);
-			TACOperand unsignedBound = TACCast.cast(node, new SimpleModifiedType(Type.ULONG), TACBuilder.arraySize(node, array, true));				 
-			TACOperand condition = new TACBinary(node, unsignedLength, Type.ULONG.getMatchingMethod("compare", new SequenceType(Type.ULONG)), "<", unsignedBound, true);
+			TACOperand unsignedLength = TACCast.cast(node, new SimpleModifiedType(Type.standard().ULONG), index);
+			TACOperand unsignedBound = TACCast.cast(node, new SimpleModifiedType(Type.standard().ULONG), TACBuilder.arraySize(node, array, true));				 
+			TACOperand condition = new TACBinary(node, unsignedLength, Type.standard().ULONG.getMatchingMethod("compare", new SequenceType(Type.standard().ULONG)), "<", unsignedBound, true);
 							
 			TACLabel done = new TACLabel(method);
 			new TACBranch(node, condition, done, throwLabel);
 			
 			throwLabel.insertBefore(node);
 			
-			TACOperand object = new TACNewObject(node, Type.INDEX_OUT_OF_BOUNDS_EXCEPTION);
+			TACOperand object = new TACNewObject(node, Type.standard().INDEX_OUT_OF_BOUNDS_EXCEPTION);
 			List<TACOperand> params = new ArrayList<TACOperand>();
 			params.add(object);
 			params.add(index);		
-			MethodSignature signature = Type.INDEX_OUT_OF_BOUNDS_EXCEPTION.getMatchingMethod("create", new SequenceType(index.getType()));
+			MethodSignature signature = Type.standard().INDEX_OUT_OF_BOUNDS_EXCEPTION.getMatchingMethod("create", new SequenceType(index.getType()));
 						
 			TACCall exception = new TACCall(node, new TACMethodName(node, signature), params);						
 			new TACThrow(node, exception);						
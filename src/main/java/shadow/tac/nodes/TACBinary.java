@@ -43,12 +43,12 @@ public class TACBinary extends TACUpdate
 	
 	//the one with no operation is "reference" equality, ===
 	public TACBinary(TACNode node, TACOperand firstOperand, TACOperand secondOperand) {
-		this(node, firstOperand, firstOperand, "===", secondOperand, secondOperand, new SimpleModifiedType(Type.BOOLEAN));
+		this(node, firstOperand, firstOperand, "===", secondOperand, secondOperand, new SimpleModifiedType(Type.standard().BOOLEAN));
 	}	
 	
 	public TACBinary(TACNode node, TACOperand firstOperand, Boolean op,
 			TACOperand secondOperand) {
-		this(node, firstOperand, new SimpleModifiedType(Type.BOOLEAN), op.getName(), secondOperand, new SimpleModifiedType(Type.BOOLEAN), new SimpleModifiedType(Type.BOOLEAN));
+		this(node, firstOperand, new SimpleModifiedType(Type.standard().BOOLEAN), op.getName(), secondOperand, new SimpleModifiedType(Type.standard().BOOLEAN), new SimpleModifiedType(Type.standard().BOOLEAN));
 	}	
 	
 	public TACBinary(TACNode node, TACOperand firstOperand, MethodSignature signature, String op,
@@ -58,7 +58,18 @@ public class TACBinary extends TACUpdate
 	
 	public TACBinary(TACNode node, TACOperand firstOperand, MethodSignature signature, String op,
 			TACOperand secondOperand, boolean isCompare) {		
-		this( node, firstOperand, new SimpleModifiedType(signature.getOuter()), op, secondOperand, signature.getParameterTypes().get(0), isCompare ? new SimpleModifiedType(Type.BOOLEAN) : signature.getReturnTypes().get(0));	
+		this( node, firstOperand, new SimpleModifiedType(signature.getOuter()), op, secondOperand, signature.getParameterTypes().get(0), isCompare ? new SimpleModifiedType(Type.standard().BOOLEAN) : signature.getReturnTypes().get(0));	
+	}
+	
+	/**
+	 * Creates a copy of a binary operation on new operands.
+	 * @param node				node to insert before
+	 * @param other				operation to copy
+	 * @param firstOperand		new first operand
+	 * @param secondOperand		new second operand
+	 */
+	public TACBinary(TACNode node, TACBinary other, TACOperand firstOperand, TACOperand secondOperand) {
+		this( node, firstOperand, other.first, other.operation, secondOperand, other.second, other.result);
 	}
 	
 	private TACBinary(TACNode node, TACOperand firstOperand, ModifiedType firstType, String op,
@@ -132,22 +143,22 @@ public class TACBinary extends TACUpdate
 		visitor.visit(this);
 	}
 
-	private static boolean paren = false;
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		boolean isParen = paren;
-		if (isParen)
-			sb.append('(');
-		paren = true;
-		sb.append(getFirst()).append(' ').append(getOperation()).append(' ');
-		paren = true;
-		sb.append(getSecond());
-		if (isParen)
-			sb.append(')');
-		paren = false;
+		appendOperand(sb, getFirst());
+		sb.append(' ').append(getOperation()).append(' ');
+		appendOperand(sb, getSecond());
 		return sb.toString();
 	}
+
+	// Nested binary operations are parenthesized
+	private static void appendOperand(StringBuilder sb, TACOperand operand) {
+		if (operand instanceof TACBinary)
+			sb.append('(').append(operand).append(')');
+		else
+			sb.append(operand);
+	}
 	
 	@Override
 	public Modifiers getModifiers() {
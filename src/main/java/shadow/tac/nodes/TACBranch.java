@@ -44,7 +44,7 @@ public class TACBranch extends TACNode
 		kind = Kind.CONDITIONAL;
 		trueLabel = trueRef;
 		falseLabel = falseRef;
-		operand = check(cond, new SimpleModifiedType(Type.BOOLEAN));	
+		operand = check(cond, new SimpleModifiedType(Type.standard().BOOLEAN));	
 	}
 	
 	public void convertToDirect( TACLabel label )
@@ -159,11 +159,16 @@ public class TACCall extends TACUpdate
 				allLiterals = false;
 		}
 				
+		//inlined calls take the value of the copied body
+		if( getUpdatedValue() instanceof TACUpdate ) {
+			if( ((TACUpdate)getUpdatedValue()).update(currentlyUpdating) )
+				changed = true;
+		}
 		//right now, the only calls we're doing are on String objects 
-		if( methodRef instanceof TACMethodName ) {
+		else if( methodRef instanceof TACMethodName ) {
 			TACMethodName methodName = (TACMethodName) methodRef;
 		
-			if( (changed || getUpdatedValue() == null) && allLiterals && methodName.getSignature().getOuter().equals(Type.STRING) && ShadowString.isSupportedMethod(methodName.getSignature())  ) {
+			if( (changed || getUpdatedValue() == null) && allLiterals && methodName.getSignature().getOuter().equals(Type.standard().STRING) && ShadowString.isSupportedMethod(methodName.getSignature())  ) {
 				try {
 					TACLiteral string = (TACLiteral)value(parameters.get(0));				
 					ShadowValue result = ((ShadowString)string.getValue()).callMethod(this);
@@ -185,6 +190,6 @@ public class TACCall extends TACUpdate
 		if( getUpdatedValue() == null )
 			return this;
 		else
-			return getUpdatedValue();
+			return TACOperand.value(getUpdatedValue());
 	}
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Set;
 
 import shadow.ShadowException;
+import shadow.interpreter.ShadowInteger;
 import shadow.interpreter.ShadowValue;
 import shadow.tac.TACVariable;
 import shadow.tac.TACVisitor;
@@ -60,131 +61,121 @@ public class TACCast extends TACUpdate
 	}
 
 	
-	static int levels = 0;
-	
 	@SuppressWarnings("incomplete-switch")
 	public static TACOperand cast(TACNode node, ModifiedType destination, TACOperand op, boolean check)
 	{		
-		levels++;
-		try
-		{
-			if (destination.getType() == Type.NULL)
-				destination = new SimpleModifiedType(Type.OBJECT,
-						new Modifiers(Modifiers.NULLABLE));
+		if (destination.getType() == Type.NULL)
+			destination = new SimpleModifiedType(Type.standard().OBJECT,
+					new Modifiers(Modifiers.NULLABLE));
+		
+		Format in = typeToFormat(op);
+		Type inType = op.getType();
+		Type outType = destination.getType();
+		Format out = typeToFormat(destination);
+		ModifiedType intermediate;
+		
+		switch( in ) {
+		case ARRAY:			
+			switch( out ) {
+			case INTERFACE:					
+				return new TACCast(node, destination, op, Kind.OBJECT_TO_INTERFACE, check);
+			case OBJECT:
+				return new TACCast(node, destination, op, Kind.OBJECT_TO_OBJECT, check);
+			case SEQUENCE:
+				return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);				
+			}			
+			break;
 			
-			Format in = typeToFormat(op);
-			Type inType = op.getType();
-			Type outType = destination.getType();
-			Format out = typeToFormat(destination);
-			ModifiedType intermediate;
+		case INTERFACE:
+			switch( out ) {
+			case ARRAY:
+				return new TACCast(node, destination, op, Kind.INTERFACE_TO_OBJECT, check);
+			case INTERFACE:
+				intermediate = new SimpleModifiedType(Type.standard().OBJECT);
+				return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, false ), Kind.OBJECT_TO_INTERFACE, check);
+			case OBJECT:
+				intermediate = new SimpleModifiedType(Type.standard().OBJECT);
+				//the "same" types, no object cast needed
+				if( needsCast(intermediate, destination)  )				
+					return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, false ), Kind.OBJECT_TO_OBJECT, check);	
+				else
+					return new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, false );
+			case PRIMITIVE:
+				intermediate = new SimpleModifiedType(outType, new Modifiers(destination.getModifiers().getModifiers() | Modifiers.NULLABLE));
+				return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, check ), Kind.OBJECT_TO_PRIMITIVE, check);
+			case SEQUENCE:
+				return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);
+			}			
+			break;
 			
-			switch( in ) {
-			case ARRAY:			
-				switch( out ) {
-				case INTERFACE:					
-					return new TACCast(node, destination, op, Kind.OBJECT_TO_INTERFACE, check);
-				case OBJECT:
-					return new TACCast(node, destination, op, Kind.OBJECT_TO_OBJECT, check);
-				case SEQUENCE:
-					return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);				
-				}			
-				break;
-				
+		case NULL:
+			switch( out ) {
+			case ARRAY:
+				throw new IllegalArgumentException("Cannot cast a null to an array");
 			case INTERFACE:
-				switch( out ) {
-				case ARRAY:
-					return new TACCast(node, destination, op, Kind.INTERFACE_TO_OBJECT, check);
-				case INTERFACE:
-					intermediate = new SimpleModifiedType(Type.OBJECT);
-					return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, false ), Kind.OBJECT_TO_INTERFACE, check);
-				case OBJECT:
-					intermediate = new SimpleModifiedType(Type.OBJECT);
-					//the "same" types, no object cast needed
-					if( needsCast(intermediate, destination)  )				
-						return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, false ), Kind.OBJECT_TO_OBJECT, check);	
-					else
-						return new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, false );
-				case PRIMITIVE:
-					intermediate = new SimpleModifiedType(outType, new Modifiers(destination.getModifiers().getModifiers() | Modifiers.NULLABLE));
-					return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.INTERFACE_TO_OBJECT, check ), Kind.OBJECT_TO_PRIMITIVE, check);
-				case SEQUENCE:
-					return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);
-				}			
-				break;
-				
-			case NULL:
-				switch( out ) {
-				case ARRAY:
-					throw new IllegalArgumentException("Cannot cast a null to an array");
-				case INTERFACE:
-					return new TACCast(node, destination, op, Kind.NULL_TO_INTERFACE, check);				
-				case OBJECT:
-					return new TACCast(node, destination, op, Kind.OBJECT_TO_OBJECT, check);				
-				case SEQUENCE:
-					return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);				
-				}
-				break;
-				
+				return new TACCast(node, destination, op, Kind.NULL_TO_INTERFACE, check);				
 			case OBJECT:
-				switch( out ) {
-				case ARRAY:
-					return new TACCast(node, destination, op, Kind.OBJECT_TO_ARRAY, check);
-				case INTERFACE:
-					return new TACCast(node, destination, op, Kind.OBJECT_TO_INTERFACE, check);
-				case OBJECT:
-					return new TACCast(node, destination, op, Kind.OBJECT_TO_OBJECT, check);
-				case PRIMITIVE:
-					return new TACCast(node, destination, op, Kind.OBJECT_TO_PRIMITIVE, check);
-				case SEQUENCE:
-					return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);				
-				}
-	
-				break;
+				return new TACCast(node, destination, op, Kind.OBJECT_TO_OBJECT, check);				
+			case SEQUENCE:
+				return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);				
+			}
+			break;
+			
+		case OBJECT:
+			switch( out ) {
+			case ARRAY:
+				return new TACCast(node, destination, op, Kind.OBJECT_TO_ARRAY, check);
+			case INTERFACE:
+				return new TACCast(node, destination, op, Kind.OBJECT_TO_INTERFACE, check);
+			case OBJECT:
+				return new TACCast(node, destination, op, Kind.OBJECT_TO_OBJECT, check);
 			case PRIMITIVE:
-				switch( out ) {
-				case INTERFACE:
-					intermediate = new SimpleModifiedType(inType, new Modifiers(destination.getModifiers().getModifiers() | Modifiers.NULLABLE)); 
-					return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.PRIMITIVE_TO_OBJECT, false ), Kind.OBJECT_TO_INTERFACE, check);
-				case OBJECT:					
-					TACVariable temp = node.getMethod().addTempLocal(destination);							
-					//store into temporary for reference count purposes										
-					intermediate = new SimpleModifiedType(inType, new Modifiers(Modifiers.NULLABLE));
-					if( needsCast(intermediate, destination)  )
-						new TACLocalStore(node, temp, new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.PRIMITIVE_TO_OBJECT, false ), Kind.OBJECT_TO_OBJECT, check), false);
-					else
-						new TACLocalStore(node, temp, new TACCast(node, intermediate, op, Kind.PRIMITIVE_TO_OBJECT, false ), false);
-					return new TACLocalLoad(node, temp);
-				case PRIMITIVE:
-					return new TACCast(node, destination, op, Kind.PRIMITIVE_TO_PRIMITIVE, false );
-				case SEQUENCE:
-					break;
-				}
-	
-				break;
+				return new TACCast(node, destination, op, Kind.OBJECT_TO_PRIMITIVE, check);
+			case SEQUENCE:
+				return new TACCast(node, destination, op, Kind.ITEM_TO_SEQUENCE, check);				
+			}
+
+			break;
+		case PRIMITIVE:
+			switch( out ) {
+			case INTERFACE:
+				intermediate = new SimpleModifiedType(inType, new Modifiers(destination.getModifiers().getModifiers() | Modifiers.NULLABLE)); 
+				return new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.PRIMITIVE_TO_OBJECT, false ), Kind.OBJECT_TO_INTERFACE, check);
+			case OBJECT:					
+				TACVariable temp = node.getMethod().addTempLocal(destination);							
+				//store into temporary for reference count purposes										
+				intermediate = new SimpleModifiedType(inType, new Modifiers(Modifiers.NULLABLE));
+				if( needsCast(intermediate, destination)  )
+					new TACLocalStore(node, temp, new TACCast(node, destination, new TACCast(node, intermediate, op, Kind.PRIMITIVE_TO_OBJECT, false ), Kind.OBJECT_TO_OBJECT, check), false);
+				else
+					new TACLocalStore(node, temp, new TACCast(node, intermediate, op, Kind.PRIMITIVE_TO_OBJECT, false ), false);
+				return new TACLocalLoad(node, temp);
+			case PRIMITIVE:
+				return new TACCast(node, destination, op, Kind.PRIMITIVE_TO_PRIMITIVE, false );
 			case SEQUENCE:
-				switch( out ) {
-				case ARRAY:
-				case INTERFACE:
-				case OBJECT:
-				case PRIMITIVE:
-					intermediate = ((SequenceType)inType).get(0);
-					if( needsCast(intermediate, destination) )				
-						return TACCast.cast(node, destination, new TACCast(node, intermediate, op, Kind.SEQUENCE_TO_ITEM, check), check);
-					else
-						return new TACCast(node, destination, op, Kind.SEQUENCE_TO_ITEM, check);
-				case SEQUENCE:
-					return new TACCast(node, destination, op, Kind.SEQUENCE_TO_SEQUENCE, check);
-				}
-	
 				break;
 			}
-			
-			throw new IllegalArgumentException();
-		}
-		finally
-		{
-			levels--;
+
+			break;
+		case SEQUENCE:
+			switch( out ) {
+			case ARRAY:
+			case INTERFACE:
+			case OBJECT:
+			case PRIMITIVE:
+				intermediate = ((SequenceType)inType).get(0);
+				if( needsCast(intermediate, destination) )				
+					return TACCast.cast(node, destination, new TACCast(node, intermediate, op, Kind.SEQUENCE_TO_ITEM, check), check);
+				else
+					return new TACCast(node, destination, op, Kind.SEQUENCE_TO_ITEM, check);
+			case SEQUENCE:
+				return new TACCast(node, destination, op, Kind.SEQUENCE_TO_SEQUENCE, check);
+			}
+
+			break;
 		}
+		
+		throw new IllegalArgumentException();
 	}
 	
 	
@@ -293,9 +284,27 @@ public class TACCast extends TACUpdate
 		else
 			throw new IllegalArgumentException("Unknown source type: " + sourceType);
 				
+		TACOperand destClass = new TACClass(this, destination).getClassData();
+		
+		// Objects whose class is exactly the source type list the interface
+		// at the same position as the source type does, so that position is
+		// checked before searching
+		int index = -1;
+		if( sourceType instanceof ClassType && !(sourceType instanceof ArrayType) )
+			index = sourceType.getAllInterfaces().indexOf(destination);
+		
+		if( index >= 0 ) {
+			TACOperand position = new TACLiteral(this, new ShadowInteger(index));
+			SequenceType params = new SequenceType();
+			params.add(destClass);
+			params.add(position);
+			TACMethodName methodRef = new TACMethodName(this, srcClass,
+					Type.standard().CLASS.getMatchingMethod("interfaceData", params));
+			return new TACCall(this, methodRef, methodRef.getPrefix(), destClass, position);
+		}
+		
 		TACMethodName methodRef = new TACMethodName(this, srcClass,
-				Type.CLASS.getMethodOverloads("interfaceData").get(0));
-		TACOperand destClass = new TACClass(this, destination).getClassData();					
+				Type.standard().CLASS.getMatchingMethod("interfaceData", new SequenceType(Type.standard().CLASS)));
 		return new TACCall(this, methodRef, methodRef.getPrefix(), destClass);
 	}
 	
@@ -312,7 +321,7 @@ public class TACCast extends TACUpdate
 	private void objectToArrayCheck(TACOperand op) {
 		//get class from object
 		TACMethodName methodName = new TACMethodName(this, op,
-				Type.OBJECT.getMatchingMethod("getClass", new SequenceType()));						
+				Type.standard().OBJECT.getMatchingMethod("getClass", new SequenceType()));						
 		
 		TACOperand operandClass = new TACCall(this, methodName, methodName.getPrefix());
 		TACOperand destinationClass = new TACClass(this, type).getClassData();
@@ -341,13 +350,13 @@ public class TACCast extends TACUpdate
 				
 		throwLabel.insertBefore(this);
 		
-		TACOperand object = new TACNewObject(this, Type.CAST_EXCEPTION);
+		TACOperand object = new TACNewObject(this, Type.standard().CAST_EXCEPTION);
 		SequenceType params = new SequenceType();			
 		params.add(operandClass);
 		params.add(destinationClass);
 		
 		MethodSignature signature;
-		signature = Type.CAST_EXCEPTION.getMatchingMethod("create", params);
+		signature = Type.standard().CAST_EXCEPTION.getMatchingMethod("create", params);
 					
 		methodName = new TACMethodName(this, signature);			
 		TACCall exception = new TACCall(this, methodName, object, operandClass, destinationClass);
@@ -360,13 +369,13 @@ public class TACCast extends TACUpdate
 	private void objectToObjectCheck(TACOperand op) {
 		//get class from object
 		TACMethodName methodName = new TACMethodName(this, op,
-				Type.OBJECT.getMatchingMethod("getClass", new SequenceType()));						
+				Type.standard().OBJECT.getMatchingMethod("getClass", new SequenceType()));						
 		
 		TACOperand operandClass = new TACCall(this, methodName, methodName.getPrefix());
 		TACOperand destinationClass = new TACClass(this, type).getClassData();
 		
 		methodName = new TACMethodName(this, operandClass,
-				Type.CLASS.getMatchingMethod("isSubtype", new SequenceType(Type.CLASS)));
+				Type.standard().CLASS.getMatchingMethod("isSubtype", new SequenceType(Type.standard().CLASS)));
 		
 		
 		TACOperand result = new TACCall(this, methodName, methodName.getPrefix(), destinationClass);
@@ -377,13 +386,13 @@ public class TACCast extends TACUpdate
 		
 		throwLabel.insertBefore(this);
 		
-		TACOperand object = new TACNewObject(this, Type.CAST_EXCEPTION);
+		TACOperand object = new TACNewObject(this, Type.standard().CAST_EXCEPTION);
 		SequenceType params = new SequenceType();			
 		params.add(operandClass);
 		params.add(destinationClass);
 		
 		MethodSignature signature;
-		signature = Type.CAST_EXCEPTION.getMatchingMethod("create", params);
+		signature = Type.standard().CAST_EXCEPTION.getMatchingMethod("create", params);
 					
 		methodName = new TACMethodName(this, signature);			
 		TACCall exception = new TACCall(this, methodName, object, operandClass, destinationClass);
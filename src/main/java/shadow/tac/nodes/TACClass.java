@@ -45,9 +45,9 @@ public class TACClass extends TACOperand
 		@Override
 		public Type getType() {
 			if( type instanceof ArrayType || type.isParameterized() )
-					return Type.GENERIC_CLASS;
+					return Type.standard().GENERIC_CLASS;
 			
-			return Type.CLASS;
+			return Type.standard().CLASS;
 		}
 
 		@Override
@@ -94,7 +94,7 @@ public class TACClass extends TACOperand
 		@Override
 		public Type getType() {
 			if( type instanceof InterfaceType )
-				return Type.METHOD_TABLE;
+				return Type.standard().METHOD_TABLE;
 			else if( type instanceof ArrayType )
 				return new MethodTableType(((ArrayType)type).convertToGeneric());
 			else
@@ -161,8 +161,8 @@ public class TACClass extends TACOperand
 			//get arrayref to index location
 			
 			TACVariable _this = method.getThis();
-			TACLoad classValue = new TACLoad(this, new TACFieldRef(new TACLocalLoad(this, _this), new SimpleModifiedType(Type.CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")); 
-			TACOperand genericClass = TACCast.cast(this, new SimpleModifiedType(Type.GENERIC_CLASS), classValue);
+			TACLoad classValue = new TACLoad(this, new TACFieldRef(new TACLocalLoad(this, _this), new SimpleModifiedType(Type.standard().CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")); 
+			TACOperand genericClass = TACCast.cast(this, new SimpleModifiedType(Type.standard().GENERIC_CLASS), classValue);
 			TACOperand generics = new TACLoad(this, new TACFieldRef(genericClass, "parameters"));
 			TACOperand methodTables = new TACLoad(this, new TACFieldRef(genericClass, "tables"));			
 			classData = new TACLoad(this, new TACArrayRef(this, generics, new TACLiteral( this, new ShadowInteger((long)index)), false));
@@ -183,7 +183,7 @@ public class TACClass extends TACOperand
 			}
 			else if( type.equals(outer) ) { // just get the current class!
 				TACVariable _this = getMethod().getThis();
-				classData = new TACLoad(this, new TACFieldRef(new TACLocalLoad(this, _this), new SimpleModifiedType(Type.CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")); 
+				classData = new TACLoad(this, new TACFieldRef(new TACLocalLoad(this, _this), new SimpleModifiedType(Type.standard().CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")); 
 			}
 			else  //type has uninstantiated generics within it				
 				classData = lookUpClass(type, outer);
@@ -208,13 +208,13 @@ public class TACClass extends TACOperand
 			
 			if( i < size ) {				
 				TACVariable _this = getMethod().getThis();
-				TACLoad classValue = new TACLoad(this, new TACFieldRef(new TACLocalLoad(this, _this), new SimpleModifiedType(Type.CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")); 
-				TACOperand genericClass = TACCast.cast(this, new SimpleModifiedType(Type.GENERIC_CLASS), classValue);
+				TACLoad classValue = new TACLoad(this, new TACFieldRef(new TACLocalLoad(this, _this), new SimpleModifiedType(Type.standard().CLASS, new Modifiers(Modifiers.IMMUTABLE)), "class")); 
+				TACOperand genericClass = TACCast.cast(this, new SimpleModifiedType(Type.standard().GENERIC_CLASS), classValue);
 				TACOperand generics = new TACLoad(this, new TACFieldRef(genericClass, "parameters"));
 				TACOperand classData = new TACLoad(this, new TACArrayRef(this, generics, new TACLiteral( this, new ShadowInteger((long)(i + outerClass.getTypeParameters().size()))), false));
 				
 				//these extra classes are always GenericClasses, so we have to throw in a cast
-				return TACCast.cast(this, new SimpleModifiedType(Type.GENERIC_CLASS), classData); 
+				return TACCast.cast(this, new SimpleModifiedType(Type.standard().GENERIC_CLASS), classData); 
 			}
 			else
 				throw new IllegalArgumentException("Type " + type + " not found in dependency list for class " + outer);
@@ -28,7 +28,7 @@ public class TACCopyMemory extends TACOperand
 		//checks can remove references
 		this.destination = check(destination, destination);
 		this.source = check(source, source);
-		this.size = check(size, new SimpleModifiedType(Type.LONG));
+		this.size = check(size, new SimpleModifiedType(Type.standard().LONG));
 		this.isArray = isArray;
 	}
 	
@@ -1,6 +1,8 @@
 package shadow.tac.nodes;
 
 import shadow.ShadowException;
+import shadow.interpreter.ShadowDouble;
+import shadow.interpreter.ShadowFloat;
 import shadow.interpreter.ShadowValue;
 import shadow.tac.TACVisitor;
 import shadow.typecheck.type.Modifiers;
@@ -74,12 +76,34 @@ public class TACLiteral extends TACOperand
 			return true;
 		
 		TACLiteral literal = (TACLiteral) object;
-		try{
-			return value.equals(literal.value);
+		return same(value, literal.value);
+	}
+	
+	/**
+	 * Checks whether two constant values are interchangeable. Floating-point
+	 * values are compared by their bits, since <code>0.0</code> and
+	 * <code>-0.0</code> are equal but give different results when divided
+	 * by.
+	 * @param first		first value
+	 * @param second	second value
+	 * @return			true if either value can be used in place of the other
+	 */
+	public static boolean same(ShadowValue first, ShadowValue second) {
+		if( first instanceof ShadowDouble || second instanceof ShadowDouble )
+			return first instanceof ShadowDouble && second instanceof ShadowDouble &&
+					Double.doubleToRawLongBits(((ShadowDouble)first).getValue()) ==
+					Double.doubleToRawLongBits(((ShadowDouble)second).getValue());
+		if( first instanceof ShadowFloat || second instanceof ShadowFloat )
+			return first instanceof ShadowFloat && second instanceof ShadowFloat &&
+					Float.floatToRawIntBits(((ShadowFloat)first).getValue()) ==
+					Float.floatToRawIntBits(((ShadowFloat)second).getValue());
+
+		try {
+			return first.equals(second);
 		}
 		catch(ShadowException e) {
 			return false;
-		}		
+		}
 	}
 	
 	@Override
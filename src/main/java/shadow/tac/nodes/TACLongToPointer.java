@@ -22,7 +22,7 @@ public class TACLongToPointer extends TACOperand {
 	{
 		super(node);
 		//check is used in case the ulong is nullable and must be converted from object form 
-		this.value = check(value, new SimpleModifiedType(Type.ULONG));
+		this.value = check(value, new SimpleModifiedType(Type.standard().ULONG));
 		this.type = type;
 	}	
 
@@ -15,6 +15,7 @@ public class TACMethodName extends TACOperand implements TACMethodRef {
 	private TACMethodRef wrapped;
 	private MethodSignature signature;	
 	private boolean isSuper = false;
+	private boolean isDirect = false; // Called without using the method table
 
 	public TACMethodName(TACNode node, MethodSignature sig) {
 		this(node, null, sig);
@@ -150,6 +151,20 @@ public class TACMethodName extends TACOperand implements TACMethodRef {
 		return isSuper;
 	}
 	
+	/**
+	 * Marks a method as having only one possible implementation, so that it
+	 * can be called directly even though the method table would normally be
+	 * used to find it.
+	 * @param value		whether the method is called directly
+	 */
+	public void setDirect(boolean value) {
+		isDirect = value;
+	}
+	
+	public boolean isDirect() {
+		return isDirect;
+	}
+	
 	public MethodSignature getSignature() {
 		return signature;
 	}
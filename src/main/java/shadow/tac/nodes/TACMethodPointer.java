@@ -33,7 +33,7 @@ public class TACMethodPointer extends TACOperand implements TACMethodRef {
 	@Override
 	public SequenceType getParameterTypes() {
 		SequenceType paramTypes = new SequenceType();
-		paramTypes.add(new SimpleModifiedType(Type.OBJECT));
+		paramTypes.add(new SimpleModifiedType(Type.standard().OBJECT));
 		paramTypes.addAll(type.getMethodType().getParameterTypes());		
 		return paramTypes;
 	}
@@ -41,7 +41,7 @@ public class TACMethodPointer extends TACOperand implements TACMethodRef {
 	@Override
 	public SequenceType getUninstantiatedParameterTypes() {		
 		SequenceType paramTypes = new SequenceType();
-		paramTypes.add(new SimpleModifiedType(Type.OBJECT));
+		paramTypes.add(new SimpleModifiedType(Type.standard().OBJECT));
 		paramTypes.addAll(type.getMethodType().getTypeWithoutTypeArguments().getParameterTypes());		
 		return paramTypes;
 	}
@@ -19,6 +19,7 @@ public class TACNewArray extends TACOperand
 	private ArrayType type;
 	private TACOperand class_;	
 	private TACOperand size;
+	private long stackLength = -1; // Known length of arrays allocated on the stack
 
 	public TACNewArray(TACNode node, ArrayType arrayType, TACOperand class_,
 			TACOperand size) {
@@ -26,8 +27,8 @@ public class TACNewArray extends TACOperand
 		type = arrayType;
 		if( arrayType.isNullable() )
 			getModifiers().addModifier(Modifiers.NULLABLE);
-		this.class_ = check(class_, new SimpleModifiedType(Type.GENERIC_CLASS));
-		this.size = check(size, new SimpleModifiedType(Type.LONG));
+		this.class_ = check(class_, new SimpleModifiedType(Type.standard().GENERIC_CLASS));
+		this.size = check(size, new SimpleModifiedType(Type.standard().LONG));
 	}
 
 	public TACOperand getAllocationClass() {
@@ -49,6 +50,23 @@ public class TACNewArray extends TACOperand
 		return size;
 	}
 	
+	/**
+	 * Marks the array to be allocated on the stack instead of the heap,
+	 * which is only safe when it never leaves the method.
+	 * @param length		constant length of the array
+	 */
+	public void setStackLength(long length) {
+		stackLength = length;
+	}
+	
+	public long getStackLength() {
+		return stackLength;
+	}
+	
+	public boolean isStackAllocated() {
+		return stackLength >= 0;
+	}
+	
 	@Override
 	public TACOperand getOperand(int num) {
 		if( num == 0 )			
@@ -31,15 +31,15 @@ public class TACNewObject extends TACOperand
 		//class needs real type
 		TACClass _class = new TACClass(this, type);
 		classData = _class.getClassData();
-		if( !classData.getType().equals(Type.CLASS) )
-			classData = TACCast.cast(this, new SimpleModifiedType(Type.CLASS), classData);
+		if( !classData.getType().equals(Type.standard().CLASS) )
+			classData = TACCast.cast(this, new SimpleModifiedType(Type.standard().CLASS), classData);
 		methodTable = _class.getMethodTable();
 		
 		//there's a chance that it could be an interface, which isn't allowed
 		if( type instanceof TypeParameter ) {
-			TACOperand flags = new TACLoad(this, new TACFieldRef(classData, Type.CLASS.getField("flags"), "flags" ));
+			TACOperand flags = new TACLoad(this, new TACFieldRef(classData, Type.standard().CLASS.getField("flags"), "flags" ));
 			TACLiteral interfaceFlag = new TACLiteral(this, new ShadowInteger(LLVMOutput.INTERFACE) );			
-			TACOperand value = new TACBinary(this, flags, Type.INT.getMatchingMethod("bitAnd", new SequenceType(interfaceFlag)), "&", interfaceFlag);			
+			TACOperand value = new TACBinary(this, flags, Type.standard().INT.getMatchingMethod("bitAnd", new SequenceType(interfaceFlag)), "&", interfaceFlag);			
 			TACOperand test = new TACBinary(this, value, new TACLiteral(this, new ShadowInteger(0))); //no operand is straight compare ===
 			
 			TACMethod method = getMethod();
@@ -48,9 +48,9 @@ public class TACNewObject extends TACOperand
 			new TACBranch(this, test, doneLabel, throwLabel);			
 			
 			throwLabel.insertBefore(this);					
-			TACOperand object = new TACNewObject(this, Type.INTERFACE_CREATE_EXCEPTION);
-			TACOperand name = new TACLoad(this, new TACFieldRef(classData, Type.CLASS.getField("name"), "name"));
-			MethodSignature signature = Type.INTERFACE_CREATE_EXCEPTION.getMatchingMethod("create", new SequenceType(name));
+			TACOperand object = new TACNewObject(this, Type.standard().INTERFACE_CREATE_EXCEPTION);
+			TACOperand name = new TACLoad(this, new TACFieldRef(classData, Type.standard().CLASS.getField("name"), "name"));
+			MethodSignature signature = Type.standard().INTERFACE_CREATE_EXCEPTION.getMatchingMethod("create", new SequenceType(name));
 			
 			TACCall exception = new TACCall(this, new TACMethodName(this, signature), object, name);
 			new TACThrow(this, exception);
@@ -78,7 +78,7 @@ public class TACNewObject extends TACOperand
 	@Override
 	public ClassType getType()
 	{
-		return Type.OBJECT;
+		return Type.standard().OBJECT;
 	}	
 
 	@Override
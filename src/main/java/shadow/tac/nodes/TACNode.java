@@ -224,7 +224,7 @@ public abstract class TACNode implements Iterable<TACOperand> {
         else if ((operandType instanceof SequenceType) != (typeType instanceof SequenceType))
             throw new IllegalArgumentException(operandType + " and " + typeType + " are not both sequence types");
         
-        if( operandType.equals(Type.METHOD) && 
+        if( operandType.equals(Type.standard().METHOD) && 
         		typeType instanceof MethodReferenceType )
         	return operand;
 
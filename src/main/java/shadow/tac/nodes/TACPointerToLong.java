@@ -23,7 +23,7 @@ public class TACPointerToLong extends TACOperand {
 
 	@Override
 	public Type getType() {		
-		return Type.ULONG;
+		return Type.standard().ULONG;
 	}
 
 	@Override
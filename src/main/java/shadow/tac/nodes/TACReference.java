@@ -14,9 +14,9 @@ public abstract class TACReference implements ModifiedType {
 		
 		return 	!(type instanceof PointerType) &&
 				!(type instanceof SingletonType) &&				
-				!type.equals(Type.CLASS) &&
-				!type.equals(Type.GENERIC_CLASS) &&
-				!type.equals(Type.METHOD_TABLE) &&
+				!type.equals(Type.standard().CLASS) &&
+				!type.equals(Type.standard().GENERIC_CLASS) &&
+				!type.equals(Type.standard().METHOD_TABLE) &&
 				(!type.isPrimitive() || type.getModifiers().isNullable());
 	}
 }
@@ -0,0 +1,119 @@
+package shadow.tac.nodes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import shadow.ShadowException;
+import shadow.interpreter.InterpreterException;
+import shadow.interpreter.ShadowValue;
+import shadow.tac.TACVisitor;
+
+/**
+ * TAC representation of a multi-way branch on an integral value, used to
+ * implement switch statements whose cases are all literals.  Each case
+ * pairs a literal with the label to branch to when the value is equal to
+ * it, and the default label is used when no case matches.  It is output as
+ * a single LLVM <code>switch</code> instruction, which LLVM can turn into a
+ * jump table or a binary search, instead of a chain of comparisons.
+ */
+public class TACSwitch extends TACNode
+{
+	private TACOperand value;
+	private TACLabel defaultLabel;
+	private List<TACLiteral> caseValues = new ArrayList<TACLiteral>();
+	private List<TACLabel> caseLabels = new ArrayList<TACLabel>();
+
+	public TACSwitch(TACNode node, TACOperand value, TACLabel defaultLabel)
+	{
+		super(node);
+		this.value = value;
+		this.defaultLabel = defaultLabel;
+	}
+
+	/**
+	 * Adds a case to the switch.  The literal must have the same type as
+	 * the value being switched on and must not already be a case.
+	 * @param literal value of the case
+	 * @param label label to branch to
+	 */
+	public void addCase(ShadowValue literal, TACLabel label)
+	{
+		caseValues.add(new TACLiteral(this, literal));
+		caseLabels.add(label);
+	}
+
+	/*
+	 * Keeps only the given label as the place to branch to, as when the
+	 * value is known ahead of time.
+	 */
+	public void convertToDirect(TACLabel label)
+	{
+		caseValues.clear();
+		caseLabels.clear();
+		defaultLabel = label;
+	}
+
+	public TACOperand getValue()
+	{
+		return value;
+	}
+	public TACLabel getDefault()
+	{
+		return defaultLabel;
+	}
+	public List<TACLiteral> getCaseValues()
+	{
+		return Collections.unmodifiableList(caseValues);
+	}
+	public List<TACLabel> getCaseLabels()
+	{
+		return Collections.unmodifiableList(caseLabels);
+	}
+
+	/**
+	 * Gets the label that the switch branches to for a known value.
+	 * @param literal value being switched on
+	 * @return label of the matching case or the default label, or
+	 * <code>null</code> if the value cannot be compared with the cases
+	 */
+	public TACLabel getLabel(ShadowValue literal)
+	{
+		try {
+			for( int i = 0; i < caseValues.size(); ++i )
+				if( literal.equals(caseValues.get(i).getValue()) )
+					return caseLabels.get(i);
+		}
+		catch( InterpreterException e ) {
+			return null;
+		}
+		return defaultLabel;
+	}
+
+	@Override
+	public int getNumOperands()
+	{
+		return 1;
+	}
+	@Override
+	public TACOperand getOperand(int num)
+	{
+		if( num == 0 )
+			return value;
+		throw new IndexOutOfBoundsException("" + num);
+	}
+
+	@Override
+	public void accept(TACVisitor visitor) throws ShadowException
+	{
+		visitor.visit(this);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("switch ").append(value).append(" [");
+		for( int i = 0; i < caseValues.size(); ++i )
+			sb.append(' ').append(caseValues.get(i)).append(": ").append(caseLabels.get(i));
+		return sb.append(" ] default: ").append(defaultLabel).toString();
+	}
+}
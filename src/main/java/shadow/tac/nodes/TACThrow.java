@@ -19,7 +19,7 @@ public class TACThrow extends TACNode
 	public TACThrow(TACNode node, TACOperand op) {
 		super(node);
 		node.getBlock().addUnwindSource();
-		exception = check(op, new SimpleModifiedType(Type.OBJECT));
+		exception = check(op, new SimpleModifiedType(Type.standard().OBJECT));
 	}
 	
 	public TACOperand getException() {
@@ -30,7 +30,7 @@ public class TACTypeId extends TACOperand
 	@Override
 	public Type getType()
 	{
-		return Type.INT;
+		return Type.standard().INT;
 	}
 	@Override
 	public int getNumOperands()
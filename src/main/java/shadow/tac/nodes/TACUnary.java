@@ -28,7 +28,7 @@ public class TACUnary extends TACUpdate
 	//only for !
 	public TACUnary(TACNode node, String op, TACOperand operand)
 	{
-		this( node, op, operand, new SimpleModifiedType(Type.BOOLEAN), new SimpleModifiedType(Type.BOOLEAN));
+		this( node, op, operand, new SimpleModifiedType(Type.standard().BOOLEAN), new SimpleModifiedType(Type.standard().BOOLEAN));
 	}
 
 	public TACUnary(TACNode node, MethodSignature signature, String op,	TACOperand operand)
@@ -36,6 +36,17 @@ public class TACUnary extends TACUpdate
 		this( node, op, operand, new SimpleModifiedType(signature.getOuter()), signature.getReturnTypes().get(0) );
 	}
 	
+	/**
+	 * Creates a copy of a unary operation on a new operand.
+	 * @param node			node to insert before
+	 * @param other			operation to copy
+	 * @param operand		new operand
+	 */
+	public TACUnary(TACNode node, TACUnary other, TACOperand operand)
+	{
+		this( node, other.operation, operand, other.operand, other.result );
+	}
+	
 	private TACUnary(TACNode node, String op, TACOperand operand, ModifiedType operandType, 
 			ModifiedType resultType )
 	{
@@ -25,6 +25,7 @@ import java.util.Map;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.parse.Context;
 import shadow.parse.Context.AssignmentKind;
@@ -40,6 +41,7 @@ import shadow.typecheck.type.Modifiers;
 import shadow.typecheck.type.PropertyType;
 import shadow.typecheck.type.SequenceType;
 import shadow.typecheck.type.SingletonType;
+import shadow.typecheck.type.StandardTypes;
 import shadow.typecheck.type.SubscriptType;
 import shadow.typecheck.type.Type;
 import shadow.typecheck.type.Type.ImportInformation;
@@ -73,6 +75,7 @@ public abstract class BaseChecker extends ShadowVisitorErrorReporter {
 		INITIALIZATION;
 	}
 
+	protected final Session session;
 	protected final Package packageTree;
 	// Current method is a stack since Shadow allows methods to be defined inside of methods.
 	protected final LinkedList<Context> currentMethod = new LinkedList<Context>();
@@ -84,13 +87,24 @@ public abstract class BaseChecker extends ShadowVisitorErrorReporter {
 
 	/**
 	 * Creates a new <code>BaseChecker</code> with the given tree of packages.
+	 * @param session compilation being checked
 	 * @param packageTree root of all packages
 	 */
-	public BaseChecker( Package packageTree, ErrorReporter reporter ) {		
+	public BaseChecker( Session session, Package packageTree, ErrorReporter reporter ) {		
 		super( reporter );
+		this.session = session;
 		this.packageTree = packageTree;
 	}
 
+	/**
+	 * Gets the predefined types, such as <code>Object</code> and
+	 * <code>String</code>, of the compilation being checked.
+	 * @return standard types of the session
+	 */
+	protected StandardTypes standard() {
+		return session.getStandardTypes();
+	}
+
 	/**
 	 * Clears out the data structures within the checker,
 	 * returning it to a state similar to just after construction.
@@ -263,12 +277,12 @@ public abstract class BaseChecker extends ShadowVisitorErrorReporter {
 		}
 		else if( leftArray ) {
 			if( leftModifiers.isNullable() &&
-					!rightType.getTypeWithoutTypeArguments().equals( Type.ARRAY_NULLABLE ) )
+					!rightType.getTypeWithoutTypeArguments().equals( Type.standard().ARRAY_NULLABLE ) )
 				ErrorReporter.addError(errors, Error.INVALID_ASSIGNMENT,
 						"Right hand side with non-nullable array type cannot be assigned to nullable left hand side",
 						rightType, leftType);
 			else if( !leftModifiers.isNullable() &&
-					rightType.getTypeWithoutTypeArguments().equals( Type.ARRAY_NULLABLE ) )
+					rightType.getTypeWithoutTypeArguments().equals( Type.standard().ARRAY_NULLABLE ) )
 				ErrorReporter.addError(errors, Error.INVALID_ASSIGNMENT,
 						"Right hand side with nullable value cannot be assigned to non-nullable left hand side",
 						rightType, leftType);
@@ -460,31 +474,31 @@ public abstract class BaseChecker extends ShadowVisitorErrorReporter {
 	 */
 	public static ClassType literalToType( ShadowParser.LiteralContext literal ) {
 		if( literal.ByteLiteral() != null )
-			return Type.BYTE;
+			return Type.standard().BYTE;
 		else if( literal.CodeLiteral() != null )
-			return Type.CODE;
+			return Type.standard().CODE;
 		else if( literal.ShortLiteral() != null )
-			return Type.SHORT;
+			return Type.standard().SHORT;
 		else if( literal.IntLiteral() != null )
-			return Type.INT;
+			return Type.standard().INT;
 		else if( literal.LongLiteral() != null )
-			return Type.LONG;
+			return Type.standard().LONG;
 		else if( literal.FloatLiteral() != null )
-			return Type.FLOAT;
+			return Type.standard().FLOAT;
 		else if( literal.DoubleLiteral() != null )
-			return Type.DOUBLE;			
+			return Type.standard().DOUBLE;			
 		else if( literal.StringLiteral() != null )
-			return Type.STRING;
+			return Type.standard().STRING;
 		else if( literal.UByteLiteral() != null )
-			return Type.UBYTE;
+			return Type.standard().UBYTE;
 		else if( literal.UShortLiteral() != null )
-			return Type.USHORT;
+			return Type.standard().USHORT;
 		else if( literal.UIntLiteral() != null )
-			return Type.UINT;
+			return Type.standard().UINT;
 		else if( literal.ULongLiteral() != null )
-			return Type.ULONG;
+			return Type.standard().ULONG;
 		else if( literal.BooleanLiteral() != null )
-			return Type.BOOLEAN;
+			return Type.standard().BOOLEAN;
 		else if( literal.NullLiteral() != null )
 			return Type.NULL;
 
@@ -498,18 +512,18 @@ public abstract class BaseChecker extends ShadowVisitorErrorReporter {
 	 */
 	public static ClassType nameToPrimitiveType(String name) {
 		switch(name) {
-		case "boolean": return Type.BOOLEAN;
-		case "byte":	return Type.BYTE;
-		case "code":	return Type.CODE;				
-		case "double":	return  Type.DOUBLE;
-		case "float":	return  Type.FLOAT;
-		case "int":		return Type.INT;
-		case "long":	return  Type.LONG;
-		case "short":	return  Type.SHORT; 
-		case "ubyte":	return  Type.UBYTE;
-		case "uint":	return  Type.UINT;
-		case "ulong":	return Type.ULONG;
-		case "ushort":	return Type.USHORT;
+		case "boolean": return Type.standard().BOOLEAN;
+		case "byte":	return Type.standard().BYTE;
+		case "code":	return Type.standard().CODE;				
+		case "double":	return  Type.standard().DOUBLE;
+		case "float":	return  Type.standard().FLOAT;
+		case "int":		return Type.standard().INT;
+		case "long":	return  Type.standard().LONG;
+		case "short":	return  Type.standard().SHORT; 
+		case "ubyte":	return  Type.standard().UBYTE;
+		case "uint":	return  Type.standard().UINT;
+		case "ulong":	return Type.standard().ULONG;
+		case "ushort":	return Type.standard().USHORT;
 		default: 		return null;
 		}
 	}
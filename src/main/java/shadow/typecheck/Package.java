@@ -54,6 +54,9 @@ public class Package implements Comparable<Package>, Iterable<Type> {
 	private final HashMap<String, Package> children = new HashMap<String, Package>();
 	private final String name;
 	private final Package parent;
+	// Names never change once a package is created, so they are built only once
+	private volatile String qualifiedName = null;
+	private volatile String mangledName = null;
 	
 	// Types inside the current package
 	private final HashMap<String, Type> types = new HashMap<String, Type>();
@@ -147,10 +150,15 @@ public class Package implements Comparable<Package>, Iterable<Type> {
 	 * @return	full package name
 	 */
 	public String getQualifiedName() {
-		if (parent == null || parent.getName().isEmpty())
-			return getName();
-		
-		return parent.getQualifiedName() + ':' + getName();
+		String name = qualifiedName;
+		if( name == null ) {
+			if (parent == null || parent.getName().isEmpty())
+				name = getName();
+			else
+				name = parent.getQualifiedName() + ':' + getName();
+			qualifiedName = name;
+		}
+		return name;
 	}
 	
 	/**
@@ -158,10 +166,15 @@ public class Package implements Comparable<Package>, Iterable<Type> {
 	 * @return	mangled package name
 	 */	
 	public String getMangledName() {
-		if (parent == null || parent.getName().isEmpty())
-			return Type.mangle(getName());
-		
-		return parent.getMangledName() + '.' + Type.mangle(getName());
+		String name = mangledName;
+		if( name == null ) {
+			if (parent == null || parent.getName().isEmpty())
+				name = Type.mangle(getName());
+			else
+				name = parent.getMangledName() + '.' + Type.mangle(getName());
+			mangledName = name;
+		}
+		return name;
 	}
 	
 	/**
@@ -2,6 +2,7 @@ package shadow.typecheck;
 
 import java.util.*;
 
+import shadow.Session;
 import shadow.parse.Context;
 import shadow.typecheck.TypeCheckException.Error;
 import shadow.typecheck.type.ModifiedType;
@@ -44,8 +45,8 @@ public abstract class ScopedChecker extends BaseChecker {
 	}
 	
 	
-	public ScopedChecker(Package packageTree, ErrorReporter reporter) {
-		super(packageTree, reporter);
+	public ScopedChecker(Session session, Package packageTree, ErrorReporter reporter) {
+		super(session, packageTree, reporter);
 	}
 	
 	/**
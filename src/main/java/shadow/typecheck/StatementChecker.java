@@ -24,6 +24,7 @@ import java.util.Set;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.interpreter.ShadowBoolean;
 import shadow.interpreter.ShadowCode;
@@ -50,8 +51,8 @@ public class StatementChecker extends ScopedChecker {
 	/* Stack for current prefix (needed for arbitrarily long chains of expressions). */
 	private LinkedList<Context> curPrefix = new LinkedList<>();
 
-	public StatementChecker( Package packageTree, ErrorReporter reporter ) {
-		super(packageTree, reporter);
+	public StatementChecker( Session session, Package packageTree, ErrorReporter reporter ) {
+		super(session, packageTree, reporter);
 	}
 	
 	public void check(Context node) throws ShadowException {
@@ -532,7 +533,7 @@ public class StatementChecker extends ScopedChecker {
 			Context currentNode = (Context)ctx.getChild(i + 1);
 			Type current = currentNode.getType();
 			
-			if( result.hasUninstantiatedInterface(Type.CAN_COMPARE) ) {
+			if( result.hasUninstantiatedInterface(standard().CAN_COMPARE) ) {
 				SequenceType argument = new SequenceType(currentNode);												
 				 
 				MethodSignature signature = setMethodType(ctx, result, "compare", argument );
@@ -552,7 +553,7 @@ public class StatementChecker extends ScopedChecker {
 				break;
 			}
 			
-			result = Type.BOOLEAN;  //boolean after one comparison
+			result = standard().BOOLEAN;  //boolean after one comparison
 		}
 		
 		ctx.setType(result); //also propagates type up if only one child
@@ -575,7 +576,7 @@ public class StatementChecker extends ScopedChecker {
 				first = false;				
 			}
 			else {
-				result = Type.STRING;
+				result = standard().STRING;
 				if( child.getType() instanceof SequenceType ) {
 					addError(child, Error.INVALID_TYPE, "Cannot apply operator # to sequence type " + child.getType(), child.getType(), result);
 					result = Type.UNKNOWN;						
@@ -609,7 +610,7 @@ public class StatementChecker extends ScopedChecker {
 					break;
 				}						
 				
-				if( resultType.hasUninstantiatedInterface(Type.CAN_EQUAL) ) {
+				if( resultType.hasUninstantiatedInterface(standard().CAN_EQUAL) ) {
 					SequenceType argument = new SequenceType();
 					argument.add(currentNode);							
 					 
@@ -636,7 +637,7 @@ public class StatementChecker extends ScopedChecker {
 				break;
 			}	
 			
-			resultType = Type.BOOLEAN;  //boolean after one comparison			
+			resultType = standard().BOOLEAN;  //boolean after one comparison			
 		}
 		
 		ctx.setType(resultType); //propagates type up if only one child
@@ -658,39 +659,39 @@ public class StatementChecker extends ScopedChecker {
 			switch( operator ) {
 			case "+":
 				methodName = "add";
-				interfaceType = Type.CAN_ADD;
+				interfaceType = standard().CAN_ADD;
 				break;
 			case "-":
 				methodName = "subtract";
-				interfaceType = Type.CAN_SUBTRACT;
+				interfaceType = standard().CAN_SUBTRACT;
 				break;
 			case "*":
 				methodName = "multiply";
-				interfaceType = Type.CAN_MULTIPLY;
+				interfaceType = standard().CAN_MULTIPLY;
 				break;
 			case "/":
 				methodName = "divide";
-				interfaceType = Type.CAN_DIVIDE;
+				interfaceType = standard().CAN_DIVIDE;
 				break;
 			case "%":
 				methodName = "modulus";
-				interfaceType = Type.CAN_MODULUS;
+				interfaceType = standard().CAN_MODULUS;
 				break;
 			case "<<":
 				methodName = "bitShiftLeft";				
-				interfaceType = Type.INTEGER;
+				interfaceType = standard().INTEGER;
 				break;
 			case "<<<":
 				methodName = "bitRotateLeft";				
-				interfaceType = Type.INTEGER;
+				interfaceType = standard().INTEGER;
 				 break;
 			case ">>":
 				methodName = "bitShiftRight";				
-				interfaceType = Type.INTEGER;
+				interfaceType = standard().INTEGER;
 				break;
 			case ">>>":
 				methodName = "bitRotateRight";				
-				interfaceType = Type.INTEGER;
+				interfaceType = standard().INTEGER;
 				break;
 			}
 			
@@ -785,9 +786,9 @@ public class StatementChecker extends ScopedChecker {
 			Type type = ctx.unaryExpression().getType();
 			
 			if( operator.equals("-") )
-				type = visitUnary( ctx, "negate", "unary -", Type.CAN_NEGATE);
+				type = visitUnary( ctx, "negate", "unary -", standard().CAN_NEGATE);
 			else if( operator.equals("~") )
-				type = visitUnary( ctx, "bitComplement", "operator ~", Type.INTEGER);
+				type = visitUnary( ctx, "bitComplement", "operator ~", standard().INTEGER);
 			else if( operator.equals("#") ) {
 				if( type instanceof SequenceType ) {
 					addError(ctx, Error.INVALID_TYPE, "Cannot apply operator # to sequence type " + type);
@@ -796,11 +797,11 @@ public class StatementChecker extends ScopedChecker {
 				else {
 					MethodSignature signature = setMethodType(ctx, type, "toString", new SequenceType() );
 					ctx.addOperation(signature); //should never be null
-					type = Type.STRING;
+					type = standard().STRING;
 				}
 			}
 			else if( operator.equals("!") ) {
-				if( !type.equals(Type.BOOLEAN)) {
+				if( !type.equals(standard().BOOLEAN)) {
 					addError(ctx, Error.INVALID_TYPE, "Cannot apply operator ! to type " + type + " which is not boolean", type);
 					type = Type.UNKNOWN;				
 				}				
@@ -831,7 +832,7 @@ public class StatementChecker extends ScopedChecker {
 			
 			Type t1 = ctx.coalesceExpression().getType();
 			
-			if(!t1.equals(Type.BOOLEAN)) {			
+			if(!t1.equals(standard().BOOLEAN)) {			
 				addError(ctx.coalesceExpression(), Error.INVALID_TYPE, "Supplied type " + t1 + " cannot be used in the condition of a ternary operator, boolean type required", t1);
 				ctx.setType(Type.UNKNOWN);
 			} else if(first.throwStatement() != null || second.throwStatement() != null) {
@@ -902,7 +903,7 @@ public class StatementChecker extends ScopedChecker {
 				Context child = (Context)node.getChild(i); 
 				result = child.getType();
 			
-				if( result != Type.BOOLEAN ) {
+				if( result != standard().BOOLEAN ) {
 					addError(child, Error.INVALID_TYPE, "Supplied type " + result + " cannot be used with a logical operator, boolean type required", result);			
 					node.setType(Type.UNKNOWN);
 					return;
@@ -1002,7 +1003,7 @@ public class StatementChecker extends ScopedChecker {
 			case "^": methodName = "bitXor"; break;
 			}
 			
-			if( result.hasUninstantiatedInterface(Type.INTEGER) ) {
+			if( result.hasUninstantiatedInterface(standard().INTEGER) ) {
 				SequenceType argument = new SequenceType();
 				argument.add(currentNode);							
 				 
@@ -1244,7 +1245,7 @@ public class StatementChecker extends ScopedChecker {
 			Type t2 = ctx.type().getType();
 			
 			if( t1.isSubtype(t2) || t2.isSubtype(t1) )
-				ctx.setType(Type.BOOLEAN);
+				ctx.setType(standard().BOOLEAN);
 			else {
 				addError(ctx, Error.MISMATCHED_TYPE, "Supplied type " + t1 + " cannot be compared with type " + t2 + " in an is statement", t1, t2);
 				ctx.setType(Type.UNKNOWN);
@@ -1442,7 +1443,7 @@ public class StatementChecker extends ScopedChecker {
 		
 		Type type = ctx.conditionalExpression().getType(); 
 		
-		if( !type.equals(Type.BOOLEAN) )
+		if( !type.equals(standard().BOOLEAN) )
 				addError(ctx.conditionalExpression(), Error.INVALID_TYPE, "Condition of if statement cannot accept non-boolean type " + type, type);
 		
 		return null;
@@ -1454,7 +1455,7 @@ public class StatementChecker extends ScopedChecker {
 		
 		Type type = ctx.conditionalExpression().getType(); 
 		
-		if( !type.equals(Type.BOOLEAN) )
+		if( !type.equals(standard().BOOLEAN) )
 			addError(ctx.conditionalExpression(), Error.INVALID_TYPE, "Condition of while statement cannot accept non-boolean type " + type, type);
 		
 		return null;
@@ -1466,7 +1467,7 @@ public class StatementChecker extends ScopedChecker {
 		
 		Type type = ctx.conditionalExpression().getType(); 
 		
-		if( !type.equals(Type.BOOLEAN) )
+		if( !type.equals(standard().BOOLEAN) )
 			addError(ctx.conditionalExpression(), Error.INVALID_TYPE, "Condition of do statement cannot accept non-boolean type " + type, type);
 		
 		return null;		
@@ -1502,22 +1503,22 @@ public class StatementChecker extends ScopedChecker {
 			if( array.isNullable() )
 				element.getModifiers().addModifier(Modifiers.NULLABLE);
 		}
-		else if( collectionType.hasUninstantiatedInterface(Type.CAN_ITERATE)  ) {			
+		else if( collectionType.hasUninstantiatedInterface(standard().CAN_ITERATE)  ) {			
 			for(InterfaceType _interface : collectionType.getAllInterfaces() )				
-				if( _interface.getTypeWithoutTypeArguments().equals(Type.CAN_ITERATE)) {
+				if( _interface.getTypeWithoutTypeArguments().equals(standard().CAN_ITERATE)) {
 					element = _interface.getTypeParameters().get(0);
 					break;
 				}
 		}
-		else if( collectionType.hasUninstantiatedInterface(Type.CAN_ITERATE_NULLABLE)  ) {			
+		else if( collectionType.hasUninstantiatedInterface(standard().CAN_ITERATE_NULLABLE)  ) {			
 			for(InterfaceType _interface : collectionType.getAllInterfaces() )				
-				if( _interface.getTypeWithoutTypeArguments().equals(Type.CAN_ITERATE_NULLABLE)) {
+				if( _interface.getTypeWithoutTypeArguments().equals(standard().CAN_ITERATE_NULLABLE)) {
 					element = _interface.getTypeParameters().get(0);
 					break;
 				}
 		}
 		else {
-			addError(ctx.conditionalExpression(), Error.INVALID_TYPE, "Supplied type " + collectionType + " does not implement " + Type.CAN_ITERATE + " or " + Type.CAN_ITERATE_NULLABLE + " and cannot be the target of a foreach statement", collectionType);
+			addError(ctx.conditionalExpression(), Error.INVALID_TYPE, "Supplied type " + collectionType + " does not implement " + standard().CAN_ITERATE + " or " + standard().CAN_ITERATE_NULLABLE + " and cannot be the target of a foreach statement", collectionType);
 			iterable = false;
 		}		
 		
@@ -1551,7 +1552,7 @@ public class StatementChecker extends ScopedChecker {
 		
 		Type type = ctx.conditionalExpression().getType(); 
 		
-		if( !type.equals(Type.BOOLEAN) )
+		if( !type.equals(standard().BOOLEAN) )
 			addError(ctx.conditionalExpression(), Error.INVALID_TYPE, "Condition of for statement cannot accept non-boolean type " + type, type);
 		
 		return null;
@@ -1705,7 +1706,7 @@ public class StatementChecker extends ScopedChecker {
 			
 			if(child.spawnExpression() != null) {
 				ctx.action = true;
-				currentType.addUsedType(Type.THREAD);
+				currentType.addUsedType(standard().THREAD);
 			}
 		}		
 		
@@ -1890,8 +1891,8 @@ public class StatementChecker extends ScopedChecker {
 			ShadowParser.ConditionalExpressionContext child = ctx.conditionalExpression();
 			Type childType = child.getType();
 			
-			if( !childType.isSubtype(Type.LONG) ) {
-				addError(child, Error.INVALID_SUBSCRIPT, "Subscript type " + childType + " is invalid, must be subtype of " + Type.LONG, childType);
+			if( !childType.isSubtype(standard().LONG) ) {
+				addError(child, Error.INVALID_SUBSCRIPT, "Subscript type " + childType + " is invalid, must be subtype of " + standard().LONG, childType);
 				ctx.setType(Type.UNKNOWN);
 				return null;
 			}			
@@ -1921,8 +1922,8 @@ public class StatementChecker extends ScopedChecker {
 			if( arrayType.isNullable() ) 
 				ctx.addModifiers(Modifiers.NULLABLE);							
 		}						
-		else if( prefixType.hasUninstantiatedInterface(Type.CAN_INDEX) || prefixType.hasUninstantiatedInterface(Type.CAN_INDEX_NULLABLE) ||
-				 prefixType.hasUninstantiatedInterface(Type.CAN_INDEX_STORE) || prefixType.hasUninstantiatedInterface(Type.CAN_INDEX_STORE_NULLABLE)) {
+		else if( prefixType.hasUninstantiatedInterface(standard().CAN_INDEX) || prefixType.hasUninstantiatedInterface(standard().CAN_INDEX_NULLABLE) ||
+				 prefixType.hasUninstantiatedInterface(standard().CAN_INDEX_STORE) || prefixType.hasUninstantiatedInterface(standard().CAN_INDEX_STORE_NULLABLE)) {
 
 			SequenceType arguments = new SequenceType();
 			ShadowParser.ConditionalExpressionContext child = ctx.conditionalExpression();
@@ -1947,15 +1948,15 @@ public class StatementChecker extends ScopedChecker {
 					ctx.addModifiers(Modifiers.READONLY);
 				else if( prefixNode.getModifiers().isTemporaryReadonly() )
 					ctx.addModifiers(Modifiers.TEMPORARY_READONLY);
-				else if( prefixType.hasUninstantiatedInterface(Type.CAN_INDEX_STORE) || prefixType.hasUninstantiatedInterface(Type.CAN_INDEX_STORE_NULLABLE)  ) 
+				else if( prefixType.hasUninstantiatedInterface(standard().CAN_INDEX_STORE) || prefixType.hasUninstantiatedInterface(standard().CAN_INDEX_STORE_NULLABLE)  ) 
 					ctx.addModifiers(Modifiers.ASSIGNABLE);
 			}							
 		}			
 		else {
 			ctx.setType(Type.UNKNOWN);
 			addError(ctx, Error.INVALID_SUBSCRIPT, "Subscript is not permitted for type " + prefixType +
-					" because it does not implement " + Type.CAN_INDEX + ", " + Type.CAN_INDEX_STORE +
-					", " + Type.CAN_INDEX_NULLABLE + ", or " + Type.CAN_INDEX_STORE_NULLABLE, prefixType);
+					" because it does not implement " + standard().CAN_INDEX + ", " + standard().CAN_INDEX_STORE +
+					", " + standard().CAN_INDEX_NULLABLE + ", or " + standard().CAN_INDEX_STORE_NULLABLE, prefixType);
 		}
 		
 		return null;
@@ -2275,7 +2276,7 @@ public class StatementChecker extends ScopedChecker {
 		else
 			addError(ctx, Error.NOT_TYPE, "class specifier requires type name for access" );
 		
-		ctx.setType( Type.CLASS );
+		ctx.setType( standard().CLASS );
 		ctx.addModifiers(Modifiers.IMMUTABLE);	
 		
 		return null;
@@ -2673,7 +2674,7 @@ public class StatementChecker extends ScopedChecker {
 		
 		Type assertType = ctx.conditionalExpression(0).getType();
 		
-		if( !assertType.equals(Type.BOOLEAN)) {
+		if( !assertType.equals(standard().BOOLEAN)) {
 			addError(ctx.conditionalExpression(0), Error.INVALID_TYPE, "Supplied type " + assertType + " cannot be used in the condition of an assert, boolean required", assertType);
 		} else if( ctx.conditionalExpression().size() == 2 ) {
 			ShadowParser.ConditionalExpressionContext child = ctx.conditionalExpression(1);
@@ -2983,8 +2984,8 @@ public class StatementChecker extends ScopedChecker {
 		visitChildren(ctx);
 		
 		Type runnerType = ctx.type().getType();
-		if(runnerType.equals(Type.CAN_RUN) || !runnerType.isSubtype(Type.CAN_RUN)) {
-			addError(ctx, Error.INVALID_TYPE, runnerType + " needs to be a subtype of the " + Type.CAN_RUN + " interface");
+		if(runnerType.equals(standard().CAN_RUN) || !runnerType.isSubtype(standard().CAN_RUN)) {
+			addError(ctx, Error.INVALID_TYPE, runnerType + " needs to be a subtype of the " + standard().CAN_RUN + " interface");
 		}
 		
 		List<ShadowException> errors = new ArrayList<ShadowException>();
@@ -2999,12 +3000,12 @@ public class StatementChecker extends ScopedChecker {
 		// Two overloads: Thread(CanRun) and Thread(String, CanRun)
 		SequenceType sequence = new SequenceType();
 		if(ctx.StringLiteral() != null) {
-			sequence.add(new SimpleModifiedType(Type.STRING));
+			sequence.add(new SimpleModifiedType(standard().STRING));
 		}
-		sequence.add(new SimpleModifiedType(Type.CAN_RUN));
+		sequence.add(new SimpleModifiedType(standard().CAN_RUN));
 		
-		ctx.setSignature(Type.THREAD.getMatchingMethod("create", sequence));
-		ctx.setType(Type.THREAD);
+		ctx.setSignature(standard().THREAD.getMatchingMethod("create", sequence));
+		ctx.setType(standard().THREAD);
 		
 		return null;
 	}
@@ -3026,11 +3027,11 @@ public class StatementChecker extends ScopedChecker {
 	public Void visitSendStatement(SendStatementContext ctx) {
 		visitChildren(ctx);
 
-		if(ctx.conditionalExpression().size() != 2 || !resolveType(ctx.conditionalExpression(1)).getType().equals(Type.THREAD)) {
+		if(ctx.conditionalExpression().size() != 2 || !resolveType(ctx.conditionalExpression(1)).getType().equals(standard().THREAD)) {
 			addError(ctx, Error.INVALID_ARGUMENTS, "The arguments do not match the signature: send(Object data, Thread to)");
 		} else {
 			List<ShadowException> errors = new ArrayList<ShadowException>();		
-			MethodSignature sendSignature = Type.THREAD.getMatchingMethod("sendTo", 
+			MethodSignature sendSignature = standard().THREAD.getMatchingMethod("sendTo", 
 													new SequenceType(resolveType(ctx.conditionalExpression().get(0))), 
 													new SequenceType(), 
 													errors);
@@ -17,10 +17,12 @@
 
 package shadow.typecheck;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -28,10 +30,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import shadow.BuildCache;
 import shadow.ConfigurationException;
+import shadow.Job;
 import shadow.Loggers;
 import shadow.Main;
+import shadow.Profiler;
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.parse.Context;
 import shadow.parse.ParseException;
@@ -55,6 +66,7 @@ public class TypeChecker {
 
 	/**
 	 * Typechecks a main file and all files that it depends on.
+	 * @param session             session doing the checking
 	 * @param mainFile            the main file to compile
 	 * @param useSourceFiles    whether the source files should be recompiled
 	 * @param reporter            object used to report errors
@@ -66,13 +78,13 @@ public class TypeChecker {
 	 * @throws IOException 
 	 * @throws ConfigurationException 
 	 */
-	public static TypeCheckerOutput typeCheck(Path mainFile, boolean useSourceFiles, ErrorReporter reporter, boolean typeCheckOnly)
+	public static TypeCheckerOutput typeCheck(Session session, Path mainFile, boolean useSourceFiles, ErrorReporter reporter, boolean typeCheckOnly)
 			throws ShadowException, IOException, ConfigurationException {
-		Type.clearTypes();		
+		session.clearStandardTypes();		
 		Package packageTree = new Package(); // Root of all packages, storing all types
 		
 		/* Collector looks over all files and creates types for everything needed. */
-		TypeCollector collector = new TypeCollector( packageTree, reporter, useSourceFiles, typeCheckOnly);
+		TypeCollector collector = new TypeCollector( session, packageTree, reporter, useSourceFiles, typeCheckOnly);
 		
 		/* Its return value maps all the types to the nodes that need compiling. */		
 		Map<Type, Context> nodeTable = collector.collectTypes( mainFile );
@@ -84,8 +96,10 @@ public class TypeChecker {
 		 *  All types with type parameters (except for declarations) are UninitializedTypes
 		 *  Extends and implements lists
 		 */
-		TypeUpdater updater = new TypeUpdater(packageTree, reporter, fileTable);
-		nodeTable = updater.update( nodeTable );
+		TypeUpdater updater = new TypeUpdater(session, packageTree, reporter, fileTable);
+		try( Profiler.Section section = Profiler.start(Profiler.UPDATE, null) ) {
+			nodeTable = updater.update( nodeTable );
+		}
 		
 		/* Select only nodes corresponding to outer types. */				
 		List<Context> nodes = new ArrayList<>();
@@ -94,18 +108,76 @@ public class TypeChecker {
 				nodes.add(node);
 		
 		/* Do type-checking of statements, i.e., actual code. */
-		StatementChecker checker = new StatementChecker(packageTree, reporter);
-		for (Context node : nodes) {
-			// Check all statements for type safety and other features.
-			// Even .meta files need this in order to:
-			//   - Populate types on nodes within constant expressions
-			//   - Collect used types for a node
-			checker.check(node);
-		}
+		checkStatements(session, packageTree, reporter, nodes);
 		
 		return new TypeCheckerOutput(nodes, packageTree);
 	}
 	
+	/*
+	 * Checks all statements for type safety and other features.
+	 * Even .meta files need this in order to:
+	 *   - Populate types on nodes within constant expressions
+	 *   - Collect used types for a node
+	 * Each outer class only changes its own types and nodes while its
+	 * statements are checked, so classes can be checked in parallel. Every
+	 * class gets its own checker and reporter, and their errors are merged in
+	 * the original order, so the output (and the first error reported) is the
+	 * same no matter how many jobs are used.
+	 */
+	private static void checkStatements(Session session, Package packageTree, ErrorReporter reporter, List<Context> nodes)
+			throws ShadowException {
+		Job job = session.getJob();
+		int jobs = job == null ? 1 : Math.min(job.getJobs(), nodes.size());
+		if( jobs <= 1 ) {
+			StatementChecker checker = new StatementChecker(session, packageTree, reporter);
+			for( Context node : nodes ) {
+				try( Profiler.Section section = Profiler.start(Profiler.STATEMENT_CHECK, node.getPath()) ) {
+					checker.check(node);
+				}
+			}
+			return;
+		}
+		
+		ExecutorService checkers = Executors.newFixedThreadPool(jobs);
+		try {
+			List<Future<ErrorReporter>> results = new ArrayList<>();
+			for( Context node : nodes )
+				results.add(checkers.submit(session.bind(() -> {
+					ErrorReporter nodeReporter = new ErrorReporter(Loggers.TYPE_CHECKER);
+					try( Profiler.Section section = Profiler.start(Profiler.STATEMENT_CHECK, node.getPath()) ) {
+						new StatementChecker(session, packageTree, nodeReporter).visit(node);
+					}
+					return nodeReporter;
+				})));
+			
+			for( Future<ErrorReporter> result : results ) {
+				reporter.addAll(getReporter(result));
+				reporter.printAndReportErrors();
+			}
+		}
+		finally {
+			checkers.shutdownNow();
+		}
+	}
+	
+	private static ErrorReporter getReporter(Future<ErrorReporter> future) {
+		try {
+			return future.get();
+		}
+		catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof RuntimeException )
+				throw (RuntimeException) cause;
+			if( cause instanceof java.lang.Error )
+				throw (java.lang.Error) cause;
+			throw new IllegalStateException(cause);
+		}
+		catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while checking statements", e);
+		}
+	}
+	
 //	/**
 //	 * Typechecks the source code of a particular file.
 //	 * @param source			the complete source code to check
@@ -152,24 +224,33 @@ public class TypeChecker {
 	/*
 	 * Prints a .meta file version of a given node, similar to a header file in C/C++.
 	 * These .meta files are used for type-checking as a speed optimization, to avoid 
-	 * type-checking the full code.
+	 * type-checking the full code. The .meta file is also added to the build cache.
+	 * It is written to a temporary file first, so that other compilations
+	 * reading the same .meta file never see it half-written.
 	 */
 	public static void printMetaFile(Context node) {
 		String file = BaseChecker.stripExtension(Main.canonicalize(node.getPath()));
+		Path metaVersion = Paths.get(file + ".meta");
+		Path temporary = metaVersion.resolveSibling(metaVersion.getFileName() + "." + UUID.randomUUID() + ".tmp");
 		try {
-			File shadowVersion = new File( file + ".shadow");
-			File metaVersion = new File( file + ".meta");
-			/* Add meta file if an updated one doesn't already exist. */
-			if( !metaVersion.exists() || (shadowVersion.exists() &&
-					shadowVersion.lastModified() >= metaVersion.lastModified()) ) {	
-				PrintWriter out = new PrintWriter(metaVersion);
+			try( PrintWriter out = new PrintWriter(temporary.toFile()) ) {
 				node.getType().printMetaFile(out, "");
-				out.close();						
 			}
+			Files.move(temporary, metaVersion, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			BuildCache cache = Main.getBuildCache();
+			if( cache != null )
+				cache.store(node.getPath(), ".meta");
 		}
 		catch( IOException e ) {
 			Loggers.SHADOW.error("Failed to create meta file for " + node.getType());
-		}		
+		}
+		finally {
+			try {
+				Files.deleteIfExists(temporary);
+			}
+			catch( IOException e ) {}
+		}
 	}	
 	
 	/*
@@ -178,7 +259,7 @@ public class TypeChecker {
 	 * but they are referenced indirectly by the compiler.
 	 */
 	private static void addStandardTypes( Set<Type> types ) {
-		Package standard = Type.OBJECT.getPackage(); // shadow:standard package
+		Package standard = Type.standard().OBJECT.getPackage(); // shadow:standard package
 		types.addAll( standard.getTypes() );
 		
 		/* A few io classes are absolutely necessary for a console program. */
@@ -34,12 +34,20 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.antlr.v4.runtime.RuleContext;
+import shadow.BuildCache;
 import shadow.Configuration;
 import shadow.ConfigurationException;
+import shadow.Job;
 import shadow.Loggers;
 import shadow.Main;
+import shadow.Profiler;
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.doctool.Documentation;
 import shadow.parse.Context;
@@ -60,6 +68,7 @@ import shadow.typecheck.type.ExceptionType;
 import shadow.typecheck.type.InterfaceType;
 import shadow.typecheck.type.Modifiers;
 import shadow.typecheck.type.SingletonType;
+import shadow.typecheck.type.StandardTypes;
 import shadow.typecheck.type.Type;
 
 /**
@@ -94,6 +103,28 @@ public class TypeCollector extends ScopedChecker {
 
 	private final Configuration config;
 
+	// Standard types that the compiler refers to directly (see createType()),
+	// which are needed even if source code never names them.
+	// Other standard types are collected only when they are used.
+	private static final String[] REQUIRED_STANDARD_TYPES = {
+		"AddressMap", "Array", "ArrayNullable", "AssertException",
+		"CanAdd", "CanCompare", "CanDivide", "CanEqual", "CanIndex", "CanIndexNullable",
+		"CanIndexStore", "CanIndexStoreNullable", "CanIterate", "CanIterateNullable",
+		"CanModulus", "CanMultiply", "CanNegate", "CanRun", "CanSubtract",
+		"CastException", "Class", "Enum", "Exception", "GenericClass",
+		"IndexOutOfBoundsException", "Integer", "InterfaceCreateException",
+		"Iterator", "IteratorNullable", "Method", "MethodTable", "Number", "Object",
+		"String", "Thread", "UnexpectedNullException",
+		"Boolean", "Byte", "Code", "Double", "Float", "Int", "Long", "Short",
+		"UByte", "UInt", "ULong", "UShort"
+	};
+
+	// Standard types referenced only by the runtime (the .ll and .c files),
+	// which are needed to link a program.
+	private static final String[] RUNTIME_STANDARD_TYPES = {
+		"CurrentThread", "OutOfMemoryException", "System"
+	};
+
 	private Path currentFile;
 	private Type mainType = null;
 	private String currentName = "";
@@ -166,11 +197,11 @@ public class TypeCollector extends ScopedChecker {
 	 * @param useSourceFiles	if true, always use <tt>.shadow</tt> instead of <tt>.meta</tt> files
 	 * @throws ConfigurationException
 	 */
-	public TypeCollector( Package p, ErrorReporter reporter, boolean useSourceFiles, boolean typeCheckOnly ) throws ConfigurationException {
-		super( p, reporter );		  
+	public TypeCollector( Session session, Package p, ErrorReporter reporter, boolean useSourceFiles, boolean typeCheckOnly ) throws ConfigurationException {
+		super( session, p, reporter );		  
 		this.useSourceFiles = useSourceFiles;
 		this.typeCheckOnly = typeCheckOnly;
-		config = Configuration.getConfiguration();
+		config = session.getConfiguration();
 	}			
 
 	/**
@@ -240,6 +271,18 @@ public class TypeCollector extends ScopedChecker {
 		return collectTypes( files, new HashMap<Path, String>(), false );
 	}
 
+	private static void addStandardFiles(Path standard, String[] typeNames, Set<String> uncheckedFiles, Set<String> standardDependencies) throws ConfigurationException {
+		for(String typeName : typeNames) {
+			Path file = standard.resolve(typeName + ".shadow");
+			if( !Files.exists(file) && !Files.exists(standard.resolve(typeName + ".meta")) )
+				throw new ConfigurationException("Missing standard type " + typeName + " in " + Main.canonicalize(standard));
+
+			String name = stripExtension(Main.canonicalize(file));
+			uncheckedFiles.add(name);
+			standardDependencies.add(name);
+		}
+	}
+
 	private static void recursivelyAddFiles(Path start, Set<String> uncheckedFiles, Set<String> standardDependencies) throws IOException {
 		List<Path> directories = new LinkedList<>();
 
@@ -263,38 +306,13 @@ public class TypeCollector extends ScopedChecker {
 	}
 
 	/*
-	 * Calls the full <code>collectTypes</code> and might call it a second time
-	 * if needed to determine what should be recompiled.
+	 * Calls the full <code>collectTypes</code>. There is no need to propagate
+	 * recompilation to the files that depend on recompiled files, since the
+	 * build cache only reuses binaries that were built against the current
+	 * contents of all their dependencies.
 	 */
 	private Map<Type, Context> collectTypes( List<Path> files, Map<Path,String> activeFiles, boolean hasMain ) throws ShadowException, IOException, ConfigurationException {
-		Set<String> mustRecompile = new HashSet<String>();
-		Map<String, TreeSet<String>> dependencies = new HashMap<String, TreeSet<String>>();
-
-		// Initial type collection
-		collectTypes( files, hasMain, activeFiles, mustRecompile, dependencies );
-
-		// Files needing recompilation may trigger other files to get recompiled.
-		// Figure out which ones and redo the whole type collection process.
-		if( getErrorReporter().getErrorList().size() == 0 && !useSourceFiles && mustRecompile.size() > 0 ) {
-			// Create a new set, otherwise adding new recompilations can trigger unnecessary ones.
-			Set<String> updatedMustRecompile = new HashSet<String>(mustRecompile);
-
-			// For all files that do not already need to be recompiled,
-			// check to see if their dependencies do.
-			for(Map.Entry<String, TreeSet<String>> entry : dependencies.entrySet() )
-				if( !updatedMustRecompile.contains(entry.getKey()) )
-					for( String dependency : entry.getValue() )
-						if( mustRecompile.contains(dependency) ) {
-							updatedMustRecompile.add(entry.getKey());
-							break;
-						}
-
-			mustRecompile = updatedMustRecompile;
-			clear(); // Clears out all internal representations and types.
-
-			// Collect types again with updated recompilation requirements.
-			collectTypes( files, hasMain, activeFiles, mustRecompile, null );
-		}        
+		collectTypes( files, hasMain, activeFiles );
 
 		// Check packages for errors.
 		checkPackageDirectories(packageTree);
@@ -311,8 +329,7 @@ public class TypeCollector extends ScopedChecker {
 	 * that might not be saved into files yet.  Usually, this information
 	 * comes from a file being edited in an IDE.
 	 */
-	private void collectTypes(List<Path> files, boolean hasMain, Map<Path,String> activeFiles,
-			Set<String> mustRecompile, Map<String,TreeSet<String>> dependencies)
+	private void collectTypes(List<Path> files, boolean hasMain, Map<Path,String> activeFiles)
 					throws ShadowException, IOException, ConfigurationException {
 		// Create and fill the initial set of files to be checked.
 		TreeSet<String> uncheckedFiles = new TreeSet<String>();
@@ -339,8 +356,12 @@ public class TypeCollector extends ScopedChecker {
 
 		TreeSet<String> standardDependencies = new TreeSet<String>(); 
 
-		// Adds all files in the standard directory (including sub-directories)
-		recursivelyAddFiles(standard, uncheckedFiles, standardDependencies);
+		// Adds the standard types the compiler needs and all the attributes
+		// Everything else in the standard directory is added when imported
+		addStandardFiles(standard, REQUIRED_STANDARD_TYPES, uncheckedFiles, standardDependencies);
+		if( !typeCheckOnly )
+			addStandardFiles(standard, RUNTIME_STANDARD_TYPES, uncheckedFiles, standardDependencies);
+		recursivelyAddFiles(standard.resolve("attributes"), uncheckedFiles, standardDependencies);
 
 		/* A few io classes are absolutely necessary for a console program. */
 		Path io = config.getSystemImport().resolve("shadow").resolve("io").normalize();
@@ -352,137 +373,213 @@ public class TypeCollector extends ScopedChecker {
 		uncheckedFiles.add(stripExtension(Main.canonicalize(io.resolve("IOException.shadow"))));
 		uncheckedFiles.add(stripExtension(Main.canonicalize(io.resolve("Path.shadow"))));
 
-		/* As long as there are unchecked files, remove one and process it. */
-		while( !uncheckedFiles.isEmpty() ) {			
-			String canonical = uncheckedFiles.first();
-			uncheckedFiles.remove(canonical);	
-
-			Path canonicalFile = Paths.get(canonical + ".shadow");
-			String source = activeFiles.get(canonicalFile);
-
-			// Depending on the circumstances, the compiler may choose to either
-			// compile/recompile source files, or rely on existing binaries/IR.
-			if( Files.exists(canonicalFile) ) {											
-				Path meta = Paths.get(canonical + ".meta");
-				Path llvm = Paths.get(canonical + ".bc");
-
-				// If source compilation was not requested and the binaries exist
-				// that are newer than the source, use those binaries.
-				if( !useSourceFiles &&
-						!mustRecompile.contains(canonical) &&
-						source == null &&
-						// Always do the full .shadow file for the main file if typechecking
-						(!typeCheckOnly || !hasMain || !files.get(0).equals(canonicalFile)) &&
-						// Only use .meta if it's newer than .shadow
-						Files.exists(meta) && Files.getLastModifiedTime(meta).compareTo(Files.getLastModifiedTime(canonicalFile)) >= 0 &&
-						// Also, only use .meta if we're not going to need to recompile it into an LLVM
-						(typeCheckOnly || (Files.exists(llvm) && Files.getLastModifiedTime(llvm).compareTo(Files.getLastModifiedTime(meta)) >= 0)))
-					canonicalFile = meta;				
-				else
-					mustRecompile.add(canonical);
+		// Parsing a file depends only on its contents, so files are parsed ahead
+		// of time on other threads as soon as they are discovered.
+		// Type collection still takes the parsed files one at a time in order.
+		Job job = session.getJob();
+		int jobs = job == null ? 1 : job.getJobs();
+		ExecutorService parsers = jobs > 1 ? Executors.newFixedThreadPool(jobs) : null;
+		Map<String, Future<ParsedFile>> parsedFiles = new HashMap<>();
+		for( String file : uncheckedFiles )
+			parseLater(file, files, hasMain, activeFiles, parsers, parsedFiles);
+
+		try {
+			/* As long as there are unchecked files, remove one and process it. */
+			while( !uncheckedFiles.isEmpty() ) {
+				String canonical = uncheckedFiles.first();
+				uncheckedFiles.remove(canonical);
+				Future<ParsedFile> future = parsedFiles.remove(canonical);
+				ParsedFile parsed = future == null ? parse(canonical, files, hasMain, activeFiles) : getParsedFile(future);
+
+				currentFile = parsed.file;
+				CompilationUnitContext node = parsed.node;
+				parsed.checker.printAndReportErrors();
+
+				try( Profiler.Section section = Profiler.start(Profiler.COLLECT, currentFile) ) {
+					collectFile(canonical, node, main, uncheckedFiles, standardDependencies);
+				}
+				for( String file : uncheckedFiles )
+					parseLater(file, files, hasMain, activeFiles, parsers, parsedFiles);
 			}
-			else if (!useSourceFiles)
-				canonicalFile  = Paths.get(canonical + ".meta");
+		}
+		finally {
+			if( parsers != null )
+				parsers.shutdownNow();
+		}
+	}
 
-			currentFile = canonicalFile;    
+	/*
+	 * Holds the result of parsing a file, which may have happened on another thread.
+	 */
+	private static class ParsedFile {
+		private final Path file;
+		private final CompilationUnitContext node;
+		private final ParseChecker checker;
+
+		public ParsedFile(Path file, CompilationUnitContext node, ParseChecker checker) {
+			this.file = file;
+			this.node = node;
+			this.checker = checker;
+		}
+	}
 
-			// Use the semantic checker to parse the file
-			ParseChecker checker = new ParseChecker(new ErrorReporter(Loggers.PARSER));
-			CompilationUnitContext node;
+	/*
+	 * Starts parsing a file on the thread pool, unless that has already been
+	 * started. Without a thread pool, files are parsed when they are needed.
+	 */
+	private void parseLater(String canonical, List<Path> files, boolean hasMain, Map<Path,String> activeFiles,
+			ExecutorService parsers, Map<String, Future<ParsedFile>> parsedFiles) {
+		if( parsers == null || parsedFiles.containsKey(canonical) || fileTable.containsKey(canonical) )
+			return;
+
+		parsedFiles.put(canonical, parsers.submit(session.bind(() -> parse(canonical, files, hasMain, activeFiles))));
+	}
+
+	/*
+	 * Decides whether to use the source or the .meta file for a file and then
+	 * parses it. Only reads state that is fixed for the whole collection, so
+	 * it is safe to call from several threads at once.
+	 */
+	private ParsedFile parse(String canonical, List<Path> files, boolean hasMain, Map<Path,String> activeFiles) throws IOException {
+		Path canonicalFile = Paths.get(canonical + ".shadow");
+		String source = activeFiles.get(canonicalFile);
+
+		// Depending on the circumstances, the compiler may choose to either
+		// compile/recompile source files, or rely on existing binaries/IR.
+		if( Files.exists(canonicalFile) ) {
+			Path meta = Paths.get(canonical + ".meta");
+			BuildCache cache = session.getBuildCache();
+
+			// If source compilation was not requested and the build cache has
+			// binaries for the current source and its dependencies, use those binaries.
+			if( !useSourceFiles &&
+					source == null &&
+					// Always do the full .shadow file for the main file if typechecking
+					(!typeCheckOnly || !hasMain || !files.get(0).equals(canonicalFile)) &&
+					cache != null &&
+					// Only use .meta if we're not going to need to recompile it into an LLVM
+					(typeCheckOnly ? cache.restore(canonicalFile, ".meta") : cache.restore(canonicalFile, ".meta", ".bc")))
+				canonicalFile = meta;
+		}
+		else if (!useSourceFiles)
+			canonicalFile  = Paths.get(canonical + ".meta");
+
+		// Use the semantic checker to parse the file
+		ParseChecker checker = new ParseChecker(new ErrorReporter(Loggers.PARSER));
+		CompilationUnitContext node;
+		try( Profiler.Section section = Profiler.start(Profiler.PARSE, canonicalFile) ) {
 			// If there's an updated source, use that
 			// Otherwise, read from the file
 			if( source != null  )
-				node = checker.getCompilationUnit(source, currentFile);
+				node = checker.getCompilationUnit(source, canonicalFile);
 			else
-				node = checker.getCompilationUnit(currentFile);
-			checker.printAndReportErrors();
-
-			// Make another collector to walk the current file.
-			TypeCollector collector = new TypeCollector( new Package(), getErrorReporter(), useSourceFiles, typeCheckOnly );
-			// Keeping a current files gives us a file whose directory we can check against.
-			collector.setCurrentFile(currentFile, node);
-			collector.visit(node);				
+				node = checker.getCompilationUnit(canonicalFile);
+		}
 
+		return new ParsedFile(canonicalFile, node, checker);
+	}
 
+	private static ParsedFile getParsedFile(Future<ParsedFile> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch( ExecutionException e ) {
+			Throwable cause = e.getCause();
+			if( cause instanceof IOException )
+				throw (IOException) cause;
+			if( cause instanceof RuntimeException )
+				throw (RuntimeException) cause;
+			if( cause instanceof java.lang.Error )
+				throw (java.lang.Error) cause;
+			throw new IOException(cause);
+		}
+		catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing", e);
+		}
+	}
 
-			fileTable.put(canonical, node);
-			
-			if( canonical.equals(main) ) {
-				mainType = node.getType();
-				// Put the main type in the package tree first (if it exists)
-				if(mainType != Type.UNKNOWN) {
-					try {
-						packageTree.addQualifiedPackage( mainType.getPackage().toString() ).addType( mainType);
-					}
-					catch (PackageException e) {
-						addError(new TypeCheckException(Error.INVALID_PACKAGE, e.getMessage()));
-					}
+	/*
+	 * Collects the types in a single parsed file, adding the files it uses to
+	 * the unchecked files.
+	 */
+	private void collectFile(String canonical, CompilationUnitContext node, String main, Set<String> uncheckedFiles,
+			Set<String> standardDependencies) throws IOException, ShadowException, ConfigurationException {
+		// Make another collector to walk the current file.
+		TypeCollector collector = new TypeCollector( session, new Package(), getErrorReporter(), useSourceFiles, typeCheckOnly );
+		// Keeping a current files gives us a file whose directory we can check against.
+		collector.setCurrentFile(currentFile, node);
+		collector.visit(node);
+
+		fileTable.put(canonical, node);
+		
+		if( canonical.equals(main) ) {
+			mainType = node.getType();
+			// Put the main type in the package tree first (if it exists)
+			if(mainType != Type.UNKNOWN) {
+				try {
+					packageTree.addQualifiedPackage( mainType.getPackage().toString() ).addType( mainType);
 				}
-			}	
-
-			/* Copy types from other collector into our package tree. */
-			for( Type type : collector.packageTree ) {
-				if(type != mainType) {
-					try {				
-						packageTree.addQualifiedPackage( type.getPackage().toString() ).addType( type );					
-						// Imported class has default package but the main type doesn't.
-						// The only classes without a package that will be imported will be
-						// in the same directory as the main type.
-						// Implication: classes in the same directory have different packages.
-						if( mainType != null && type.getPackage() == packageTree &&
-								mainType.getPackage() != packageTree ) {
-						
-							addError(new TypeCheckException(Error.MISMATCHED_PACKAGE, "Type " + type +
-									" belongs to the default package, but types defined in the same directory belong to other packages"));
-						}
-					}
-					catch(PackageException e) {
-						addError(new TypeCheckException(Error.INVALID_PACKAGE, e.getMessage()));
+				catch (PackageException e) {
+					addError(new TypeCheckException(Error.INVALID_PACKAGE, e.getMessage()));
+				}
+			}
+		}	
+
+		/* Copy types from other collector into our package tree. */
+		for( Type type : collector.packageTree ) {
+			if(type != mainType) {
+				try {				
+					packageTree.addQualifiedPackage( type.getPackage().toString() ).addType( type );					
+					// Imported class has default package but the main type doesn't.
+					// The only classes without a package that will be imported will be
+					// in the same directory as the main type.
+					// Implication: classes in the same directory have different packages.
+					if( mainType != null && type.getPackage() == packageTree &&
+							mainType.getPackage() != packageTree ) {
+					
+						addError(new TypeCheckException(Error.MISMATCHED_PACKAGE, "Type " + type +
+								" belongs to the default package, but types defined in the same directory belong to other packages"));
 					}
 				}
+				catch(PackageException e) {
+					addError(new TypeCheckException(Error.INVALID_PACKAGE, e.getMessage()));
+				}
 			}
+		}
 
-			/* Track the dependencies for this file (if dependencies are being used).
-			 * If any of its dependencies need to be recompiled, this file will need
-			 * to be recompiled.
-			 */
-
-			TreeSet<String> dependencySet = null;
-
-			if( dependencies != null ) {
-				dependencySet = new TreeSet<String>( standardDependencies );
-				dependencies.put( canonical, dependencySet );
-			}
+		TreeSet<String> dependencySet = new TreeSet<String>( standardDependencies );
+		for( String _import : collector.usedTypes ) {
+			if( !fileTable.containsKey(_import) )
+				uncheckedFiles.add(_import);
 
-			for( String _import : collector.usedTypes ) {
-				if( !fileTable.containsKey(_import) )
-					uncheckedFiles.add(_import);
+			dependencySet.add(_import);
+		}
 
-				if( dependencySet != null )
-					dependencySet.add(_import);
-			}
+		// The build cache keys the artifacts for this file on its dependencies
+		if( session.getBuildCache() != null )
+			session.getBuildCache().setDependencies(canonical, dependencySet);
 
-			/* Add files in the directory after imports. */		
-			/*
-			try (DirectoryStream<Path> stream = Files.newDirectoryStream(canonicalFile.getParent(), "*.shadow")) {
-				for (Path file : stream) {
-					String name = stripExtension(file.toAbsolutePath().normalize().toString());
-					if (!fileTable.containsKey(name))
-						uncheckedFiles.add(name);
+		/* Add files in the directory after imports. */		
+		/*
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(canonicalFile.getParent(), "*.shadow")) {
+			for (Path file : stream) {
+				String name = stripExtension(file.toAbsolutePath().normalize().toString());
+				if (!fileTable.containsKey(name))
+					uncheckedFiles.add(name);
 
-					if (dependencySet != null)
-						dependencySet.add(name);
-				}
+				if (dependencySet != null)
+					dependencySet.add(name);
 			}
-			 */
-
-			/* Copy file table from other collector into our table. */
-			Map<Type,Context> otherNodeTable = collector.typeTable;
-			for( Type type : otherNodeTable.keySet() ) {
-				if( !typeTable.containsKey(type) ) {
-					Context otherNode = otherNodeTable.get(type);					
-					typeTable.put(type, otherNode);
-				}
+		}
+		 */
+
+		/* Copy file table from other collector into our table. */
+		Map<Type,Context> otherNodeTable = collector.typeTable;
+		for( Type type : otherNodeTable.keySet() ) {
+			if( !typeTable.containsKey(type) ) {
+				Context otherNode = otherNodeTable.get(type);					
+				typeTable.put(type, otherNode);
 			}
 		}
 	}
@@ -505,6 +602,8 @@ public class TypeCollector extends ScopedChecker {
 				unqualifiedName = node.classOrInterfaceDeclaration().unqualifiedName();
 			else if(node.enumDeclaration() != null)
 				unqualifiedName = node.enumDeclaration().unqualifiedName();
+			else if(node.attributeDeclaration() != null)
+				unqualifiedName = node.attributeDeclaration().unqualifiedName();
 
 
 			if(unqualifiedName != null) {
@@ -584,8 +683,9 @@ public class TypeCollector extends ScopedChecker {
 			return false;
 		}
 
-		// For .meta files, an import signals that the type was actually used
-		if(currentFile.getFileName().toString().endsWith(".meta"))
+		// For .meta files, an explicit import signals that the type was actually used
+		// (the automatic import of the current directory does not)
+		if(currentFile.getFileName().toString().endsWith(".meta") && context != null)
 			usedTypes.add(filePath);
 
 		return true;
@@ -756,62 +856,63 @@ public class TypeCollector extends ScopedChecker {
 				currentType.addInnerType(name, (ClassType)type);
 
 			// Special case for standard types needed in the compiler.			
+			StandardTypes standard = standard();
 			if( currentPackage.getQualifiedName().equals("shadow:standard")) {	
 				switch( typeName ) {
-				case "AddressMap":		Type.ADDRESS_MAP = (ClassType) type; break;
-				case "Array":			Type.ARRAY = (ClassType) type; break;
-				case "ArrayNullable":	Type.ARRAY_NULLABLE = (ClassType) type; break;
-				case "AssertException": Type.ASSERT_EXCEPTION = (ExceptionType) type; break;
-				case "CanAdd":			Type.CAN_ADD = (InterfaceType)type; break;
-				case "CanCompare":		Type.CAN_COMPARE = (InterfaceType) type; break;
-				case "CanDivide":		Type.CAN_DIVIDE = (InterfaceType)type; break;
-				case "CanEqual":		Type.CAN_EQUAL = (InterfaceType) type; break;	
-				case "CanModulus":		Type.CAN_MODULUS = (InterfaceType)type; break;
-				case "CanMultiply":		Type.CAN_MULTIPLY = (InterfaceType)type; break;
-				case "CanNegate":		Type.CAN_NEGATE = (InterfaceType)type; break;
-				case "CanSubtract":		Type.CAN_SUBTRACT = (InterfaceType)type; break;
-				case "CanIndex":		Type.CAN_INDEX = (InterfaceType) type; break;
-				case "CanIndexNullable":	Type.CAN_INDEX_NULLABLE = (InterfaceType) type; break;				
-				case "CanIndexStore":	Type.CAN_INDEX_STORE = (InterfaceType) type; break;
-				case "CanIndexStoreNullable":	Type.CAN_INDEX_STORE_NULLABLE = (InterfaceType) type; break;
-				case "CanIterate":		Type.CAN_ITERATE = (InterfaceType) type; break;
-				case "CanIterateNullable":	Type.CAN_ITERATE_NULLABLE = (InterfaceType) type; break;
-				case "CastException":	Type.CAST_EXCEPTION = (ExceptionType) type; break;
-				case "Class":			Type.CLASS = (ClassType) type; break;
-				case "boolean":			Type.BOOLEAN = (ClassType)type; break;
-				case "byte":			Type.BYTE = (ClassType)type; break;
-				case "code":			Type.CODE = (ClassType)type; break;
-				case "double":			Type.DOUBLE = (ClassType)type; break;
-				case "Enum":			Type.ENUM = (ClassType) type; break;//the base class for enum is not an enum								
-				case "Exception":		Type.EXCEPTION = (ExceptionType) type; break;
-				case "float":			Type.FLOAT = (ClassType)type; break;
-				case "GenericClass":	Type.GENERIC_CLASS = (ClassType) type; break;
-				case "IndexOutOfBoundsException": Type.INDEX_OUT_OF_BOUNDS_EXCEPTION = (ExceptionType) type; break;
-				case "int":				Type.INT = (ClassType) type; break;
-				case "Integer":			Type.INTEGER = (InterfaceType) type; break;
-				case "InterfaceCreateException": Type.INTERFACE_CREATE_EXCEPTION = (ExceptionType) type; break;
-				case "Iterator":		Type.ITERATOR = (InterfaceType) type; break;
-				case "IteratorNullable":	Type.ITERATOR_NULLABLE = (InterfaceType) type; break;
-				case "long":			Type.LONG = (ClassType)type; break;	
-				case "Method":			Type.METHOD = (ClassType)type; break;
-				case "MethodTable":		Type.METHOD_TABLE = (ClassType)type; break;
-				case "Number":			Type.NUMBER = (InterfaceType) type; break;
-				case "Object":			Type.OBJECT = (ClassType) type; break;				
-				case "short":			Type.SHORT = (ClassType)type; break;
-				case "String":			Type.STRING = (ClassType) type; break;
-				case "ubyte":			Type.UBYTE = (ClassType)type; break;
-				case "uint":			Type.UINT = (ClassType)type; break;
-				case "ulong":			Type.ULONG = (ClassType)type; break;				
-				case "UnexpectedNullException": Type.UNEXPECTED_NULL_EXCEPTION = (ExceptionType)type; break;
-				case "ushort":			Type.USHORT = (ClassType)type; break;
-				case "CanRun":			Type.CAN_RUN = (InterfaceType)type; break;
-				case "Thread":			Type.THREAD = (ClassType)type; break;
+				case "AddressMap":		standard.ADDRESS_MAP = (ClassType) type; break;
+				case "Array":			standard.ARRAY = (ClassType) type; break;
+				case "ArrayNullable":	standard.ARRAY_NULLABLE = (ClassType) type; break;
+				case "AssertException": standard.ASSERT_EXCEPTION = (ExceptionType) type; break;
+				case "CanAdd":			standard.CAN_ADD = (InterfaceType)type; break;
+				case "CanCompare":		standard.CAN_COMPARE = (InterfaceType) type; break;
+				case "CanDivide":		standard.CAN_DIVIDE = (InterfaceType)type; break;
+				case "CanEqual":		standard.CAN_EQUAL = (InterfaceType) type; break;	
+				case "CanModulus":		standard.CAN_MODULUS = (InterfaceType)type; break;
+				case "CanMultiply":		standard.CAN_MULTIPLY = (InterfaceType)type; break;
+				case "CanNegate":		standard.CAN_NEGATE = (InterfaceType)type; break;
+				case "CanSubtract":		standard.CAN_SUBTRACT = (InterfaceType)type; break;
+				case "CanIndex":		standard.CAN_INDEX = (InterfaceType) type; break;
+				case "CanIndexNullable":	standard.CAN_INDEX_NULLABLE = (InterfaceType) type; break;				
+				case "CanIndexStore":	standard.CAN_INDEX_STORE = (InterfaceType) type; break;
+				case "CanIndexStoreNullable":	standard.CAN_INDEX_STORE_NULLABLE = (InterfaceType) type; break;
+				case "CanIterate":		standard.CAN_ITERATE = (InterfaceType) type; break;
+				case "CanIterateNullable":	standard.CAN_ITERATE_NULLABLE = (InterfaceType) type; break;
+				case "CastException":	standard.CAST_EXCEPTION = (ExceptionType) type; break;
+				case "Class":			standard.CLASS = (ClassType) type; break;
+				case "boolean":			standard.BOOLEAN = (ClassType)type; break;
+				case "byte":			standard.BYTE = (ClassType)type; break;
+				case "code":			standard.CODE = (ClassType)type; break;
+				case "double":			standard.DOUBLE = (ClassType)type; break;
+				case "Enum":			standard.ENUM = (ClassType) type; break;//the base class for enum is not an enum								
+				case "Exception":		standard.EXCEPTION = (ExceptionType) type; break;
+				case "float":			standard.FLOAT = (ClassType)type; break;
+				case "GenericClass":	standard.GENERIC_CLASS = (ClassType) type; break;
+				case "IndexOutOfBoundsException": standard.INDEX_OUT_OF_BOUNDS_EXCEPTION = (ExceptionType) type; break;
+				case "int":				standard.INT = (ClassType) type; break;
+				case "Integer":			standard.INTEGER = (InterfaceType) type; break;
+				case "InterfaceCreateException": standard.INTERFACE_CREATE_EXCEPTION = (ExceptionType) type; break;
+				case "Iterator":		standard.ITERATOR = (InterfaceType) type; break;
+				case "IteratorNullable":	standard.ITERATOR_NULLABLE = (InterfaceType) type; break;
+				case "long":			standard.LONG = (ClassType)type; break;	
+				case "Method":			standard.METHOD = (ClassType)type; break;
+				case "MethodTable":		standard.METHOD_TABLE = (ClassType)type; break;
+				case "Number":			standard.NUMBER = (InterfaceType) type; break;
+				case "Object":			standard.OBJECT = (ClassType) type; break;				
+				case "short":			standard.SHORT = (ClassType)type; break;
+				case "String":			standard.STRING = (ClassType) type; break;
+				case "ubyte":			standard.UBYTE = (ClassType)type; break;
+				case "uint":			standard.UINT = (ClassType)type; break;
+				case "ulong":			standard.ULONG = (ClassType)type; break;				
+				case "UnexpectedNullException": standard.UNEXPECTED_NULL_EXCEPTION = (ExceptionType)type; break;
+				case "ushort":			standard.USHORT = (ClassType)type; break;
+				case "CanRun":			standard.CAN_RUN = (InterfaceType)type; break;
+				case "Thread":			standard.THREAD = (ClassType)type; break;
 				}
 			}
 
 			if( currentPackage.getQualifiedName().equals("shadow:natives") ) {
 				switch( typeName ) {
-				case "Pointer": Type.POINTER = (ClassType)type; break;
+				case "Pointer": standard.POINTER = (ClassType)type; break;
 				}
 			}
 
@@ -834,24 +935,25 @@ public class TypeCollector extends ScopedChecker {
 
 	// Captures first-party attribute types for later reference during compilation
 	private void captureAttributeType(AttributeType type, String typeName) {
+		StandardTypes standard = standard();
 		switch (typeName) {
 			case "ImportAssembly":
-				AttributeType.IMPORT_ASSEMBLY = type;
+				standard.IMPORT_ASSEMBLY = type;
 				break;
 			case "ExportAssembly":
-				AttributeType.EXPORT_ASSEMBLY = type;
+				standard.EXPORT_ASSEMBLY = type;
 				break;
 			case "ImportNative":
-				AttributeType.IMPORT_NATIVE = type;
+				standard.IMPORT_NATIVE = type;
 				break;
 			case "ExportNative":
-				AttributeType.EXPORT_NATIVE = type;
+				standard.EXPORT_NATIVE = type;
 				break;
 			case "ImportMethod":
-				AttributeType.IMPORT_METHOD = type;
+				standard.IMPORT_METHOD = type;
 				break;
 			case "ExportMethod":
-				AttributeType.EXPORT_METHOD = type;
+				standard.EXPORT_METHOD = type;
 				break;
 		}
 	}
@@ -922,7 +1024,7 @@ public class TypeCollector extends ScopedChecker {
 
 		typeDeclarations.clear();
 
-		Type.clearTypes();
+		session.clearStandardTypes();
 	}
 
 	/* AST visitor methods below this point. */
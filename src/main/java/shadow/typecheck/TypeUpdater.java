@@ -28,6 +28,7 @@ import java.util.Set;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.Token;
 
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.parse.Context;
 import shadow.parse.ShadowParser;
@@ -82,8 +83,8 @@ public class TypeUpdater extends BaseChecker {
 	 *            root of all packages
 	 * @param fileTable
 	 */
-	public TypeUpdater(Package packageTree, ErrorReporter reporter, Map<String, Context> fileTable) {
-		super(packageTree, reporter);
+	public TypeUpdater(Session session, Package packageTree, ErrorReporter reporter, Map<String, Context> fileTable) {
+		super(session, packageTree, reporter);
 
 		// Update so that all the imported names map to types
 		for(Type type : packageTree) {
@@ -216,58 +217,58 @@ public class TypeUpdater extends BaseChecker {
 			 */
 
 			// Address map for deep copies
-			type.addUsedType(Type.ADDRESS_MAP);
+			type.addUsedType(standard().ADDRESS_MAP);
 
 			// Class management
-			type.addUsedType(Type.CLASS);
-			type.addUsedType(Type.GENERIC_CLASS);
+			type.addUsedType(standard().CLASS);
+			type.addUsedType(standard().GENERIC_CLASS);
 
 			// Array wrapper classes
-			type.addUsedType(Type.ARRAY);
-			type.addUsedType(Type.ARRAY_NULLABLE);
+			type.addUsedType(standard().ARRAY);
+			type.addUsedType(standard().ARRAY_NULLABLE);
 			
 			// Used for method references
-			type.addUsedType(Type.METHOD);
+			type.addUsedType(standard().METHOD);
 			
 			// Iterators for foreach loops
-			type.addUsedType(Type.ITERATOR);
-			type.addUsedType(Type.ITERATOR_NULLABLE);
+			type.addUsedType(standard().ITERATOR);
+			type.addUsedType(standard().ITERATOR_NULLABLE);
 
 			// Exceptions
-			type.addUsedType(Type.EXCEPTION);
-			type.addUsedType(Type.CAST_EXCEPTION);
-			type.addUsedType(Type.INDEX_OUT_OF_BOUNDS_EXCEPTION);
-			type.addUsedType(Type.INTERFACE_CREATE_EXCEPTION);
-			type.addUsedType(Type.UNEXPECTED_NULL_EXCEPTION);
+			type.addUsedType(standard().EXCEPTION);
+			type.addUsedType(standard().CAST_EXCEPTION);
+			type.addUsedType(standard().INDEX_OUT_OF_BOUNDS_EXCEPTION);
+			type.addUsedType(standard().INTERFACE_CREATE_EXCEPTION);
+			type.addUsedType(standard().UNEXPECTED_NULL_EXCEPTION);
 
 			// String
-			type.addUsedType(Type.STRING);
+			type.addUsedType(standard().STRING);
 
 			// byte array
-			type.addUsedType(new ArrayType(Type.UBYTE));
+			type.addUsedType(new ArrayType(standard().UBYTE));
 
 			// method table array
-			type.addUsedType(new ArrayType(Type.METHOD_TABLE));
+			type.addUsedType(new ArrayType(standard().METHOD_TABLE));
 
-			type.addUsedType(new ArrayType(Type.CLASS));
+			type.addUsedType(new ArrayType(standard().CLASS));
 			
 			// Adding the self adds parents and interfaces and methods
 			type.addUsedType(type);
 
 			// Add all primitive types (since their Object versions might be
 			// used in casts)
-			type.addUsedType(Type.BOOLEAN);
-			type.addUsedType(Type.BYTE);
-			type.addUsedType(Type.CODE);
-			type.addUsedType(Type.DOUBLE);
-			type.addUsedType(Type.FLOAT);
-			type.addUsedType(Type.INT);
-			type.addUsedType(Type.LONG);
-			type.addUsedType(Type.SHORT);
-			type.addUsedType(Type.UBYTE);
-			type.addUsedType(Type.UINT);
-			type.addUsedType(Type.ULONG);
-			type.addUsedType(Type.USHORT);
+			type.addUsedType(standard().BOOLEAN);
+			type.addUsedType(standard().BYTE);
+			type.addUsedType(standard().CODE);
+			type.addUsedType(standard().DOUBLE);
+			type.addUsedType(standard().FLOAT);
+			type.addUsedType(standard().INT);
+			type.addUsedType(standard().LONG);
+			type.addUsedType(standard().SHORT);
+			type.addUsedType(standard().UBYTE);
+			type.addUsedType(standard().UINT);
+			type.addUsedType(standard().ULONG);
+			type.addUsedType(standard().USHORT);
 		}
 	}
 
@@ -327,7 +328,7 @@ public class TypeUpdater extends BaseChecker {
 			copyNode.addModifiers(Modifiers.PUBLIC | Modifiers.READONLY);
 			MethodSignature copySignature = new MethodSignature(classType, "copy", copyNode.getModifiers(),
 					copyNode.getDocumentation(), copyNode);
-			copySignature.addParameter("addresses", new SimpleModifiedType(Type.ADDRESS_MAP));
+			copySignature.addParameter("addresses", new SimpleModifiedType(standard().ADDRESS_MAP));
 			copySignature.addReturn(new SimpleModifiedType(classType));
 			copyNode.setSignature(copySignature);
 			classType.addMethod(copySignature);
@@ -1082,7 +1083,7 @@ public class TypeUpdater extends BaseChecker {
 			if (declarationType instanceof EnumType) {
 				kind = "Enum type ";
 				EnumType enumType = (EnumType) declarationType;
-				enumType.setExtendType(Type.ENUM);
+				enumType.setExtendType(standard().ENUM);
 			} else
 				kind = "Interface type ";
 
@@ -1149,14 +1150,14 @@ public class TypeUpdater extends BaseChecker {
 			if (classType.getExtendType() == null) {
 				if (classType instanceof ExceptionType) {
 					// Special case only for the root of all exceptions.
-					if (classType == Type.EXCEPTION)
-						classType.setExtendType(Type.OBJECT);
+					if (classType == standard().EXCEPTION)
+						classType.setExtendType(standard().OBJECT);
 					else
-						classType.setExtendType(Type.EXCEPTION);
+						classType.setExtendType(standard().EXCEPTION);
 				}
 				// The Object class is the only class with a null parent.
-				else if (classType != Type.OBJECT)
-					classType.setExtendType(Type.OBJECT);
+				else if (classType != standard().OBJECT)
+					classType.setExtendType(standard().OBJECT);
 			}
 		}
 
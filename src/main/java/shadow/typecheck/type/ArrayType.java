@@ -11,7 +11,7 @@ public class ArrayType extends ClassType
 {	
 	private final Type baseType;
 	private final boolean nullable;
-	private ClassType genericVersion = null;
+	private volatile ClassType genericVersion = null; // Arrays may be shared by statement checkers on different threads
 	
 	@Override
 	public int getWidth()
@@ -53,7 +53,7 @@ public class ArrayType extends ClassType
 	public ArrayType(Type baseType, int dimensions, boolean nullable ) {
 		super( getLowestBase(baseType).getTypeName(), new Modifiers(baseType.getModifiers().getModifiers() & ~Modifiers.IMMUTABLE), baseType.getDocumentation(), baseType.getOuter() );
 
-		setExtendType(Type.OBJECT);
+		setExtendType(Type.standard().OBJECT);
 		
 		if( dimensions == 1 )
 			this.baseType = baseType;
@@ -141,7 +141,7 @@ public class ArrayType extends ClassType
 		if( t == UNKNOWN )
 			return false;
 		
-		if( t == OBJECT )
+		if( t == standard().OBJECT )
 			return true;
 	
 		if( equals(t) )
@@ -175,9 +175,9 @@ public class ArrayType extends ClassType
 			
 			try {
 				if( nullable )
-					genericVersion = Type.ARRAY_NULLABLE.replace(Type.ARRAY_NULLABLE.getTypeParameters(), new SequenceType(base));
+					genericVersion = Type.standard().ARRAY_NULLABLE.replace(Type.standard().ARRAY_NULLABLE.getTypeParameters(), new SequenceType(base));
 				else
-					genericVersion = Type.ARRAY.replace(Type.ARRAY.getTypeParameters(), new SequenceType(base));
+					genericVersion = Type.standard().ARRAY.replace(Type.standard().ARRAY.getTypeParameters(), new SequenceType(base));
 			}
 			catch(InstantiationException e)
 			{}		
@@ -28,24 +28,6 @@ public class AttributeType extends Type {
     // Used as a placeholder for unresolved attribute types during typechecking
     public static final AttributeType UNKNOWN_ATTRIBUTE_TYPE = new AttributeType("Unknown Attribute", null, null);
 
-    // First-party attribute types referenced during compilation. These are populated during type collection.
-    public static AttributeType IMPORT_ASSEMBLY;
-    public static AttributeType EXPORT_ASSEMBLY;
-    public static AttributeType IMPORT_NATIVE;
-    public static AttributeType EXPORT_NATIVE;
-    public static AttributeType IMPORT_METHOD;
-    public static AttributeType EXPORT_METHOD;
-
-    /** Called by {@link Type#clearTypes()}. */
-    public static void clearTypes() {
-        IMPORT_ASSEMBLY = null;
-        EXPORT_ASSEMBLY = null;
-        IMPORT_NATIVE = null;
-        EXPORT_NATIVE = null;
-        IMPORT_METHOD = null;
-        EXPORT_METHOD = null;
-    }
-
     // Names of fields which do not have default values (i.e. must always be provided when invoking the attribute)
     private final Set<String> uninitializedFields = new HashSet<>();
 
@@ -173,7 +173,7 @@ public class ClassType extends Type {
 		return list;
 	}
 	
-	private Map<String, Integer> fieldIndexCache;
+	private volatile Map<String, Integer> fieldIndexCache;
 	
 	//returns number of fields, including parent fields
 	private int buildFieldIndexCache() {		
@@ -260,45 +260,47 @@ public class ClassType extends Type {
 	@Override
 	public ClassType replace(List<ModifiedType> values, List<ModifiedType> replacements ) throws InstantiationException {	
 		if( isRecursivelyParameterized() ) {	
-			Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
-			if( cached != null )
-				return (ClassType)cached;
+			synchronized( getInstantiationLock() ) {
+				Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
+				if( cached != null )
+					return (ClassType)cached;
 			
-			ClassType replaced = new ClassType(getTypeName(), getModifiers(), 
-					getDocumentation(), (ClassType)getOuter());
-			replaced.setPackage(getPackage());
-			replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;
-			typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
+				ClassType replaced = new ClassType(getTypeName(), getModifiers(), 
+						getDocumentation(), (ClassType)getOuter());
+				replaced.setPackage(getPackage());
+				replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;
+				typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
 			
-			replaced.setInnerTypes(getInnerTypes());
+				replaced.setInnerTypes(getInnerTypes());
 
-			replaced.setExtendType(getExtendType().replace(values, replacements));			
+				replaced.setExtendType(getExtendType().replace(values, replacements));			
 			
-			for( InterfaceType _interface : getInterfaces() )
-				replaced.addInterface(_interface.replace(values, replacements));
+				for( InterfaceType _interface : getInterfaces() )
+					replaced.addInterface(_interface.replace(values, replacements));
 			
 			
-			Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields();
-			for( String name : fields.keySet() ) {
-				ShadowParser.VariableDeclaratorContext field = fields.get(name);
-				field = Context.copy(field);	
-				field.setType(field.getType().replace(values, replacements));			
-				replaced.addField(name, field );
-			}
-			
-			for( List<MethodSignature> signatures : getMethodMap().values() )
-				for( MethodSignature signature : signatures ) {
-					MethodSignature replacedSignature = signature.replace(values, replacements);
-					replaced.addMethod(replacedSignature);					
+				Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields();
+				for( String name : fields.keySet() ) {
+					ShadowParser.VariableDeclaratorContext field = fields.get(name);
+					field = Context.copy(field);	
+					field.setType(field.getType().replace(values, replacements));			
+					replaced.addField(name, field );
 				}
 			
-			if( isParameterized() )
-				for( ModifiedType modifiedParameter : getTypeParameters() )	{
-					Type parameter = modifiedParameter.getType();
-					replaced.addTypeParameter( new SimpleModifiedType(parameter.replace(values, replacements), modifiedParameter.getModifiers()) );
-				}
+				for( List<MethodSignature> signatures : getMethodMap().values() )
+					for( MethodSignature signature : signatures ) {
+						MethodSignature replacedSignature = signature.replace(values, replacements);
+						replaced.addMethod(replacedSignature);					
+					}
 			
-			return replaced;
+				if( isParameterized() )
+					for( ModifiedType modifiedParameter : getTypeParameters() )	{
+						Type parameter = modifiedParameter.getType();
+						replaced.addTypeParameter( new SimpleModifiedType(parameter.replace(values, replacements), modifiedParameter.getModifiers()) );
+					}
+			
+				return replaced;
+			}
 		}
 		
 		return this;
@@ -312,61 +314,66 @@ public class ClassType extends Type {
 	@Override
 	public ClassType partiallyReplace(List<ModifiedType> values, List<ModifiedType> replacements ) throws InstantiationException {	
 		if( isRecursivelyParameterized() ) {	
-			Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
-			if( cached != null )
-				return (ClassType)cached;
+			synchronized( getInstantiationLock() ) {
+				Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
+				if( cached != null )
+					return (ClassType)cached;
 			
-			ClassType replaced = new ClassType(getTypeName(), getModifiers(),
-					getDocumentation(), (ClassType)getOuter() );
-			replaced.setPackage(getPackage());
-			replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;
-			typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
+				ClassType replaced = new ClassType(getTypeName(), getModifiers(),
+						getDocumentation(), (ClassType)getOuter() );
+				replaced.setPackage(getPackage());
+				replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;
+				typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
 			
-			replaced.setInnerTypes(getInnerTypes());
+				replaced.setInnerTypes(getInnerTypes());
 			
-			replaced.setExtendType(getExtendType().partiallyReplace(values, replacements));			
+				replaced.setExtendType(getExtendType().partiallyReplace(values, replacements));			
 			
-			for( InterfaceType _interface : getInterfaces() )
-				replaced.addInterface(_interface.partiallyReplace(values, replacements));
+				for( InterfaceType _interface : getInterfaces() )
+					replaced.addInterface(_interface.partiallyReplace(values, replacements));
 			
-			Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields(); 
+				Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields(); 
 			
-			for( String name : fields.keySet() ) {
-				ShadowParser.VariableDeclaratorContext field = fields.get(name);
-				if( field.getType().isParameterized() ) {
-					field = Context.copy(field);					
-					SequenceType typeArguments = new SequenceType();
-					for( ModifiedType typeParameter : field.getType().getTypeParameters() ) {
-						Type type = typeParameter.getType();
+				for( String name : fields.keySet() ) {
+					ShadowParser.VariableDeclaratorContext field = fields.get(name);
+					if( field.getType().isParameterized() ) {
+						field = Context.copy(field);					
+						SequenceType typeArguments = new SequenceType();
+						for( ModifiedType typeParameter : field.getType().getTypeParameters() ) {
+							Type type = typeParameter.getType();
 						
-						if( type instanceof TypeParameter || type.isParameterized() )
-							typeArguments.add( new SimpleModifiedType( type.partiallyReplace(values, replacements), typeParameter.getModifiers() ) );
+							if( type instanceof TypeParameter || type.isParameterized() )
+								typeArguments.add( new SimpleModifiedType( type.partiallyReplace(values, replacements), typeParameter.getModifiers() ) );
+							else
+								typeArguments.add(typeParameter);
+						}
+					
+						if( field.getType() instanceof InterfaceType )
+							field.setType( new UninstantiatedInterfaceType( (InterfaceType)field.getType(), typeArguments, null ));
 						else
-							typeArguments.add(typeParameter);
+							field.setType( new UninstantiatedClassType( (ClassType)field.getType(), typeArguments, null ));
 					}
-					
-					if( field.getType() instanceof InterfaceType )
-						field.setType( new UninstantiatedInterfaceType( (InterfaceType)field.getType(), typeArguments, null ));
-					else
-						field.setType( new UninstantiatedClassType( (ClassType)field.getType(), typeArguments, null ));
+					replaced.addField(name, field );
 				}
-				replaced.addField(name, field );
-			}
 			
-			for( List<MethodSignature> signatures : getMethodMap().values() )
-				for( MethodSignature signature : signatures ) {	
-					MethodSignature replacedSignature = signature.partiallyReplace(values, replacements);
-					replaced.addMethod(replacedSignature);
-					signature.getNode().setSignature(replacedSignature);
-				}
+				// Declaration nodes are re-pointed while holding the instantiation
+				// lock, and their signature field is volatile, so statement checkers
+				// on other threads always see a fully built signature
+				for( List<MethodSignature> signatures : getMethodMap().values() )
+					for( MethodSignature signature : signatures ) {	
+						MethodSignature replacedSignature = signature.partiallyReplace(values, replacements);
+						replaced.addMethod(replacedSignature);
+						signature.getNode().setSignature(replacedSignature);
+					}
 			
-			if( isParameterized() )
-				for( ModifiedType modifiedParameter : getTypeParameters() )	{
-					Type parameter = modifiedParameter.getType();
-					replaced.addTypeParameter( new SimpleModifiedType(parameter.partiallyReplace(values, replacements), modifiedParameter.getModifiers()) );
-				}
+				if( isParameterized() )
+					for( ModifiedType modifiedParameter : getTypeParameters() )	{
+						Type parameter = modifiedParameter.getType();
+						replaced.addTypeParameter( new SimpleModifiedType(parameter.partiallyReplace(values, replacements), modifiedParameter.getModifiers()) );
+					}
 			
-			return replaced;
+				return replaced;
+			}
 		}
 		
 		return this;
@@ -415,10 +422,10 @@ public class ClassType extends Type {
 		if( t == UNKNOWN || this == UNKNOWN )
 			return false;
 	
-		if( this == NULL || t == Type.OBJECT || t == Type.VAR || equals(t) )
+		if( this == NULL || t == Type.standard().OBJECT || t == Type.VAR || equals(t) )
 			return true;
 		
-		if( t instanceof MethodTableType && this == METHOD_TABLE )
+		if( t instanceof MethodTableType && this == standard().METHOD_TABLE )
 			return true;
 		
 		if( t instanceof TypeParameter )
@@ -554,7 +561,7 @@ public class ClassType extends Type {
 		//extend type
 		Type extendType = getExtendType();
 		boolean isStarted = false;
-		if( extendType != null && !this.equals(Type.EXCEPTION)  ) {
+		if( extendType != null && !this.equals(Type.standard().EXCEPTION)  ) {
 			out.print(" is " + extendType.toString(PACKAGES | TYPE_PARAMETERS) );
 			isStarted = true;
 		}
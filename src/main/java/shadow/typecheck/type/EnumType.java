@@ -10,7 +10,7 @@ public class EnumType extends ClassType
 	public EnumType(String typeName, Modifiers modifiers, 
 			Documentation documentation, Type outer) 
 	{
-		this(typeName, modifiers, documentation, outer, Type.ENUM);
+		this(typeName, modifiers, documentation, outer, Type.standard().ENUM);
 	}
 	
 	public EnumType(String typeName, Modifiers modifiers, 
@@ -11,7 +11,7 @@ public class ExceptionType extends ClassType
 	public ExceptionType(String typeName, Modifiers modifiers, 
 			Documentation documentation, Type outer) 
 	{
-		this( typeName, modifiers, documentation, outer, Type.EXCEPTION);
+		this( typeName, modifiers, documentation, outer, Type.standard().EXCEPTION);
 	}
 	
 	public ExceptionType(String typeName, Modifiers modifiers, 
@@ -29,7 +29,7 @@ public class ExceptionType extends ClassType
 		if( equals(t) )
 			return true;		
 		
-		if ( t.equals(OBJECT) )
+		if ( t.equals(standard().OBJECT) )
 			return true;
 		
 		if( t instanceof ExceptionType )			
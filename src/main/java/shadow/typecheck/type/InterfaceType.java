@@ -121,50 +121,52 @@ public class InterfaceType extends Type
 		
 		//get from Object, too
 		if( !methodName.equals("create") )
-			list.addAll( Type.OBJECT.recursivelyGetMethodOverloads(methodName));
+			list.addAll( Type.standard().OBJECT.recursivelyGetMethodOverloads(methodName));
 		return list;
 	}
 	
 	@Override
 	public InterfaceType replace(List<ModifiedType> values, List<ModifiedType> replacements ) throws InstantiationException {		
 		if( isRecursivelyParameterized() ) {					
-			Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
-			if( cached != null )
-				return (InterfaceType)cached;
+			synchronized( getInstantiationLock() ) {
+				Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
+				if( cached != null )
+					return (InterfaceType)cached;
 			
-			InterfaceType replaced = new InterfaceType(getTypeName(), getModifiers(), getDocumentation());
-			replaced.setPackage(getPackage());
+				InterfaceType replaced = new InterfaceType(getTypeName(), getModifiers(), getDocumentation());
+				replaced.setPackage(getPackage());
 			
-			replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;			
-			typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
+				replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;			
+				typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
 			
-			replaced.setInnerTypes(getInnerTypes());
+				replaced.setInnerTypes(getInnerTypes());
 			
-			for( InterfaceType _interface : getInterfaces() )
-				replaced.addInterface(_interface.replace(values, replacements));
+				for( InterfaceType _interface : getInterfaces() )
+					replaced.addInterface(_interface.replace(values, replacements));
 			
-			//only constant non-parameterized fields in an interface
-			Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields(); 
+				//only constant non-parameterized fields in an interface
+				Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields(); 
 			
-			for( String name : fields.keySet() ) {
-				ShadowParser.VariableDeclaratorContext field = fields.get(name);
-				field = Context.copy(field);	
-				field.setType(field.getType());			
-				replaced.addField(name, field );
-			}
-			
-			for( List<MethodSignature> signatures : getMethodMap().values() )
-				for( MethodSignature signature : signatures ) {
-					MethodSignature replacedSignature = signature.replace(values, replacements);					
-					replaced.addMethod(replacedSignature);
+				for( String name : fields.keySet() ) {
+					ShadowParser.VariableDeclaratorContext field = fields.get(name);
+					field = Context.copy(field);	
+					field.setType(field.getType());			
+					replaced.addField(name, field );
 				}
+			
+				for( List<MethodSignature> signatures : getMethodMap().values() )
+					for( MethodSignature signature : signatures ) {
+						MethodSignature replacedSignature = signature.replace(values, replacements);					
+						replaced.addMethod(replacedSignature);
+					}
 						
-			for( ModifiedType modifiedParameter : getTypeParameters() ) {
-				Type parameter = modifiedParameter.getType();
-				replaced.addTypeParameter(new SimpleModifiedType(parameter.replace(values, replacements), modifiedParameter.getModifiers() ));
-			}			
+				for( ModifiedType modifiedParameter : getTypeParameters() ) {
+					Type parameter = modifiedParameter.getType();
+					replaced.addTypeParameter(new SimpleModifiedType(parameter.replace(values, replacements), modifiedParameter.getModifiers() ));
+				}			
 			
-			return replaced;
+				return replaced;
+			}
 		}		
 		
 		return this;
@@ -174,44 +176,46 @@ public class InterfaceType extends Type
 	@Override
 	public InterfaceType partiallyReplace(List<ModifiedType> values, List<ModifiedType> replacements ) throws InstantiationException {	
 		if( isRecursivelyParameterized() ) {	
-			Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
-			if( cached != null )
-				return (InterfaceType)cached;
+			synchronized( getInstantiationLock() ) {
+				Type cached = typeWithoutTypeArguments.getInstantiation(this, values, replacements);
+				if( cached != null )
+					return (InterfaceType)cached;
 			
-			InterfaceType replaced = new InterfaceType(getTypeName(), getModifiers(), getDocumentation());
-			replaced.setPackage(getPackage());
-			replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;
+				InterfaceType replaced = new InterfaceType(getTypeName(), getModifiers(), getDocumentation());
+				replaced.setPackage(getPackage());
+				replaced.typeWithoutTypeArguments = typeWithoutTypeArguments;
 			
-			typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
+				typeWithoutTypeArguments.addInstantiation(this, values, replacements, replaced);
 			
-			replaced.setInnerTypes(getInnerTypes());
+				replaced.setInnerTypes(getInnerTypes());
 						
-			for( InterfaceType _interface : getInterfaces() )
-				replaced.addInterface(_interface.partiallyReplace(values, replacements));
+				for( InterfaceType _interface : getInterfaces() )
+					replaced.addInterface(_interface.partiallyReplace(values, replacements));
 						
-			// Only constant non-parameterized fields in an interface
-			Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields(); 
+				// Only constant non-parameterized fields in an interface
+				Map<String, ShadowParser.VariableDeclaratorContext> fields = getFields(); 
 			
-			for( String name : fields.keySet() ) {
-				ShadowParser.VariableDeclaratorContext field = fields.get(name);
-				field = Context.copy(field);	
-				field.setType(field.getType());			
-				replaced.addField(name, field );
-			}
-			
-			for(List<MethodSignature> signatures : getMethodMap().values() )
-				for( MethodSignature signature : signatures ) {
-					MethodSignature replacedSignature = signature.partiallyReplace(values, replacements);
-					replaced.addMethod(replacedSignature);					
+				for( String name : fields.keySet() ) {
+					ShadowParser.VariableDeclaratorContext field = fields.get(name);
+					field = Context.copy(field);	
+					field.setType(field.getType());			
+					replaced.addField(name, field );
 				}
 			
-			if(isParameterized())
-				for( ModifiedType modifiedParameter : getTypeParameters() )	{
-					Type parameter = modifiedParameter.getType();
-					replaced.addTypeParameter( new SimpleModifiedType(parameter.partiallyReplace(values, replacements), modifiedParameter.getModifiers()) );
-				}			
+				for(List<MethodSignature> signatures : getMethodMap().values() )
+					for( MethodSignature signature : signatures ) {
+						MethodSignature replacedSignature = signature.partiallyReplace(values, replacements);
+						replaced.addMethod(replacedSignature);					
+					}
+			
+				if(isParameterized())
+					for( ModifiedType modifiedParameter : getTypeParameters() )	{
+						Type parameter = modifiedParameter.getType();
+						replaced.addTypeParameter( new SimpleModifiedType(parameter.partiallyReplace(values, replacements), modifiedParameter.getModifiers()) );
+					}			
 			
-			return replaced;
+				return replaced;
+			}
 		}
 		
 		return this;
@@ -254,7 +258,7 @@ public class InterfaceType extends Type
 		if( t == UNKNOWN )
 			return false;
 	
-		if( equals(t) || t == Type.OBJECT || t == Type.VAR )
+		if( equals(t) || t == Type.standard().OBJECT || t == Type.VAR )
 			return true;		
 		
 		if( t instanceof InterfaceType )			
@@ -265,7 +269,7 @@ public class InterfaceType extends Type
 	
 	@Override
 	public int getWidth() {
-		return OBJECT.getWidth() * 2;
+		return standard().OBJECT.getWidth() * 2;
 	}	
 	
 	@Override
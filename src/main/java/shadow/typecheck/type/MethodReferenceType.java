@@ -7,7 +7,7 @@ public class MethodReferenceType extends ClassType {
 	public MethodReferenceType(MethodType methodType) {
 		super(null, methodType.getModifiers(), null, methodType.getOuter());
 		this.methodType = methodType;		
-		setExtendType(Type.METHOD);
+		setExtendType(Type.standard().METHOD);
 	}	
 	
 	public MethodType getMethodType() {
@@ -17,7 +17,7 @@ public class MethodReferenceType extends ClassType {
 	@Override
 	public String toString(int options) {	
 		if( (options & MANGLE) != 0 )
-			return Type.METHOD.toString(options);
+			return Type.standard().METHOD.toString(options);
 		
 		return methodType.toString(options);
 	}
@@ -33,7 +33,7 @@ public class MethodReferenceType extends ClassType {
 	
 	@Override
 	public boolean isSubtype(Type t) {
-		if( t == Type.METHOD )
+		if( t == Type.standard().METHOD )
 			return true;	
 		
 		if( t instanceof MethodType )
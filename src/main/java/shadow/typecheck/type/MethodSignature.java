@@ -118,7 +118,7 @@ public class MethodSignature implements Comparable<MethodSignature> {
 		if (isCreate()) {
 			SimpleModifiedType modified;				
 			if( outerType instanceof InterfaceType )
-				modified = new SimpleModifiedType(Type.OBJECT);
+				modified = new SimpleModifiedType(Type.standard().OBJECT);
 			else
 				modified = new SimpleModifiedType(outerType);
 			
@@ -149,7 +149,7 @@ public class MethodSignature implements Comparable<MethodSignature> {
 		if(!isImportAssembly()) {
 			Type outerType = getOuter();
 			if (isCreate() || outerType instanceof InterfaceType ) //since actual object is unknown, assume Object for all interface methods
-				paramTypes.add(new SimpleModifiedType(Type.OBJECT));
+				paramTypes.add(new SimpleModifiedType(Type.standard().OBJECT));
 			else
 				paramTypes.add(new SimpleModifiedType(outerType)); // this
 		}
@@ -445,17 +445,17 @@ public class MethodSignature implements Comparable<MethodSignature> {
 	 */
 	public void processAttributeTypes(ErrorReporter errorReporter) {
 		for (AttributeType attributeType : attributes.keySet()) {
-			if (attributeType.equals(AttributeType.IMPORT_NATIVE)) {
+			if (attributeType.equals(Type.standard().IMPORT_NATIVE)) {
 				processImportExportAttributes(true, ImportExportMode.NATIVE, errorReporter);
-			} else if (attributeType.equals(AttributeType.IMPORT_ASSEMBLY)) {
+			} else if (attributeType.equals(Type.standard().IMPORT_ASSEMBLY)) {
 				processImportExportAttributes(true, ImportExportMode.ASSEMBLY, errorReporter);
-			} else if (attributeType.equals(AttributeType.IMPORT_METHOD)) {
+			} else if (attributeType.equals(Type.standard().IMPORT_METHOD)) {
 				processImportExportAttributes(true, ImportExportMode.METHOD, errorReporter);
-			} else if (attributeType.equals(AttributeType.EXPORT_NATIVE)) {
+			} else if (attributeType.equals(Type.standard().EXPORT_NATIVE)) {
 				processImportExportAttributes(false, ImportExportMode.NATIVE, errorReporter);
-			} else if (attributeType.equals(AttributeType.EXPORT_ASSEMBLY)) {
+			} else if (attributeType.equals(Type.standard().EXPORT_ASSEMBLY)) {
 				processImportExportAttributes(false, ImportExportMode.ASSEMBLY, errorReporter);
-			} else if (attributeType.equals(AttributeType.EXPORT_METHOD)) {
+			} else if (attributeType.equals(Type.standard().EXPORT_METHOD)) {
 				processImportExportAttributes(false, ImportExportMode.METHOD, errorReporter);
 			}
 		}
@@ -480,8 +480,8 @@ public class MethodSignature implements Comparable<MethodSignature> {
 	 */
 	public void processAttributeValues(ErrorReporter errorReporter) {
 		for (AttributeType attributeType : attributes.keySet()) {
-			if (attributeType.equals(AttributeType.IMPORT_METHOD)) {
-				AttributeInvocation export = importSource.getAttributeInvocation(AttributeType.EXPORT_METHOD);
+			if (attributeType.equals(Type.standard().IMPORT_METHOD)) {
+				AttributeInvocation export = importSource.getAttributeInvocation(Type.standard().EXPORT_METHOD);
 				if (export != null) {
 					Type exportType = ((ShadowClass) export.getFieldValue("exportedTo")).getRepresentedType();
 					if (outer.equals(exportType)) {
@@ -211,7 +211,7 @@ public class MethodType extends Type {
 		if( t == UNKNOWN )
 			return false;
 	
-		if( equals(t) || t == Type.OBJECT )
+		if( equals(t) || t == Type.standard().OBJECT )
 			return true;
 		
 		if( t instanceof MethodType ) {
@@ -0,0 +1,109 @@
+package shadow.typecheck.type;
+
+/**
+ * The predefined types needed by the compiler, such as <code>Object</code>,
+ * <code>String</code>, and the primitive types. They are filled in by the
+ * {@link shadow.typecheck.TypeCollector} as the standard library is loaded.
+ * Each {@link shadow.Session} has its own set, which is reached through
+ * {@link Type#standard()}.
+ */
+public class StandardTypes {
+
+	/*
+	 * Predefined system types needed for Shadow
+	 */
+
+	public ClassType OBJECT = null;
+	public ClassType CLASS = null;  // meta class for holding normal :class variables
+	public ClassType GENERIC_CLASS = null;  // meta class for holding generic :class variables
+	public ClassType ARRAY = null;  // object representation of all array types
+	public ClassType ARRAY_NULLABLE = null;  // object representation of nullable array types
+
+	public ClassType METHOD = null; //used to hold method references
+	public ClassType METHOD_TABLE = null; //really just a pointer for method tables, but we sometimes act like it is a class
+
+	public ClassType ENUM = null;  //weirdly, the base class for enum is not an EnumType
+	public ExceptionType EXCEPTION = null;
+	public ExceptionType CAST_EXCEPTION = null;
+	public ExceptionType INDEX_OUT_OF_BOUNDS_EXCEPTION = null;
+	public ExceptionType ASSERT_EXCEPTION = null;
+	public ExceptionType UNEXPECTED_NULL_EXCEPTION = null;
+	public ExceptionType INTERFACE_CREATE_EXCEPTION = null;
+
+	public ClassType BOOLEAN = null;
+	public ClassType BYTE = null;
+	public ClassType CODE = null;
+	public ClassType DOUBLE = null;
+	public ClassType FLOAT = null;
+	public ClassType INT = null;
+	public ClassType LONG = null;
+	public ClassType SHORT = null;
+
+	public ClassType UBYTE = null;
+	public ClassType UINT = null;
+	public ClassType ULONG = null;
+	public ClassType USHORT = null;
+
+	public ClassType STRING = null;
+	public ClassType ADDRESS_MAP = null; //used for copying
+
+	public ClassType POINTER = null;
+	public ClassType THREAD = null;
+
+	/*
+	 * Predefined interfaces needed for Shadow
+	 */
+
+	public InterfaceType CAN_COMPARE = null;
+	public InterfaceType CAN_EQUAL = null;
+	public InterfaceType CAN_INDEX = null;
+	public InterfaceType CAN_INDEX_NULLABLE = null;
+	public InterfaceType CAN_INDEX_STORE = null;
+	public InterfaceType CAN_INDEX_STORE_NULLABLE = null;
+	public InterfaceType CAN_ITERATE = null;
+	public InterfaceType CAN_ITERATE_NULLABLE = null;
+	public InterfaceType ITERATOR = null;
+	public InterfaceType ITERATOR_NULLABLE = null;
+	public InterfaceType NUMBER = null;
+	public InterfaceType INTEGER = null;
+	public InterfaceType CAN_ADD = null;
+	public InterfaceType CAN_SUBTRACT = null;
+	public InterfaceType CAN_MULTIPLY = null;
+	public InterfaceType CAN_DIVIDE = null;
+	public InterfaceType CAN_MODULUS = null;
+	public InterfaceType CAN_NEGATE = null;
+	public InterfaceType CAN_RUN = null;
+
+	/*
+	 * First-party attribute types referenced during compilation
+	 */
+
+	public AttributeType IMPORT_ASSEMBLY = null;
+	public AttributeType EXPORT_ASSEMBLY = null;
+	public AttributeType IMPORT_NATIVE = null;
+	public AttributeType EXPORT_NATIVE = null;
+	public AttributeType IMPORT_METHOD = null;
+	public AttributeType EXPORT_METHOD = null;
+
+	private final Object instantiationLock = new Object();
+	private volatile SequenceType exceptionType = null;
+
+	Object getInstantiationLock() {
+		return instantiationLock;
+	}
+
+	/**
+	 * Gets the type of the values used to pass exceptions around: a pointer
+	 * to the exception and the <code>int</code> that selects its handler.
+	 * @return exception type
+	 */
+	public SequenceType getExceptionType() {
+		if( exceptionType == null ) {
+			SequenceType type = new SequenceType();
+			type.add(new SimpleModifiedType(new PointerType()));
+			type.add(new SimpleModifiedType(INT));
+			exceptionType = type;
+		}
+		return exceptionType;
+	}
+}
@@ -15,6 +15,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 
+import shadow.Session;
 import shadow.ShadowException;
 import shadow.doctool.Documentation;
 import shadow.parse.Context;
@@ -60,77 +61,18 @@ public abstract class Type implements Comparable<Type> {
 	private TypeArgumentCache instantiatedTypes = new TypeArgumentCache();	
 	private Map<String, ImportInformation> importedItems = new HashMap<>();
 
-	private String hashName = null;	
+	private volatile String hashName = null;	
 
 	/*
-	 * Predefined system types needed for Shadow
+	 * Placeholder types shared by all sessions. Predefined system types
+	 * needed for Shadow, such as Object and String, are found through
+	 * standard().
 	 */
 
-	public static ClassType OBJECT = null;
-	public static ClassType CLASS = null;  // meta class for holding normal :class variables
-	public static ClassType GENERIC_CLASS = null;  // meta class for holding generic :class variables
-	public static ClassType ARRAY = null;  // object representation of all array types
-	public static ClassType ARRAY_NULLABLE = null;  // object representation of nullable array types	
-
-	public static ClassType METHOD = null; //used to hold method references
-	public static ClassType METHOD_TABLE = null; //really just a pointer for method tables, but we sometimes act like it is a class	
-
-	public static ClassType ENUM = null;  //weirdly, the base class for enum is not an EnumType
-	public static ExceptionType EXCEPTION = null;
-	public static ExceptionType CAST_EXCEPTION = null;
-	public static ExceptionType INDEX_OUT_OF_BOUNDS_EXCEPTION = null;
-	public static ExceptionType ASSERT_EXCEPTION = null;
-	public static ExceptionType UNEXPECTED_NULL_EXCEPTION = null;
-	public static ExceptionType INTERFACE_CREATE_EXCEPTION = null;
-
-	public static ClassType BOOLEAN = null;
-	public static ClassType BYTE = null;
-	public static ClassType CODE = null;
-	public static ClassType DOUBLE = null;
-	public static ClassType FLOAT = null;	
-	public static ClassType INT = null;
-	public static ClassType LONG = null;
-	public static ClassType SHORT = null;
-
-	public static ClassType UBYTE = null;
-	public static ClassType UINT = null;
-	public static ClassType ULONG = null;
-	public static ClassType USHORT = null;
-
-	public static ClassType STRING = null;
-	public static ClassType ADDRESS_MAP = null; //used for copying	
-
-	public static ClassType POINTER = null;
-	public static ClassType THREAD = null;
-
 	public static final ClassType UNKNOWN = new ClassType("Unknown Type", new Modifiers(), null, null); // UNKNOWN type used for placeholder when typechecking goes wrong
 	public static final ClassType NULL = new ClassType("null", new Modifiers(Modifiers.IMMUTABLE), null, null);
 	public static final VarType VAR = new VarType(); // VAR type used for placeholder for variables declared with var, until type is known
 
-	/*
-	 * Predefined interfaces needed for Shadow
-	 */	
-
-	public static InterfaceType CAN_COMPARE = null;
-	public static InterfaceType CAN_EQUAL = null;
-	public static InterfaceType CAN_INDEX = null;
-	public static InterfaceType CAN_INDEX_NULLABLE = null;
-	public static InterfaceType CAN_INDEX_STORE = null;
-	public static InterfaceType CAN_INDEX_STORE_NULLABLE = null;
-	public static InterfaceType CAN_ITERATE = null;
-	public static InterfaceType CAN_ITERATE_NULLABLE = null;
-	public static InterfaceType ITERATOR = null;
-	public static InterfaceType ITERATOR_NULLABLE = null;
-	public static InterfaceType NUMBER = null;
-	public static InterfaceType INTEGER = null;
-	public static InterfaceType CAN_ADD = null;
-	public static InterfaceType CAN_SUBTRACT = null;
-	public static InterfaceType CAN_MULTIPLY = null;
-	public static InterfaceType CAN_DIVIDE = null;
-	public static InterfaceType CAN_MODULUS = null;
-	public static InterfaceType CAN_NEGATE = null;	
-	public static InterfaceType CAN_RUN = null;
-
 	//constants used for options in toString()
 	private static int bits = 0;
 	public static final int NO_OPTIONS = 0;
@@ -278,63 +220,31 @@ public abstract class Type implements Comparable<Type> {
 	}	
 
 
+	/**
+	 * Gets the predefined system types needed for Shadow, such as
+	 * <code>Object</code> and <code>String</code>, for the compilation
+	 * running on the current thread.
+	 * @return standard types of the current session
+	 */
+	public static StandardTypes standard() {
+		return Session.current().getStandardTypes();
+	}
+
+	/**
+	 * Gets the lock that must be held while instantiating generic types.
+	 * Instantiations are cached before they are complete, so that recursive
+	 * types can refer to themselves, and holding the lock keeps other threads
+	 * from seeing them until they are finished.
+	 * @return instantiation lock of the current session
+	 */
+	protected static Object getInstantiationLock() {
+		return standard().getInstantiationLock();
+	}
+
 	//used to clear out types between runs of the JUnit tests
 	//otherwise, types can become mixed between two different runs of the type checker
 	public static void clearTypes()	{
-		OBJECT = null;
-		METHOD = null;
-		METHOD_TABLE = null;
-		CAST_EXCEPTION = null;
-		INDEX_OUT_OF_BOUNDS_EXCEPTION = null;
-		UNEXPECTED_NULL_EXCEPTION = null;
-		INTERFACE_CREATE_EXCEPTION = null;
-		ASSERT_EXCEPTION = null;
-		CLASS = null;		
-		ARRAY = null;
-		ARRAY_NULLABLE = null;		
-		ENUM = null;
-		EXCEPTION = null;		
-		GENERIC_CLASS = null;		
-		BOOLEAN = null;
-		BYTE = null;
-		CODE = null;
-		DOUBLE = null;
-		FLOAT = null;	
-		INT = null;
-		LONG = null;
-		SHORT = null;
-		UBYTE = null;
-		UINT = null;
-		ULONG = null;
-		USHORT = null;
-		STRING = null;
-		ADDRESS_MAP = null;		
-		CAN_COMPARE = null;
-		CAN_EQUAL = null;		
-		CAN_INDEX = null;
-		CAN_INDEX_NULLABLE = null;
-		CAN_INDEX_STORE = null;
-		CAN_INDEX_STORE_NULLABLE = null;
-		CAN_ITERATE = null;
-		CAN_ITERATE_NULLABLE = null;
-		ITERATOR = null;
-		ITERATOR_NULLABLE = null;
-		NUMBER = null;
-		INTEGER = null;
-		CAN_ADD = null;
-		CAN_SUBTRACT = null;
-		CAN_MULTIPLY = null;
-		CAN_DIVIDE = null;
-		CAN_MODULUS = null;
-		CAN_NEGATE = null;
-
-		POINTER = null;
-		CAN_RUN = null;
-		THREAD = null;
-
-		exceptionType = null;
-
-		AttributeType.clearTypes();
+		Session.current().clearStandardTypes();
 	}
 
 	/*
@@ -476,47 +386,48 @@ public abstract class Type implements Comparable<Type> {
 
 	protected boolean isNumericalSubtype(Type t)
 	{
-		if( this.equals(BYTE) )
+		StandardTypes types = standard();
+		if( this.equals(types.BYTE) )
 		{
-			return t.equals(SHORT) || t.equals(INT) || t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.SHORT) || t.equals(types.INT) || t.equals(types.LONG) || t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 		}
-		else if( this.equals(CODE) )  //just like uint?
+		else if( this.equals(types.CODE) )  //just like uint?
 		{
-			return t.equals(UINT) || t.equals(ULONG) || t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.UINT) || t.equals(types.ULONG) || t.equals(types.LONG) || t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 			//return t.equals(INT) || t.equals(UINT) || t.equals(LONG) || t.equals(ULONG) || t.equals(FLOAT) || t.equals(DOUBLE);
 		}
-		else if( this.equals(SHORT) )
+		else if( this.equals(types.SHORT) )
 		{
-			return t.equals(INT) || t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.INT) || t.equals(types.LONG) || t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 		}
-		else if( this.equals(INT) )
+		else if( this.equals(types.INT) )
 		{
-			return t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.LONG) || t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 		}
-		else if( this.equals(LONG))
+		else if( this.equals(types.LONG))
 		{
-			return t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 		}
-		else if( this.equals(FLOAT))
+		else if( this.equals(types.FLOAT))
 		{
-			return t.equals(DOUBLE);
+			return t.equals(types.DOUBLE);
 		}
-		else if( this.equals(UBYTE))
+		else if( this.equals(types.UBYTE))
 		{
-			return t.equals(CODE) || t.equals(USHORT) || t.equals(UINT) || t.equals(ULONG)  || t.equals(SHORT) || t.equals(INT) || t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.CODE) || t.equals(types.USHORT) || t.equals(types.UINT) || t.equals(types.ULONG)  || t.equals(types.SHORT) || t.equals(types.INT) || t.equals(types.LONG) || t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 		}		
-		else if( this.equals(UINT))
+		else if( this.equals(types.UINT))
 		{
-			return t.equals(CODE) || t.equals(ULONG) || t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.CODE) || t.equals(types.ULONG) || t.equals(types.LONG) || t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 			//return t.equals(ULONG) || t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
 		}
-		else if( this.equals(ULONG) )
+		else if( this.equals(types.ULONG) )
 		{
-			return t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 		}
-		else if( this.equals(USHORT) )
+		else if( this.equals(types.USHORT) )
 		{
-			return t.equals(CODE) || t.equals(UINT) || t.equals(ULONG)  || t.equals(INT) || t.equals(LONG) || t.equals(FLOAT) || t.equals(DOUBLE);
+			return t.equals(types.CODE) || t.equals(types.UINT) || t.equals(types.ULONG)  || t.equals(types.INT) || t.equals(types.LONG) || t.equals(types.FLOAT) || t.equals(types.DOUBLE);
 		}
 		else		
 			return false;
@@ -525,27 +436,28 @@ public abstract class Type implements Comparable<Type> {
 	public static int getWidth(ModifiedType type)
 	{
 		if (type.getModifiers().isNullable())
-			return OBJECT.getWidth(); // nullable makes a primitive type a reference
+			return standard().OBJECT.getWidth(); // nullable makes a primitive type a reference
 		return type.getType().getWidth();
 	}
 	public int getWidth()
 	{
+		StandardTypes types = standard();
 		if( this == NULL )
-			return OBJECT.getWidth();
-		if( this.equals(BYTE) || this.equals(UBYTE) || this.equals(BOOLEAN) )
+			return types.OBJECT.getWidth();
+		if( this.equals(types.BYTE) || this.equals(types.UBYTE) || this.equals(types.BOOLEAN) )
 			return 1;
-		else if( this.equals(SHORT) || this.equals(USHORT) )
+		else if( this.equals(types.SHORT) || this.equals(types.USHORT) )
 			return 2;
-		else if( this.equals(INT) || this.equals(UINT) || this.equals(CODE) || this.equals(FLOAT) )
+		else if( this.equals(types.INT) || this.equals(types.UINT) || this.equals(types.CODE) || this.equals(types.FLOAT) )
 			return 4;
-		else if( this.equals(LONG) || this.equals(ULONG) || this.equals(DOUBLE) )
+		else if( this.equals(types.LONG) || this.equals(types.ULONG) || this.equals(types.DOUBLE) )
 			return 8;
 
 		return 6; //for objects?  So that they're always considered between 4 and 8 bytes and not equal to any primitive?
 	}
 	public boolean isSimpleReference()
 	{
-		return getWidth() == OBJECT.getWidth();
+		return getWidth() == standard().OBJECT.getWidth();
 	}
 
 	@Override
@@ -554,7 +466,7 @@ public abstract class Type implements Comparable<Type> {
 	}
 
 	public boolean isString() {
-		return this.equals(Type.STRING);
+		return this.equals(Type.standard().STRING);
 	}
 
 	public boolean hasOuter() {
@@ -649,17 +561,18 @@ public abstract class Type implements Comparable<Type> {
 	 * @return The signed version of the type.
 	 */
 	public static ClassType makeSigned(ClassType type) {
-		if(type.equals(UBYTE))
-			return BYTE;
+		StandardTypes types = standard();
+		if(type.equals(types.UBYTE))
+			return types.BYTE;
 
-		if(type.equals(USHORT))
-			return SHORT;
+		if(type.equals(types.USHORT))
+			return types.SHORT;
 
-		if(type.equals(UINT))
-			return INT;
+		if(type.equals(types.UINT))
+			return types.INT;
 
-		if(type.equals(ULONG))
-			return LONG;
+		if(type.equals(types.ULONG))
+			return types.LONG;
 
 		return type;
 	}
@@ -667,68 +580,73 @@ public abstract class Type implements Comparable<Type> {
 	//for math
 	final public boolean isNumerical()
 	{
-		return isPrimitive() && !this.equals(BOOLEAN); //includes CODE, is that right?
+		return isPrimitive() && !this.equals(standard().BOOLEAN); //includes CODE, is that right?
 	}
 
 	//for cases where integers are required (bitwise operations, array bounds, switch statements, etc.)
 	final public boolean isIntegral()
 	{
+		StandardTypes types = standard();
 		return
-				this.equals(BYTE) ||
-				this.equals(CODE) ||
-				this.equals(SHORT) ||
-				this.equals(INT) ||
-				this.equals(LONG) ||
-				this.equals(UBYTE) ||
-				this.equals(UINT) ||
-				this.equals(ULONG) ||
-				this.equals(USHORT);
+				this.equals(types.BYTE) ||
+				this.equals(types.CODE) ||
+				this.equals(types.SHORT) ||
+				this.equals(types.INT) ||
+				this.equals(types.LONG) ||
+				this.equals(types.UBYTE) ||
+				this.equals(types.UINT) ||
+				this.equals(types.ULONG) ||
+				this.equals(types.USHORT);
 	}
 
 
 	final public boolean isFloating()
 	{
+		StandardTypes types = standard();
 		return
-				this.equals(FLOAT) ||
-				this.equals(DOUBLE);
+				this.equals(types.FLOAT) ||
+				this.equals(types.DOUBLE);
 	}	
 
 	final public boolean isPrimitive()
 	{
+		StandardTypes types = standard();
 		return
-				this.equals(BOOLEAN) ||
-				this.equals(BYTE) ||
-				this.equals(CODE) ||
-				this.equals(SHORT) ||
-				this.equals(INT) ||
-				this.equals(LONG) ||
-				this.equals(FLOAT) ||
-				this.equals(DOUBLE) ||
-				this.equals(UBYTE) ||
-				this.equals(UINT) ||
-				this.equals(ULONG) ||
-				this.equals(USHORT);
+				this.equals(types.BOOLEAN) ||
+				this.equals(types.BYTE) ||
+				this.equals(types.CODE) ||
+				this.equals(types.SHORT) ||
+				this.equals(types.INT) ||
+				this.equals(types.LONG) ||
+				this.equals(types.FLOAT) ||
+				this.equals(types.DOUBLE) ||
+				this.equals(types.UBYTE) ||
+				this.equals(types.UINT) ||
+				this.equals(types.ULONG) ||
+				this.equals(types.USHORT);
 	}
 
 	final public boolean isSigned()
 	{
+		StandardTypes types = standard();
 		return
-				this.equals(BOOLEAN) ||
-				this.equals(BYTE) ||
+				this.equals(types.BOOLEAN) ||
+				this.equals(types.BYTE) ||
 				//this.equals(CODE) ||
-				this.equals(SHORT) ||
-				this.equals(INT) ||
-				this.equals(LONG);
+				this.equals(types.SHORT) ||
+				this.equals(types.INT) ||
+				this.equals(types.LONG);
 	}
 
 	final public boolean isUnsigned()
 	{
+		StandardTypes types = standard();
 		return
-				this.equals(UBYTE) ||
-				this.equals(USHORT) ||
-				this.equals(CODE) || //right?
-				this.equals(UINT) ||
-				this.equals(ULONG);
+				this.equals(types.UBYTE) ||
+				this.equals(types.USHORT) ||
+				this.equals(types.CODE) || //right?
+				this.equals(types.UINT) ||
+				this.equals(types.ULONG);
 	}
 
 	final public boolean isImmutable() {
@@ -760,7 +678,7 @@ public abstract class Type implements Comparable<Type> {
 		else if( assignmentType.equals(AssignmentKind.CAT) ) {
 			accepts = isString();
 			if( !accepts )
-				ErrorReporter.addError(errors, Error.INVALID_ASSIGNMENT, "Type " + this + " is not type " + Type.STRING, this);
+				ErrorReporter.addError(errors, Error.INVALID_ASSIGNMENT, "Type " + this + " is not type " + Type.standard().STRING, this);
 
 			return accepts;
 		}
@@ -770,11 +688,11 @@ public abstract class Type implements Comparable<Type> {
 		String operator = assignmentType.getOperator();
 
 		switch( assignmentType  ) {	
-		case PLUS: interfaceType = Type.CAN_ADD; break;
-		case MINUS: interfaceType = Type.CAN_SUBTRACT; break;
-		case STAR: interfaceType = Type.CAN_MULTIPLY; break;
-		case SLASH: interfaceType = Type.CAN_DIVIDE; break;
-		case MOD: interfaceType = Type.CAN_MODULUS; break;
+		case PLUS: interfaceType = Type.standard().CAN_ADD; break;
+		case MINUS: interfaceType = Type.standard().CAN_SUBTRACT; break;
+		case STAR: interfaceType = Type.standard().CAN_MULTIPLY; break;
+		case SLASH: interfaceType = Type.standard().CAN_DIVIDE; break;
+		case MOD: interfaceType = Type.standard().CAN_MODULUS; break;
 		case AND:
 		case OR:
 		case XOR:
@@ -782,7 +700,7 @@ public abstract class Type implements Comparable<Type> {
 		case RIGHT_SHIFT:
 		case LEFT_ROTATE:
 		case RIGHT_ROTATE:
-			interfaceType = Type.INTEGER;
+			interfaceType = Type.standard().INTEGER;
 			break;
 		default:
 			return false;
@@ -910,6 +828,15 @@ public abstract class Type implements Comparable<Type> {
 	}	
 
 	public static String mangle(String name) {
+		// Most names need no escaping, so avoid building a copy of them
+		boolean plain = true;
+		for (int i = 0; plain && i < name.length(); i++) {
+			char c = name.charAt(i);
+			plain = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+		}
+		if (plain)
+			return name;
+
 		StringBuilder sb = new StringBuilder();
 
 		for (char c : name.toCharArray()) {			
@@ -1145,7 +1072,7 @@ public abstract class Type implements Comparable<Type> {
 				list.add(signature);		
 	}
 
-	private Map<MethodSignature, Integer> methodIndexCache;
+	private volatile Map<MethodSignature, Integer> methodIndexCache;
 
 	public int getMethodIndex( MethodSignature method )
 	{
@@ -1374,7 +1301,7 @@ public abstract class Type implements Comparable<Type> {
 
 				usedTypes.add(type);
 
-				// Covers Type.ARRAY and all recursive base types
+				// Covers Type.standard().ARRAY and all recursive base types
 				// automatically does the right thing for NullableArray
 				// must do before adding to usedTypes
 				addUsedType(arrayType.convertToGeneric());
@@ -1617,14 +1544,7 @@ public abstract class Type implements Comparable<Type> {
 		this.documentation = documentation;
 	}
 
-	private static SequenceType exceptionType = null;
-
 	public static SequenceType getExceptionType() {
-		if(exceptionType == null ) {
-			exceptionType = new SequenceType();
-			exceptionType.add(new SimpleModifiedType(new PointerType()));
-			exceptionType.add(new SimpleModifiedType(Type.INT));
-		}
-		return exceptionType;
+		return standard().getExceptionType();
 	}
 }
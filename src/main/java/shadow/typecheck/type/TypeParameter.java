@@ -12,7 +12,7 @@ public class TypeParameter extends Type {
 	
 	public TypeParameter(String typeName, Type outer) {
 		super(typeName, new Modifiers(), null, outer);
-		classBound = Type.OBJECT;
+		classBound = Type.standard().OBJECT;
 	}
 	
 	public void addBound(Type type) {		
@@ -59,7 +59,7 @@ public class TypeParameter extends Type {
 	}
 	
 	public boolean isSubtype(Type type) {		
-		if( equals(type) || type == Type.OBJECT )
+		if( equals(type) || type == Type.standard().OBJECT )
 			return true;
 		
 		//one type parameter is a subtype of another only if they're identical
@@ -144,7 +144,7 @@ public class TypeParameter extends Type {
 				boolean first = true;		
 				List<InterfaceType> interfaces = getInterfaces();
 				
-				if( classBound != Type.OBJECT ) {
+				if( classBound != Type.standard().OBJECT ) {
 					builder.append(" is ");
 					builder.append(classBound.toString(options & ~PARAMETER_BOUNDS));
 					first = false;
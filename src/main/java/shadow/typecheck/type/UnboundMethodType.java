@@ -16,11 +16,11 @@ public class UnboundMethodType extends ClassType {
 	public UnboundMethodType(String typeName, Type outer, Modifiers modifiers, 
 			Documentation documentation) {
 		super(typeName, modifiers, documentation, outer);
-		setExtendType(Type.OBJECT); // change to UnboundMethod if reinstated?
+		setExtendType(Type.standard().OBJECT); // change to UnboundMethod if reinstated?
 	}
 	
 	public boolean isSubtype(Type t) {
-		if( equals(t) || t == Type.OBJECT )
+		if( equals(t) || t == Type.standard().OBJECT )
 			return true;
 		
 		if( t instanceof MethodType ) {
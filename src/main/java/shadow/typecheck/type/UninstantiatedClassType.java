@@ -60,21 +60,24 @@ public class UninstantiatedClassType extends ClassType implements Uninstantiated
 	
 	@Override
 	public ClassType instantiate() throws InstantiationException {		
-		for( ModifiedType argument : typeArguments ) {			
-			if( argument.getType() instanceof UninstantiatedType ) {
-				UninstantiatedType uninstantiatedArgument = (UninstantiatedType) argument.getType();
-				argument.setType(uninstantiatedArgument.instantiate());
-			}
-			else if( argument.getType() instanceof ArrayType ) {
-				ArrayType arrayArgument = (ArrayType) argument.getType();
-				argument.setType(arrayArgument.instantiate());
+		// Type arguments are updated in place, so only one thread may instantiate at a time
+		synchronized( getInstantiationLock() ) {
+			for( ModifiedType argument : typeArguments ) {			
+				if( argument.getType() instanceof UninstantiatedType ) {
+					UninstantiatedType uninstantiatedArgument = (UninstantiatedType) argument.getType();
+					argument.setType(uninstantiatedArgument.instantiate());
+				}
+				else if( argument.getType() instanceof ArrayType ) {
+					ArrayType arrayArgument = (ArrayType) argument.getType();
+					argument.setType(arrayArgument.instantiate());
+				}
 			}
-		}
 		
-		if( !type.getTypeParameters().canAccept(typeArguments, SubstitutionKind.TYPE_PARAMETER) )
-			throw new InstantiationException( "Supplied type arguments " + typeArguments + " do not match type parameters " + type.getTypeParameters(), context);
+			if( !type.getTypeParameters().canAccept(typeArguments, SubstitutionKind.TYPE_PARAMETER) )
+				throw new InstantiationException( "Supplied type arguments " + typeArguments + " do not match type parameters " + type.getTypeParameters(), context);
 		
-		return type.replace(type.getTypeParameters(), typeArguments);
+			return type.replace(type.getTypeParameters(), typeArguments);
+		}
 	}
 	
 	@Override
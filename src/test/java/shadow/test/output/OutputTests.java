@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -12,6 +13,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -136,6 +139,41 @@ public class OutputTests {
 		return String.join("\n", elements) + "\n";
 	}
 	
+	/*
+	 * Compiles a file with human-readable LLVM output and returns that LLVM,
+	 * so that tests of optimizations can check the code that was generated.
+	 * The .ll file is removed afterward.
+	 */
+	private String compileToLLVM(String file) throws Exception {
+		args.add("-r");
+		args.add(file);
+		Main.run(args.toArray(new String[] { }));
+		
+		Path llvmFile = Paths.get(file.substring(0, file.lastIndexOf('.')) + ".ll");
+		try {
+			return new String(Files.readAllBytes(llvmFile), StandardCharsets.UTF_8);
+		}
+		finally {
+			Files.deleteIfExists(llvmFile);
+		}
+	}
+	
+	// Gets the definition of the LLVM function with the given name
+	private static String getFunction(String llvm, String name) {
+		Matcher matcher = Pattern.compile("^define [^\n]*@" + Pattern.quote(name) + "\\(.*?^\\}",
+				Pattern.MULTILINE | Pattern.DOTALL).matcher(llvm);
+		Assertions.assertTrue(matcher.find(), "No definition of " + name);
+		return matcher.group();
+	}
+	
+	private static int count(String text, String regex) {
+		Matcher matcher = Pattern.compile(regex).matcher(text);
+		int count = 0;
+		while( matcher.find() )
+			count++;
+		return count;
+	}
+	
 	@Test public void testAbstract() throws Exception {
 		args.add("shadow/test/AbstractTest.shadow");
 		Main.run(args.toArray(new String[] { }));
@@ -146,6 +184,19 @@ public class OutputTests {
 	}
 	
 	
+	@Test public void testParallelJobs() throws Exception {
+		// Recompile everything so that opt runs for every module
+		args.add("-f");
+		args.add("-j");
+		args.add("4");
+		args.add("shadow/test/AbstractTest.shadow");
+		Main.run(args.toArray(new String[] { }));
+		run(new String[0],
+			"Your offer is accepted! The motorcycle is yours!\n" + 
+			"Buckle up!\n" + 
+			"Your motorcycle is going 75 mph!\n");
+	}
+	
 	@Test public void testAddressMap() throws Exception {
 		args.add("shadow/test/AddressMapTest.shadow");
 		Main.run(args.toArray(new String[] { }));
@@ -1015,6 +1066,207 @@ public class OutputTests {
 				"5\n");
 	}
 	
+	@Test public void testManyVariables() throws Exception {
+		String main = getFunction(compileToLLVM("shadow/test/ManyVariablesTest.shadow"),
+				"shadow.test..ManyVariablesTest_Mmain_shadow.standard..String_A");
+		run(new String[0], formatOutputString(
+				"1", "-10", "99", "60", "-144", "6", "77", "19", "87", "90", "271", "260"));
+		
+		// Locals live in SSA values joined by phi nodes instead of on the stack,
+		// and phi nodes are only placed where their values are used
+		Assertions.assertEquals(0, count(main, "%(v|j)\\d+ = alloca"));
+		Matcher phi = Pattern.compile("(%[\\w.]+) = phi ").matcher(main);
+		int phis = 0;
+		while( phi.find() ) {
+			phis++;
+			Assertions.assertTrue(count(main, Pattern.quote(phi.group(1)) + "\\b") > 1, "Unused " + phi.group());
+		}
+		Assertions.assertTrue(phis > 0);
+	}
+	
+	@Test public void testConstantLoop() throws Exception {
+		String main = getFunction(compileToLLVM("shadow/test/ConstantLoopTest.shadow"),
+				"shadow.test..ConstantLoopTest_Mmain_shadow.standard..String_A");
+		run(new String[0], formatOutputString("1", "5", "3", "4", "true"));
+		
+		// flag and limit stay constant around their loops, so they are folded away
+		Assertions.assertEquals(0, count(main, "%flag\\b"));
+		Assertions.assertEquals(0, count(main, "%limit\\b"));
+		Assertions.assertEquals(1, count(main, "icmp slt %int %steps\\.\\d+, 3\\b"));
+		// but a value that could be 0.0 or -0.0 is not
+		Assertions.assertEquals(1, count(main, "fdiv %double 0x3ff0000000000000, %zero\\."));
+	}
+	
+	@Test public void testStackArray() throws Exception {
+		String llvm = compileToLLVM("shadow/test/StackArrayTest.shadow");
+		run(new String[0], formatOutputString("108", "7", "0", "stack heap"));
+		
+		String sum = getFunction(llvm, "shadow.test..StackArrayTest_Msum_int");
+		Assertions.assertEquals(1, count(sum, "alloca \\{ %shadow\\.standard\\.\\.Array, \\[8 x %int\\] \\}"));
+		Assertions.assertEquals(0, count(sum, "@__allocateArray\\("));
+		
+		// Returned arrays and arrays of objects are still allocated on the heap
+		String make = getFunction(llvm, "shadow.test..StackArrayTest_Mmake");
+		Assertions.assertEquals(1, count(make, "@__allocateArray\\([^\\n]*@int_A_class, %long 4\\b"));
+		String main = getFunction(llvm, "shadow.test..StackArrayTest_Mmain_shadow.standard..String_A");
+		Assertions.assertEquals(1, count(main, "@__allocateArray\\("));
+		Assertions.assertEquals(1, count(main, "@__allocateArray\\([^\\n]*@shadow\\.standard\\.\\.String_A_class"));
+	}
+	
+	@Test public void testDevirtualization() throws Exception {
+		String main = getFunction(compileToLLVM("shadow/test/DevirtualizationTest.shadow"),
+				"shadow.test..DevirtualizationTest_Mmain_shadow.standard..String_A");
+		run(new String[0], formatOutputString("shape with 3 sides", "3", "square with 4 sides", "square", "square", "2"));
+		
+		// describe() has a single implementation, so it is called directly
+		Assertions.assertEquals(2, count(main, "invoke [^\\n]*@shadow\\.test\\.\\.DevirtualizationTest\\.Shape_Mdescribe\\("));
+		// label() is overridden, so only its two calls go through the method table
+		Assertions.assertEquals(2, count(main, "load %shadow\\.test\\.\\.DevirtualizationTest\\.Shape_methods\\*,"));
+		// Counter is created in main, so its methods are not looked up either
+		Assertions.assertEquals(0, count(main, "load %shadow\\.test\\.\\.DevirtualizationTest\\.Counter_methods\\*,"));
+	}
+	
+	@Test public void testInline() throws Exception {
+		String main = getFunction(compileToLLVM("shadow/test/InlineTest.shadow"),
+				"shadow.test..InlineTest_Mmain_shadow.standard..String_A");
+		run(new String[0], formatOutputString("3", "25", "24", "12", "208"));
+		
+		// Every method of Point except its constructor is copied into main
+		for( String method : new String[] { "x", "x_int", "length", "area", "scale_int" } )
+			Assertions.assertEquals(0, count(main, "@shadow\\.test\\.\\.InlineTest\\.Point_M" + method + "\\("), method);
+		Assertions.assertEquals(1, count(main, "@shadow\\.test\\.\\.InlineTest\\.Point_Mcreate_int_int\\("));
+		// with the multiplications from length() and area()
+		Assertions.assertTrue(count(main, "= mul %int ") > 0);
+		Assertions.assertTrue(count(main, "= mul %long ") > 0);
+	}
+	
+	@Test public void testBoundsCheck() throws Exception {
+		String llvm = compileToLLVM("shadow/test/BoundsCheckTest.shadow");
+		run(new String[0], formatOutputString(
+				"30",
+				"16",
+				"[0, 16, 4, 9, 1]",
+				"shadow:standard@IndexOutOfBoundsException: Index 3",
+				"shadow:standard@IndexOutOfBoundsException: Index 5",
+				"shadow:standard@IndexOutOfBoundsException: Index -1",
+				"shadow:standard@IndexOutOfBoundsException: Index 5"));
+		
+		// Counts the failed bounds checks left in each method, which throw a new exception
+		String[] methods = { "main", "sum_int_A", "swap_int_A_int_int", "transfer_int_A_int_A", "fill_int_A", "shift_int_A" };
+		int[] checks = { 0, 0, 2, 1, 1, 1 };
+		for( int i = 0; i < methods.length; ++i ) {
+			String method = getFunction(llvm, "shadow.test..BoundsCheckTest_M" + methods[i]);
+			Assertions.assertEquals(checks[i], count(method, "@__allocate\\([^\\n]*@shadow\\.standard\\.\\.IndexOutOfBoundsException_class"), methods[i]);
+		}
+	}
+	
+	@Test public void testNullCheck() throws Exception {
+		String llvm = compileToLLVM("shadow/test/NullCheckTest.shadow");
+		run(new String[0], formatOutputString(
+				"6",
+				"0",
+				"shadow",
+				"12",
+				"shadow",
+				"missing",
+				"false",
+				"shadow:standard@UnexpectedNullException"));
+		
+		// Failed checks throw a new exception. Only the loop condition in sum()
+		// compares with null, length() checks text once, and main never checks
+		// values it created
+		String failure = "@__allocate\\([^\\n]*@shadow\\.standard\\.\\.UnexpectedNullException_class";
+		String sum = getFunction(llvm, "shadow.test..NullCheckTest_Msum_shadow.test..NullCheckTest.Node");
+		Assertions.assertEquals(0, count(sum, failure));
+		Assertions.assertEquals(1, count(sum, "icmp eq [^\\n]*, null"));
+		Assertions.assertEquals(1, count(getFunction(llvm, "shadow.test..NullCheckTest_Mlength_shadow.standard..String"), failure));
+		Assertions.assertEquals(0, count(getFunction(llvm, "shadow.test..NullCheckTest_Mmain"), failure));
+	}
+	
+	@Test public void testSubtype() throws Exception {
+		String llvm = compileToLLVM("shadow/test/SubtypeTest.shadow");
+		run(new String[0], formatOutputString(
+				"Animal ",
+				"Animal Dog ",
+				"Animal Dog Puppy ",
+				"Box<String> ",
+				"Box<String> Crate<String> ",
+				"Box<int> ",
+				"Exception ",
+				"",
+				"Cast to shadow:test@SubtypeTest:Dog",
+				"shadow:standard@CastException: Type shadow:test@SubtypeTest:Dog is not a subtype of shadow:test@SubtypeTest:Puppy",
+				"Caught IndexOutOfBoundsException",
+				"Caught CastException",
+				"Caught Exception"));
+		
+		// Each class lists the classes it extends, from the root down to itself
+		StringBuilder superclasses = new StringBuilder();
+		for( String name : new String[] { "standard..Object", "test..SubtypeTest.Animal", "test..SubtypeTest.Dog", "test..SubtypeTest.Puppy" } )
+			superclasses.append(superclasses.length() == 0 ? "" : ", ").append("%shadow.standard..Class* @shadow.").append(name).append("_class");
+		Matcher puppy = Pattern.compile("^@_superclassesshadow\\.test\\.\\.SubtypeTest\\.Puppy = .*$", Pattern.MULTILINE).matcher(llvm);
+		Assertions.assertTrue(puppy.find());
+		Assertions.assertTrue(puppy.group().contains("[4 x %shadow.standard..Class*] [" + superclasses + "]"));
+	}
+	
+	@Test public void testInterfaceLookup() throws Exception {
+		String main = getFunction(compileToLLVM("shadow/test/InterfaceLookupTest.shadow"),
+				"shadow.test..InterfaceLookupTest_Mmain");
+		run(new String[0], formatOutputString(
+				"10",
+				"30",
+				"4",
+				"105",
+				"4",
+				"shadow:standard@CastException: Class shadow:test@InterfaceLookupTest:Counter does not implement interface shadow:standard@CanEqual<shadow:test@InterfaceLookupTest:Counter>"));
+		
+		// Conversions from Counter pass the position of the interface in Counter
+		String lookup = "@shadow\\.standard\\.\\.Class_MinterfaceData_shadow\\.standard\\.\\.Class";
+		Assertions.assertEquals(4, count(main, lookup + "_int\\("));
+		Assertions.assertEquals(2, count(main, lookup + "_int\\([^\\n]*@shadow\\.standard\\.\\.CanHash_class, %int 2\\)"));
+		// Casts from Object still search the interfaces of the class
+		Assertions.assertEquals(2, count(main, lookup + "\\("));
+	}
+	
+	@Test public void testSwitchTable() throws Exception {
+		String llvm = compileToLLVM("shadow/test/SwitchTableTest.shadow");
+		run(new String[0], formatOutputString(
+				"-1 other",
+				"0 zero",
+				"1 small",
+				"2 small",
+				"3 three",
+				"4 medium",
+				"5 medium",
+				"6 medium",
+				"7 other",
+				"zero",
+				"seven",
+				"large",
+				"large",
+				"none",
+				"1120",
+				"off full partial",
+				"first",
+				"second",
+				"unknown",
+				"third",
+				"third",
+				"empty",
+				"unknown",
+				"two"));
+		
+		// Each switch is a single LLVM switch instead of a chain of comparisons,
+		// with strings switching on their hash
+		String[] methods = { "dense_int", "sparse_long", "letter_code", "flag_ubyte", "word_shadow.standard..String" };
+		String[] types = { "int", "long", "code", "ubyte", "ulong" };
+		for( int i = 0; i < methods.length; ++i ) {
+			String method = getFunction(llvm, "shadow.test..SwitchTableTest_M" + methods[i]);
+			Assertions.assertEquals(1, count(method, "switch %" + types[i] + " "), methods[i]);
+			Assertions.assertEquals(0, count(method, "= icmp "), methods[i]);
+		}
+	}
+	
 	@Test public void testMatrix() throws Exception {
 		args.add("shadow/test/MatrixTest.shadow");
 		Main.run(args.toArray(new String[] { }));
@@ -1422,6 +1674,31 @@ public class OutputTests {
 				"A\n");
 	}
 	
+	@Test public void testBorrowedReference() throws Exception {
+		String llvm = compileToLLVM("shadow/test/BorrowedReferenceTest.shadow");
+		run(new String[0],
+				"Chosen: A\n" +
+				"No other\n" +
+				"Chosen: B\n" +
+				"Other: A\n" +
+				"Current: C\n" +
+				"C\n" +
+				"Current: A\n" +
+				"Kept: B\n" +
+				"A\n" +
+				"B\n");
+		
+		// Locals that only borrow their parameters are neither counted nor cleaned up
+		String pick = getFunction(llvm, "shadow.test..BorrowedReferenceTest_Mpick_shadow.test..NoisyDestroy_shadow.test..NoisyDestroy_boolean");
+		Assertions.assertEquals(0, count(pick, "@__incrementRef\\("));
+		Assertions.assertEquals(0, count(pick, "localescape\\([^\\n]*%(chosen|other)\\b"));
+		
+		// A local that can also hold a new object is both
+		String replace = getFunction(llvm, "shadow.test..BorrowedReferenceTest_Mreplace_shadow.test..NoisyDestroy_boolean");
+		Assertions.assertTrue(count(replace, "@__incrementRef\\(") > 0);
+		Assertions.assertEquals(1, count(replace, "localescape\\([^\\n]*%current\\b"));
+	}
+	
 	@Test public void testPath() throws Exception {
 		args.add("shadow/test/PathTest.shadow");
 		
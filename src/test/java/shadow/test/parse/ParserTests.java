@@ -3,8 +3,25 @@ package shadow.test.parse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import shadow.Main;
+import shadow.parse.InterfaceFile;
+import shadow.parse.ParseChecker;
+import shadow.parse.ShadowParser;
+import shadow.parse.ShadowParser.CompilationUnitContext;
+import shadow.typecheck.ErrorReporter;
+import shadow.Loggers;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class ParserTests {
 
@@ -31,4 +48,53 @@ public class ParserTests {
         Main.run(args.toArray(new String[] { }));
     }
 
+    @Test
+    public void testInterfaceFile() throws Exception {
+        args.add("tests/parser/attributes/Attributes.shadow");
+        Main.run(args.toArray(new String[] { }));
+
+        // Reading the .meta files again produces interface files for them
+        Main.run(args.toArray(new String[] { }));
+
+        List<String> rules = Arrays.asList(ShadowParser.ruleNames);
+        for( String name : new String[] { "shadow/standard/String.meta", "shadow/standard/Long.meta", "shadow/standard/Array.meta" } ) {
+            Path meta = Paths.get(name);
+            CompilationUnitContext loaded = InterfaceFile.read(meta);
+            assertNotNull(loaded, "No interface file for " + name);
+
+            String source = new String(Files.readAllBytes(meta), StandardCharsets.UTF_8);
+            CompilationUnitContext parsed = new ParseChecker(new ErrorReporter(Loggers.PARSER)).getCompilationUnit(source, meta);
+            assertEquals(parsed.toStringTree(rules), loaded.toStringTree(rules));
+            assertEquals(meta.toAbsolutePath(), loaded.getPath());
+            assertEquals(parsed.classOrInterfaceDeclaration().getModifiers().getModifiers(),
+                    loaded.classOrInterfaceDeclaration().getModifiers().getModifiers());
+        }
+    }
+
+    @Test
+    public void testInterfaceFileLayout() throws Exception {
+        args.add("tests/parser/attributes/Attributes.shadow");
+        Main.run(args.toArray(new String[] { }));
+        Main.run(args.toArray(new String[] { }));
+
+        // Work on copies, so the interface files of the standard library stay intact
+        Path directory = Files.createTempDirectory("interface");
+        Path meta = directory.resolve("String.meta");
+        Files.copy(Paths.get("shadow/standard/String.meta"), meta);
+        Files.copy(InterfaceFile.getPath(Paths.get("shadow/standard/String.meta")), InterfaceFile.getPath(meta));
+        byte[] bytes = Files.readAllBytes(InterfaceFile.getPath(meta));
+        assertNotNull(InterfaceFile.read(meta));
+
+        // Files written with a different grammar or context classes are ignored
+        int layout = 16 + Main.VERSION.getBytes(StandardCharsets.UTF_8).length;
+        byte[] otherLayout = bytes.clone();
+        otherLayout[layout] = (byte) (otherLayout[layout] == '0' ? '1' : '0');
+        Files.write(InterfaceFile.getPath(meta), otherLayout);
+        assertNull(InterfaceFile.read(meta));
+
+        // A file with the current layout that cannot be rebuilt is an error
+        Files.write(InterfaceFile.getPath(meta), Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IllegalStateException.class, () -> InterfaceFile.read(meta));
+    }
+
 }
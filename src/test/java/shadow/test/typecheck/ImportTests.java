@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 
 import shadow.Loggers;
 import shadow.Main;
+import shadow.Session;
 import shadow.typecheck.ErrorReporter;
 import shadow.typecheck.Package;
 import shadow.typecheck.TypeCollector;
@@ -76,7 +77,7 @@ public class ImportTests {
 		Path path = Paths.get(file);
 		Package p = new Package();		
 		ErrorReporter reporter = new ErrorReporter(Loggers.TYPE_CHECKER);
-		TypeCollector collector = new TypeCollector(p, reporter, false, true);
+		TypeCollector collector = new TypeCollector(Session.current(), p, reporter, false, true);
 		collector.collectTypes(path);
 		Type testType = collector.getMainType();
 		reporter.printAndReportErrors();
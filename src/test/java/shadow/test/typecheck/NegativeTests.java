@@ -595,4 +595,12 @@ public class NegativeTests {
 		args.add("tests-negative/import/inner-class-import-not-accessible/testing/Test.shadow");
 		enforce(Error.ILLEGAL_ACCESS);		
 	}
+	
+	@Test public void testParallelStatementChecking() throws Exception {
+		// Errors found by parallel statement checkers are still reported
+		args.add("-j");
+		args.add("4");
+		args.add("tests-negative/typechecker/break-outside-loop/Test.shadow");
+		enforce(Error.INVALID_STRUCTURE);
+	}
 }
@@ -1,11 +1,19 @@
 package shadow.test.typecheck;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import shadow.CompilerServer;
 import shadow.Main;
 
 public class TypeCheckerTests {
@@ -316,4 +324,66 @@ public class TypeCheckerTests {
 		args.add("tests/compile/AwkwardBreaks.shadow");
 		Main.run(args.toArray(new String[] { }));
 	}
+	
+	@Test public void testServer() throws Exception {
+		// Each line is compiled separately, reporting its result code
+		String commands = String.join(" ", args) + " tests/compile/Array.shadow\n" +
+				String.join(" ", args) + " tests/compile/DoesNotExist.shadow\n" +
+				CompilerServer.EXIT + "\n";
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new CompilerServer(new ByteArrayInputStream(commands.getBytes()), new PrintStream(output)).serve();
+		Assertions.assertEquals(
+				CompilerServer.DONE + " " + Main.NO_ERROR + System.lineSeparator() +
+				CompilerServer.DONE + " " + Main.FILE_NOT_FOUND_ERROR + System.lineSeparator(),
+				output.toString());
+	}
+	
+	@Test public void testParallelParsing() throws Exception {
+		// Parses every file from source, several at a time
+		args.add("-f");
+		args.add("-j");
+		args.add("4");
+		args.add("tests/compile/Array.shadow");
+		Main.run(args.toArray(new String[] { }));
+	}
+
+	@Test public void testConcurrentCompilations() throws Exception {
+		// Each compilation has its own session, so their types never mix
+		String[] files = { "tests/compile/Array.shadow", "tests/compile/GenericInterface.shadow" };
+		int[] results = new int[files.length];
+		Thread[] threads = new Thread[files.length];
+		for( int i = 0; i < files.length; ++i ) {
+			ArrayList<String> arguments = new ArrayList<>(args);
+			arguments.add(files[i]);
+			int index = i;
+			threads[i] = new Thread(() -> results[index] = Main.compile(arguments.toArray(new String[] { })));
+			threads[i].start();
+		}
+
+		for( int i = 0; i < files.length; ++i ) {
+			threads[i].join();
+			Assertions.assertEquals(Main.NO_ERROR, results[i], files[i]);
+		}
+	}
+
+	@Test public void testProfile() throws Exception {
+		// Phase timings are written as a Chrome trace
+		Path profile = Files.createTempFile("profile", ".json");
+		try {
+			args.add("--profile");
+			args.add(profile.toString());
+			args.add("tests/compile/Array.shadow");
+			Main.run(args.toArray(new String[] { }));
+
+			String trace = new String(Files.readAllBytes(profile), StandardCharsets.UTF_8);
+			Assertions.assertTrue(trace.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+			Assertions.assertTrue(trace.contains("\"name\":\"parse\""));
+			Assertions.assertTrue(trace.contains("\"name\":\"statement check\""));
+			Assertions.assertTrue(trace.contains("\"name\":\"CFG optimization\""));
+			Assertions.assertTrue(trace.contains("Array.shadow"));
+		}
+		finally {
+			Files.deleteIfExists(profile);
+		}
+	}
 }